@@ -71,16 +71,12 @@ public class BlockHandler implements HttpHandler {
 
     // Helper method to find block by hash
     private Block findBlockByHash(String blockHash) {
-        // Placeholder method - implement actual block lookup by hash
-        // You'll need to add this method to your Blockchain class
-        return null;
+        return blockchain.getBlockByHash(blockHash);
     }
 
     // Helper method to get block by height
     private Block getBlockByHeight(int height) {
-        // Placeholder method - implement actual block retrieval by height
-        // This might use a method like getBlockAtHeight() or similar
-        return null;
+        return blockchain.getBlockByHeight(height);
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
@@ -44,8 +44,7 @@ public class TransactionHandler implements HttpHandler {
     }
 
     private Transaction findTransaction(String txHash) {
-        // Placeholder method - implement actual transaction lookup logic
-        return null;
+        return blockchain.getTransactionByHash(txHash);
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
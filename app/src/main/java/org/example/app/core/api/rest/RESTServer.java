@@ -7,12 +7,14 @@ import org.example.app.core.api.handlers.LatestBlockHandler;
 import org.example.app.core.api.handlers.TransactionHandler;
 import org.example.app.core.api.handlers.PendingTransactionHandler;
 import org.example.app.core.api.handlers.AccountHandler;
+import org.example.app.core.internal.ExecutorRegistry;
 
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
 
 public class RESTServer {
     private final HttpServer server;
+    private final ExecutorService executor;
     private final Blockchain blockchain;
     private final int port;
 
@@ -20,7 +22,9 @@ public class RESTServer {
         this.port = port;
         this.blockchain = blockchain;
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
-        this.server.setExecutor(Executors.newFixedThreadPool(10));
+        // Handlers run on the node's shared executor model (virtual threads when enabled)
+        this.executor = ExecutorRegistry.shared().newExecutor(ExecutorRegistry.REST, "rest-handler-");
+        this.server.setExecutor(executor);
         setupEndpoints();
     }
 
@@ -44,6 +48,7 @@ public class RESTServer {
 
     public void stop() {
         server.stop(0);
+        executor.shutdown();
         System.out.println("REST Server stopped");
     }
 
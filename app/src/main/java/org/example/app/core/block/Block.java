@@ -1,9 +1,23 @@
 package org.example.app.core.block;
 
+import org.example.app.core.crypto.MerkleTree;
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
 
 public class Block {
+    // Binary encoding: version, header fields, state root, then length-prefixed transactions
+    static final int BINARY_VERSION = 1;
+
+    // Per-thread scratch buffers so sizing and encoding do not allocate per call
+    private static final ThreadLocal<BinaryWriter> BLOCK_SCRATCH =
+            ThreadLocal.withInitial(() -> new BinaryWriter(4096));
+    private static final ThreadLocal<BinaryWriter> TX_SCRATCH =
+            ThreadLocal.withInitial(BinaryWriter::new);
+
     private String hash;
     private String parentHash;
     private String miner;
@@ -26,8 +40,79 @@ public class Block {
         this.stateRoot = null;
     }
 
+    /**
+     * Decodes a block from its canonical encoding. Header fields are decoded immediately;
+     * transactions are decoded on first access through a {@link BlockView}.
+     *
+     * @param blockData The bytes produced by {@link #serialize()}.
+     * @return The block.
+     * @throws IllegalArgumentException if blockData is null, empty or malformed
+     */
     public static Block deserialize(byte[] blockData) {
-        return null;
+        return BlockView.wrap(blockData).toBlock();
+    }
+
+    /**
+     * Writes this block in the compact binary encoding. Each transaction is length-prefixed
+     * so readers can skip transactions without decoding them.
+     *
+     * @param writer The writer to append to.
+     */
+    public void writeTo(BinaryWriter writer) {
+        writer.writeByte(BINARY_VERSION);
+        writer.writeString(hash);
+        writer.writeString(parentHash);
+        writer.writeString(miner);
+        writer.writeSignedVarLong(timestamp);
+        writer.writeSignedVarLong(difficulty);
+        writer.writeSignedVarLong(number);
+        writer.writeNullableBytes(stateRoot);
+
+        if (transactions == null) {
+            writer.writeVarInt(0);
+            return;
+        }
+        writer.writeVarLong(transactions.size() + 1L);
+        BinaryWriter txWriter = TX_SCRATCH.get();
+        for (Transaction tx : transactions) {
+            tx.writeTo(txWriter.reset());
+            writer.writeBytes(txWriter);
+        }
+    }
+
+    /**
+     * Reads a block written by {@link #writeTo(BinaryWriter)}.
+     *
+     * @param reader The reader positioned at the block.
+     * @return The decoded block.
+     * @throws IllegalArgumentException if the input is malformed
+     */
+    public static Block readFrom(BinaryReader reader) {
+        int version = reader.readByte();
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported block encoding version: " + version);
+        }
+
+        String hash = reader.readString();
+        String parentHash = reader.readString();
+        String miner = reader.readString();
+        long timestamp = reader.readSignedVarLong();
+        long difficulty = reader.readSignedVarLong();
+        long number = reader.readSignedVarLong();
+        byte[] stateRoot = reader.readNullableBytes();
+
+        List<Transaction> transactions = null;
+        int count = reader.readVarInt();
+        if (count > 0) {
+            transactions = new ArrayList<>(Math.min(count - 1, reader.remaining()));
+            for (int i = 0; i < count - 1; i++) {
+                transactions.add(Transaction.readFrom(new BinaryReader(reader.readBytesView())));
+            }
+        }
+
+        Block block = new Block(hash, parentHash, miner, timestamp, difficulty, number, transactions);
+        block.stateRoot = stateRoot;
+        return block;
     }
 
     // Getters and Setters
@@ -110,7 +195,47 @@ public class Block {
                 "], stateRoot=null}";
     }
 
+    /**
+     * Encodes this block in its canonical form. The encoding is deterministic: equal field
+     * values always produce the same bytes, so the result can be hashed and compared.
+     *
+     * @return The encoded block
+     */
     public byte[] serialize() {
-        return null; 
+        BinaryWriter writer = BLOCK_SCRATCH.get().reset();
+        writeTo(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Gets the size of the canonical encoding without keeping a copy of it.
+     *
+     * @return The encoded size in bytes
+     */
+    public int getEncodedSize() {
+        BinaryWriter writer = BLOCK_SCRATCH.get().reset();
+        writeTo(writer);
+        return writer.size();
+    }
+
+    /**
+     * Computes the Merkle root of this block's transactions. Each leaf is the canonical
+     * encoding of one transaction, so the root matches {@link BlockView#computeTransactionsRoot()}
+     * for the encoded block. Large blocks are hashed on the fork/join pool.
+     *
+     * @return The 32-byte transactions root
+     */
+    public byte[] computeTransactionsRoot() {
+        if (transactions == null || transactions.isEmpty()) {
+            return MerkleTree.EMPTY_ROOT.clone();
+        }
+        return MerkleTree.computeRoot(transactions, Block::transactionLeaf);
+    }
+
+    // Hashes a transaction's encoding from the calling thread's scratch buffer
+    private static byte[] transactionLeaf(Transaction tx) {
+        BinaryWriter writer = TX_SCRATCH.get().reset();
+        tx.writeTo(writer);
+        return MerkleTree.leafHash(writer.asReadOnlyBuffer());
     }
 }
\ No newline at end of file
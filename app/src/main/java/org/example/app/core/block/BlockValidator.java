@@ -8,6 +8,7 @@ import java.math.BigInteger;
 
 public class BlockValidator implements Validator {
     private final Blockchain blockchain;
+    private final TransactionSignatureVerifier signatureVerifier; // Shared with the mempool; null skips signature checks
 
     // Validation constants
     private static final long MAX_BLOCK_FUTURE_TIME = 15 * 60 * 1000; // 15 minutes in milliseconds
@@ -17,7 +18,13 @@ public class BlockValidator implements Validator {
     private static final int MAX_BLOCK_SIZE_BYTES = 2 * 1024 * 1024; // 2MB
 
     public BlockValidator(Blockchain blockchain) {
+        this(blockchain, null);
+    }
+
+    // Transactions already verified on mempool admission are found in the verifier's cache
+    public BlockValidator(Blockchain blockchain, TransactionSignatureVerifier signatureVerifier) {
         this.blockchain = blockchain;
+        this.signatureVerifier = signatureVerifier;
     }
 
     @Override
@@ -118,6 +125,14 @@ public class BlockValidator implements Validator {
         if (totalGasUsed.compareTo(MAX_BLOCK_GAS_LIMIT) > 0) {
             throw new IllegalStateException("Block gas limit exceeded");
         }
+
+        // Verify signatures last, in parallel; cached transactions are not verified again
+        if (signatureVerifier != null) {
+            int invalidIndex = signatureVerifier.verifyAll(transactions);
+            if (invalidIndex >= 0) {
+                throw new IllegalStateException("Invalid signature on transaction " + invalidIndex);
+            }
+        }
     }
 
     private void validateSingleTransaction(Transaction tx) {
@@ -170,7 +185,7 @@ public class BlockValidator implements Validator {
     }
 
     private int calculateBlockSize(Block block) {
-        return block.toString().getBytes().length;
+        return block.getEncodedSize();
     }
 
     private BigInteger calculateBlockReward(long blockNumber) {
@@ -0,0 +1,339 @@
+package org.example.app.core.block;
+
+import org.example.app.core.crypto.MerkleTree;
+import org.example.app.core.encoder.BinaryReader;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * BlockView is a read-only, lazily decoded view of a block's canonical encoding.
+ *
+ * The canonical layout is written by {@link Block#writeTo}:
+ * <pre>
+ *   version      : 1 byte
+ *   hash         : optional string
+ *   parentHash   : optional string
+ *   miner        : optional string
+ *   timestamp    : zigzag varint
+ *   difficulty   : zigzag varint
+ *   number       : zigzag varint
+ *   stateRoot    : optional bytes
+ *   txCount      : varint, 0 for no list, count + 1 otherwise
+ *   transactions : txCount - 1 times (varint length, transaction encoding)
+ * </pre>
+ * Creating a view decodes the header and walks the transaction length prefixes, so
+ * malformed input is rejected up front; transaction bodies are decoded only when they
+ * are read, and the underlying bytes are never copied, so the same buffer can be stored,
+ * hashed and sent to peers without re-encoding.
+ */
+public final class BlockView {
+    private final ByteBuffer buffer;        // The encoded block, position 0 to limit
+
+    private final String hash;
+    private final String parentHash;
+    private final String miner;
+    private final long timestamp;
+    private final long difficulty;
+    private final long number;
+    private final byte[] stateRoot;
+    private final int transactionCount;     // -1 when the block has no transaction list
+    private final int transactionsOffset;   // Offset of the first transaction record
+    private final int[] transactionOffsets; // Start of each transaction record
+
+    private BlockView(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        BinaryReader reader = readerAt(0);
+        int version = reader.readByte();
+        if (version != Block.BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported block encoding version: " + version);
+        }
+        hash = reader.readString();
+        parentHash = reader.readString();
+        miner = reader.readString();
+        timestamp = reader.readSignedVarLong();
+        difficulty = reader.readSignedVarLong();
+        number = reader.readSignedVarLong();
+        stateRoot = reader.readNullableBytes();
+        transactionCount = reader.readVarInt() - 1;
+        transactionsOffset = reader.position();
+
+        // Every record has at least a one-byte length prefix, so the count is bounded by the input
+        int count = Math.max(transactionCount, 0);
+        if (count > reader.remaining()) {
+            throw new IllegalArgumentException("Transaction count " + count + " exceeds the " +
+                    reader.remaining() + " remaining bytes");
+        }
+        // One pass over the length prefixes; transaction bodies are skipped, not decoded
+        transactionOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            transactionOffsets[i] = reader.position();
+            reader.skipBytes();
+        }
+        if (reader.remaining() != 0) {
+            throw new IllegalArgumentException(reader.remaining() + " trailing bytes after the block");
+        }
+    }
+
+    /**
+     * Creates a view over an encoded block without copying it.
+     *
+     * @param blockData The encoded block.
+     * @return The view.
+     * @throws IllegalArgumentException if blockData is null, empty or malformed
+     */
+    public static BlockView wrap(byte[] blockData) {
+        if (blockData == null || blockData.length == 0) {
+            throw new IllegalArgumentException("Block data cannot be null or empty");
+        }
+        return new BlockView(ByteBuffer.wrap(blockData));
+    }
+
+    /**
+     * Creates a view over the remaining bytes of a buffer without copying them.
+     * The buffer's position is not changed.
+     *
+     * @param buffer The buffer holding the encoded block from its position to its limit.
+     * @return The view.
+     * @throws IllegalArgumentException if buffer is null, empty or malformed
+     */
+    public static BlockView wrap(ByteBuffer buffer) {
+        if (buffer == null || !buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Block buffer cannot be null or empty");
+        }
+        return new BlockView(buffer.slice());
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getParentHash() {
+        return parentHash;
+    }
+
+    public String getMiner() {
+        return miner;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDifficulty() {
+        return difficulty;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public byte[] getStateRoot() {
+        return stateRoot != null ? stateRoot.clone() : null;
+    }
+
+    /**
+     * Gets the number of transactions without decoding them.
+     *
+     * @return The transaction count, 0 if the block has no transaction list
+     */
+    public int getTransactionCount() {
+        return Math.max(transactionCount, 0);
+    }
+
+    /**
+     * Gets the exact encoded size of the block.
+     *
+     * @return The size in bytes
+     */
+    public int getEncodedSize() {
+        return buffer.limit();
+    }
+
+    /**
+     * Gets a read-only view of the encoded block, positioned at 0.
+     *
+     * @return The encoded bytes, shared with this view
+     */
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the encoded block into a new array.
+     *
+     * @return The encoded bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.duplicate().position(0).get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Computes the SHA-256 digest of the exact encoded bytes.
+     *
+     * @return The 32-byte digest
+     */
+    public byte[] sha256() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate().position(0));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Computes the Merkle root of the transactions straight from their encoded bytes,
+     * without decoding them. Equal to {@link Block#computeTransactionsRoot()} of the decoded block.
+     *
+     * @return The 32-byte transactions root
+     */
+    public byte[] computeTransactionsRoot() {
+        return MerkleTree.computeRoot(getTransactionCount(), index -> MerkleTree.leafHash(getTransactionBuffer(index)));
+    }
+
+    /**
+     * Gets the encoded bytes of one transaction without decoding it.
+     *
+     * @param index The transaction index.
+     * @return A read-only buffer with the transaction encoding
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public ByteBuffer getTransactionBuffer(int index) {
+        BinaryReader reader = readerAt(transactionOffset(index));
+        return reader.readBytesView().asReadOnlyBuffer();
+    }
+
+    /**
+     * Decodes one transaction.
+     *
+     * @param index The transaction index.
+     * @return The decoded transaction
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Transaction getTransaction(int index) {
+        BinaryReader reader = readerAt(transactionOffset(index));
+        return Transaction.readFrom(new BinaryReader(reader.readBytesView()));
+    }
+
+    /**
+     * Iterates over the transactions, decoding each one as it is reached.
+     *
+     * @return An iterable over the decoded transactions
+     */
+    public Iterable<Transaction> transactions() {
+        return () -> new Iterator<Transaction>() {
+            private final BinaryReader reader = readerAt(transactionsOffset);
+            private int remaining = Math.max(transactionCount, 0);
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Transaction next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                return Transaction.readFrom(new BinaryReader(reader.readBytesView()));
+            }
+        };
+    }
+
+    /**
+     * Creates a block whose header fields are decoded now and whose transactions are
+     * decoded on first access. The transaction list is unmodifiable; use
+     * {@link Block#setTransactions} to replace it.
+     *
+     * @return The block
+     */
+    public Block toBlock() {
+        List<Transaction> transactions = transactionCount < 0 ? null : new LazyTransactionList();
+        Block block = new Block(hash, parentHash, miner, timestamp, difficulty, number, transactions);
+        block.setStateRoot(stateRoot != null ? stateRoot.clone() : null);
+        return block;
+    }
+
+    /**
+     * Creates a block header whose transaction entries are the SHA-256 hex digests of
+     * the encoded transactions, computed without decoding them.
+     *
+     * @return The header
+     */
+    public BlockHeader toHeader() {
+        String[] transactionDigests = new String[getTransactionCount()];
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < transactionDigests.length; i++) {
+                digest.update(getTransactionBuffer(i));
+                transactionDigests[i] = toHex(digest.digest());
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+        return new BlockHeader(parentHash, miner, timestamp, difficulty, number, transactionDigests);
+    }
+
+    private int transactionOffset(int index) {
+        if (index < 0 || index >= transactionOffsets.length) {
+            throw new IndexOutOfBoundsException("Transaction index " + index + " out of range");
+        }
+        return transactionOffsets[index];
+    }
+
+    private BinaryReader readerAt(int offset) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        return new BinaryReader(view);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Transaction list that decodes each element on first access and keeps it.
+     */
+    private final class LazyTransactionList extends AbstractList<Transaction> {
+        private final Transaction[] decoded = new Transaction[getTransactionCount()];
+
+        @Override
+        public synchronized Transaction get(int index) {
+            if (index < 0 || index >= decoded.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + decoded.length);
+            }
+            Transaction tx = decoded[index];
+            if (tx == null) {
+                tx = getTransaction(index);
+                decoded[index] = tx;
+            }
+            return tx;
+        }
+
+        @Override
+        public int size() {
+            return decoded.length;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(toArray());
+        }
+    }
+}
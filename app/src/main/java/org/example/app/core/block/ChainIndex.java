@@ -0,0 +1,516 @@
+package org.example.app.core.block;
+
+import org.example.app.core.config.StorageConfig;
+import org.example.app.core.encoder.BinaryWriter;
+import org.example.app.core.storage.MappedBlockStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * ChainIndex holds the blocks of a chain in order and finds them by height, by block hash
+ * and by transaction hash in constant time.
+ *
+ * Blocks are appended to a {@link MappedBlockStore} as their canonical encodings, so the
+ * chain itself stays off the heap; only the record position of each height and the hash
+ * indexes are kept in memory. A bounded LRU keeps the most recently used blocks decoded,
+ * and a block evicted from it is decoded again, lazily through a {@link BlockView} over the
+ * mapped bytes, the next time it is requested. Blocks that cannot be encoded are kept
+ * decoded. Blocks must not be modified once appended.
+ *
+ * An index created without a store keeps its blocks in a temporary directory, which
+ * {@link #close()} deletes; directories of indexes still open are deleted when the JVM exits.
+ *
+ * The height of a block is its position in the chain, starting at 0. The hash of a
+ * transaction is the hex SHA-256 digest of its canonical encoding, as in {@link BlockView#toHeader()}.
+ * Transaction locations are indexed by the first 8 bytes of that digest, with the rare
+ * prefix collisions kept under their full hash.
+ */
+public class ChainIndex implements Closeable {
+    private static final Logger logger = Logger.getLogger(ChainIndex.class.getName());
+
+    public static final int DEFAULT_CACHE_SIZE = 1024; // Default number of decoded blocks kept
+    private static final int TEMPORARY_SEGMENT_MB = 4;  // Segment size of a temporary block store
+    private static final Set<Path> OPEN_TEMPORARY_DIRECTORIES = ConcurrentHashMap.newKeySet(); // Deleted at exit
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> OPEN_TEMPORARY_DIRECTORIES.forEach(ChainIndex::deleteTemporaryDirectory), "ChainIndexCleanup"));
+    }
+
+    private final MappedBlockStore store;                     // Holds the encoded blocks
+    private final Path temporaryDirectory;                    // Directory of an owned store, null if shared
+    private long[] recordPositions;                           // Store position per height; -1 if pinned
+    private int blockCount;                                   // Number of blocks in the chain
+    private final Map<Integer, Block> pinnedBlocks;           // Blocks that could not be encoded
+    private final Map<String, Integer> heightsByHash;         // Block hash -> height
+    private final Map<Long, Long> transactionsByPrefix;       // Digest prefix -> height << 32 | index
+    private final Map<String, Long> prefixCollisions;         // Full hash -> location, when a prefix is taken
+    private final LinkedHashMap<Integer, Block> decodedBlocks; // LRU of decoded blocks by height
+    private final int cacheSize;                              // Maximum number of decoded blocks
+
+    /**
+     * Constructor to initialize a ChainIndex with the default cache size.
+     */
+    public ChainIndex() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor to initialize a ChainIndex over a block store in a temporary directory.
+     *
+     * @param cacheSize The maximum number of decoded blocks to keep.
+     * @throws IllegalArgumentException if cacheSize is not positive
+     * @throws IllegalStateException if the temporary store cannot be created
+     */
+    public ChainIndex(int cacheSize) {
+        this(cacheSize, null);
+    }
+
+    /**
+     * Constructor to initialize a ChainIndex that appends its blocks to a shared store.
+     * The store's own hash and height indexes are not used, and blocks removed from the
+     * chain stay in the store's segments.
+     *
+     * @param store     The block store.
+     * @param cacheSize The maximum number of decoded blocks to keep.
+     * @throws IllegalArgumentException if store is null or cacheSize is not positive
+     */
+    public ChainIndex(MappedBlockStore store, int cacheSize) {
+        this(cacheSize, requireStore(store));
+    }
+
+    // A null store makes the index open its own in a temporary directory
+    private ChainIndex(int cacheSize, MappedBlockStore store) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.cacheSize = cacheSize;
+        this.temporaryDirectory = store == null ? createTemporaryDirectory() : null;
+        this.store = store != null ? store : openTemporaryStore(temporaryDirectory);
+        this.recordPositions = new long[16];
+        this.pinnedBlocks = new HashMap<>();
+        this.heightsByHash = new HashMap<>();
+        this.transactionsByPrefix = new HashMap<>();
+        this.prefixCollisions = new HashMap<>();
+        this.decodedBlocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > ChainIndex.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Appends a block to the chain and indexes its hash and transactions.
+     * When a hash occurs more than once, lookups return its first occurrence.
+     *
+     * @param block The block.
+     * @return The height of the block
+     * @throws IllegalArgumentException if block is null
+     */
+    public synchronized int append(Block block) {
+        if (block == null) {
+            throw new IllegalArgumentException("Block cannot be null");
+        }
+
+        int height = blockCount;
+        byte[] encoded = encode(block);
+        long position = -1;
+        if (encoded == null) {
+            pinnedBlocks.put(height, block);
+        } else {
+            try {
+                position = store.appendEncoded(encoded);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot store block at height " + height, e);
+            }
+        }
+        if (height == recordPositions.length) {
+            recordPositions = Arrays.copyOf(recordPositions, height * 2);
+        }
+        recordPositions[height] = position;
+        blockCount++;
+        decodedBlocks.put(height, block);
+
+        if (block.getHash() != null) {
+            heightsByHash.putIfAbsent(block.getHash(), height);
+        }
+        String[] transactionHashes = encoded != null ? transactionHashes(BlockView.wrap(encoded)) : new String[0];
+        for (int i = 0; i < transactionHashes.length; i++) {
+            indexTransaction(transactionHashes[i], location(height, i));
+        }
+        return height;
+    }
+
+    /**
+     * Removes the last block and its index entries.
+     *
+     * @return The removed block, or null if the chain is empty
+     */
+    public synchronized Block removeLast() {
+        if (blockCount == 0) {
+            return null;
+        }
+
+        int height = blockCount - 1;
+        Block block = getByHeight(height);
+        if (block.getHash() != null) {
+            heightsByHash.remove(block.getHash(), height);
+        }
+        BlockView view = recordPositions[height] >= 0 ? store.getViewAt(recordPositions[height]) : null;
+        String[] transactionHashes = view != null ? transactionHashes(view) : new String[0];
+        for (int i = 0; i < transactionHashes.length; i++) {
+            unindexTransaction(transactionHashes[i], location(height, i));
+        }
+
+        // The record stays in its segment; it is no longer reachable from the index
+        blockCount--;
+        pinnedBlocks.remove(height);
+        decodedBlocks.remove(height);
+        return block;
+    }
+
+    /**
+     * Gets the block at a height.
+     *
+     * @param height The height, starting at 0.
+     * @return The block, or null if the height is out of range
+     */
+    public synchronized Block getByHeight(long height) {
+        if (height < 0 || height >= blockCount) {
+            return null;
+        }
+        int position = (int) height;
+        Block block = decodedBlocks.get(position);
+        if (block == null) {
+            block = load(position);
+            decodedBlocks.put(position, block);
+        }
+        return block;
+    }
+
+    /**
+     * Gets a read-only list of the blocks in the chain when this is called. Blocks are
+     * decoded as they are read and are not added to the decoded-block cache, so walking
+     * the whole chain neither holds it on the heap nor evicts recently used blocks.
+     *
+     * @return The blocks by height
+     */
+    public synchronized List<Block> blocks() {
+        int size = blockCount;
+        return new AbstractList<Block>() {
+            @Override
+            public Block get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return peek(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets a block by its hash.
+     *
+     * @param blockHash The block hash.
+     * @return The block, or null if not found
+     */
+    public synchronized Block getByHash(String blockHash) {
+        int height = getHeight(blockHash);
+        return height < 0 ? null : getByHeight(height);
+    }
+
+    /**
+     * Gets the height of a block by its hash.
+     *
+     * @param blockHash The block hash.
+     * @return The height, or -1 if not found
+     */
+    public synchronized int getHeight(String blockHash) {
+        if (blockHash == null) {
+            return -1;
+        }
+        Integer height = heightsByHash.get(blockHash);
+        return height == null ? -1 : height;
+    }
+
+    /**
+     * Gets the latest block.
+     *
+     * @return The block at the greatest height, or null if the chain is empty
+     */
+    public synchronized Block getLatest() {
+        return getByHeight(blockCount - 1L);
+    }
+
+    /**
+     * Finds the block and position of a transaction by its hash.
+     *
+     * @param transactionHash The hex SHA-256 digest of the transaction's encoding.
+     * @return The location, or null if not found
+     */
+    public synchronized TransactionLocation findTransaction(String transactionHash) {
+        if (transactionHash == null || transactionHash.length() != 64) {
+            return null;
+        }
+        String normalized = transactionHash.toLowerCase();
+        Long location = prefixCollisions.get(normalized);
+        if (location == null) {
+            try {
+                location = transactionsByPrefix.get(Long.parseUnsignedLong(normalized.substring(0, 16), 16));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (location == null) {
+            return null;
+        }
+
+        // The prefix only selects a candidate; confirm it against the full hash
+        int height = (int) (location >>> 32);
+        int index = (int) location.longValue();
+        Block block = getByHeight(height);
+        Transaction transaction = block.getTransactions().get(index);
+        if (!normalized.equals(transactionHash(transaction))) {
+            return null;
+        }
+        return new TransactionLocation(block, height, index, transaction);
+    }
+
+    public synchronized int size() {
+        return blockCount;
+    }
+
+    public synchronized int getCachedBlockCount() {
+        return decodedBlocks.size();
+    }
+
+    /**
+     * Removes all blocks.
+     */
+    public synchronized void clear() {
+        blockCount = 0;
+        recordPositions = new long[16];
+        pinnedBlocks.clear();
+        heightsByHash.clear();
+        transactionsByPrefix.clear();
+        prefixCollisions.clear();
+        decodedBlocks.clear();
+        if (temporaryDirectory != null) {
+            try {
+                store.clear();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot delete temporary block segments", e);
+            }
+        }
+    }
+
+    /**
+     * Removes all blocks and, if the index created its own store, closes it and deletes
+     * its temporary directory. A shared store is left open.
+     */
+    @Override
+    public synchronized void close() {
+        clear();
+        if (temporaryDirectory == null) {
+            return;
+        }
+        store.close();
+        OPEN_TEMPORARY_DIRECTORIES.remove(temporaryDirectory);
+        deleteTemporaryDirectory(temporaryDirectory);
+    }
+
+    /**
+     * Computes the hash of a transaction: the hex SHA-256 digest of its canonical encoding.
+     *
+     * @param transaction The transaction.
+     * @return The 64-character hex hash
+     */
+    public static String transactionHash(Transaction transaction) {
+        BinaryWriter writer = new BinaryWriter();
+        transaction.writeTo(writer);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(writer.asReadOnlyBuffer());
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private void indexTransaction(String transactionHash, long location) {
+        long prefix = prefix(transactionHash);
+        Long existing = transactionsByPrefix.putIfAbsent(prefix, location);
+        if (existing != null && !transactionHash.equals(transactionHashAt(existing))) {
+            // A different transaction owns the prefix; a repeat of the same one is not indexed again
+            prefixCollisions.putIfAbsent(transactionHash, location);
+        }
+    }
+
+    private void unindexTransaction(String transactionHash, long location) {
+        if (!prefixCollisions.remove(transactionHash, location)) {
+            transactionsByPrefix.remove(prefix(transactionHash), location);
+        }
+    }
+
+    private String transactionHashAt(long location) {
+        Block block = getByHeight((int) (location >>> 32));
+        return transactionHash(block.getTransactions().get((int) location));
+    }
+
+    private static long prefix(String transactionHash) {
+        return Long.parseUnsignedLong(transactionHash.substring(0, 16), 16);
+    }
+
+    private static long location(int height, int index) {
+        return ((long) height << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    // Encodes a block, or returns null if it cannot be encoded
+    private static byte[] encode(Block block) {
+        try {
+            return block.serialize();
+        } catch (RuntimeException e) {
+            logger.fine("Keeping block decoded; it cannot be encoded: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // A block that is not in the decoded-block cache, read from the store
+    private synchronized Block peek(int height) {
+        if (height >= blockCount) {
+            throw new IndexOutOfBoundsException("Block at height " + height + " was removed");
+        }
+        Block block = decodedBlocks.get(height);
+        return block != null ? block : load(height);
+    }
+
+    private Block load(int height) {
+        Block pinned = pinnedBlocks.get(height);
+        if (pinned != null) {
+            return pinned;
+        }
+        BlockView view = store.getViewAt(recordPositions[height]);
+        if (view == null) {
+            throw new IllegalStateException("Block store no longer holds height " + height);
+        }
+        return view.toBlock();
+    }
+
+    private static Path createTemporaryDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("chain-index");
+            OPEN_TEMPORARY_DIRECTORIES.add(directory);
+            return directory;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create a temporary block directory", e);
+        }
+    }
+
+    private static MappedBlockStore openTemporaryStore(Path directory) {
+        StorageConfig config = new StorageConfig.Builder()
+                .dataDir(directory.toString())
+                .cacheSize(0)               // Decoded blocks are cached by the index itself
+                .compression(false)         // Views then share the mapped bytes
+                .writeBuffer(TEMPORARY_SEGMENT_MB)
+                .build();
+        try {
+            return new MappedBlockStore(config);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open a temporary block store in " + directory, e);
+        }
+    }
+
+    private static void deleteTemporaryDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot delete temporary block directory " + directory, e);
+        }
+    }
+
+    private static MappedBlockStore requireStore(MappedBlockStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Block store cannot be null");
+        }
+        return store;
+    }
+
+    // Hashes the encoded transactions of a block without decoding them
+    private static String[] transactionHashes(BlockView view) {
+        String[] hashes = new String[view.getTransactionCount()];
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (int i = 0; i < hashes.length; i++) {
+                digest.update(view.getTransactionBuffer(i));
+                hashes[i] = toHex(digest.digest());
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+        return hashes;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Where a transaction was found: its block, the block height and its index in the block.
+     */
+    public static final class TransactionLocation {
+        private final Block block;
+        private final int height;
+        private final int index;
+        private final Transaction transaction;
+
+        private TransactionLocation(Block block, int height, int index, Transaction transaction) {
+            this.block = block;
+            this.height = height;
+            this.index = index;
+            this.transaction = transaction;
+        }
+
+        public Block getBlock() {
+            return block;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Transaction getTransaction() {
+            return transaction;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.example.app.core.types.Hash;
 import org.example.app.core.crypto.Keypair;
 import org.example.app.core.crypto.Keypair.SignatureResult;
 import org.example.app.core.types.ByteSerializable;
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
@@ -16,6 +18,17 @@ public class Transaction implements java.io.Serializable, ByteSerializable {
     private static final long serialVersionUID = 1L;
     private static final int DEFAULT_BUFFER_SIZE = 1024;
 
+    // Binary encoding: version byte, presence flags, then the fields in declaration order
+    private static final int BINARY_VERSION = 1;
+    private static final int HAS_TO = 1;
+    private static final int HAS_FROM = 1 << 1;
+    private static final int HAS_SIGNATURE = 1 << 2;
+    private static final int HAS_HASH = 1 << 3;
+    private static final int HAS_GAS_PRICE = 1 << 4;
+    private static final int HAS_STATUS = 1 << 5;
+    private static final int CONTRACT_CREATION = 1 << 6;
+    private static final int CONTRACT_CALL = 1 << 7;
+
     private byte[] data;
     private Address to;
     private long value;
@@ -49,6 +62,110 @@ public class Transaction implements java.io.Serializable, ByteSerializable {
         this.gasLimit = 21000; // Default gas limit
     }
 
+    // Used by readFrom, which assigns every field itself
+    private Transaction() {
+    }
+
+    /**
+     * Writes this transaction in the compact binary encoding. Addresses and the hash are
+     * written as raw bytes, integers as varints, and absent fields only as a flag bit.
+     *
+     * @param writer The writer to append to.
+     */
+    public void writeTo(BinaryWriter writer) {
+        int flags = (to != null ? HAS_TO : 0)
+                | (from != null ? HAS_FROM : 0)
+                | (signature != null ? HAS_SIGNATURE : 0)
+                | (hash != null ? HAS_HASH : 0)
+                | (gasPrice != null ? HAS_GAS_PRICE : 0)
+                | (status != null ? HAS_STATUS : 0)
+                | (contractCreation ? CONTRACT_CREATION : 0)
+                | (contractCall ? CONTRACT_CALL : 0);
+
+        writer.writeByte(BINARY_VERSION);
+        writer.writeVarInt(flags);
+        writer.writeBytes(data);
+        if (to != null) {
+            writer.writeRaw(to.toSlice());
+        }
+        writer.writeSignedVarLong(value);
+        if (from != null) {
+            writer.writeRaw(from.toSlice());
+        }
+        if (signature != null) {
+            writer.writeBigInteger(signature.getR());
+            writer.writeBigInteger(signature.getS());
+        }
+        writer.writeSignedVarLong(nonce);
+        if (hash != null) {
+            writer.writeRaw(hash.toSlice());
+        }
+        writer.writeSignedVarLong(gasLimit);
+        if (gasPrice != null) {
+            writer.writeBigInteger(gasPrice);
+        }
+        if (status != null) {
+            writer.writeVarInt(status.ordinal());
+        }
+        writer.writeString(sender);
+        writer.writeString(recipient);
+        writer.writeBigInteger(fee);
+    }
+
+    /**
+     * Reads a transaction written by {@link #writeTo(BinaryWriter)}.
+     *
+     * @param reader The reader positioned at the transaction.
+     * @return The decoded transaction.
+     * @throws IllegalArgumentException if the input is malformed
+     */
+    public static Transaction readFrom(BinaryReader reader) {
+        int version = reader.readByte();
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported transaction encoding version: " + version);
+        }
+
+        Transaction tx = new Transaction();
+        int flags = reader.readVarInt();
+        tx.data = reader.readBytes();
+        if ((flags & HAS_TO) != 0) {
+            tx.to = new Address(reader.readRaw(Address.ADDRESS_LENGTH));
+        }
+        tx.value = reader.readSignedVarLong();
+        if ((flags & HAS_FROM) != 0) {
+            tx.from = new Address(reader.readRaw(Address.ADDRESS_LENGTH));
+        }
+        if ((flags & HAS_SIGNATURE) != 0) {
+            tx.signature = new SignatureResult(reader.readBigInteger(), reader.readBigInteger());
+        }
+        tx.nonce = reader.readSignedVarLong();
+        if ((flags & HAS_HASH) != 0) {
+            tx.hash = new Hash(reader.readRaw(32));
+        }
+        long gasLimit = reader.readSignedVarLong();
+        if (gasLimit < Integer.MIN_VALUE || gasLimit > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Gas limit out of range: " + gasLimit);
+        }
+        tx.gasLimit = (int) gasLimit;
+        if ((flags & HAS_GAS_PRICE) != 0) {
+            tx.gasPrice = reader.readBigInteger();
+        }
+        if ((flags & HAS_STATUS) != 0) {
+            int ordinal = reader.readVarInt();
+            TransactionStatus[] statuses = TransactionStatus.values();
+            if (ordinal >= statuses.length) {
+                throw new IllegalArgumentException("Unknown transaction status: " + ordinal);
+            }
+            tx.status = statuses[ordinal];
+        }
+        tx.sender = reader.readString();
+        tx.recipient = reader.readString();
+        tx.fee = reader.readBigInteger();
+        tx.contractCreation = (flags & CONTRACT_CREATION) != 0;
+        tx.contractCall = (flags & CONTRACT_CALL) != 0;
+        return tx;
+    }
+
     // Override toString to match test expectations
     @Override
     public String toString() {
@@ -212,5 +329,49 @@ public boolean verifySignature() {
         this.sender = sender;
     }
 
+    public void setFee(BigInteger fee) {
+        this.fee = fee;
+    }
+
+    public void setContractCreation(boolean contractCreation) {
+        this.contractCreation = contractCreation;
+    }
+
+    public void setContractCall(boolean contractCall) {
+        this.contractCall = contractCall;
+    }
+
+    public void setNonce(long nonce) {
+        this.nonce = nonce;
+    }
+
+    public Address getFrom() {
+        return from;
+    }
+
+    public void setFrom(Address from) {
+        this.from = from;
+    }
+
+    public Address getTo() {
+        return to;
+    }
+
+    public void setTo(Address to) {
+        this.to = to;
+    }
+
+    // The bytes covered by the sender's signature: every field except the signature, hash and status
+    public byte[] getSigningData() {
+        byte[] core = toBytes();
+        BinaryWriter writer = new BinaryWriter(core.length + 64);
+        writer.writeRaw(core);
+        writer.writeByte((contractCreation ? CONTRACT_CREATION : 0) | (contractCall ? CONTRACT_CALL : 0));
+        writer.writeString(sender);
+        writer.writeString(recipient);
+        writer.writeBigInteger(fee);
+        return writer.toByteArray();
+    }
+
 
 }
\ No newline at end of file
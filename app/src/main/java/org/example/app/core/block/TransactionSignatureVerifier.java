@@ -0,0 +1,286 @@
+package org.example.app.core.block;
+
+import org.example.app.core.crypto.Keypair;
+import org.example.app.core.crypto.Keypair.SignatureResult;
+import org.example.app.core.types.Address;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * TransactionSignatureVerifier checks transaction signatures against the sender's public key
+ * and remembers which transactions have already been verified.
+ *
+ * The same instance is meant to be shared by mempool admission and block import: a transaction
+ * verified when it entered the mempool is found in the cache when its block arrives, so only
+ * transactions never seen before are verified again. Cache entries are keyed by a SHA-256 digest
+ * of the signed data and the signature. The signed data covers every field except the hash and
+ * the execution status, so a cached result never applies to a modified transaction. Only
+ * successful verifications are cached.
+ *
+ * Blocks are verified in parallel, partitioned by sender: each worker takes all the transactions
+ * of one sender, so a sender's public key is resolved once per block, and all workers stop as
+ * soon as one signature fails.
+ */
+public class TransactionSignatureVerifier {
+    private static final Logger logger = Logger.getLogger(TransactionSignatureVerifier.class.getName());
+
+    public static final int DEFAULT_CACHE_SIZE = 100000; // Default number of remembered verifications
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+
+    private final Function<Address, PublicKey> keyResolver;  // Looks up a sender's public key
+    private final int maxCacheSize;                          // Upper bound on remembered verifications
+    private final ConcurrentMap<ByteBuffer, Boolean> verified; // Digests of verified transactions
+    private final Queue<ByteBuffer> insertionOrder;          // Eviction order for the cache
+    private final ExecutorService pool;                      // Runs block verification workers
+    private final int parallelism;                           // Workers per block, including the caller
+    private final AtomicLong hits;                           // Verifications answered by the cache
+    private final AtomicLong misses;                         // Signatures actually checked
+
+    /**
+     * Constructor to initialize a TransactionSignatureVerifier using the common pool and one
+     * worker per available core.
+     *
+     * @param keyResolver Resolves a sender address to its public key, or null if unknown.
+     * @throws IllegalArgumentException if keyResolver is null
+     */
+    public TransactionSignatureVerifier(Function<Address, PublicKey> keyResolver) {
+        this(keyResolver, DEFAULT_CACHE_SIZE, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor to initialize a TransactionSignatureVerifier.
+     *
+     * @param keyResolver  Resolves a sender address to its public key, or null if unknown.
+     * @param maxCacheSize The maximum number of verified transactions to remember.
+     * @param pool         The pool used to verify blocks.
+     * @param parallelism  The number of threads, including the caller, that verify a block.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public TransactionSignatureVerifier(Function<Address, PublicKey> keyResolver, int maxCacheSize,
+                                        ExecutorService pool, int parallelism) {
+        if (keyResolver == null) {
+            throw new IllegalArgumentException("Key resolver cannot be null");
+        }
+        if (maxCacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        this.keyResolver = keyResolver;
+        this.maxCacheSize = maxCacheSize;
+        this.verified = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    /**
+     * Verifies the signature of one transaction, using the cache.
+     *
+     * @param tx The transaction.
+     * @return True if the transaction is signed by the key of its sender address
+     */
+    public boolean verify(Transaction tx) {
+        if (tx == null || tx.getFrom() == null || tx.getSignature() == null) {
+            return false;
+        }
+        ByteBuffer cacheKey = cacheKey(tx);
+        if (verified.containsKey(cacheKey)) {
+            hits.incrementAndGet();
+            return true;
+        }
+        return verifyUncached(tx, keyResolver.apply(tx.getFrom()), cacheKey);
+    }
+
+    /**
+     * Verifies the signatures of all transactions of a block, in parallel by sender, skipping
+     * transactions that are already in the cache. Verification stops at the first failure.
+     *
+     * @param transactions The transactions.
+     * @return -1 if every signature is valid, otherwise the index of an invalid transaction
+     *         (the lowest one found before the workers stopped)
+     * @throws IllegalArgumentException if transactions is null
+     */
+    public int verifyAll(List<Transaction> transactions) {
+        if (transactions == null) {
+            throw new IllegalArgumentException("Transactions cannot be null");
+        }
+
+        // Partition the transactions that still need a signature check by sender
+        Map<Address, List<Integer>> bySender = new LinkedHashMap<>();
+        List<ByteBuffer> cacheKeys = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction tx = transactions.get(i);
+            if (tx == null || tx.getFrom() == null || tx.getSignature() == null) {
+                return i;
+            }
+            ByteBuffer cacheKey = cacheKey(tx);
+            cacheKeys.add(cacheKey);
+            if (verified.containsKey(cacheKey)) {
+                hits.incrementAndGet();
+            } else {
+                bySender.computeIfAbsent(tx.getFrom(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (bySender.isEmpty()) {
+            return -1;
+        }
+
+        List<List<Integer>> groups = new ArrayList<>(bySender.values());
+        AtomicInteger nextGroup = new AtomicInteger();
+        AtomicInteger failedIndex = new AtomicInteger(Integer.MAX_VALUE);
+        Runnable worker = () -> {
+            int group;
+            while (failedIndex.get() == Integer.MAX_VALUE && (group = nextGroup.getAndIncrement()) < groups.size()) {
+                List<Integer> indices = groups.get(group);
+                PublicKey publicKey = keyResolver.apply(transactions.get(indices.get(0)).getFrom());
+                for (int index : indices) {
+                    if (failedIndex.get() != Integer.MAX_VALUE) {
+                        return;
+                    }
+                    if (!verifyUncached(transactions.get(index), publicKey, cacheKeys.get(index))) {
+                        failedIndex.accumulateAndGet(index, Math::min);
+                        return;
+                    }
+                }
+            }
+        };
+
+        int workers = Math.min(parallelism, groups.size()) - 1;
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(pool.submit(worker));
+        }
+        worker.run();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while verifying signatures", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Signature verification worker failed", e.getCause());
+            }
+        }
+
+        int failed = failedIndex.get();
+        if (failed != Integer.MAX_VALUE) {
+            logger.warning("Invalid signature on transaction " + failed + " of " + transactions.size());
+            return failed;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a transaction has already been verified, without verifying it.
+     *
+     * @param tx The transaction.
+     * @return True if a successful verification of this exact transaction is cached
+     */
+    public boolean isVerified(Transaction tx) {
+        if (tx == null || tx.getFrom() == null || tx.getSignature() == null) {
+            return false;
+        }
+        return verified.containsKey(cacheKey(tx));
+    }
+
+    public int getCacheSize() {
+        return verified.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Forgets all verified transactions.
+     */
+    public void clearCache() {
+        verified.clear();
+        insertionOrder.clear();
+    }
+
+    private boolean verifyUncached(Transaction tx, PublicKey publicKey, ByteBuffer cacheKey) {
+        misses.incrementAndGet();
+        if (publicKey == null) {
+            return false;
+        }
+        boolean valid;
+        try {
+            valid = Keypair.verify(publicKey, tx.getSignature(), tx.getSigningData());
+        } catch (RuntimeException e) {
+            // Malformed signatures fail verification rather than the caller
+            valid = false;
+        }
+        if (valid) {
+            remember(cacheKey);
+        }
+        return valid;
+    }
+
+    private void remember(ByteBuffer cacheKey) {
+        if (maxCacheSize > 0 && verified.putIfAbsent(cacheKey, Boolean.TRUE) == null) {
+            insertionOrder.offer(cacheKey);
+            while (verified.size() > maxCacheSize) {
+                ByteBuffer eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                verified.remove(eldest);
+            }
+        }
+    }
+
+    // SHA-256 over the length-prefixed signed data and signature components; ByteBuffer compares by content
+    private static ByteBuffer cacheKey(Transaction tx) {
+        MessageDigest digest = SHA256.get();
+        SignatureResult signature = tx.getSignature();
+        updateWithLength(digest, tx.getSigningData());
+        updateWithLength(digest, signature.getR().toByteArray());
+        updateWithLength(digest, signature.getS().toByteArray());
+        return ByteBuffer.wrap(digest.digest());
+    }
+
+    private static void updateWithLength(MessageDigest digest, byte[] bytes) {
+        int length = bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(bytes);
+    }
+}
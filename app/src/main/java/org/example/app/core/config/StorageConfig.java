@@ -20,6 +20,26 @@ public class StorageConfig {
             return this;
         }
 
+        public Builder dataDir(String dataDir) {
+            this.dataDir = dataDir;
+            return this;
+        }
+
+        public Builder cacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public Builder writeBuffer(int writeBuffer) {
+            this.writeBuffer = writeBuffer;
+            return this;
+        }
+
         public StorageConfig build() {
             return new StorageConfig(this);
         }
@@ -1,21 +1,26 @@
 package org.example.app.core.consensus;
 
 import org.example.app.core.block.Block;
-import java.util.List;
+import org.example.app.core.block.ChainIndex;
+import org.example.app.core.block.Transaction;
 
 public class Blockchain {
-    private List<Block> blocks;
+    private final ChainIndex blocks;     // Blocks by height, block hash and transaction hash
     private Consensus consensus;
 
     public Blockchain() {
-        this.blocks = new java.util.ArrayList<>();
+        this(new ChainIndex());
+    }
+
+    public Blockchain(ChainIndex blocks) {
+        this.blocks = blocks;
         this.consensus = new Consensus();
     }
 
     // Add a new block to the blockchain after consensus validation
     public boolean addBlock(Block block) {
         if (consensus.validateBlock(block)) {
-            blocks.add(block);
+            blocks.append(block);
             return true;
         }
         return false;
@@ -23,20 +28,27 @@ public class Blockchain {
 
     // Get block by its hash
     public Block getBlockByHash(String blockHash) {
-        for (Block block : blocks) {
-            if (block.getHash().equals(blockHash)) {
-                return block;
-            }
-        }
-        return null;
+        return blocks.getByHash(blockHash);
+    }
+
+    // Get block by its height, the position in the chain starting at 0
+    public Block getBlockByHeight(long height) {
+        return blocks.getByHeight(height);
+    }
+
+    // Get a transaction included in the chain by its hash, see ChainIndex.transactionHash
+    public Transaction getTransactionByHash(String transactionHash) {
+        ChainIndex.TransactionLocation location = blocks.findTransaction(transactionHash);
+        return location == null ? null : location.getTransaction();
+    }
+
+    public ChainIndex getChainIndex() {
+        return blocks;
     }
 
     // Retrieve the most recent block
     public Block getLatestBlock() {
-        if (blocks.isEmpty()) {
-            return null;
-        }
-        return blocks.get(blocks.size() - 1);
+        return blocks.getLatest();
     }
 
     /**
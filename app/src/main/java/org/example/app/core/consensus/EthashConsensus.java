@@ -4,6 +4,7 @@ import org.example.app.core.block.Block;
 import org.example.app.core.block.Transaction;
 import org.example.app.core.types.Hash;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 public class EthashConsensus {
@@ -25,11 +26,9 @@ public class EthashConsensus {
         // Start mining (this would involve hashing, nonce, etc. in a real system)
         List<Transaction> transactions = new ArrayList<>(); // Empty list of transactions
 
-        String blockHash = generateHash(parentHash, miner, timestamp, difficulty);
-
         // Create a new block using the full constructor
-        return new Block(
-            blockHash,                     // hash
+        Block block = new Block(
+            null,                          // hash, set once the transactions root is known
             parentHash,                    // parent hash
             miner,                         // miner address
             timestamp,                     // timestamp
@@ -37,10 +36,14 @@ public class EthashConsensus {
             previousBlock.getNumber() + 1, // block number
             transactions                   // transactions
         );
+
+        // The hash commits to the transactions through their Merkle root
+        block.setHash(generateHash(parentHash, miner, timestamp, difficulty, block.computeTransactionsRoot()));
+        return block;
     }
 
     // Generate a hash for the block (simplified version)
-    private String generateHash(String parentHash, String miner, long timestamp, long difficulty) {
-        return HashUtils.generateHash(parentHash + miner + timestamp + difficulty);
+    private String generateHash(String parentHash, String miner, long timestamp, long difficulty, byte[] transactionsRoot) {
+        return HashUtils.generateHash(parentHash + miner + timestamp + difficulty + HexFormat.of().formatHex(transactionsRoot));
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.example.app.core.crypto;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+
+/**
+ * Keccak-256 hashing, as used for trie nodes and account keys.
+ * Each thread reuses its own digest.
+ */
+public final class Keccak {
+    public static final int HASH_LENGTH = 32;
+
+    private static final ThreadLocal<KeccakDigest> DIGEST = ThreadLocal.withInitial(() -> new KeccakDigest(256));
+
+    private Keccak() {
+    }
+
+    /**
+     * Computes the Keccak-256 digest of the input.
+     *
+     * @param input The bytes to hash.
+     * @return The 32-byte digest.
+     * @throws IllegalArgumentException if input is null
+     */
+    public static byte[] keccak256(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        KeccakDigest digest = DIGEST.get();
+        digest.update(input, 0, input.length);
+        byte[] hash = new byte[HASH_LENGTH];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+}
@@ -10,6 +10,15 @@ import java.security.spec.ECGenParameterSpec;
 import java.util.Arrays;
 
 public class Keypair {
+    // Signature engines are not thread-safe, so verification reuses one per thread
+    private static final ThreadLocal<Signature> VERIFIER = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("SHA256withECDSA");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA256withECDSA not available: " + e.getMessage(), e);
+        }
+    });
+
     private final PrivateKey privateKey;
     private final PublicKey publicKey;
 
@@ -43,8 +52,12 @@ public class Keypair {
     }
 
     public boolean verify(SignatureResult signature, byte[] data) {
+        return verify(publicKey, signature, data);
+    }
+
+    public static boolean verify(PublicKey publicKey, SignatureResult signature, byte[] data) {
         try {
-            Signature ecdsaVerify = Signature.getInstance("SHA256withECDSA");
+            Signature ecdsaVerify = VERIFIER.get();
             ecdsaVerify.initVerify(publicKey);
             ecdsaVerify.update(data);
 
@@ -83,7 +96,7 @@ public class Keypair {
         }
     }
 
-    private byte[] encodeSignature(SignatureResult signature) {
+    private static byte[] encodeSignature(SignatureResult signature) {
         try {
             byte[] rBytes = signature.getR().toByteArray();
             byte[] sBytes = signature.getS().toByteArray();
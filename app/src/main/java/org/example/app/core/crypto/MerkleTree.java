@@ -0,0 +1,237 @@
+package org.example.app.core.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Binary SHA-256 Merkle roots over raw 32-byte digests.
+ *
+ * Leaves are hashed as SHA-256(0x00 || data) and interior nodes as
+ * SHA-256(0x01 || left || right), so a leaf can never be passed off as a subtree.
+ * Nodes are paired left to right and an unpaired node is promoted to the next level;
+ * equivalently, a range of n leaves splits at the largest power of two below n. That
+ * split lets large trees be hashed as independent subtrees on a fork/join pool while
+ * producing the same root as a sequential pass.
+ */
+public final class MerkleTree {
+    public static final int HASH_LENGTH = 32;
+    public static final int PARALLEL_THRESHOLD = 1024; // Leaves hashed sequentially per task
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+
+    /**
+     * The root of a tree with no leaves: SHA-256 of the empty string.
+     */
+    public static final byte[] EMPTY_ROOT = SHA256.get().digest();
+
+    private MerkleTree() {
+    }
+
+    /**
+     * Computes the Merkle root of a list of data items, hashing each item as a leaf.
+     *
+     * @param items The leaf data, in order.
+     * @return The 32-byte root, or {@link #EMPTY_ROOT} for an empty list.
+     * @throws IllegalArgumentException if items is null or contains null
+     */
+    public static byte[] computeRoot(List<byte[]> items) {
+        return computeRoot(items, MerkleTree::leafHash);
+    }
+
+    /**
+     * Computes the Merkle root of a list of values, hashing each with the given leaf function.
+     *
+     * @param items      The values, in order.
+     * @param leafHasher Maps a value to its 32-byte leaf digest; called from pool threads for large lists.
+     * @return The 32-byte root, or {@link #EMPTY_ROOT} for an empty list.
+     * @throws IllegalArgumentException if items or leafHasher is null
+     */
+    public static <T> byte[] computeRoot(List<T> items, Function<? super T, byte[]> leafHasher) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        if (leafHasher == null) {
+            throw new IllegalArgumentException("Leaf hasher cannot be null");
+        }
+        return computeRoot(items.size(), index -> leafHasher.apply(items.get(index)));
+    }
+
+    /**
+     * Computes the Merkle root of leaves that are already digests, such as transaction hashes.
+     *
+     * @param digests The 32-byte leaf digests, in order.
+     * @return The 32-byte root, or {@link #EMPTY_ROOT} for an empty list.
+     * @throws IllegalArgumentException if digests is null or a digest is not 32 bytes
+     */
+    public static byte[] computeRootOfDigests(List<byte[]> digests) {
+        if (digests == null) {
+            throw new IllegalArgumentException("Digests cannot be null");
+        }
+        return computeRoot(digests.size(), digests::get);
+    }
+
+    /**
+     * Computes the Merkle root of leafCount leaves produced by index on the common pool.
+     *
+     * @param leafCount  The number of leaves.
+     * @param leafDigest Produces the 32-byte digest of the leaf at an index.
+     * @return The 32-byte root, or {@link #EMPTY_ROOT} when there are no leaves.
+     * @throws IllegalArgumentException if parameters are invalid or a leaf digest is not 32 bytes
+     */
+    public static byte[] computeRoot(int leafCount, IntFunction<byte[]> leafDigest) {
+        return computeRoot(leafCount, leafDigest, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the Merkle root of leafCount leaves produced by index. Subtrees larger than
+     * {@link #PARALLEL_THRESHOLD} leaves are hashed as separate tasks on the given pool.
+     *
+     * @param leafCount  The number of leaves.
+     * @param leafDigest Produces the 32-byte digest of the leaf at an index.
+     * @param pool       The pool used for large trees.
+     * @return The 32-byte root, or {@link #EMPTY_ROOT} when there are no leaves.
+     * @throws IllegalArgumentException if parameters are invalid or a leaf digest is not 32 bytes
+     */
+    public static byte[] computeRoot(int leafCount, IntFunction<byte[]> leafDigest, ForkJoinPool pool) {
+        if (leafCount < 0) {
+            throw new IllegalArgumentException("Leaf count cannot be negative");
+        }
+        if (leafDigest == null) {
+            throw new IllegalArgumentException("Leaf digest function cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (leafCount == 0) {
+            return EMPTY_ROOT.clone();
+        }
+        if (leafCount <= PARALLEL_THRESHOLD) {
+            return sequentialRoot(leafDigest, 0, leafCount);
+        }
+        return pool.invoke(new SubtreeTask(leafDigest, 0, leafCount));
+    }
+
+    /**
+     * Hashes a leaf.
+     *
+     * @param data The leaf data.
+     * @return SHA-256(0x00 || data)
+     * @throws IllegalArgumentException if data is null
+     */
+    public static byte[] leafHash(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Leaf data cannot be null");
+        }
+        MessageDigest digest = SHA256.get();
+        digest.update(LEAF_PREFIX);
+        digest.update(data);
+        return digest.digest();
+    }
+
+    /**
+     * Hashes a leaf from the remaining bytes of a buffer without copying them.
+     * The buffer's position is left unchanged.
+     *
+     * @param data The leaf data.
+     * @return SHA-256(0x00 || data)
+     * @throws IllegalArgumentException if data is null
+     */
+    public static byte[] leafHash(ByteBuffer data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Leaf data cannot be null");
+        }
+        MessageDigest digest = SHA256.get();
+        digest.update(LEAF_PREFIX);
+        digest.update(data.duplicate());
+        return digest.digest();
+    }
+
+    /**
+     * Hashes two child digests into their parent.
+     *
+     * @param left  The left child digest.
+     * @param right The right child digest.
+     * @return SHA-256(0x01 || left || right)
+     * @throws IllegalArgumentException if either digest is not 32 bytes
+     */
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        checkDigest(left);
+        checkDigest(right);
+        MessageDigest digest = SHA256.get();
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    // Hashes the leaves of [from, to) and folds them level by level in one array
+    private static byte[] sequentialRoot(IntFunction<byte[]> leafDigest, int from, int to) {
+        int count = to - from;
+        byte[][] level = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            level[i] = checkDigest(leafDigest.apply(from + i));
+        }
+        while (count > 1) {
+            int next = 0;
+            for (int i = 0; i < count; i += 2) {
+                level[next++] = i + 1 < count ? nodeHash(level[i], level[i + 1]) : level[i];
+            }
+            count = next;
+        }
+        return level[0];
+    }
+
+    private static byte[] checkDigest(byte[] digest) {
+        if (digest == null || digest.length != HASH_LENGTH) {
+            throw new IllegalArgumentException("Merkle digests must be " + HASH_LENGTH + " bytes");
+        }
+        return digest;
+    }
+
+    /**
+     * Computes the root of the leaves in [from, to), forking the left subtree
+     * and hashing the right one in the current thread.
+     */
+    private static final class SubtreeTask extends RecursiveTask<byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntFunction<byte[]> leafDigest;
+        private final int from;
+        private final int to;
+
+        SubtreeTask(IntFunction<byte[]> leafDigest, int from, int to) {
+            this.leafDigest = leafDigest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected byte[] compute() {
+            int count = to - from;
+            if (count <= PARALLEL_THRESHOLD) {
+                return sequentialRoot(leafDigest, from, to);
+            }
+            // The left subtree is the largest complete tree that leaves at least one leaf on the right
+            int split = from + Integer.highestOneBit(count - 1);
+            SubtreeTask left = new SubtreeTask(leafDigest, from, split);
+            left.fork();
+            byte[] right = new SubtreeTask(leafDigest, split, to).compute();
+            return nodeHash(left.join(), right);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.app.core.encoder;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryReader decodes fields written by {@link BinaryWriter} from a ByteBuffer.
+ * Reading advances the buffer's position; the buffer's limit bounds every read,
+ * so malformed input fails with IllegalArgumentException instead of over-reading.
+ */
+public class BinaryReader {
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructor to initialize a BinaryReader over a byte array.
+     *
+     * @param data The encoded bytes.
+     * @throws IllegalArgumentException if data is null
+     */
+    public BinaryReader(byte[] data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Data cannot be null");
+        }
+        this.buffer = ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Constructor to initialize a BinaryReader over a buffer. The reader consumes
+     * the buffer from its current position to its limit.
+     *
+     * @param buffer The encoded bytes.
+     * @throws IllegalArgumentException if buffer is null
+     */
+    public BinaryReader(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads one unsigned byte.
+     *
+     * @return The byte value in the range 0-255.
+     */
+    public int readByte() {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads a boolean written as one byte.
+     *
+     * @return The boolean value.
+     */
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @return The value.
+     * @throws IllegalArgumentException if the varint is truncated or longer than ten bytes
+     */
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    /**
+     * Reads a non-negative int varint.
+     *
+     * @return The value.
+     * @throws IllegalArgumentException if the value does not fit in an int
+     */
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a zigzag-encoded signed varint.
+     *
+     * @return The value.
+     */
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Reads a fixed-width big-endian long.
+     *
+     * @return The value.
+     */
+    public long readLong() {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads a fixed number of bytes.
+     *
+     * @param length The number of bytes.
+     * @return The bytes.
+     */
+    public byte[] readRaw(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a length-prefixed byte array.
+     *
+     * @return The bytes, never null.
+     */
+    public byte[] readBytes() {
+        return readRaw(readVarInt());
+    }
+
+    /**
+     * Reads an optional byte array.
+     *
+     * @return The bytes, or null.
+     */
+    public byte[] readNullableBytes() {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field length out of range: " + (length - 1));
+        }
+        return readRaw((int) (length - 1));
+    }
+
+    /**
+     * Reads an optional UTF-8 string.
+     *
+     * @return The string, or null.
+     */
+    public String readString() {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field length out of range: " + (length - 1));
+        }
+        int size = (int) (length - 1);
+        require(size);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), size, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + size);
+        } else {
+            value = new String(readRaw(size), StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Reads an optional BigInteger.
+     *
+     * @return The value, or null.
+     */
+    public BigInteger readBigInteger() {
+        byte[] bytes = readNullableBytes();
+        if (bytes == null) {
+            return null;
+        }
+        return bytes.length == 0 ? BigInteger.ZERO : new BigInteger(bytes);
+    }
+
+    /**
+     * Skips a length-prefixed byte array without copying it.
+     */
+    public void skipBytes() {
+        int length = readVarInt();
+        require(length);
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Returns a view of the next length-prefixed byte array without copying it,
+     * and advances past it.
+     *
+     * @return A buffer sharing content with the source, positioned at 0.
+     */
+    public ByteBuffer readBytesView() {
+        int length = readVarInt();
+        require(length);
+        ByteBuffer view = buffer.slice();
+        view.limit(length);
+        buffer.position(buffer.position() + length);
+        return view;
+    }
+
+    /**
+     * Gets the current read position.
+     *
+     * @return The position in the underlying buffer
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Gets the number of unread bytes.
+     *
+     * @return The remaining byte count
+     */
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    private void require(int length) {
+        if (length < 0 || buffer.remaining() < length) {
+            throw new IllegalArgumentException("Truncated input: need " + length +
+                    " bytes, have " + buffer.remaining());
+        }
+    }
+}
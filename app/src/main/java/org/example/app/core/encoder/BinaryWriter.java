@@ -0,0 +1,271 @@
+package org.example.app.core.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * BinaryWriter appends schema-encoded fields to a growable ByteBuffer.
+ *
+ * Integers are unsigned LEB128 varints (signed values are zigzag-encoded first),
+ * byte arrays and strings are length-prefixed, and optional values use a length of
+ * zero for null and length + 1 otherwise. No reflection or class metadata is written;
+ * the reader must know the schema.
+ */
+public class BinaryWriter {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private ByteBuffer buffer;
+
+    /**
+     * Constructor to initialize a BinaryWriter with a default capacity.
+     */
+    public BinaryWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize a BinaryWriter.
+     *
+     * @param initialCapacity The initial buffer capacity in bytes.
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public BinaryWriter(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative");
+        }
+        this.buffer = ByteBuffer.allocate(Math.max(initialCapacity, 16));
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value The byte value.
+     * @return This writer.
+     */
+    public BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean as one byte.
+     *
+     * @param value The boolean value.
+     * @return This writer.
+     */
+    public BinaryWriter writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes an unsigned varint. Negative values take the full ten bytes.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public BinaryWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * Writes a non-negative int as a varint.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IllegalArgumentException if value is negative
+     */
+    public BinaryWriter writeVarInt(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint cannot be negative: " + value);
+        }
+        return writeVarLong(value);
+    }
+
+    /**
+     * Writes a signed value as a zigzag varint, so small negative values stay small.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public BinaryWriter writeSignedVarLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a fixed-width big-endian long.
+     *
+     * @param value The value.
+     * @return This writer.
+     */
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+        return this;
+    }
+
+    /**
+     * Writes bytes without a length prefix, for fields of fixed size.
+     *
+     * @param bytes The bytes.
+     * @return This writer.
+     */
+    public BinaryWriter writeRaw(byte[] bytes) {
+        return writeRaw(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a range of bytes without a length prefix.
+     *
+     * @param bytes  The source array.
+     * @param offset The start offset.
+     * @param length The number of bytes.
+     * @return This writer.
+     */
+    public BinaryWriter writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        buffer.put(bytes, offset, length);
+        return this;
+    }
+
+    /**
+     * Writes a length-prefixed byte array. Null is written as an empty array.
+     *
+     * @param bytes The bytes.
+     * @return This writer.
+     */
+    public BinaryWriter writeBytes(byte[] bytes) {
+        if (bytes == null) {
+            return writeVarInt(0);
+        }
+        writeVarInt(bytes.length);
+        return writeRaw(bytes);
+    }
+
+    /**
+     * Writes the content of another writer as a length-prefixed byte array, so nested
+     * records can be skipped by readers without decoding them.
+     *
+     * @param nested The writer holding the nested record.
+     * @return This writer.
+     */
+    public BinaryWriter writeBytes(BinaryWriter nested) {
+        writeVarInt(nested.size());
+        return writeRaw(nested.buffer.array(), 0, nested.size());
+    }
+
+    /**
+     * Writes an optional byte array, preserving the difference between null and empty.
+     *
+     * @param bytes The bytes, or null.
+     * @return This writer.
+     */
+    public BinaryWriter writeNullableBytes(byte[] bytes) {
+        if (bytes == null) {
+            return writeVarInt(0);
+        }
+        writeVarLong(bytes.length + 1L);
+        return writeRaw(bytes);
+    }
+
+    /**
+     * Writes an optional UTF-8 string.
+     *
+     * @param value The string, or null.
+     * @return This writer.
+     */
+    public BinaryWriter writeString(String value) {
+        return writeNullableBytes(value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Writes an optional BigInteger as its two's-complement bytes.
+     *
+     * @param value The value, or null.
+     * @return This writer.
+     */
+    public BinaryWriter writeBigInteger(BigInteger value) {
+        return writeNullableBytes(value != null ? value.toByteArray() : null);
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return The encoded size
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Discards the written bytes so the writer can be reused.
+     *
+     * @return This writer.
+     */
+    public BinaryWriter reset() {
+        buffer.clear();
+        return this;
+    }
+
+    /**
+     * Copies the written bytes into a new array.
+     *
+     * @return The encoded bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Gets a read-only view of the written bytes without copying.
+     *
+     * @return A buffer positioned at 0 with the written bytes remaining
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.flip();
+        return view;
+    }
+
+    /**
+     * Copies the written bytes into a target buffer.
+     *
+     * @param target The destination buffer.
+     * @throws java.nio.BufferOverflowException if target has insufficient space
+     */
+    public void writeTo(ByteBuffer target) {
+        target.put(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * Writes the written bytes to an output stream without copying them.
+     *
+     * @param out The destination stream.
+     * @throws IOException if the stream write fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private void ensureCapacity(int additional) {
+        if (buffer.remaining() >= additional) {
+            return;
+        }
+        int required = buffer.position() + additional;
+        int newCapacity = Math.max(buffer.capacity() * 2, required);
+        ByteBuffer grown = ByteBuffer.allocate(newCapacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -14,9 +14,54 @@ interface Decoder<T> {
     T decode() throws IOException, ClassNotFoundException;
 }
 
-// Transaction Encoder using ObjectOutputStream
+// Length-prefixed record framing shared by the binary encoders and decoders.
+// Each record is a varint length followed by the schema-encoded object, so any
+// number of objects can be written to and read from one stream.
+final class BinaryRecords {
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024; // Upper bound on a single record (64MB)
+
+    private BinaryRecords() {
+    }
+
+    static void write(OutputStream outputStream, BinaryWriter header, BinaryWriter body) throws IOException {
+        header.reset().writeVarInt(body.size());
+        header.writeTo(outputStream);
+        body.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+    static BinaryReader read(InputStream inputStream) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = inputStream.read();
+            if (b < 0) {
+                throw new EOFException(shift == 0 ? "End of stream" : "Truncated record length");
+            }
+            if (shift > 28) {
+                throw new IOException("Record length varint too long");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > MAX_RECORD_SIZE) {
+            throw new IOException("Invalid record length: " + length);
+        }
+
+        byte[] record = inputStream.readNBytes(length);
+        if (record.length != length) {
+            throw new EOFException("Truncated record: expected " + length + " bytes, got " + record.length);
+        }
+        return new BinaryReader(record);
+    }
+}
+
+// Transaction Encoder using the schema-based binary format
 class GobTxEncoder implements Encoder<Transaction> {
     private final OutputStream outputStream;
+    private final BinaryWriter header = new BinaryWriter(16);
+    private final BinaryWriter body = new BinaryWriter();
 
     public GobTxEncoder(OutputStream outputStream) {
         this.outputStream = outputStream;
@@ -24,13 +69,12 @@ class GobTxEncoder implements Encoder<Transaction> {
 
     @Override
     public void encode(Transaction transaction) throws IOException {
-        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
-            objectOutputStream.writeObject(transaction);
-        }
+        transaction.writeTo(body.reset());
+        BinaryRecords.write(outputStream, header, body);
     }
 }
 
-// Transaction Decoder using ObjectInputStream
+// Transaction Decoder for the schema-based binary format
 class GobTxDecoder implements Decoder<Transaction> {
     private final InputStream inputStream;
 
@@ -39,16 +83,20 @@ class GobTxDecoder implements Decoder<Transaction> {
     }
 
     @Override
-    public Transaction decode() throws IOException, ClassNotFoundException {
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
-            return (Transaction) objectInputStream.readObject();
+    public Transaction decode() throws IOException {
+        try {
+            return Transaction.readFrom(BinaryRecords.read(inputStream));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed transaction record: " + e.getMessage(), e);
         }
     }
 }
 
-// Block Encoder using ObjectOutputStream
+// Block Encoder using the schema-based binary format
 class GobBlockEncoder implements Encoder<Block> {
     private final OutputStream outputStream;
+    private final BinaryWriter header = new BinaryWriter(16);
+    private final BinaryWriter body = new BinaryWriter(4096);
 
     public GobBlockEncoder(OutputStream outputStream) {
         this.outputStream = outputStream;
@@ -56,13 +104,12 @@ class GobBlockEncoder implements Encoder<Block> {
 
     @Override
     public void encode(Block block) throws IOException {
-        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
-            objectOutputStream.writeObject(block);
-        }
+        block.writeTo(body.reset());
+        BinaryRecords.write(outputStream, header, body);
     }
 }
 
-// Block Decoder using ObjectInputStream
+// Block Decoder for the schema-based binary format
 class GobBlockDecoder implements Decoder<Block> {
     private final InputStream inputStream;
 
@@ -71,9 +118,11 @@ class GobBlockDecoder implements Decoder<Block> {
     }
 
     @Override
-    public Block decode() throws IOException, ClassNotFoundException {
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
-            return (Block) objectInputStream.readObject();
+    public Block decode() throws IOException {
+        try {
+            return Block.readFrom(BinaryRecords.read(inputStream));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed block record: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,271 @@
+package org.example.app.core.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recursive Length Prefix encoding, the canonical format used for trie nodes and
+ * account records.
+ *
+ * A string of one byte below 0x80 encodes as itself; other strings are prefixed with
+ * 0x80 + length (up to 55 bytes) or 0xb7 + the length of a big-endian length. Lists use
+ * 0xc0 and 0xf7 in the same way over the concatenated encodings of their items.
+ */
+public final class Rlp {
+    public static final byte[] EMPTY_STRING = {(byte) 0x80};
+    public static final byte[] EMPTY_LIST = {(byte) 0xc0};
+
+    private Rlp() {
+    }
+
+    /**
+     * Encodes a byte string.
+     *
+     * @param bytes The bytes; null is encoded as the empty string.
+     * @return The encoding.
+     */
+    public static byte[] encodeString(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY_STRING;
+        }
+        if (bytes.length == 1 && (bytes[0] & 0xFF) < 0x80) {
+            return bytes.clone();
+        }
+        byte[] prefix = prefix(0x80, bytes.length);
+        byte[] encoded = Arrays.copyOf(prefix, prefix.length + bytes.length);
+        System.arraycopy(bytes, 0, encoded, prefix.length, bytes.length);
+        return encoded;
+    }
+
+    /**
+     * Encodes a non-negative integer as its minimal big-endian bytes.
+     *
+     * @param value The value.
+     * @return The encoding.
+     * @throws IllegalArgumentException if value is negative
+     */
+    public static byte[] encodeLong(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("RLP integers cannot be negative: " + value);
+        }
+        return encodeString(toMinimalBytes(value));
+    }
+
+    /**
+     * Encodes a non-negative BigInteger as its minimal big-endian bytes.
+     *
+     * @param value The value; null is encoded as zero.
+     * @return The encoding.
+     * @throws IllegalArgumentException if value is negative
+     */
+    public static byte[] encodeBigInteger(BigInteger value) {
+        if (value == null || value.signum() == 0) {
+            return EMPTY_STRING;
+        }
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException("RLP integers cannot be negative: " + value);
+        }
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return encodeString(bytes);
+    }
+
+    /**
+     * Encodes a list from the encodings of its items.
+     *
+     * @param encodedItems The already-encoded items.
+     * @return The encoding.
+     */
+    public static byte[] encodeList(byte[]... encodedItems) {
+        int length = 0;
+        for (byte[] item : encodedItems) {
+            length += item.length;
+        }
+        byte[] prefix = prefix(0xc0, length);
+        byte[] encoded = Arrays.copyOf(prefix, prefix.length + length);
+        int offset = prefix.length;
+        for (byte[] item : encodedItems) {
+            System.arraycopy(item, 0, encoded, offset, item.length);
+            offset += item.length;
+        }
+        return encoded;
+    }
+
+    /**
+     * Encodes a list from the encodings of its items.
+     *
+     * @param encodedItems The already-encoded items.
+     * @return The encoding.
+     */
+    public static byte[] encodeList(List<byte[]> encodedItems) {
+        return encodeList(encodedItems.toArray(new byte[0][]));
+    }
+
+    /**
+     * Decodes a single item that spans the whole input.
+     *
+     * @param data The encoding.
+     * @return The decoded item.
+     * @throws IllegalArgumentException if the input is malformed or has trailing bytes
+     */
+    public static Item decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("RLP data cannot be null or empty");
+        }
+        Item item = decode(data, 0, data.length);
+        if (item.encodedLength != data.length) {
+            throw new IllegalArgumentException("Trailing bytes after RLP item");
+        }
+        return item;
+    }
+
+    private static Item decode(byte[] data, int offset, int limit) {
+        if (offset >= limit) {
+            throw new IllegalArgumentException("Truncated RLP item");
+        }
+        int first = data[offset] & 0xFF;
+        if (first < 0x80) {
+            return new Item(data, offset, 1, offset, 1, null);
+        }
+
+        boolean list = first >= 0xc0;
+        int base = list ? 0xc0 : 0x80;
+        int headerLength;
+        long payloadLength;
+        if (first - base <= 55) {
+            headerLength = 1;
+            payloadLength = first - base;
+        } else {
+            int lengthOfLength = first - base - 55;
+            headerLength = 1 + lengthOfLength;
+            if (offset + headerLength > limit || lengthOfLength > 4) {
+                throw new IllegalArgumentException("Truncated or oversized RLP length");
+            }
+            payloadLength = 0;
+            for (int i = 1; i <= lengthOfLength; i++) {
+                payloadLength = (payloadLength << 8) | (data[offset + i] & 0xFF);
+            }
+        }
+        if (offset + headerLength + payloadLength > limit) {
+            throw new IllegalArgumentException("Truncated RLP payload");
+        }
+
+        int payloadOffset = offset + headerLength;
+        int end = (int) (payloadOffset + payloadLength);
+        if (!list) {
+            return new Item(data, offset, end - offset, payloadOffset, (int) payloadLength, null);
+        }
+
+        List<Item> items = new ArrayList<>();
+        int position = payloadOffset;
+        while (position < end) {
+            Item item = decode(data, position, end);
+            items.add(item);
+            position += item.encodedLength;
+        }
+        return new Item(data, offset, end - offset, payloadOffset, (int) payloadLength,
+                Collections.unmodifiableList(items));
+    }
+
+    private static byte[] prefix(int base, int length) {
+        if (length <= 55) {
+            return new byte[]{(byte) (base + length)};
+        }
+        byte[] lengthBytes = toMinimalBytes(length);
+        byte[] prefix = new byte[1 + lengthBytes.length];
+        prefix[0] = (byte) (base + 55 + lengthBytes.length);
+        System.arraycopy(lengthBytes, 0, prefix, 1, lengthBytes.length);
+        return prefix;
+    }
+
+    private static byte[] toMinimalBytes(long value) {
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(value) + 7) / 8;
+        byte[] bytes = new byte[length];
+        for (int i = length - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * A decoded RLP item: either a byte string or a list of items. Items share the
+     * decoded array and copy only when asked for their bytes.
+     */
+    public static final class Item {
+        private final byte[] data;
+        private final int encodedOffset;
+        private final int encodedLength;
+        private final int payloadOffset;
+        private final int payloadLength;
+        private final List<Item> items;         // null for a string
+
+        private Item(byte[] data, int encodedOffset, int encodedLength, int payloadOffset, int payloadLength,
+                     List<Item> items) {
+            this.data = data;
+            this.encodedOffset = encodedOffset;
+            this.encodedLength = encodedLength;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+            this.items = items;
+        }
+
+        public boolean isList() {
+            return items != null;
+        }
+
+        /**
+         * Gets the items of a list.
+         *
+         * @return The items
+         * @throws IllegalStateException if this item is a string
+         */
+        public List<Item> getItems() {
+            if (items == null) {
+                throw new IllegalStateException("RLP item is not a list");
+            }
+            return items;
+        }
+
+        /**
+         * Gets the content of a string.
+         *
+         * @return A copy of the string bytes
+         * @throws IllegalStateException if this item is a list
+         */
+        public byte[] getBytes() {
+            if (items != null) {
+                throw new IllegalStateException("RLP item is a list");
+            }
+            return Arrays.copyOfRange(data, payloadOffset, payloadOffset + payloadLength);
+        }
+
+        /**
+         * Gets the content of a string as an unsigned integer.
+         *
+         * @return The value
+         */
+        public BigInteger getBigInteger() {
+            return payloadLength == 0 ? BigInteger.ZERO : new BigInteger(1, getBytes());
+        }
+
+        /**
+         * Gets the full encoding of this item, including its prefix.
+         *
+         * @return A copy of the encoded bytes
+         */
+        public byte[] getEncoded() {
+            return Arrays.copyOfRange(data, encodedOffset, encodedOffset + encodedLength);
+        }
+
+        public int getPayloadLength() {
+            return payloadLength;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.example.app.core.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * ExecutorRegistry is the single place where the node creates executors for blocking
+ * work: peer socket handlers, broadcast fan-out, UDP handlers and HTTP handlers.
+ *
+ * Each executor belongs to a subsystem with a concurrency limit and a queue capacity, which
+ * mean the same in both thread models: an executor runs at most limit tasks at once and holds
+ * at most capacity more waiting to run. A task submitted beyond that runs on the submitting
+ * thread, which slows the producer down instead of growing an unbounded backlog.
+ * With platform threads, each executor is a pool capped at the limit whose idle threads time
+ * out. With virtual threads, every admitted task gets its own virtual thread and waits for a
+ * permit before running. Virtual threads are enabled with {@link #setVirtualThreads(boolean)}
+ * or the system property {@code tinc.virtualThreads}.
+ *
+ * Long-lived loops, such as socket listeners, do not belong in these executors, where they
+ * would hold a slot forever; they run on a dedicated thread from {@link #startDedicatedThread}.
+ */
+public class ExecutorRegistry {
+    private static final Logger logger = Logger.getLogger(ExecutorRegistry.class.getName());
+
+    public static final String PEER = "peer";                   // Peer server and connection handlers
+    public static final String P2P_MANAGER = "p2p-manager";     // RobustP2PManager background tasks
+    public static final String BROADCAST = "broadcast";         // BroadcastManager fan-out
+    public static final String UDP = "udp";                     // UDP listener and message handlers
+    public static final String REST = "rest";                   // REST API request handlers
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "tinc.virtualThreads";
+
+    private static final int DEFAULT_CONCURRENCY_LIMIT = 256;
+    private static final int DEFAULT_QUEUE_CAPACITY = 4096;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private static final ExecutorRegistry SHARED = new ExecutorRegistry(Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY));
+
+    private final Map<String, Integer> concurrencyLimits;   // Running tasks per executor, by subsystem
+    private final Map<String, Integer> queueCapacities;     // Waiting tasks per executor, by subsystem
+    private volatile boolean virtualThreads;                // Applies to executors created afterwards
+
+    /**
+     * Constructor to initialize an ExecutorRegistry with the default subsystem limits.
+     *
+     * @param virtualThreads Whether new executors run tasks on virtual threads.
+     */
+    public ExecutorRegistry(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        this.concurrencyLimits = new ConcurrentHashMap<>();
+        this.queueCapacities = new ConcurrentHashMap<>();
+
+        concurrencyLimits.put(PEER, 512);
+        concurrencyLimits.put(P2P_MANAGER, 256);
+        concurrencyLimits.put(BROADCAST, 128);
+        concurrencyLimits.put(UDP, 128);
+        concurrencyLimits.put(REST, 64);
+    }
+
+    /**
+     * Gets the registry shared by all components of this node.
+     *
+     * @return The shared ExecutorRegistry
+     */
+    public static ExecutorRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Checks whether new executors run tasks on virtual threads.
+     *
+     * @return true if virtual threads are enabled, false otherwise
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Enables or disables virtual threads for executors created from now on.
+     * Existing executors keep their thread model until they are recreated.
+     *
+     * @param virtualThreads Whether new executors run tasks on virtual threads.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        logger.info("Executor registry using " + (virtualThreads ? "virtual" : "platform") + " threads");
+    }
+
+    /**
+     * Sets the maximum number of concurrently running tasks of each executor of a subsystem.
+     * Applies to executors created afterwards.
+     *
+     * @param subsystem The subsystem name.
+     * @param limit     The maximum number of concurrent tasks.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public void setConcurrencyLimit(String subsystem, int limit) {
+        if (subsystem == null || subsystem.isEmpty()) {
+            throw new IllegalArgumentException("Subsystem cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive");
+        }
+        concurrencyLimits.put(subsystem, limit);
+    }
+
+    /**
+     * Gets the concurrency limit of a subsystem.
+     *
+     * @param subsystem The subsystem name.
+     * @return The maximum number of concurrent tasks
+     */
+    public int getConcurrencyLimit(String subsystem) {
+        return concurrencyLimits.getOrDefault(subsystem, DEFAULT_CONCURRENCY_LIMIT);
+    }
+
+    /**
+     * Sets the number of tasks each executor of a subsystem queues while all its slots are busy.
+     * Applies to executors created afterwards.
+     *
+     * @param subsystem The subsystem name.
+     * @param capacity  The maximum number of waiting tasks.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public void setQueueCapacity(String subsystem, int capacity) {
+        if (subsystem == null || subsystem.isEmpty()) {
+            throw new IllegalArgumentException("Subsystem cannot be null or empty");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        queueCapacities.put(subsystem, capacity);
+    }
+
+    /**
+     * Gets the queue capacity of a subsystem.
+     *
+     * @param subsystem The subsystem name.
+     * @return The maximum number of waiting tasks per executor
+     */
+    public int getQueueCapacity(String subsystem) {
+        return queueCapacities.getOrDefault(subsystem, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Starts a long-lived loop, such as a socket listener, on its own daemon platform thread,
+     * outside every subsystem limit.
+     *
+     * @param name The thread name.
+     * @param loop The loop to run.
+     * @return The started thread
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public Thread startDedicatedThread(String name, Runnable loop) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Thread name cannot be null or empty");
+        }
+        if (loop == null) {
+            throw new IllegalArgumentException("Loop cannot be null");
+        }
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Creates an executor for a component of a subsystem. The caller owns the executor
+     * and shuts it down with the component.
+     *
+     * @param subsystem        The subsystem the component belongs to.
+     * @param threadNamePrefix The prefix for thread names.
+     * @return A new executor bounded by the subsystem's concurrency limit and queue capacity
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public ExecutorService newExecutor(String subsystem, String threadNamePrefix) {
+        if (subsystem == null || subsystem.isEmpty()) {
+            throw new IllegalArgumentException("Subsystem cannot be null or empty");
+        }
+        if (threadNamePrefix == null || threadNamePrefix.isEmpty()) {
+            throw new IllegalArgumentException("Thread name prefix cannot be null or empty");
+        }
+
+        int limit = getConcurrencyLimit(subsystem);
+        int capacity = getQueueCapacity(subsystem);
+        if (virtualThreads) {
+            ThreadFactory factory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+            return new LimitedExecutor(Executors.newThreadPerTaskExecutor(factory), limit, capacity);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(limit, limit,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // Threads are only created under load and released when idle, like the cached pools this replaces
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs each task on its own virtual thread once a running permit is available.
+     * Waiting for a permit parks the virtual thread, never the submitting thread, but at most
+     * limit + capacity tasks are admitted at once; beyond that the submitting thread runs the
+     * task itself, like the platform pool's caller-runs policy.
+     */
+    private static final class LimitedExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore running;  // Tasks allowed to run at once
+        private final Semaphore admitted; // Tasks running or waiting
+
+        private LimitedExecutor(ExecutorService delegate, int limit, int capacity) {
+            this.delegate = delegate;
+            this.running = new Semaphore(limit);
+            this.admitted = new Semaphore(limit + capacity);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (command == null) {
+                throw new NullPointerException("Task cannot be null");
+            }
+            if (!admitted.tryAcquire()) {
+                if (delegate.isShutdown()) {
+                    throw new RejectedExecutionException("Executor is shut down");
+                }
+                command.run();
+                return;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        running.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        admitted.release();
+                        return;
+                    }
+                    try {
+                        command.run();
+                    } finally {
+                        running.release();
+                        admitted.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admitted.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
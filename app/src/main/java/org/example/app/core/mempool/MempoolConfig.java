@@ -8,12 +8,16 @@ public class MempoolConfig {
     private final BigInteger minGasPrice;
     private final int maxTransactionsPerAccount;
     private final long txTimeout;
+    private final int priceBump;
+    private final int shardCount;
 
     public static class Builder {
         private int maxSize = 10000;
         private BigInteger minGasPrice = BigInteger.valueOf(1000000000); // 1 Gwei
         private int maxTransactionsPerAccount = 100;
         private long txTimeout = 3600000; // 1 hour in milliseconds
+        private int priceBump = 10; // Percent a replacement must raise the gas price by
+        private int shardCount = 16; // Independently locked sender partitions
 
         public Builder maxSize(int maxSize) {
             this.maxSize = maxSize;
@@ -35,6 +39,16 @@ public class MempoolConfig {
             return this;
         }
 
+        public Builder priceBump(int priceBump) {
+            this.priceBump = priceBump;
+            return this;
+        }
+
+        public Builder shardCount(int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
         public MempoolConfig build() {
             return new MempoolConfig(this);
         }
@@ -45,6 +59,8 @@ public class MempoolConfig {
         this.minGasPrice = builder.minGasPrice;
         this.maxTransactionsPerAccount = builder.maxTransactionsPerAccount;
         this.txTimeout = builder.txTimeout;
+        this.priceBump = builder.priceBump;
+        this.shardCount = builder.shardCount;
     }
 
     // Getters
@@ -52,4 +68,6 @@ public class MempoolConfig {
     public BigInteger getMinGasPrice() { return minGasPrice; }
     public int getMaxTransactionsPerAccount() { return maxTransactionsPerAccount; }
     public long getTxTimeout() { return txTimeout; }
+    public int getPriceBump() { return priceBump; }
+    public int getShardCount() { return shardCount; }
 }
\ No newline at end of file
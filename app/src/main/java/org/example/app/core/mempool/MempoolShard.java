@@ -0,0 +1,485 @@
+package org.example.app.core.mempool;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+import org.example.app.core.block.Transaction;
+
+/**
+ * MempoolShard holds the per-sender nonce queues of the senders that hash to it, under its own lock.
+ *
+ * The shards of a {@link TransactionPool} share the pool-wide transaction count, which bounds the
+ * pool size, and the arrival counter, so entries of different shards compare consistently in
+ * {@link #PRICE_ORDER}.
+ */
+final class MempoolShard {
+
+    // Best first: highest gas price, then earliest arrival
+    static final Comparator<Entry> PRICE_ORDER = (a, b) -> {
+        int byPrice = b.gasPrice.compareTo(a.gasPrice);
+        return byPrice != 0 ? byPrice : Long.compare(a.sequence, b.sequence);
+    };
+
+    private final MempoolConfig config;
+    private final long maxSize;                          // Maximum number of transactions in the pool
+    private final ToLongFunction<String> accountNonces;  // Next nonce of a sender's account; may be null
+    private final AtomicInteger poolSize;                // Transactions held by all shards of the pool
+    private final AtomicLong sequence;                   // Arrival counter shared by all shards
+    private final ReentrantLock lock;
+    private final Map<String, SenderQueue> senders;      // Per-sender queues by sender address
+    private final LinkedHashMap<String, Long> nonceFloors; // Next nonce of senders whose queue emptied, LRU
+    private final TreeSet<Entry> executable;             // First pending transaction of each sender
+    private final TreeSet<Entry> byPrice;                // Every entry, best first, for eviction
+    private final LinkedHashSet<Entry> arrivals;         // Entries in arrival order, for expiry
+    private int size;                                    // Number of transactions held by this shard
+
+    MempoolShard(MempoolConfig config, long maxSize, ToLongFunction<String> accountNonces,
+                 AtomicInteger poolSize, AtomicLong sequence) {
+        this.config = config;
+        this.maxSize = maxSize;
+        this.accountNonces = accountNonces;
+        this.poolSize = poolSize;
+        this.sequence = sequence;
+        this.lock = new ReentrantLock();
+        this.senders = new HashMap<>();
+        this.nonceFloors = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.executable = new TreeSet<>(PRICE_ORDER);
+        this.byPrice = new TreeSet<>(PRICE_ORDER);
+        this.arrivals = new LinkedHashSet<>();
+    }
+
+    /**
+     * Adds a transaction, or replaces the queued transaction of the same sender and nonce.
+     *
+     * @param tx       The transaction.
+     * @param sender   The sender address of the transaction.
+     * @param gasPrice The gas price of the transaction.
+     * @return Whether the transaction was added, rejected, or only lacks room in the pool
+     */
+    Admission add(Transaction tx, String sender, BigInteger gasPrice) {
+        lock.lock();
+        try {
+            SenderQueue queue = senders.get(sender);
+            if (queue == null) {
+                queue = new SenderQueue(sender);
+                if (accountNonces != null) {
+                    queue.nextNonce = accountNonces.applyAsLong(sender);
+                    queue.nonceKnown = true;
+                }
+                // Nonces polled or included since the sender's last queue emptied stay used
+                Long floor = nonceFloors.get(sender);
+                if (floor != null && (!queue.nonceKnown || floor > queue.nextNonce)) {
+                    queue.nextNonce = floor;
+                    queue.nonceKnown = true;
+                }
+            }
+            long nonce = tx.getNonce();
+            if (queue.nonceKnown && nonce < queue.nextNonce) {
+                return Admission.REJECTED; // Already used by an included transaction
+            }
+
+            Entry existing = queue.transactions.get(nonce);
+            if (existing != null) {
+                return replace(queue, existing, tx, gasPrice) ? Admission.ADDED : Admission.REJECTED;
+            }
+            if (queue.transactions.size() >= config.getMaxTransactionsPerAccount()) {
+                return Admission.REJECTED;
+            }
+            if (!reserve()) {
+                evictExpired(System.currentTimeMillis());
+                if (!reserve()) {
+                    return Admission.FULL;
+                }
+            }
+
+            insert(queue, new Entry(tx, queue, nonce, gasPrice, sequence.getAndIncrement(), System.currentTimeMillis()));
+            return Admission.ADDED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the best executable transaction of this shard without removing it.
+     *
+     * @return The entry, or null if no transaction is executable
+     */
+    Entry peekBest() {
+        lock.lock();
+        try {
+            return executable.isEmpty() ? null : executable.first();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the cheapest transaction of this shard, executable or not, without removing it.
+     *
+     * @return The entry, or null if the shard is empty
+     */
+    Entry peekWorst() {
+        lock.lock();
+        try {
+            return byPrice.isEmpty() ? null : byPrice.last();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an entry and the later-nonce transactions of its sender, which could not execute
+     * without it.
+     *
+     * @param entry The entry.
+     * @return The number of transactions removed; 0 if the entry was already removed
+     */
+    int evictWithDependents(Entry entry) {
+        lock.lock();
+        try {
+            if (entry.removed) {
+                return 0;
+            }
+            SenderQueue queue = entry.queue;
+            int evicted = 0;
+            while (!queue.transactions.isEmpty() && queue.transactions.lastKey() >= entry.nonce) {
+                remove(queue.transactions.lastEntry().getValue());
+                evicted++;
+            }
+            refreshHead(queue);
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an entry returned by {@link #peekBest()} if it is still the best executable one.
+     *
+     * @param expected The entry.
+     * @return True if the entry was removed
+     */
+    boolean pollBest(Entry expected) {
+        lock.lock();
+        try {
+            if (executable.isEmpty() || executable.first() != expected) {
+                return false;
+            }
+            SenderQueue queue = expected.queue;
+            queue.nextNonce = expected.nonce + 1;
+            queue.nonceKnown = true;
+            remove(expected);
+            refreshHead(queue);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Selects the best executable transactions of this shard, in the order they should be executed.
+     * Each sender's transactions are selected in nonce order with no gaps.
+     *
+     * @param maxCount The maximum number of entries.
+     * @return The entries
+     */
+    List<Entry> select(int maxCount) {
+        lock.lock();
+        try {
+            List<Entry> selected = new ArrayList<>(Math.max(0, Math.min(maxCount, size)));
+            Iterator<Entry> heads = executable.iterator();
+            PriorityQueue<Entry> successors = new PriorityQueue<>(PRICE_ORDER);
+            Entry nextHead = heads.hasNext() ? heads.next() : null;
+
+            while (selected.size() < maxCount) {
+                Entry best;
+                Entry successor = successors.peek();
+                if (nextHead != null && (successor == null || PRICE_ORDER.compare(nextHead, successor) <= 0)) {
+                    best = nextHead;
+                    nextHead = heads.hasNext() ? heads.next() : null;
+                } else if (successor != null) {
+                    best = successors.poll();
+                } else {
+                    break;
+                }
+                selected.add(best);
+
+                // The sender's next nonce becomes executable once this one is selected
+                Entry following = best.queue.transactions.get(best.nonce + 1);
+                if (following != null) {
+                    successors.add(following);
+                }
+            }
+            return selected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a sender's next nonce forward to at least a given nonce, dropping the sender's
+     * transactions below it. A sender with no queued transactions keeps the nonce as a floor for
+     * its later transactions.
+     *
+     * @param sender    The sender address.
+     * @param nextNonce The nonce the account's next transaction must have.
+     * @param onlyIfHigher Whether to leave a known next nonce that is already higher.
+     */
+    void advance(String sender, long nextNonce, boolean onlyIfHigher) {
+        lock.lock();
+        try {
+            SenderQueue queue = senders.get(sender);
+            if (queue != null && !(onlyIfHigher && queue.nonceKnown && nextNonce <= queue.nextNonce)) {
+                queue.nextNonce = nextNonce;
+                queue.nonceKnown = true;
+                while (!queue.transactions.isEmpty() && queue.transactions.firstKey() < nextNonce) {
+                    remove(queue.transactions.firstEntry().getValue());
+                }
+                refreshHead(queue);
+            } else if (queue == null) {
+                Long floor = nonceFloors.get(sender);
+                if (!(onlyIfHigher && floor != null && nextNonce <= floor)) {
+                    nonceFloors.put(sender, nextNonce);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops transactions that arrived more than the configured timeout before a given time.
+     *
+     * @param now The current time in milliseconds.
+     * @return The number of transactions dropped
+     */
+    int evictExpired(long now) {
+        lock.lock();
+        try {
+            int evicted = 0;
+            while (!arrivals.isEmpty()) {
+                Entry oldest = arrivals.iterator().next();
+                if (now - oldest.arrivalTime < config.getTxTimeout()) {
+                    break;
+                }
+                SenderQueue queue = oldest.queue;
+                if (!queue.nonceKnown && oldest.nonce == queue.transactions.firstKey()) {
+                    // Later transactions must wait for a replacement of this nonce
+                    queue.nextNonce = oldest.nonce;
+                    queue.nonceKnown = true;
+                }
+                remove(oldest);
+                refreshHead(queue);
+                evicted++;
+            }
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of entries tracked for expiry, which is always the number of transactions held
+    int arrivalCount() {
+        lock.lock();
+        try {
+            return arrivals.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Counts transactions executable, in nonce order, from their sender's next nonce
+    int pendingCount() {
+        lock.lock();
+        try {
+            int pending = 0;
+            for (Entry head : executable) {
+                long nonce = head.nonce;
+                while (head.queue.transactions.containsKey(nonce)) {
+                    pending++;
+                    nonce++;
+                }
+            }
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<Transaction> transactionsOf(String sender) {
+        lock.lock();
+        try {
+            SenderQueue queue = senders.get(sender);
+            List<Transaction> transactions = new ArrayList<>();
+            if (queue != null) {
+                for (Entry entry : queue.transactions.values()) {
+                    transactions.add(entry.tx);
+                }
+            }
+            return transactions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            poolSize.addAndGet(-size);
+            senders.clear(); // Nonce floors are kept, as their nonces stay used
+            executable.clear();
+            byPrice.clear();
+            arrivals.clear();
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Takes a slot in the pool, unless the pool is full
+    private boolean reserve() {
+        int current;
+        do {
+            current = poolSize.get();
+            if (current >= maxSize) {
+                return false;
+            }
+        } while (!poolSize.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // Replaces a queued transaction if the new gas price clears the required bump
+    private boolean replace(SenderQueue queue, Entry existing, Transaction tx, BigInteger gasPrice) {
+        BigInteger required = existing.gasPrice.multiply(BigInteger.valueOf(100L + config.getPriceBump()));
+        if (gasPrice.multiply(BigInteger.valueOf(100)).compareTo(required) < 0
+                || gasPrice.compareTo(existing.gasPrice) <= 0) {
+            return false;
+        }
+        remove(existing);
+        poolSize.incrementAndGet(); // The replacement takes the slot it frees
+        insert(queue, new Entry(tx, queue, existing.nonce, gasPrice, sequence.getAndIncrement(),
+                System.currentTimeMillis()));
+        return true;
+    }
+
+    // Inserts an entry whose pool slot is already taken
+    private void insert(SenderQueue queue, Entry entry) {
+        if (senders.putIfAbsent(queue.sender, queue) == null) {
+            nonceFloors.remove(queue.sender); // The queue now holds the sender's next nonce
+        }
+        queue.transactions.put(entry.nonce, entry);
+        byPrice.add(entry);
+        arrivals.add(entry);
+        size++;
+        refreshHead(queue);
+    }
+
+    // Removes an entry from its sender queue and frees its slot; the caller refreshes the sender's head
+    private void remove(Entry entry) {
+        SenderQueue queue = entry.queue;
+        if (queue.head == entry) {
+            executable.remove(entry);
+            queue.head = null;
+        }
+        queue.transactions.remove(entry.nonce);
+        byPrice.remove(entry);
+        arrivals.remove(entry);
+        entry.removed = true;
+        size--;
+        poolSize.decrementAndGet();
+        if (queue.transactions.isEmpty()) {
+            senders.remove(queue.sender);
+            if (queue.nonceKnown) {
+                nonceFloors.put(queue.sender, queue.nextNonce);
+            }
+        }
+    }
+
+    // Puts the sender's first executable transaction, if any, in the shard's price order
+    private void refreshHead(SenderQueue queue) {
+        Entry first = queue.transactions.isEmpty() ? null : queue.transactions.firstEntry().getValue();
+        Entry head = first != null && (!queue.nonceKnown || first.nonce == queue.nextNonce) ? first : null;
+        if (head == queue.head) {
+            return;
+        }
+        if (queue.head != null) {
+            executable.remove(queue.head);
+        }
+        queue.head = head;
+        if (head != null) {
+            executable.add(head);
+        }
+    }
+
+    // Outcome of an admission
+    enum Admission {
+        ADDED,    // Added, or replaced a transaction of the same sender and nonce
+        REJECTED, // Rejected on its own merits
+        FULL      // Acceptable, but the pool has no room
+    }
+
+    // The queued transactions of one sender
+    private static final class SenderQueue {
+        private final String sender;
+        private final TreeMap<Long, Entry> transactions = new TreeMap<>(); // By nonce
+        private long nextNonce;     // Nonce the sender's next executable transaction must have
+        private boolean nonceKnown; // False until the next nonce is known
+        private Entry head;         // Entry currently in the shard's price order
+
+        private SenderQueue(String sender) {
+            this.sender = sender;
+        }
+    }
+
+    // A queued transaction with the fields the orderings use
+    static final class Entry {
+        final Transaction tx;
+        private final SenderQueue queue;
+        final long nonce;
+        final BigInteger gasPrice;
+        private final long sequence;
+        private final long arrivalTime;
+        private boolean removed; // Set once removed, so stale eviction candidates are skipped
+
+        private Entry(Transaction tx, SenderQueue queue, long nonce, BigInteger gasPrice,
+                      long sequence, long arrivalTime) {
+            this.tx = tx;
+            this.queue = queue;
+            this.nonce = nonce;
+            this.gasPrice = gasPrice;
+            this.sequence = sequence;
+            this.arrivalTime = arrivalTime;
+        }
+
+        String sender() {
+            return queue.sender;
+        }
+    }
+}
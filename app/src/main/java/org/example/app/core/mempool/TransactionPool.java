@@ -1,60 +1,348 @@
 package org.example.app.core.mempool;
 
 import java.math.BigInteger;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.PriorityQueue;
-import java.util.Comparator;
-import org.example.app.core.types.*; // Keep existing types import
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
 import org.example.app.core.block.Transaction; // Add Transaction import
 
+/**
+ * TransactionPool holds pending transactions per sender, ordered by nonce, and hands out the
+ * best executable ones by gas price.
+ *
+ * A sender's transactions are pending while their nonces run on without a gap from the sender's
+ * next nonce, and future once a gap precedes them. Only the first pending transaction of each
+ * sender is in the price order, so taking the best transaction costs O(log n) and a sender's
+ * transactions always come out in nonce order; selecting k transactions for a block costs
+ * O(k log n) per shard.
+ *
+ * Senders are partitioned by address hash into {@link MempoolConfig#getShardCount()} shards, each
+ * with its own lock, so concurrent admissions only contend when their senders share a shard.
+ * Reads that span the pool merge the shards: each shard is read under its own lock, so a selection
+ * is nonce-valid per sender but is not an atomic snapshot of the whole pool.
+ *
+ * A transaction with the nonce of one already queued replaces it only when its gas price is higher
+ * by at least {@link MempoolConfig#getPriceBump()} percent. Senders are limited to
+ * {@link MempoolConfig#getMaxTransactionsPerAccount()} transactions, and transactions older than
+ * {@link MempoolConfig#getTxTimeout()} are dropped by {@link #evictExpired()}.
+ *
+ * When the pool is full, a new transaction displaces the cheapest transaction in the pool if it
+ * pays a higher gas price, and the cheapest transaction's later nonces go with it, since they could
+ * no longer execute. Each shard keeps all its entries in price order, so the cheapest transaction of
+ * the pool is found in O(log n) per shard.
+ *
+ * A sender's next nonce comes from the account nonce source when one is given. Otherwise the lowest
+ * queued nonce is taken as next until the pool learns better from a removed or included transaction.
+ */
 public class TransactionPool {
-    private final ConcurrentHashMap<String, Transaction> txPool;
-    private final PriorityQueue<Transaction> pendingTxs;
-    private final long maxSize;
+    private static final Logger logger = Logger.getLogger(TransactionPool.class.getName());
 
+    private final MempoolConfig config;
+    private final MempoolShard[] shards;  // Sender partitions, each independently locked
+    private final AtomicInteger size;     // Transactions held by all shards
+
+    /**
+     * Constructor to initialize a TransactionPool with no minimum gas price and the default
+     * per-account limit, timeout, price bump and shard count.
+     *
+     * @param maxSize The maximum number of transactions held.
+     */
     public TransactionPool(long maxSize) {
-        this.maxSize = maxSize;
-        this.txPool = new ConcurrentHashMap<>();
-        // Use BigInteger comparison instead of long
-        this.pendingTxs = new PriorityQueue<>(
-                Comparator.comparing(Transaction::getGasPrice).reversed()
-        );
+        this(new MempoolConfig.Builder().minGasPrice(BigInteger.ZERO).build(), maxSize, null);
+    }
+
+    /**
+     * Constructor to initialize a TransactionPool.
+     *
+     * @param config The mempool configuration.
+     * @throws IllegalArgumentException if config is null
+     */
+    public TransactionPool(MempoolConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Constructor to initialize a TransactionPool that knows the account nonces.
+     *
+     * @param config        The mempool configuration.
+     * @param accountNonces Gives the next nonce of a sender's account, or null if unknown.
+     * @throws IllegalArgumentException if config is null or its shard count is not positive
+     */
+    public TransactionPool(MempoolConfig config, ToLongFunction<String> accountNonces) {
+        this(config, config == null ? 0 : config.getMaxSize(), accountNonces);
     }
 
+    private TransactionPool(MempoolConfig config, long maxSize, ToLongFunction<String> accountNonces) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        if (config.getShardCount() <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.config = config;
+        this.size = new AtomicInteger();
+        this.shards = new MempoolShard[config.getShardCount()];
+        AtomicLong sequence = new AtomicLong();
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new MempoolShard(config, maxSize, accountNonces, size, sequence);
+        }
+    }
+
+    /**
+     * Adds a transaction, or replaces the queued transaction of the same sender and nonce.
+     * Only the shard of the transaction's sender is locked, unless the pool is full and a cheaper
+     * transaction must be evicted from another shard.
+     *
+     * @param tx The transaction.
+     * @return True if the transaction was added or replaced another
+     */
     public boolean addTransaction(Transaction tx) {
-        if (txPool.size() >= maxSize) {
+        String sender = senderOf(tx);
+        if (sender == null) {
             return false;
         }
-        // If no getHash(), use a unique identifier like transaction data or nonce
-        String txHash = generateTransactionHash(tx);
-
-        if (txPool.containsKey(txHash)) {
+        BigInteger gasPrice = tx.getGasPrice() != null ? tx.getGasPrice() : BigInteger.ZERO;
+        if (gasPrice.compareTo(config.getMinGasPrice()) < 0) {
             return false;
         }
-        txPool.put(txHash, tx);
-        pendingTxs.offer(tx);
-        return true;
+        MempoolShard shard = shardOf(sender);
+        while (true) {
+            MempoolShard.Admission admission = shard.add(tx, sender, gasPrice);
+            if (admission != MempoolShard.Admission.FULL) {
+                return admission == MempoolShard.Admission.ADDED;
+            }
+            if (!evictCheaperThan(sender, tx.getNonce(), gasPrice)) {
+                return false;
+            }
+        }
     }
 
-    // Fallback method to generate a unique hash if getHash() doesn't exist
-    private String generateTransactionHash(Transaction tx) {
-        // This is a simplistic approach and should be replaced with a proper hashing mechanism
-        return String.valueOf(tx.getNonce()) +
-                tx.getSender() +
-                tx.getRecipient() +
-                tx.getValue();
+    /**
+     * Removes and returns the best executable transaction across all shards.
+     *
+     * @return The transaction, or null if no transaction is executable
+     */
+    public Transaction getPendingTransaction() {
+        while (true) {
+            MempoolShard bestShard = null;
+            MempoolShard.Entry best = null;
+            for (MempoolShard shard : shards) {
+                MempoolShard.Entry head = shard.peekBest();
+                if (head != null && (best == null || MempoolShard.PRICE_ORDER.compare(head, best) < 0)) {
+                    best = head;
+                    bestShard = shard;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            // Another thread may have changed the shard since it was read; look again if so
+            if (bestShard.pollBest(best)) {
+                return best.tx;
+            }
+        }
     }
 
-    public Transaction getPendingTransaction() {
-        return pendingTxs.poll();
+    /**
+     * Selects the best executable transactions for a block without removing them, merging the
+     * selections of the shards by price. Each sender's transactions are selected in nonce order
+     * with no gaps, so the selection is nonce-valid.
+     *
+     * @param maxCount The maximum number of transactions.
+     * @return The transactions, in the order they should be executed
+     */
+    public List<Transaction> selectTransactions(int maxCount) {
+        // Each shard's selection is its best candidate at every step, so merging their heads by
+        // price gives the best candidate of the whole pool at every step
+        PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(
+                (a, b) -> MempoolShard.PRICE_ORDER.compare(a.current(), b.current()));
+        for (MempoolShard shard : shards) {
+            List<MempoolShard.Entry> entries = shard.select(maxCount);
+            if (!entries.isEmpty()) {
+                cursors.add(new ShardCursor(entries));
+            }
+        }
+
+        List<Transaction> selected = new ArrayList<>();
+        while (selected.size() < maxCount && !cursors.isEmpty()) {
+            ShardCursor cursor = cursors.poll();
+            selected.add(cursor.current().tx);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Removes transactions included in a block, along with any other queued transaction of their
+     * senders that the block made stale.
+     *
+     * @param included The included transactions.
+     */
+    public void removeIncluded(Collection<Transaction> included) {
+        if (included == null) {
+            return;
+        }
+        for (Transaction tx : included) {
+            String sender = senderOf(tx);
+            if (sender != null) {
+                shardOf(sender).advance(sender, tx.getNonce() + 1, true);
+            }
+        }
+    }
+
+    /**
+     * Sets the next nonce of a sender's account, dropping the sender's transactions below it.
+     *
+     * @param sender    The sender address.
+     * @param nextNonce The nonce the account's next transaction must have.
+     */
+    public void setAccountNonce(String sender, long nextNonce) {
+        if (sender != null) {
+            shardOf(sender).advance(sender, nextNonce, false);
+        }
+    }
+
+    /**
+     * Drops transactions that have been in the pool longer than the configured timeout.
+     *
+     * @return The number of transactions dropped
+     */
+    public int evictExpired() {
+        return evictExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Drops transactions that arrived more than the configured timeout before a given time.
+     *
+     * @param now The current time in milliseconds.
+     * @return The number of transactions dropped
+     */
+    public int evictExpired(long now) {
+        int evicted = 0;
+        for (MempoolShard shard : shards) {
+            evicted += shard.evictExpired(now);
+        }
+        if (evicted > 0) {
+            logger.fine("Evicted " + evicted + " expired transactions");
+        }
+        return evicted;
     }
 
     public int size() {
-        return txPool.size();
+        return size.get();
+    }
+
+    /**
+     * Counts the transactions that are executable, in nonce order, from their sender's next nonce.
+     *
+     * @return The number of pending transactions
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (MempoolShard shard : shards) {
+            pending += shard.pendingCount();
+        }
+        return pending;
+    }
+
+    /**
+     * Counts the transactions waiting for an earlier nonce of their sender.
+     *
+     * @return The number of future transactions
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (MempoolShard shard : shards) {
+            queued += shard.size() - shard.pendingCount();
+        }
+        return queued;
+    }
+
+    /**
+     * Gets the queued transactions of a sender.
+     *
+     * @param sender The sender address.
+     * @return The transactions in nonce order
+     */
+    public List<Transaction> getTransactions(String sender) {
+        return sender == null ? new ArrayList<>() : shardOf(sender).transactionsOf(sender);
+    }
+
+    public int getShardCount() {
+        return shards.length;
     }
 
     public void clear() {
-        txPool.clear();
-        pendingTxs.clear();
+        for (MempoolShard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    // Evicts the cheapest transaction of the pool and its dependents, if a new transaction outbids it
+    private boolean evictCheaperThan(String sender, long nonce, BigInteger gasPrice) {
+        MempoolShard worstShard = null;
+        MempoolShard.Entry worst = null;
+        for (MempoolShard shard : shards) {
+            MempoolShard.Entry candidate = shard.peekWorst();
+            if (candidate != null && (worst == null || MempoolShard.PRICE_ORDER.compare(candidate, worst) > 0)) {
+                worst = candidate;
+                worstShard = shard;
+            }
+        }
+        if (worst == null) {
+            return false;
+        }
+        if (worst.gasPrice.compareTo(gasPrice) >= 0) {
+            return false;
+        }
+        if (worst.sender().equals(sender) && worst.nonce < nonce) {
+            return false; // The new transaction would depend on the one evicted
+        }
+        int evicted = worstShard.evictWithDependents(worst);
+        if (evicted > 0) {
+            logger.fine("Pool full; evicted " + evicted + " transactions priced at " + worst.gasPrice);
+        }
+        // Retry even if another thread removed the entry first; the pool may have room now
+        return true;
+    }
+
+    private MempoolShard shardOf(String sender) {
+        int hash = sender.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    private static String senderOf(Transaction tx) {
+        if (tx == null) {
+            return null;
+        }
+        if (tx.getSender() != null) {
+            return tx.getSender();
+        }
+        return tx.getFrom() != null ? tx.getFrom().toString() : null;
+    }
+
+    // Position in one shard's selection while merging
+    private static final class ShardCursor {
+        private final List<MempoolShard.Entry> entries;
+        private int position;
+
+        private ShardCursor(List<MempoolShard.Entry> entries) {
+            this.entries = entries;
+        }
+
+        private MempoolShard.Entry current() {
+            return entries.get(position);
+        }
+
+        private boolean advance() {
+            return ++position < entries.size();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,47 @@
 package org.example.app.core.mempool;
 
 import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.TreeSet;
 import java.util.concurrent.locks.ReentrantLock;
 import java.math.BigInteger;
 import org.example.app.core.block.Transaction; // Add import for Transaction
 
+/**
+ * TransactionPriorityQueue is a bounded queue of transactions, best gas price first.
+ *
+ * Transactions are kept in an ordered set, so both the best and the cheapest transaction are
+ * reached in O(log n). When the queue is full, a new transaction evicts the cheapest one if it
+ * pays a higher gas price, and is rejected otherwise.
+ */
 public class TransactionPriorityQueue {
-    private final PriorityQueue<Transaction> queue;
+    private static final Comparator<Queued> ORDER = Comparator
+            .comparing((Queued queued) -> queued.gasPrice).reversed()
+            .thenComparingLong(queued -> queued.tx.getNonce())
+            .thenComparingLong(queued -> queued.sequence);
+
+    private final TreeSet<Queued> queue;
     private final ReentrantLock lock;
     private final int maxSize;
+    private long nextSequence; // Insertion counter, keeps equal transactions distinct
 
     public TransactionPriorityQueue(int maxSize) {
         this.maxSize = maxSize;
         this.lock = new ReentrantLock();
-        this.queue = new PriorityQueue<>(Comparator
-                .comparing(Transaction::getGasPrice)
-                .reversed()
-                .thenComparing(Transaction::getNonce));
+        this.queue = new TreeSet<>(ORDER);
     }
 
     public boolean add(Transaction tx) {
         lock.lock();
         try {
+            BigInteger gasPrice = tx.getGasPrice() != null ? tx.getGasPrice() : BigInteger.ZERO;
             if (queue.size() >= maxSize) {
-                Transaction lowestPriority = queue.peek();
-                if (lowestPriority != null &&
-                        lowestPriority.getGasPrice().compareTo(tx.getGasPrice()) >= 0) {
+                Queued lowestPriority = queue.isEmpty() ? null : queue.last();
+                if (lowestPriority == null || lowestPriority.gasPrice.compareTo(gasPrice) >= 0) {
                     return false;
                 }
-                queue.poll();
+                queue.pollLast();
             }
-            return queue.offer(tx);
+            return queue.add(new Queued(tx, gasPrice, nextSequence++));
         } finally {
             lock.unlock();
         }
@@ -40,14 +50,20 @@ public class TransactionPriorityQueue {
     public Transaction poll() {
         lock.lock();
         try {
-            return queue.poll();
+            Queued best = queue.pollFirst();
+            return best == null ? null : best.tx;
         } finally {
             lock.unlock();
         }
     }
 
     public int size() {
-        return queue.size();
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void clear() {
@@ -60,6 +76,19 @@ public class TransactionPriorityQueue {
     }
 
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return size() == 0;
+    }
+
+    // A queued transaction with the gas price it was queued at
+    private static final class Queued {
+        private final Transaction tx;
+        private final BigInteger gasPrice;
+        private final long sequence;
+
+        private Queued(Transaction tx, BigInteger gasPrice, long sequence) {
+            this.tx = tx;
+            this.gasPrice = gasPrice;
+            this.sequence = sequence;
+        }
     }
-}
\ No newline at end of file
+}
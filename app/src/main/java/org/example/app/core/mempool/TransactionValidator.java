@@ -2,13 +2,21 @@ package org.example.app.core.mempool;
 
 import java.math.BigInteger;
 import org.example.app.core.block.Transaction;
+import org.example.app.core.block.TransactionSignatureVerifier;
 import org.example.app.core.crypto.Keypair;
 
 public class TransactionValidator {
     private final MempoolConfig config;
+    private final TransactionSignatureVerifier signatureVerifier; // Shared with block import; null skips cryptographic checks
 
     public TransactionValidator(MempoolConfig config) {
+        this(config, null);
+    }
+
+    // Verified transactions are remembered by the verifier, so block import does not verify them again
+    public TransactionValidator(MempoolConfig config, TransactionSignatureVerifier signatureVerifier) {
         this.config = config;
+        this.signatureVerifier = signatureVerifier;
     }
 
     public boolean validateTransaction(Transaction tx) {
@@ -32,14 +40,18 @@ public class TransactionValidator {
             return false;
         }
 
-        return true;
+        // Signatures are checked last, as they are the most expensive check
+        return verifySignature(tx);
     }
 
     // Signature verification method
     private boolean verifySignature(Transaction tx) {
-        // Basic signature validation
-        // This relies on the isValid() method which already checks for signature existence
-        return true;
+        // Without a verifier this relies on the isValid() method, which already checks for signature existence
+        return signatureVerifier == null || signatureVerifier.verify(tx);
+    }
+
+    public TransactionSignatureVerifier getSignatureVerifier() {
+        return signatureVerifier;
     }
 
     // Check if sender has sufficient balance
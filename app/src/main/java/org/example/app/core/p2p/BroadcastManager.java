@@ -169,6 +169,8 @@
 
 package org.example.app.core.p2p;
 
+import org.example.app.core.internal.ExecutorRegistry;
+
 import java.util.*;
 import java.util.concurrent.*;
 import java.time.Instant;
@@ -190,6 +192,7 @@ public class BroadcastManager {
     private static final int MAX_RETRIES = 3;
     private static final long RETRY_DELAY_MS = 1000;
     private static final long ACKNOWLEDGMENT_TIMEOUT_MS = 10000; // 10 seconds
+    private static final long WRITE_TIMEOUT_MS = 5000; // Time allowed for a queued frame to reach the socket
 
     /**
      * Class to track the status of a message sent to a peer.
@@ -273,11 +276,8 @@ public class BroadcastManager {
         this.peer = peer;
         this.peers = Collections.synchronizedSet(peers != null ? new HashSet<>(peers) : new HashSet<>());
         this.peerStatuses = new ConcurrentHashMap<>();
-        this.broadcastExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "BroadcastThread-" + UUID.randomUUID().toString().substring(0, 8));
-            t.setDaemon(true);
-            return t;
-        });
+        this.broadcastExecutor = ExecutorRegistry.shared().newExecutor(ExecutorRegistry.BROADCAST,
+                "BroadcastThread-" + UUID.randomUUID().toString().substring(0, 8) + "-");
 
         // Initialize status tracking for existing peers
         if (peers != null) {
@@ -389,8 +389,8 @@ public class BroadcastManager {
                 ((PeerStatus)status).lastAttempt = Instant.now();
                 ((PeerStatus)status).retryCount = retryCount;
 
-                // Send the message
-                peer.sendMessage(message.getContent(), peerAddress);
+                // Send over the pooled connection; the message only counts as sent once it is written
+                peer.sendMessage(message, peerAddress).get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
 
                 // Update status
                 ((PeerStatus)status).status = BroadcastStatus.SENT;
@@ -398,6 +398,9 @@ public class BroadcastManager {
                         (retryCount > 0 ? " (Attempt " + (retryCount + 1) + ")" : ""));
 
                 return BroadcastStatus.SENT;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
                 retryCount++;
                 logger.log(Level.WARNING, "Failed to send message to " + peerAddress +
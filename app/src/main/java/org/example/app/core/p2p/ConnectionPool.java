@@ -0,0 +1,665 @@
+package org.example.app.core.p2p;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool keeps one long-lived, non-blocking TCP connection per peer and
+ * multiplexes length-prefixed frames over it. Each frame is a 4-byte big-endian
+ * length followed by the payload, the same framing Peer uses on its server socket.
+ * Frames queued while a connection is busy are written together with a single
+ * gathering write, and all connections are served by a small number of selector threads.
+ * The same threads accept inbound connections, so a listener costs no thread per client.
+ * Each send returns a future that completes once the frame has been fully written to the socket.
+ *
+ * Frame handlers run on the selector threads and must not block.
+ */
+public class ConnectionPool {
+    private static final Logger logger = Logger.getLogger(ConnectionPool.class.getName());
+
+    public static final int MAX_FRAME_SIZE = 1024 * 1024;   // Largest accepted payload (1MB, as in Peer)
+    public static final int DEFAULT_SELECTOR_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final int FRAME_HEADER_SIZE = 4;
+    private static final int INITIAL_READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_GATHERED_FRAMES = 64;      // Frames coalesced into one write call
+
+    /**
+     * Callback for frames received on a connection.
+     */
+    public interface FrameHandler {
+        /**
+         * Handles one received frame.
+         *
+         * @param connection The connection the frame arrived on, usable for replies.
+         * @param payload    The frame payload.
+         */
+        void onFrame(Connection connection, byte[] payload);
+    }
+
+    private final int selectorThreads;                          // Number of selector loops
+    private final int connectTimeoutMillis;                     // Timeout for establishing a connection
+    private final FrameHandler defaultHandler;                  // Handler for frames on outbound connections
+    private final ConcurrentMap<String, Connection> connections; // Outbound connections by "host:port"
+    private final Set<Connection> openConnections;              // Every open connection, inbound and outbound
+    private final Set<ServerSocketChannel> listeners;           // Bound server channels
+    private final AtomicInteger nextLoop;                       // Round-robin loop assignment
+    private SelectorLoop[] loops;                               // Started lazily on first use
+    private volatile boolean running;
+
+    /**
+     * Constructor to initialize a ConnectionPool.
+     *
+     * @param selectorThreads      The number of selector threads.
+     * @param connectTimeoutMillis The timeout in ms for establishing a connection.
+     * @param defaultHandler       The handler for frames received on outbound connections.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public ConnectionPool(int selectorThreads, int connectTimeoutMillis, FrameHandler defaultHandler) {
+        if (selectorThreads <= 0) {
+            throw new IllegalArgumentException("Selector thread count must be positive");
+        }
+        if (connectTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Connect timeout must be positive");
+        }
+        if (defaultHandler == null) {
+            throw new IllegalArgumentException("Frame handler cannot be null");
+        }
+
+        this.selectorThreads = selectorThreads;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.defaultHandler = defaultHandler;
+        this.connections = new ConcurrentHashMap<>();
+        this.openConnections = ConcurrentHashMap.newKeySet();
+        this.listeners = ConcurrentHashMap.newKeySet();
+        this.nextLoop = new AtomicInteger(0);
+        this.running = true;
+    }
+
+    /**
+     * Sends a frame to a peer, opening the pooled connection on first use.
+     * The frame is queued and written asynchronously by the selector thread.
+     *
+     * @param peerAddress The peer address in the format "host:port".
+     * @param payload     The frame payload.
+     * @return A future completed when the frame has been written, or failed if the connection closes first
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws IOException if the connection cannot be established
+     */
+    public CompletableFuture<Void> send(String peerAddress, byte[] payload) throws IOException {
+        return getConnection(peerAddress).send(payload);
+    }
+
+    /**
+     * Gets the pooled connection to a peer, connecting if there is none.
+     *
+     * @param peerAddress The peer address in the format "host:port".
+     * @return The open connection.
+     * @throws IllegalArgumentException if peerAddress is invalid
+     * @throws IOException if the connection cannot be established
+     */
+    public Connection getConnection(String peerAddress) throws IOException {
+        InetSocketAddress socketAddress = parseAddress(peerAddress);
+        ensureRunning();
+
+        while (true) {
+            Connection connection = connections.computeIfAbsent(peerAddress,
+                    address -> new Connection(address, nextLoop(), defaultHandler));
+            try {
+                connection.connect(socketAddress, connectTimeoutMillis);
+                return connection;
+            } catch (ClosedChannelException e) {
+                // Lost a race with a concurrent close; retry with a fresh connection
+                connections.remove(peerAddress, connection);
+            }
+        }
+    }
+
+    /**
+     * Starts accepting inbound connections on a port.
+     *
+     * @param port    The port to listen on, or 0 for an ephemeral port.
+     * @param handler The handler for frames received on accepted connections.
+     * @return The bound port.
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws IOException if the port cannot be bound
+     */
+    public int listen(int port, FrameHandler handler) throws IOException {
+        return listen(null, port, handler);
+    }
+
+    /**
+     * Starts accepting inbound connections on a local address. Accepted connections are
+     * served by the selector threads like outbound ones.
+     *
+     * @param host    The local host to bind, or null for all interfaces.
+     * @param port    The port to listen on, or 0 for an ephemeral port.
+     * @param handler The handler for frames received on accepted connections.
+     * @return The bound port.
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws IOException if the port cannot be bound
+     */
+    public int listen(String host, int port, FrameHandler handler) throws IOException {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Frame handler cannot be null");
+        }
+        ensureRunning();
+
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+            serverChannel.configureBlocking(false);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+
+        listeners.add(serverChannel);
+        SelectorLoop acceptLoop = nextLoop();
+        acceptLoop.execute(() -> {
+            try {
+                serverChannel.register(acceptLoop.selector, SelectionKey.OP_ACCEPT, handler);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to register listener on port " + port, e);
+            }
+        });
+
+        int boundPort = serverChannel.socket().getLocalPort();
+        logger.info("Connection pool listening on port " + boundPort);
+        return boundPort;
+    }
+
+    /**
+     * Closes the pooled connection to a peer, if any.
+     *
+     * @param peerAddress The peer address.
+     */
+    public void closeConnection(String peerAddress) {
+        Connection connection = connections.get(peerAddress);
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Gets the number of pooled outbound connections.
+     *
+     * @return The outbound connection count
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Gets the number of open connections, inbound and outbound.
+     *
+     * @return The open connection count
+     */
+    public int getOpenConnectionCount() {
+        return openConnections.size();
+    }
+
+    /**
+     * Closes all connections and listeners and stops the selector threads.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        for (ServerSocketChannel listener : listeners) {
+            try {
+                listener.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error closing listener", e);
+            }
+        }
+        listeners.clear();
+
+        for (Connection connection : openConnections) {
+            connection.close();
+        }
+
+        if (loops != null) {
+            for (SelectorLoop loop : loops) {
+                loop.shutdown();
+            }
+        }
+        logger.info("Connection pool shut down");
+    }
+
+    private synchronized void ensureRunning() {
+        if (!running) {
+            throw new IllegalStateException("Connection pool is shut down");
+        }
+        if (loops == null) {
+            SelectorLoop[] started = new SelectorLoop[selectorThreads];
+            for (int i = 0; i < selectorThreads; i++) {
+                started[i] = new SelectorLoop(i);
+            }
+            loops = started;
+        }
+    }
+
+    private SelectorLoop nextLoop() {
+        SelectorLoop[] current = loops;
+        return current[Math.floorMod(nextLoop.getAndIncrement(), current.length)];
+    }
+
+    private static InetSocketAddress parseAddress(String peerAddress) {
+        if (peerAddress == null || !peerAddress.contains(":")) {
+            throw new IllegalArgumentException("Invalid peer address. Must be in the format host:port");
+        }
+        int separator = peerAddress.lastIndexOf(':');
+        try {
+            int port = Integer.parseInt(peerAddress.substring(separator + 1));
+            return new InetSocketAddress(peerAddress.substring(0, separator), port);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid port in peer address: " + peerAddress);
+        }
+    }
+
+    /**
+     * A framed, full-duplex connection owned by one selector loop.
+     */
+    public final class Connection {
+        private final String remoteAddress;             // "host:port" of the remote side
+        private final SelectorLoop loop;                // Loop that performs all I/O for this connection
+        private final FrameHandler handler;             // Receives inbound frames
+        private final Queue<PendingFrame> outbound;     // Frames queued by senders
+        private final ConcurrentLinkedDeque<PendingFrame> writing; // Frames being written by the selector thread
+        private final AtomicBoolean flushScheduled;     // True while a flush is pending on the loop
+        private ByteBuffer readBuffer;                  // Partial inbound frames (selector thread only)
+        private volatile SocketChannel channel;
+        private volatile SelectionKey key;
+        private volatile boolean closed;
+
+        private Connection(String remoteAddress, SelectorLoop loop, FrameHandler handler) {
+            this.remoteAddress = remoteAddress;
+            this.loop = loop;
+            this.handler = handler;
+            this.outbound = new ConcurrentLinkedQueue<>();
+            this.writing = new ConcurrentLinkedDeque<>();
+            this.flushScheduled = new AtomicBoolean(false);
+            this.readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        }
+
+        /**
+         * Gets the remote address of this connection.
+         *
+         * @return The remote address in the format "host:port"
+         */
+        public String getRemoteAddress() {
+            return remoteAddress;
+        }
+
+        /**
+         * Checks whether this connection is open.
+         *
+         * @return true if open, false otherwise
+         */
+        public boolean isOpen() {
+            return !closed && channel != null && channel.isOpen();
+        }
+
+        /**
+         * Queues a frame for sending. Frames are written in the order they are queued.
+         *
+         * @param payload The frame payload.
+         * @return A future completed when the frame has been written, or failed if the connection closes first
+         * @throws IllegalArgumentException if payload is null or too large
+         * @throws IOException if the connection is closed
+         */
+        public CompletableFuture<Void> send(byte[] payload) throws IOException {
+            if (payload == null) {
+                throw new IllegalArgumentException("Payload cannot be null");
+            }
+            if (payload.length > MAX_FRAME_SIZE) {
+                throw new IllegalArgumentException("Payload exceeds maximum frame size: " + payload.length);
+            }
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+            frame.putInt(payload.length).put(payload).flip();
+            PendingFrame pending = new PendingFrame(frame);
+            outbound.offer(pending);
+            if (closed) {
+                // Closed while queueing; close() may already have drained the queue
+                failPending(new ClosedChannelException());
+            }
+
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(this::flush);
+            }
+            return pending.written;
+        }
+
+        /**
+         * Closes this connection. Frames that were not yet written are dropped.
+         */
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections.remove(remoteAddress, this);
+            openConnections.remove(this);
+
+            if (key != null) {
+                key.cancel();
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Error closing channel to " + remoteAddress, e);
+                }
+            }
+
+            int dropped = failPending(new ClosedChannelException());
+            if (dropped > 0) {
+                logger.warning("Closed connection to " + remoteAddress + " with " + dropped + " unsent frames");
+            } else {
+                logger.fine("Closed connection to " + remoteAddress);
+            }
+        }
+
+        // Fails the futures of every frame not yet written, returning how many there were
+        private int failPending(IOException cause) {
+            int failed = 0;
+            PendingFrame pending;
+            while ((pending = writing.pollFirst()) != null || (pending = outbound.poll()) != null) {
+                pending.written.completeExceptionally(cause);
+                failed++;
+            }
+            return failed;
+        }
+
+        private synchronized void connect(InetSocketAddress socketAddress, int timeoutMillis) throws IOException {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            if (channel != null) {
+                return;
+            }
+
+            SocketChannel socketChannel = SocketChannel.open();
+            try {
+                socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                socketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+                // Connect in blocking mode so callers see connection failures directly
+                socketChannel.socket().connect(socketAddress, timeoutMillis);
+                socketChannel.configureBlocking(false);
+            } catch (IOException e) {
+                socketChannel.close();
+                closed = true;
+                connections.remove(remoteAddress, this);
+                throw e;
+            }
+
+            attach(socketChannel);
+            logger.fine("Opened pooled connection to " + remoteAddress);
+        }
+
+        private void attach(SocketChannel socketChannel) {
+            this.channel = socketChannel;
+            openConnections.add(this);
+            loop.execute(() -> {
+                try {
+                    key = socketChannel.register(loop.selector, SelectionKey.OP_READ, this);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to register connection to " + remoteAddress, e);
+                    close();
+                }
+            });
+        }
+
+        /**
+         * Writes queued frames, coalescing up to MAX_GATHERED_FRAMES per write call.
+         * Runs on the selector thread.
+         */
+        private void flush() {
+            if (closed || key == null) {
+                // Not registered yet; registration was queued first, so this cannot persist
+                if (!closed) {
+                    loop.execute(this::flush);
+                }
+                return;
+            }
+
+            try {
+                while (true) {
+                    PendingFrame next;
+                    int queued = writing.size();
+                    while (queued < MAX_GATHERED_FRAMES && (next = outbound.poll()) != null) {
+                        writing.addLast(next);
+                        queued++;
+                    }
+                    if (queued == 0) {
+                        break;
+                    }
+
+                    ByteBuffer[] frames = new ByteBuffer[queued];
+                    int count = 0;
+                    for (PendingFrame pending : writing) {
+                        if (count == frames.length) {
+                            break;
+                        }
+                        frames[count++] = pending.frame;
+                    }
+                    channel.write(frames, 0, count);
+                    PendingFrame first;
+                    while ((first = writing.peekFirst()) != null && !first.frame.hasRemaining()) {
+                        writing.pollFirst();
+                        first.written.complete(null);
+                    }
+                    if (!writing.isEmpty()) {
+                        // Socket buffer is full; resume when the channel becomes writable
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                flushScheduled.set(false);
+                // A sender may have queued a frame after the last poll but before the flag was cleared
+                if (!outbound.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+                    loop.execute(this::flush);
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Write to " + remoteAddress + " failed", e);
+                close();
+            }
+        }
+
+        /**
+         * Reads available bytes and delivers every complete frame. Runs on the selector thread.
+         */
+        private void read() {
+            try {
+                int read = channel.read(readBuffer);
+                if (read < 0) {
+                    close();
+                    return;
+                }
+
+                readBuffer.flip();
+                while (readBuffer.remaining() >= FRAME_HEADER_SIZE) {
+                    int length = readBuffer.getInt(readBuffer.position());
+                    if (length < 0 || length > MAX_FRAME_SIZE) {
+                        throw new IOException("Invalid frame length: " + length);
+                    }
+                    if (readBuffer.remaining() < FRAME_HEADER_SIZE + length) {
+                        if (readBuffer.capacity() < FRAME_HEADER_SIZE + length) {
+                            readBuffer = ByteBuffer.allocate(FRAME_HEADER_SIZE + length)
+                                    .put(readBuffer).flip();
+                        }
+                        break;
+                    }
+
+                    readBuffer.position(readBuffer.position() + FRAME_HEADER_SIZE);
+                    byte[] payload = new byte[length];
+                    readBuffer.get(payload);
+                    deliver(payload);
+                }
+                readBuffer.compact();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Read from " + remoteAddress + " failed", e);
+                close();
+            }
+        }
+
+        private void deliver(byte[] payload) {
+            try {
+                handler.onFrame(this, payload);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Error handling frame from " + remoteAddress, e);
+            }
+        }
+    }
+
+    // A queued frame and the future completed once it has been written
+    private static final class PendingFrame {
+        private final ByteBuffer frame;
+        private final CompletableFuture<Void> written;
+
+        private PendingFrame(ByteBuffer frame) {
+            this.frame = frame;
+            this.written = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * A selector thread serving a subset of the connections.
+     */
+    private final class SelectorLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks;
+        private final Thread thread;
+
+        private SelectorLoop(int index) {
+            try {
+                this.selector = Selector.open();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open selector", e);
+            }
+            this.tasks = new ConcurrentLinkedQueue<>();
+            this.thread = new Thread(this, "p2p-selector-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void execute(Runnable task) {
+            tasks.offer(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    runTasks();
+
+                    Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                    while (selected.hasNext()) {
+                        SelectionKey selectedKey = selected.next();
+                        selected.remove();
+                        if (selectedKey.isValid()) {
+                            handle(selectedKey);
+                        }
+                    }
+                } catch (Exception e) {
+                    if (running) {
+                        logger.log(Level.WARNING, "Selector loop error", e);
+                    }
+                }
+            }
+
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing selector", e);
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Selector task failed", e);
+                }
+            }
+        }
+
+        private void handle(SelectionKey selectedKey) {
+            if (selectedKey.isAcceptable()) {
+                accept(selectedKey);
+                return;
+            }
+
+            Connection connection = (Connection) selectedKey.attachment();
+            if (selectedKey.isReadable()) {
+                connection.read();
+            }
+            if (selectedKey.isValid() && selectedKey.isWritable()) {
+                connection.flush();
+            }
+        }
+
+        private void accept(SelectionKey selectedKey) {
+            ServerSocketChannel serverChannel = (ServerSocketChannel) selectedKey.channel();
+            FrameHandler handler = (FrameHandler) selectedKey.attachment();
+            try {
+                SocketChannel accepted;
+                while ((accepted = serverChannel.accept()) != null) {
+                    accepted.configureBlocking(false);
+                    accepted.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    InetSocketAddress remote = (InetSocketAddress) accepted.getRemoteAddress();
+                    String address = remote.getHostString() + ":" + remote.getPort();
+
+                    Connection connection = new Connection(address, nextLoop(), handler);
+                    connection.attach(accepted);
+                    logger.fine("Accepted connection from " + address);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Error accepting connection", e);
+                }
+            }
+        }
+
+        private void shutdown() {
+            selector.wakeup();
+        }
+    }
+}
@@ -105,6 +105,9 @@
 
 package org.example.app.core.p2p;
 
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
 import java.io.*;
 import java.util.Objects;
 import java.util.UUID;
@@ -118,6 +121,9 @@ public class Message implements Serializable {
     private static final Logger logger = Logger.getLogger(Message.class.getName());
     private static final long serialVersionUID = 1L; // For serialization consistency
 
+    private static final int BINARY_VERSION = 1;        // Version byte of the binary encoding
+    private static final int FLAG_UUID_ID = 1;          // Message ID is a canonical UUID stored as 16 bytes
+
     private final String messageId;  // Unique message identifier
     private final String sender;     // Sender identifier
     private final String content;    // Message content
@@ -210,46 +216,96 @@ public class Message implements Serializable {
     }
 
     /**
-     * Serializes the message object into a byte array.
+     * Serializes the message object into a byte array using the compact binary encoding.
      *
      * @return A byte array representing the serialized message.
      * @throws IOException If an error occurs during serialization.
      */
     public byte[] serialize() throws IOException {
-        try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-             ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
-            objectStream.writeObject(this);
-            return byteStream.toByteArray();
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error serializing message", e);
-            throw e;
+        BinaryWriter writer = new BinaryWriter(content.length() + sender.length() + 48);
+        writeTo(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes the message in the binary encoding: version, flags, message ID (16 bytes
+     * when it is a UUID), sender, content and timestamp.
+     *
+     * @param writer The writer to append to.
+     */
+    public void writeTo(BinaryWriter writer) {
+        UUID uuid = parseUuid(messageId);
+        writer.writeByte(BINARY_VERSION);
+        writer.writeVarInt(uuid != null ? FLAG_UUID_ID : 0);
+        if (uuid != null) {
+            writer.writeLong(uuid.getMostSignificantBits());
+            writer.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            writer.writeString(messageId);
+        }
+        writer.writeString(sender);
+        writer.writeString(content);
+        writer.writeVarLong(timestamp);
+    }
+
+    /**
+     * Reads a message written by {@link #writeTo(BinaryWriter)}.
+     *
+     * @param reader The reader positioned at the message.
+     * @return The decoded message.
+     * @throws IllegalArgumentException If the input is malformed.
+     */
+    public static Message readFrom(BinaryReader reader) {
+        int version = reader.readByte();
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported message encoding version: " + version);
+        }
+        int flags = reader.readVarInt();
+        String messageId = (flags & FLAG_UUID_ID) != 0
+                ? new UUID(reader.readLong(), reader.readLong()).toString()
+                : reader.readString();
+        String sender = reader.readString();
+        String content = reader.readString();
+        long timestamp = reader.readVarLong();
+        return new Message(messageId, sender, content, timestamp);
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Only canonical lower-case UUIDs round-trip exactly
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
     /**
-     * Deserializes a byte array into a Message object.
+     * Deserializes a byte array into a Message object. Only the binary encoding is accepted;
+     * Java serialization streams are rejected without being read.
      *
      * @param data The byte array to deserialize.
      * @return The deserialized Message object.
-     * @throws IOException If an error occurs during deserialization.
-     * @throws ClassNotFoundException If the Message class is not found.
+     * @throws IOException If the data is not a well-formed binary message.
      * @throws IllegalArgumentException If the input data is null or empty.
      */
-    public static Message deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    public static Message deserialize(byte[] data) throws IOException {
         if (data == null || data.length == 0) {
             throw new IllegalArgumentException("Data cannot be null or empty");
         }
 
-        try (ByteArrayInputStream byteStream = new ByteArrayInputStream(data);
-             ObjectInputStream objectStream = new ObjectInputStream(byteStream)) {
-            Object obj = objectStream.readObject();
-            if (!(obj instanceof Message)) {
-                throw new ClassCastException("Deserialized object is not a Message");
-            }
-            return (Message) obj;
-        } catch (IOException | ClassNotFoundException e) {
-            logger.log(Level.SEVERE, "Error deserializing message", e);
-            throw e;
+        // Java serialization streams start with 0xACED; reading them would instantiate arbitrary classes
+        if (data.length >= 2 && data[0] == (byte) 0xAC && data[1] == (byte) 0xED) {
+            throw new IOException("Java serialization streams are not accepted");
+        }
+        try {
+            return readFrom(new BinaryReader(data));
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.WARNING, "Error deserializing message", e);
+            throw new IOException("Malformed message: " + e.getMessage(), e);
         }
     }
 
@@ -178,12 +178,15 @@
 
 package org.example.app.core.p2p;
 
+import org.example.app.core.internal.ExecutorRegistry;
+
 import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -200,11 +203,10 @@ public class Peer {
     private final String peerId;
     private final String peerAddress;
     private final Set<String> knownPeers;
-    private final Map<String, Socket> activeSockets;
     private final ReadWriteLock peersLock;
-    private final ReadWriteLock socketsLock;
     private final ExecutorService threadPool;
-    private ServerSocket serverSocket;
+    private final ConnectionPool connectionPool;      // Persistent framed connections, inbound and outbound
+    private volatile BiConsumer<String, Message> responseHandler; // Receives replies on pooled connections
     private volatile boolean isRunning;
 
     /**
@@ -225,14 +227,11 @@ public class Peer {
         this.peerId = peerId;
         this.peerAddress = peerAddress;
         this.knownPeers = ConcurrentHashMap.newKeySet();
-        this.activeSockets = new ConcurrentHashMap<>();
         this.peersLock = new ReentrantReadWriteLock();
-        this.socketsLock = new ReentrantReadWriteLock();
-        this.threadPool = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "PeerThread-" + UUID.randomUUID().toString().substring(0, 8));
-            t.setDaemon(true);
-            return t;
-        });
+        this.threadPool = ExecutorRegistry.shared().newExecutor(ExecutorRegistry.PEER,
+                "PeerThread-" + UUID.randomUUID().toString().substring(0, 8) + "-");
+        this.connectionPool = new ConnectionPool(ConnectionPool.DEFAULT_SELECTOR_THREADS, DEFAULT_TIMEOUT,
+                this::handlePooledFrame);
         this.isRunning = false;
 
         logger.info("Peer created with ID: " + peerId + " and address: " + peerAddress);
@@ -276,9 +275,8 @@ public class Peer {
     }
 
     /**
-     * Starts the peer server to listen for incoming connections.
-     *
-     * @throws IOException if server start fails
+     * Starts the peer server to listen for incoming connections. Inbound connections are
+     * accepted and read by the connection pool's selector threads, not a thread per connection.
      */
     public synchronized void startServer() {
         if (isRunning) {
@@ -286,113 +284,51 @@ public class Peer {
             return;
         }
 
-        threadPool.execute(() -> {
-            try {
-                String[] addressParts = peerAddress.split(":");
-                String host = addressParts[0];
-                int port = Integer.parseInt(addressParts[1]);
-
-                // Create and bind the server socket
-                serverSocket = new ServerSocket();
-                serverSocket.setReuseAddress(true);
-                serverSocket.setSoTimeout(DEFAULT_TIMEOUT);
-                serverSocket.bind(new InetSocketAddress(host, port));
-
-                isRunning = true;
-                logger.info("Server started for peer: " + peerId + " on " + host + ":" + port);
-
-                // Accept connections in a loop
-                while (isRunning) {
-                    try {
-                        Socket clientSocket = serverSocket.accept();
-                        clientSocket.setSoTimeout(DEFAULT_TIMEOUT);
-
-                        // Handle the connection in a separate thread
-                        threadPool.execute(() -> handleConnection(clientSocket));
-                    } catch (SocketTimeoutException e) {
-                        // Timeout - just continue listening
-                    } catch (IOException e) {
-                        if (isRunning) {
-                            logger.log(Level.WARNING, "Error accepting connection", e);
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                if (isRunning) {
-                    logger.log(Level.SEVERE, "Server error for peer: " + peerId, e);
-                }
-            } finally {
-                shutdown();
-            }
-        });
+        String[] addressParts = peerAddress.split(":");
+        String host = addressParts[0];
+        int port = Integer.parseInt(addressParts[1]);
+        try {
+            connectionPool.listen(host, port, this::handleInboundFrame);
+            isRunning = true;
+            logger.info("Server started for peer: " + peerId + " on " + host + ":" + port);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Server error for peer: " + peerId, e);
+        }
     }
 
     /**
-     * Handles an incoming connection from another peer.
+     * Handles a frame received on an inbound connection from another peer.
+     * Runs on a selector thread.
      *
-     * @param clientSocket The client socket
+     * @param connection The connection the frame arrived on
+     * @param payload The serialized message
      */
-    private void handleConnection(Socket clientSocket) {
-        if (clientSocket == null) {
-            return;
-        }
-
-        String clientAddress = clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort();
-
+    private void handleInboundFrame(ConnectionPool.Connection connection, byte[] payload) {
         try {
-            logger.fine("Handling connection from: " + clientAddress);
-
-            // Read the message
-            InputStream is = clientSocket.getInputStream();
-            DataInputStream dis = new DataInputStream(is);
-
-            // Read message length and content
-            int length = dis.readInt();
-            if (length <= 0 || length > 1024 * 1024) { // Sanity check for message size (1MB max)
-                throw new IOException("Invalid message length: " + length);
-            }
-
-            byte[] data = new byte[length];
-            dis.readFully(data);
-
-            // Deserialize and handle the message
-            Message message = Message.deserialize(data);
-            logger.fine("Received message from " + clientAddress + ": " + message);
+            Message message = Message.deserialize(payload);
+            logger.fine("Received message from " + connection.getRemoteAddress() + ": " + message);
 
             // Process the message - can be extended based on application needs
-            processReceivedMessage(message, clientSocket);
+            processReceivedMessage(message, connection);
         } catch (Exception e) {
-            logger.log(Level.WARNING, "Error handling connection from: " + clientAddress, e);
-        } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                logger.log(Level.WARNING, "Error closing client socket", e);
-            }
+            logger.log(Level.WARNING, "Error handling message from: " + connection.getRemoteAddress(), e);
         }
     }
 
     /**
      * Processes a received message. Override or extend this method to implement
-     * specific message handling logic.
+     * specific message handling logic. It runs on a selector thread and must not block.
      *
      * @param message The received message
-     * @param clientSocket The client socket
+     * @param connection The connection the message arrived on, usable for replies
      */
-    protected void processReceivedMessage(Message message, Socket clientSocket) {
+    protected void processReceivedMessage(Message message, ConnectionPool.Connection connection) {
         // Basic echo response - can be overridden or extended
         try {
             // Send acknowledgment
             String response = "ACK from " + peerId + ": " + message.getContent();
             Message responseMsg = new Message(peerId, response);
-
-            OutputStream os = clientSocket.getOutputStream();
-            DataOutputStream dos = new DataOutputStream(os);
-
-            byte[] responseData = responseMsg.serialize();
-            dos.writeInt(responseData.length);
-            dos.write(responseData);
-            dos.flush();
+            connection.send(responseMsg.serialize());
 
             logger.fine("Sent response to " + message.getSender() + ": " + response);
         } catch (IOException e) {
@@ -427,39 +363,18 @@ public class Peer {
             throw new IllegalArgumentException("Invalid port in peer address: " + peerAddress);
         }
 
-        Socket socket = null;
-
-        try {
-            // Create and connect the socket
-            socket = new Socket();
-            socket.setSoTimeout(DEFAULT_TIMEOUT);
-            socket.connect(new InetSocketAddress(host, port), DEFAULT_TIMEOUT);
-
-            logger.fine("Connected to peer at: " + peerAddress);
-
-            // Send a message if provided
-            if (messageContent != null && !messageContent.isEmpty()) {
-                Message message = new Message(peerId, messageContent);
-
-                OutputStream os = socket.getOutputStream();
-                DataOutputStream dos = new DataOutputStream(os);
+        if (host.isEmpty() || port <= 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid peer address: " + peerAddress);
+        }
 
-                byte[] data = message.serialize();
-                dos.writeInt(data.length);
-                dos.write(data);
-                dos.flush();
+        // Reuse the pooled connection to this peer, opening it on first use
+        ConnectionPool.Connection connection = connectionPool.getConnection(peerAddress);
+        logger.fine("Connected to peer at: " + peerAddress);
 
-                logger.fine("Sent message to " + peerAddress + ": " + messageContent);
-            }
-        } finally {
-            // Close the socket
-            if (socket != null) {
-                try {
-                    socket.close();
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, "Error closing socket", e);
-                }
-            }
+        // Send a message if provided
+        if (messageContent != null && !messageContent.isEmpty()) {
+            connection.send(new Message(peerId, messageContent).serialize());
+            logger.fine("Sent message to " + peerAddress + ": " + messageContent);
         }
     }
 
@@ -486,6 +401,67 @@ public class Peer {
         }
     }
 
+    /**
+     * Sends an already constructed message to a specific peer over the pooled connection.
+     *
+     * @param message The message to send
+     * @param peerAddress The address of the recipient peer
+     * @return A future completed once the message has been written to the connection
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws IOException if the connection cannot be established
+     */
+    public CompletableFuture<Void> sendMessage(Message message, String peerAddress) throws IOException {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (peerAddress == null || !peerAddress.contains(":")) {
+            throw new IllegalArgumentException("Invalid peer address. Must be in the format host:port");
+        }
+
+        CompletableFuture<Void> written = connectionPool.send(peerAddress, message.serialize());
+        logger.fine("Queued message to " + peerAddress + ": " + message.getContent());
+        return written;
+    }
+
+    /**
+     * Handles a frame received on a pooled connection, typically a reply from the remote peer.
+     *
+     * @param connection The connection the frame arrived on
+     * @param payload The serialized message
+     */
+    private void handlePooledFrame(ConnectionPool.Connection connection, byte[] payload) {
+        try {
+            Message message = Message.deserialize(payload);
+            BiConsumer<String, Message> handler = responseHandler;
+            if (handler != null) {
+                handler.accept(connection.getRemoteAddress(), message);
+            } else {
+                logger.fine("Received reply from " + connection.getRemoteAddress() + ": " + message);
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error decoding reply from " + connection.getRemoteAddress(), e);
+        }
+    }
+
+    /**
+     * Sets the handler for replies received on pooled connections. The handler runs on
+     * a connection pool selector thread and must not block.
+     *
+     * @param responseHandler Receives the remote peer address and the reply, or null to only log replies
+     */
+    public void setResponseHandler(BiConsumer<String, Message> responseHandler) {
+        this.responseHandler = responseHandler;
+    }
+
+    /**
+     * Gets the pool of persistent connections used for outbound messages.
+     *
+     * @return The connection pool
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
     /**
      * Adds a peer to the known peers list.
      *
@@ -523,6 +499,7 @@ public class Peer {
         peersLock.writeLock().lock();
         try {
             if (knownPeers.remove(peerAddress)) {
+                connectionPool.closeConnection(peerAddress);
                 logger.info("Removed peer: " + peerAddress);
             } else {
                 logger.fine("Peer not found: " + peerAddress);
@@ -581,39 +558,15 @@ public class Peer {
      * Shuts down the peer server and cleans up resources.
      */
     public synchronized void shutdown() {
+        // Closes the listener and every connection; pooled connections exist even without a server
+        connectionPool.shutdown();
+
         if (!isRunning) {
             return;
         }
 
         isRunning = false;
 
-        // Close server socket
-        if (serverSocket != null && !serverSocket.isClosed()) {
-            try {
-                serverSocket.close();
-                logger.info("Server socket closed for peer: " + peerId);
-            } catch (IOException e) {
-                logger.log(Level.WARNING, "Error closing server socket", e);
-            }
-        }
-
-        // Close active sockets
-        socketsLock.writeLock().lock();
-        try {
-            for (Socket socket : activeSockets.values()) {
-                try {
-                    if (!socket.isClosed()) {
-                        socket.close();
-                    }
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, "Error closing socket", e);
-                }
-            }
-            activeSockets.clear();
-        } finally {
-            socketsLock.writeLock().unlock();
-        }
-
         // Shutdown thread pool
         threadPool.shutdown();
         try {
@@ -110,7 +110,7 @@ public class  PeerNetwork {
             // Example of responding to a message
             Message response = new Message(peerId, "Acknowledged: " + message.getContent());
             NetworkUtils.sendData(clientSocket, response.serialize());
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
             System.err.println("PeerNetwork: Error handling peer connection from " + clientAddress + ": " + e.getMessage());
         } finally {
             try {
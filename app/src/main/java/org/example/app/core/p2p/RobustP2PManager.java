@@ -121,6 +121,7 @@
 package org.example.app.core.p2p;
 
 import org.example.app.core.crypto.Keypair;
+import org.example.app.core.internal.ExecutorRegistry;
 
 import java.io.*;
 import java.net.*;
@@ -173,14 +174,16 @@ public class RobustP2PManager {
         this.udpManager = udpManager;
         this.xmlPeerDiscovery = xmlPeerDiscovery;
         this.broadcastManager = new BroadcastManager(peer, new HashSet<>());
-        this.executorService = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "P2PManagerThread-" + UUID.randomUUID().toString().substring(0, 8));
-            t.setDaemon(true);
-            return t;
-        });
+        this.executorService = ExecutorRegistry.shared().newExecutor(ExecutorRegistry.P2P_MANAGER,
+                "P2PManagerThread-" + UUID.randomUUID().toString().substring(0, 8) + "-");
         this.replicaKeypairs = new ConcurrentHashMap<>();
         this.keypairLock = new ReentrantReadWriteLock();
         this.isRunning = false;
+
+        // Replies to pooled messages arrive on the same connection and count as acknowledgments
+        // The handler is bound to the broadcast manager, not this object, which is still under construction
+        BroadcastManager broadcasts = this.broadcastManager;
+        this.peer.setResponseHandler((peerAddress, reply) -> handleResponse(broadcasts, peerAddress, reply));
     }
 
     /**
@@ -317,6 +320,24 @@ public class RobustP2PManager {
         }
     }
 
+    /**
+     * Handle a reply received on a pooled connection to a peer.
+     *
+     * @param broadcasts The broadcast manager that tracks acknowledgments
+     * @param peerAddress The address of the peer that replied
+     * @param reply The reply message
+     */
+    private static void handleResponse(BroadcastManager broadcasts, String peerAddress, Message reply) {
+        logger.fine("Reply from " + peerAddress + ": " + reply.getContent());
+        if (reply.getContent().startsWith("ACK")) {
+            try {
+                broadcasts.acknowledgeReceipt(peerAddress);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to process acknowledgment from " + peerAddress, e);
+            }
+        }
+    }
+
     /**
      * Send a direct message to a specific peer.
      *
@@ -435,69 +456,36 @@ public class RobustP2PManager {
             throw new IllegalArgumentException("Port must be between 1 and 65535");
         }
 
-        executorService.execute(() -> {
-            try (ServerSocket serverSocket = new ServerSocket(port)) {
-                logger.info("Direct connection server started on port " + port);
-
-                while (isRunning) {
-                    try {
-                        Socket clientSocket = serverSocket.accept();
-                        executorService.execute(() -> handleDirectConnection(clientSocket));
-                    } catch (IOException e) {
-                        if (isRunning) {
-                            logger.log(Level.WARNING, "Error accepting client connection", e);
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, "Direct connection server failed on port " + port, e);
-            }
-        });
+        try {
+            // Connections are served by the pool's selector threads rather than a thread each
+            peer.getConnectionPool().listen(port, this::handleDirectFrame);
+            logger.info("Direct connection server started on port " + port);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Direct connection server failed on port " + port, e);
+        }
     }
 
     /**
-     * Handle a direct TCP connection from another peer.
+     * Handle a frame received on a direct connection from another peer.
+     * Connections stay open, so a peer can send any number of frames over one connection.
      *
-     * @param clientSocket The socket for the client connection
+     * @param connection The connection the frame arrived on
+     * @param payload The serialized message
      */
-    private void handleDirectConnection(Socket clientSocket) {
-        if (clientSocket == null) {
-            return;
-        }
-
+    private void handleDirectFrame(ConnectionPool.Connection connection, byte[] payload) {
         try {
-            String clientAddress = clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort();
-            logger.fine("Handling direct connection from: " + clientAddress);
+            Message message = Message.deserialize(payload);
+            logger.fine("Received direct message from " + connection.getRemoteAddress() + ": " + message.getContent());
 
-            // Set socket timeout to prevent hanging
-            clientSocket.setSoTimeout(30000);
+            // Process the message according to the protocol
+            String response = processDirectMessage(message.getContent());
 
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                 PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
-
-                String inputLine;
-                while ((inputLine = in.readLine()) != null) {
-                    logger.fine("Received direct message: " + inputLine);
-
-                    // Process the message according to the protocol
-                    String response = processDirectMessage(inputLine);
-
-                    // Send response if needed
-                    if (response != null && !response.isEmpty()) {
-                        out.println(response);
-                    }
-                }
-            }
-        } catch (SocketTimeoutException e) {
-            logger.fine("Connection timed out: " + clientSocket.getRemoteSocketAddress());
-        } catch (IOException e) {
-            logger.log(Level.WARNING, "Error handling direct connection", e);
-        } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                logger.log(Level.WARNING, "Error closing client socket", e);
+            // Send response if needed
+            if (response != null && !response.isEmpty()) {
+                connection.send(new Message(peer.getPeerId(), response).serialize());
             }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error handling direct message from " + connection.getRemoteAddress(), e);
         }
     }
 
@@ -576,15 +564,10 @@ public class RobustP2PManager {
             // Add the peer
             addPeer(peerAddress);
 
-            // Try to establish a connection
+            // Open the pooled connection now so the first message does not pay for the handshake
             if (peerAddress.contains(":")) {
-                String[] parts = peerAddress.split(":");
-                String host = parts[0];
-                int port = Integer.parseInt(parts[1]);
-
-                // Attempt to open a direct connection to test connectivity
-                try (Socket socket = new Socket()) {
-                    socket.connect(new InetSocketAddress(host, port), 5000);
+                try {
+                    peer.getConnectionPool().getConnection(peerAddress);
                     logger.info("Successfully connected to peer: " + peerAddress);
                 } catch (IOException e) {
                     logger.warning("Connection test to " + peerAddress + " failed. Peer added but may not be reachable.");
@@ -145,10 +145,11 @@
 
 package org.example.app.core.p2p;
 
+import org.example.app.core.internal.ExecutorRegistry;
+
 import java.io.IOException;
 import java.net.*;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -215,14 +216,10 @@ public class UDPManager {
             socket.setSoTimeout(0); // No timeout
 
             // Create thread pool for message handling
-            executorService = Executors.newCachedThreadPool(r -> {
-                Thread t = new Thread(r, "UDPListener-" + port);
-                t.setDaemon(true);
-                return t;
-            });
+            executorService = ExecutorRegistry.shared().newExecutor(ExecutorRegistry.UDP, "UDPListener-" + port + "-");
 
-            // Start the listener loop
-            executorService.execute(() -> {
+            // The receive loop lives as long as the socket, so it gets its own thread rather than a pool slot
+            ExecutorRegistry.shared().startDedicatedThread("UDPListener-" + port, () -> {
                 byte[] buffer = new byte[BUFFER_SIZE];
 
                 while (running.get() && !socket.isClosed()) {
@@ -85,9 +85,16 @@
 
 package org.example.app.core.pbftconsensus;
 
+import org.example.app.core.crypto.MerkleTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -96,11 +103,17 @@ import java.util.logging.Logger;
 /**
  * CheckpointManager handles periodic state checkpoints to ensure data persistence,
  * reduce memory overhead, and support recovery in case of failures.
+ * A checkpoint keeps its state as a list of entries, and its digest is always the Merkle
+ * root of that same list, whether it was passed in or computed on demand.
+ * A checkpoint only becomes stable, and moves the low watermark, once 2f + 1 replicas
+ * have sent CHECKPOINT messages carrying the same digest as the local checkpoint.
  */
 public class CheckpointManager {
     private static final Logger logger = Logger.getLogger(CheckpointManager.class.getName());
 
-    private final NavigableMap<Integer, String> checkpoints; // Maps sequence numbers to state snapshots
+    private final NavigableMap<Integer, List<String>> checkpoints; // Maps sequence numbers to state entries
+    private final Map<Integer, String> checkpointDigests; // Cached Merkle root digests of checkpoint states
+    private final NavigableMap<Integer, Map<String, Set<Integer>>> checkpointVotes; // CHECKPOINT senders by sequence and digest
     private int latestCheckpointSequence; // Tracks the latest stable checkpoint sequence number
     private final ReadWriteLock lock; // Ensures thread-safe operations
 
@@ -109,30 +122,53 @@ public class CheckpointManager {
      */
     public CheckpointManager() {
         this.checkpoints = new TreeMap<>();
+        this.checkpointDigests = new HashMap<>();
+        this.checkpointVotes = new TreeMap<>();
         this.latestCheckpointSequence = 0;
         this.lock = new ReentrantReadWriteLock();
     }
 
     /**
      * Saves a snapshot of the system state at a specific sequence number.
+     * The snapshot is split into its comma-separated entries.
      *
      * @param sequenceNumber The sequence number for the checkpoint.
      * @param state The state snapshot to save.
      * @throws IllegalArgumentException if the sequence number is less than or equal to zero or if state is null
      */
     public void createCheckpoint(int sequenceNumber, String state) {
+        if (state == null) {
+            throw new IllegalArgumentException("State cannot be null");
+        }
+        createCheckpoint(sequenceNumber, Arrays.asList(state.split(",", -1)), null);
+    }
+
+    /**
+     * Saves the entries of the system state together with their already computed digest,
+     * so the digest is not recomputed when the checkpoint is verified.
+     * The checkpoint is local until enough matching votes make it stable.
+     *
+     * @param sequenceNumber The sequence number for the checkpoint.
+     * @param entries The state entries, in snapshot order.
+     * @param digest The Merkle root of these entries as returned by {@link #computeStateRoot(List)}, or null to compute it on demand.
+     * @throws IllegalArgumentException if the sequence number is less than or equal to zero or if entries is null
+     */
+    public void createCheckpoint(int sequenceNumber, List<String> entries, String digest) {
         if (sequenceNumber <= 0) {
             throw new IllegalArgumentException("Sequence number must be greater than zero");
         }
-        if (state == null) {
-            throw new IllegalArgumentException("State cannot be null");
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries cannot be null");
         }
 
+        List<String> snapshot = List.copyOf(entries);
         lock.writeLock().lock();
         try {
-            checkpoints.put(sequenceNumber, state);
-            if (sequenceNumber > latestCheckpointSequence) {
-                latestCheckpointSequence = sequenceNumber;
+            checkpoints.put(sequenceNumber, snapshot);
+            if (digest != null) {
+                checkpointDigests.put(sequenceNumber, digest);
+            } else {
+                checkpointDigests.remove(sequenceNumber);
             }
             logger.info("Checkpoint created at sequence: " + sequenceNumber);
         } finally {
@@ -154,7 +190,8 @@ public class CheckpointManager {
 
         lock.readLock().lock();
         try {
-            return checkpoints.get(sequenceNumber);
+            List<String> entries = checkpoints.get(sequenceNumber);
+            return entries != null ? String.join(",", entries) : null;
         } finally {
             lock.readLock().unlock();
         }
@@ -176,16 +213,19 @@ public class CheckpointManager {
             throw new IllegalArgumentException("Replica state hash cannot be null");
         }
 
+        String localDigest = getCheckpointDigest(sequenceNumber);
         lock.readLock().lock();
         try {
-            String localState = checkpoints.get(sequenceNumber);
-            if (localState == null) {
+            List<String> localState = checkpoints.get(sequenceNumber);
+            if (localState == null || localDigest == null) {
                 logger.warning("No checkpoint found at sequence: " + sequenceNumber);
                 return false;
             }
 
-            // Compare state hash with replica's reported hash
-            boolean isConsistent = localState.hashCode() == replicaStateHash.hashCode();
+            // Compare the Merkle root digest with the replica's reported hash;
+            // replicas that still report the raw state are compared directly
+            boolean isConsistent = localDigest.equals(replicaStateHash)
+                    || String.join(",", localState).equals(replicaStateHash);
             logger.info("Checkpoint consistency for sequence " + sequenceNumber + ": " + isConsistent);
             return isConsistent;
         } finally {
@@ -193,6 +233,108 @@ public class CheckpointManager {
         }
     }
 
+    /**
+     * Gets the Merkle root digest of a checkpoint's state, computing it at most once per checkpoint.
+     * The digest is computed outside the lock, so large states do not block other checkpoint operations.
+     *
+     * @param sequenceNumber The sequence number of the checkpoint.
+     * @return The hex digest, or null if no checkpoint exists at that sequence.
+     * @throws IllegalArgumentException if the sequence number is less than or equal to zero
+     */
+    public String getCheckpointDigest(int sequenceNumber) {
+        if (sequenceNumber <= 0) {
+            throw new IllegalArgumentException("Sequence number must be greater than zero");
+        }
+
+        List<String> state;
+        lock.readLock().lock();
+        try {
+            String digest = checkpointDigests.get(sequenceNumber);
+            if (digest != null) {
+                return digest;
+            }
+            state = checkpoints.get(sequenceNumber);
+            if (state == null) {
+                return null;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        String digest = computeStateRoot(state);
+        lock.writeLock().lock();
+        try {
+            // Only cache the digest if the checkpoint was not replaced while it was computed
+            if (checkpoints.get(sequenceNumber) == state) {
+                checkpointDigests.putIfAbsent(sequenceNumber, digest);
+            }
+            return digest;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a CHECKPOINT vote and makes the checkpoint stable once a quorum of replicas
+     * agrees with the local checkpoint's digest. Votes at or below the stable checkpoint are ignored.
+     *
+     * @param sequenceNumber The sequence number of the checkpoint.
+     * @param replicaId The voting replica.
+     * @param digest The state digest the replica reported.
+     * @param quorum The number of matching votes required (2f + 1).
+     * @return True only when the checkpoint has just become stable
+     * @throws IllegalArgumentException if sequenceNumber or quorum is not positive or digest is null
+     */
+    public boolean recordCheckpointVote(int sequenceNumber, int replicaId, String digest, int quorum) {
+        if (sequenceNumber <= 0) {
+            throw new IllegalArgumentException("Sequence number must be greater than zero");
+        }
+        if (digest == null) {
+            throw new IllegalArgumentException("Digest cannot be null");
+        }
+        if (quorum <= 0) {
+            throw new IllegalArgumentException("Quorum must be positive");
+        }
+
+        // Resolve the local digest first, since computing it may take the write lock
+        String localDigest = getCheckpointDigest(sequenceNumber);
+        lock.writeLock().lock();
+        try {
+            if (sequenceNumber <= latestCheckpointSequence) {
+                return false;
+            }
+            Set<Integer> voters = checkpointVotes.computeIfAbsent(sequenceNumber, s -> new HashMap<>())
+                    .computeIfAbsent(digest, d -> new HashSet<>());
+            voters.add(replicaId);
+            if (localDigest == null || !localDigest.equals(digest) || voters.size() < quorum) {
+                return false;
+            }
+            latestCheckpointSequence = sequenceNumber;
+            checkpointVotes.headMap(sequenceNumber, true).clear();
+            logger.info("Checkpoint at sequence " + sequenceNumber + " is stable");
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the Merkle root of a list of state entries, each UTF-8 encoded as one leaf.
+     * Large states are hashed in parallel, and entries seen in an earlier checkpoint reuse
+     * their cached leaf hash.
+     *
+     * @param entries The state entries, in snapshot order.
+     * @return The hex root digest.
+     * @throws IllegalArgumentException if entries is null
+     */
+    public static String computeStateRoot(List<String> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries cannot be null");
+        }
+        DigestService leaves = DigestService.stateLeaves();
+        return DigestService.toHex(MerkleTree.computeRoot(entries, leaves::cachedDigest));
+    }
+
     /**
      * Discards old checkpoints to reduce memory usage.
      * Retains only checkpoints starting from the latest stable checkpoint.
@@ -201,17 +343,18 @@ public class CheckpointManager {
         lock.writeLock().lock();
         try {
             // Keep a map of entries to remove to avoid concurrent modification
-            Map<Integer, String> toRemove = new HashMap<>();
+            List<Integer> toRemove = new ArrayList<>();
 
-            for (Map.Entry<Integer, String> entry : checkpoints.entrySet()) {
-                if (entry.getKey() < latestCheckpointSequence) {
-                    toRemove.put(entry.getKey(), entry.getValue());
+            for (Integer key : checkpoints.keySet()) {
+                if (key < latestCheckpointSequence) {
+                    toRemove.add(key);
                 }
             }
 
             // Remove the collected entries
-            for (Integer key : toRemove.keySet()) {
+            for (Integer key : toRemove) {
                 checkpoints.remove(key);
+                checkpointDigests.remove(key);
             }
 
             logger.info("Old checkpoints discarded. Latest stable checkpoint: " + latestCheckpointSequence);
@@ -242,7 +385,9 @@ public class CheckpointManager {
     public Map<Integer, String> getAllCheckpoints() {
         lock.readLock().lock();
         try {
-            return new HashMap<>(checkpoints);
+            Map<Integer, String> all = new HashMap<>();
+            checkpoints.forEach((sequence, entries) -> all.put(sequence, String.join(",", entries)));
+            return all;
         } finally {
             lock.readLock().unlock();
         }
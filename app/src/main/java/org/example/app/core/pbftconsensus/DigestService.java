@@ -0,0 +1,264 @@
+package org.example.app.core.pbftconsensus;
+
+import org.example.app.core.crypto.MerkleTree;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * DigestService computes SHA-256 digests for PBFT requests, batches and checkpoints.
+ * Each thread reuses its own MessageDigest, and digests are kept in a cache keyed by
+ * the hashed string so the prepare, commit and checkpoint paths hash it only once.
+ *
+ * The cache is bounded by the memory its keys and digests take rather than by entry
+ * count, since a request batch key can be a megabyte while a state entry is a few bytes.
+ * Requests and checkpoint state leaves use separate instances, so a checkpoint of a
+ * large state does not evict the requests still in flight.
+ */
+public class DigestService {
+    public static final long DEFAULT_CACHE_BYTES = 32L << 20;       // Default memory budget of the request cache
+    public static final long DEFAULT_STATE_CACHE_BYTES = 32L << 20; // Default memory budget of the state leaf cache
+
+    private static final int ENTRY_OVERHEAD = 96; // Approximate bytes per entry besides the key characters
+
+    private static final DigestService SHARED = new DigestService(DEFAULT_CACHE_BYTES);
+    private static final DigestService STATE_LEAVES =
+            new DigestService(DEFAULT_STATE_CACHE_BYTES, MerkleTree::leafHash);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // One MessageDigest per thread instead of MessageDigest.getInstance per call
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+
+    private final long maxCacheBytes;                      // Upper bound on the memory of cached entries
+    private final Function<byte[], byte[]> hasher;         // Hash applied to the UTF-8 bytes of a key
+    private final ConcurrentMap<String, byte[]> cache;     // Key -> raw digest
+    private final Queue<String> insertionOrder;            // Eviction order for the cache
+    private final AtomicLong cachedBytes;                  // Estimated memory of the cached entries
+    private final AtomicLong hits;                         // Cache hits
+    private final AtomicLong misses;                       // Cache misses
+
+    /**
+     * Constructor to initialize a DigestService.
+     *
+     * @param maxCacheBytes The memory budget of the digest cache in bytes; 0 disables caching.
+     * @throws IllegalArgumentException if maxCacheBytes is negative
+     */
+    public DigestService(long maxCacheBytes) {
+        this(maxCacheBytes, DigestService::sha256);
+    }
+
+    private DigestService(long maxCacheBytes, Function<byte[], byte[]> hasher) {
+        if (maxCacheBytes < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.maxCacheBytes = maxCacheBytes;
+        this.hasher = hasher;
+        this.cache = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+        this.cachedBytes = new AtomicLong(0);
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    /**
+     * Gets the digest service shared by the PBFT components of this process for requests and batches.
+     *
+     * @return The shared DigestService
+     */
+    public static DigestService shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the service that hashes checkpoint state entries as Merkle leaves.
+     * Its digests are leaf hashes, not plain SHA-256.
+     *
+     * @return The shared state leaf DigestService
+     */
+    public static DigestService stateLeaves() {
+        return STATE_LEAVES;
+    }
+
+    /**
+     * Computes the digest of a request as a hex string, using the cache.
+     *
+     * @param request The request payload.
+     * @return The 64-character hex digest.
+     * @throws IllegalArgumentException if request is null
+     */
+    public String digest(String request) {
+        return toHex(cachedDigest(request));
+    }
+
+    /**
+     * Computes the raw 32-byte digest of a request, using the cache.
+     *
+     * @param request The request payload.
+     * @return The raw digest.
+     * @throws IllegalArgumentException if request is null
+     */
+    public byte[] digestBytes(String request) {
+        return cachedDigest(request).clone();
+    }
+
+    /**
+     * Looks up or computes a digest; the returned array is shared with the cache and must not be modified.
+     *
+     * @param request The request payload.
+     * @return The raw digest.
+     * @throws IllegalArgumentException if request is null
+     */
+    byte[] cachedDigest(String request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null");
+        }
+
+        byte[] cached = cache.get(request);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        byte[] computed = hasher.apply(request.getBytes(StandardCharsets.UTF_8));
+        long cost = entryCost(request);
+        if (cost <= maxCacheBytes && cache.putIfAbsent(request, computed) == null) {
+            insertionOrder.offer(request);
+            cachedBytes.addAndGet(cost);
+            while (cachedBytes.get() > maxCacheBytes) {
+                String eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                if (cache.remove(eldest) != null) {
+                    cachedBytes.addAndGet(-entryCost(eldest));
+                }
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * Gets the number of cached digests.
+     *
+     * @return The cache size
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the estimated memory taken by the cached entries.
+     *
+     * @return The cached bytes
+     */
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    /**
+     * Gets the number of cache hits since creation.
+     *
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of cache misses since creation.
+     *
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all cached digests.
+     */
+    public void clearCache() {
+        cache.clear();
+        insertionOrder.clear();
+        cachedBytes.set(0);
+    }
+
+    // Strings hold up to two bytes per character; the digest and map entry take the rest
+    private static long entryCost(String key) {
+        return 2L * key.length() + MerkleTree.HASH_LENGTH + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Computes the raw SHA-256 digest of the given bytes without caching.
+     *
+     * @param data The data to hash.
+     * @return The raw 32-byte digest.
+     */
+    public static byte[] sha256(byte[] data) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest.digest(data);
+    }
+
+    /**
+     * Computes the SHA-256 digest of a UTF-8 string as hex without caching.
+     *
+     * @param input The string to hash.
+     * @return The 64-character hex digest.
+     */
+    public static String sha256Hex(String input) {
+        return toHex(sha256(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Converts bytes to a lowercase hex string.
+     *
+     * @param bytes The bytes to convert.
+     * @return The hex string.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            hex[2 * i] = HEX[b >>> 4];
+            hex[2 * i + 1] = HEX[b & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Converts a hex string to bytes.
+     *
+     * @param hex The hex string, of even length.
+     * @return The decoded bytes.
+     * @throws IllegalArgumentException if the string is not valid hex
+     */
+    public static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have even length");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = Character.digit(hex.charAt(2 * i), 16);
+            int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                throw new IllegalArgumentException("Invalid hex character in: " + hex);
+            }
+            bytes[i] = (byte) ((hi << 4) | lo);
+        }
+        return bytes;
+    }
+}
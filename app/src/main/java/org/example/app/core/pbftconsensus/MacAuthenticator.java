@@ -0,0 +1,191 @@
+package org.example.app.core.pbftconsensus;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * MacAuthenticator authenticates normal-case PBFT messages with a vector of
+ * HMAC-SHA256 tags, one per receiving replica, computed with the pairwise session
+ * keys held by the SecureChannelManager. PREPARE and COMMIT messages use
+ * authenticators; VIEW-CHANGE, NEW-VIEW and checkpoint messages keep full signatures.
+ * The HMAC key is derived from the session key with HKDF-SHA256 under a fixed label,
+ * so the encryption key of the channel is never used directly as a MAC key.
+ */
+public class MacAuthenticator {
+    private static final Logger logger = Logger.getLogger(MacAuthenticator.class.getName());
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] MAC_KEY_LABEL = "pbft-authenticator-mac-key".getBytes(StandardCharsets.UTF_8);
+    private static final int MAC_KEY_LENGTH = 32; // One HKDF-SHA256 output block
+
+    // Mac engines are not thread-safe, so each thread keeps its own
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(MAC_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " not available", e);
+        }
+    });
+
+    private final int localReplicaId;                          // ID of this replica
+    private final SecureChannelManager secureChannelManager;   // Source of pairwise session keys
+    private final PBFTMessageHandler messageHandler;           // Builds the authenticated bytes
+    private final ConcurrentMap<SecretKey, SecretKeySpec> macKeys; // Session key -> derived HMAC key
+
+    /**
+     * Constructor to initialize the MacAuthenticator.
+     *
+     * @param localReplicaId       The ID of this replica.
+     * @param secureChannelManager The manager holding pairwise session keys.
+     * @param messageHandler       The PBFTMessageHandler used to build authenticated data.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public MacAuthenticator(int localReplicaId, SecureChannelManager secureChannelManager,
+                            PBFTMessageHandler messageHandler) {
+        if (localReplicaId < 0) {
+            throw new IllegalArgumentException("Replica ID cannot be negative");
+        }
+        if (secureChannelManager == null) {
+            throw new IllegalArgumentException("Secure channel manager cannot be null");
+        }
+        if (messageHandler == null) {
+            throw new IllegalArgumentException("Message handler cannot be null");
+        }
+
+        this.localReplicaId = localReplicaId;
+        this.secureChannelManager = secureChannelManager;
+        this.messageHandler = messageHandler;
+        this.macKeys = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks whether a message type is authenticated with MACs rather than signatures.
+     *
+     * @param messageType The PBFT message type.
+     * @return True for PREPARE and COMMIT.
+     */
+    public static boolean usesAuthenticator(String messageType) {
+        return "PREPARE".equals(messageType) || "COMMIT".equals(messageType);
+    }
+
+    /**
+     * Computes and attaches an authenticator for every replica with an established session key.
+     *
+     * @param message The outbound message.
+     * @throws IllegalArgumentException if message is null
+     */
+    public void authenticate(PBFTMessage message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+
+        byte[] data = getAuthenticatedData(message);
+        Set<Integer> replicaIds = secureChannelManager.getSecureChannelReplicaIds();
+        Map<Integer, byte[]> authenticator = new HashMap<>(replicaIds.size() * 2);
+        for (int replicaId : replicaIds) {
+            if (replicaId == localReplicaId) {
+                continue;
+            }
+            SecretKey sessionKey = secureChannelManager.getSessionKey(replicaId);
+            if (sessionKey != null) {
+                authenticator.put(replicaId, computeTag(sessionKey, data));
+            }
+        }
+        message.setAuthenticator(authenticator);
+    }
+
+    /**
+     * Verifies the authenticator entry addressed to this replica.
+     *
+     * @param message The inbound message.
+     * @return True if the entry exists and matches the session key shared with the sender.
+     */
+    public boolean verify(PBFTMessage message) {
+        if (message == null || message.getAuthenticator() == null) {
+            return false;
+        }
+
+        byte[] tag = message.getAuthenticator().get(localReplicaId);
+        SecretKey sessionKey = secureChannelManager.getSessionKey(message.getSenderId());
+        if (tag == null || sessionKey == null) {
+            logger.fine("No authenticator entry or session key for sender " + message.getSenderId());
+            return false;
+        }
+
+        try {
+            byte[] expected = computeTag(sessionKey, getAuthenticatedData(message));
+            return MessageDigest.isEqual(expected, tag);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Authenticator verification failed for sender " + message.getSenderId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Builds the bytes covered by the authenticator: the signed fields plus view and sequence
+     * numbers, so a tag cannot be replayed into another slot.
+     *
+     * @param message The message.
+     * @return The authenticated bytes.
+     */
+    private byte[] getAuthenticatedData(PBFTMessage message) {
+        byte[] signedData = messageHandler.getSignedData(message);
+        byte[] slot = ("|" + message.getViewNumber() + "|" + message.getSequenceNumber())
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[signedData.length + slot.length];
+        System.arraycopy(signedData, 0, data, 0, signedData.length);
+        System.arraycopy(slot, 0, data, signedData.length, slot.length);
+        return data;
+    }
+
+    private byte[] computeTag(SecretKey sessionKey, byte[] data) {
+        SecretKeySpec macKey = macKeys.computeIfAbsent(sessionKey, MacAuthenticator::deriveMacKey);
+        try {
+            Mac mac = MAC.get();
+            mac.init(macKey);
+            return mac.doFinal(data);
+        } catch (java.security.InvalidKeyException e) {
+            throw new IllegalStateException("Invalid session key for " + MAC_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Derives the HMAC key for a session key with HKDF-SHA256 (RFC 5869): an empty salt,
+     * the session key as input keying material and the authenticator label as info.
+     *
+     * @param sessionKey The pairwise session key.
+     * @return The derived HMAC key.
+     */
+    static SecretKeySpec deriveMacKey(SecretKey sessionKey) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(new byte[MAC_KEY_LENGTH], MAC_ALGORITHM));
+            byte[] pseudoRandomKey = mac.doFinal(sessionKey.getEncoded());
+
+            mac.init(new SecretKeySpec(pseudoRandomKey, MAC_ALGORITHM));
+            mac.update(MAC_KEY_LABEL);
+            mac.update((byte) 1);
+            return new SecretKeySpec(mac.doFinal(), MAC_ALGORITHM);
+        } catch (NoSuchAlgorithmException | java.security.InvalidKeyException e) {
+            throw new IllegalStateException("Cannot derive " + MAC_ALGORITHM + " key", e);
+        }
+    }
+
+    /**
+     * Drops derived HMAC keys, e.g. after session keys were rotated.
+     */
+    public void clearKeyCache() {
+        macKeys.clear();
+    }
+}
@@ -233,6 +233,9 @@ import org.example.app.core.p2p.RobustP2PManager;
 import java.security.PublicKey;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
@@ -245,6 +248,8 @@ import java.util.logging.Logger;
 public class PBFT {
     private static final Logger logger = Logger.getLogger(PBFT.class.getName());
 
+    public static final int DEFAULT_WATERMARK_WINDOW = 200; // Default size of the [low, high] sequence window
+
     private final RobustP2PManager p2pManager;         // P2P manager for communication
     private final int replicaId;                      // Unique ID of this replica
     private final int totalReplicas;                  // Total replicas in the network
@@ -253,15 +258,32 @@ public class PBFT {
     private final ViewChangeHandler viewChangeHandler; // Manages view change processes
     private final StateSynchronization stateSynchronization; // Handles state synchronization
     private final ReadWriteLock lock;                 // Thread-safe access to internal state
+    private final SignatureVerifier signatureVerifier; // Verifies inbound signatures off the receiving thread
+    private volatile MacAuthenticator macAuthenticator; // Authenticates PREPARE/COMMIT with MACs, if enabled
 
     private final Set<String> preparedDigests;        // Tracks prepared message digests
     private final Set<String> committedDigests;       // Tracks committed message digests
     private final Map<String, Integer> prepareVotes;  // Tracks votes for prepare phase
     private final Map<String, Integer> commitVotes;   // Tracks votes for commit phase
+    private final Map<String, String> pendingBatches; // Batch contents awaiting commit in the non-pipelined path
+    private final Map<String, Integer> roundIds;      // Metrics round IDs of digests awaiting commit, non-pipelined
+    private int lastRoundId;                          // Last metrics round ID assigned in the non-pipelined path
 
     private boolean isPrimary;                        // Flag indicating if this replica is the primary
     private final PublicKeyManager keyManager;        // Manages public keys for verification
 
+    // Pipelined mode state: each sequence number owns a slot, so no global lock is needed
+    private final ConcurrentMap<Integer, PBFTSlot> slots;   // In-flight consensus instances by sequence number
+    private final AtomicInteger nextSequence;               // Last sequence number assigned by the primary
+    private final Queue<String> pendingRequests;            // Requests waiting for room in the window
+    private final Object executionLock;                     // Serializes in-order execution only
+    private int lastExecutedSequence;                       // Highest sequence number executed in order
+    private volatile boolean pipelined;                     // Whether pipelined mode is enabled
+    private volatile int watermarkWindow;                   // Number of sequence numbers allowed in flight
+
+    private volatile RequestBatcher requestBatcher;         // Batches client requests on the primary (null if disabled)
+    private volatile PerformanceMetrics performanceMetrics; // Records round latency for batch size adaptation
+
     /**
      * Constructor to initialize PBFT.
      *
@@ -305,12 +327,24 @@ public class PBFT {
         this.stateSynchronization = stateSynchronization;
         this.keyManager = keyManager;
         this.lock = new ReentrantReadWriteLock();
+        this.signatureVerifier = new SignatureVerifier(
+                senderId -> getReplicaKeypair(senderId).getPublicKey(), messageHandler);
 
         // Initialize tracking sets for message digests
         this.preparedDigests = ConcurrentHashMap.newKeySet();
         this.committedDigests = ConcurrentHashMap.newKeySet();
         this.prepareVotes = new ConcurrentHashMap<>();
         this.commitVotes = new ConcurrentHashMap<>();
+        this.pendingBatches = new ConcurrentHashMap<>();
+        this.roundIds = new HashMap<>();
+
+        this.slots = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicInteger(0);
+        this.pendingRequests = new ConcurrentLinkedQueue<>();
+        this.executionLock = new Object();
+        this.lastExecutedSequence = 0;
+        this.pipelined = false;
+        this.watermarkWindow = DEFAULT_WATERMARK_WINDOW;
 
         // Set initial primary status based on view
         this.isPrimary = (replicaId == viewChangeHandler.getCurrentView());
@@ -336,36 +370,21 @@ public class PBFT {
                 logger.warning("Invalid PBFT message: " + message);
                 return;
             }
-            handleMessage(message);
+            // Signatures are verified in parallel; messages reach the protocol in arrival order
+            signatureVerifier.submit(message, this::handleMessage);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error processing PBFT message", e);
         }
     }
 
     /**
-     * Validates the integrity of a PBFT message.
+     * Validates the structure of a PBFT message. Signatures are checked by the SignatureVerifier.
      *
      * @param message The message to validate.
      * @return True if valid, false otherwise.
      */
     private boolean validateMessage(PBFTMessage message) {
-        if (message == null || message.getSenderId() < 0 || message.getType() == null) {
-            return false;
-        }
-
-        // If signature is present, verify it
-        if (message.getSignature() != null) {
-            try {
-                Keypair senderKeypair = getReplicaKeypair(message.getSenderId());
-                return messageHandler.validateMessage(message, senderKeypair);
-            } catch (Exception e) {
-                logger.log(Level.WARNING, "Signature validation failed", e);
-                return false;
-            }
-        }
-
-        // For messages without signatures, we still accept them for certain types
-        return true;
+        return message != null && message.getSenderId() >= 0 && message.getType() != null;
     }
 
     /**
@@ -374,6 +393,22 @@ public class PBFT {
      * @param message The PBFTMessage to handle.
      */
     private void handleMessage(PBFTMessage message) {
+        if (pipelined && message.getSequenceNumber() > 0) {
+            switch (message.getType()) {
+                case "PRE-PREPARE":
+                    handleSequencedPrePrepare(message);
+                    return;
+                case "PREPARE":
+                    handleSequencedPrepare(message);
+                    return;
+                case "COMMIT":
+                    handleSequencedCommit(message);
+                    return;
+                default:
+                    break;
+            }
+        }
+
         switch (message.getType()) {
             case "PRE-PREPARE":
                 handlePrePrepare(message.getDigest());
@@ -387,6 +422,9 @@ public class PBFT {
             case "VIEW-CHANGE":
                 handleViewChange(message);
                 break;
+            case "CHECKPOINT":
+                handleCheckpoint(message);
+                break;
             case "STATE-UPDATE":
                 handleStateUpdate(message);
                 break;
@@ -423,7 +461,14 @@ public class PBFT {
                 }
 
                 // Initiate the Pre-Prepare phase
-                handlePrePrepare(requestDigest);
+                RequestBatcher batcher = requestBatcher;
+                if (batcher != null) {
+                    batcher.submit(requestMessage.getContent());
+                } else if (pipelined) {
+                    submitSequencedRequest(requestMessage.getContent());
+                } else {
+                    handlePrePrepare(requestDigest);
+                }
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Error processing client request", e);
             }
@@ -461,6 +506,15 @@ public class PBFT {
                 return;
             }
 
+            // Keep batches until they commit, so each request in them can be marked committed
+            if (messageHandler.isRequestBatch(clientRequest)) {
+                pendingBatches.put(digest, clientRequest);
+            }
+            if (performanceMetrics != null && !roundIds.containsKey(digest)) {
+                roundIds.put(digest, ++lastRoundId);
+                recordRoundStart(lastRoundId);
+            }
+
             // As primary, broadcast pre-prepare to all replicas
             if (isPrimary) {
                 PBFTMessage prePrepareMessage = new PBFTMessage("PRE-PREPARE", replicaId, digest, null);
@@ -560,6 +614,14 @@ public class PBFT {
             if (votes >= 2 * maxFaulty + 1) {
                 committedDigests.add(digest);
                 commitVotes.remove(digest); // Clean up votes once committed
+                String batch = pendingBatches.remove(digest);
+                if (batch != null) {
+                    markBatchCommitted(batch);
+                }
+                Integer roundId = roundIds.remove(digest);
+                if (roundId != null) {
+                    recordRoundEnd(roundId);
+                }
 
                 // Execute the request and update state
                 executeRequest(digest);
@@ -597,16 +659,469 @@ public class PBFT {
     }
 
     /**
-     * Computes a digest for a given input.
+     * Enables pipelined consensus, where the primary assigns sequence numbers and
+     * every instance inside the watermark window progresses independently.
+     * The low watermark is the latest stable checkpoint of the CheckpointManager.
+     *
+     * @param watermarkWindow The number of sequence numbers allowed in flight.
+     * @throws IllegalArgumentException if watermarkWindow is less than 2
+     */
+    public void enablePipelining(int watermarkWindow) {
+        if (watermarkWindow < 2) {
+            throw new IllegalArgumentException("Watermark window must be at least 2");
+        }
+
+        synchronized (executionLock) {
+            int lowWatermark = getLowWatermark();
+            this.watermarkWindow = watermarkWindow;
+            this.lastExecutedSequence = Math.max(lastExecutedSequence, lowWatermark);
+            this.nextSequence.accumulateAndGet(lowWatermark, Math::max);
+            this.pipelined = true;
+        }
+        logger.info("Pipelined PBFT enabled with watermark window " + watermarkWindow);
+    }
+
+    /**
+     * Enables request batching on the primary. Client requests are accumulated and
+     * ordered as one digest per batch; the batch size follows the "batchSize" parameter
+     * of the given PerformanceMetrics, which adapts to observed load and latency.
+     *
+     * @param performanceMetrics The metrics used to size batches and record round latency.
+     * @param maxBatchBytes      The maximum number of request bytes per batch.
+     * @param maxLingerMillis    The maximum time in ms a request waits before its batch is cut.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public void enableBatching(PerformanceMetrics performanceMetrics, int maxBatchBytes, long maxLingerMillis) {
+        RequestBatcher batcher = new RequestBatcher(this::orderBatch, performanceMetrics,
+                maxBatchBytes, maxLingerMillis);
+
+        RequestBatcher previous = requestBatcher;
+        this.performanceMetrics = performanceMetrics;
+        this.requestBatcher = batcher;
+        if (previous != null) {
+            previous.shutdown();
+        }
+        logger.info("Request batching enabled: maxBatchBytes=" + maxBatchBytes +
+                ", maxLingerMillis=" + maxLingerMillis);
+    }
+
+    /**
+     * Enables MAC-vector authenticators for PREPARE and COMMIT messages. Outbound messages
+     * carry one HMAC-SHA256 tag per replica with an established session key, and inbound
+     * PREPARE/COMMIT messages must carry a valid tag for this replica or a valid signature.
+     * View-change, new-view and checkpoint messages keep using signatures.
+     *
+     * @param secureChannelManager The manager holding pairwise session keys.
+     * @throws IllegalArgumentException if secureChannelManager is null
+     */
+    public void enableMacAuthenticators(SecureChannelManager secureChannelManager) {
+        MacAuthenticator authenticator = new MacAuthenticator(replicaId, secureChannelManager, messageHandler);
+        this.macAuthenticator = authenticator;
+        signatureVerifier.setMacAuthenticator(authenticator);
+        logger.info("MAC authenticators enabled for replica " + replicaId);
+    }
+
+    /**
+     * Orders a batch of client requests as a single consensus instance.
+     *
+     * @param batch The client requests to order.
+     */
+    private void orderBatch(List<String> batch) {
+        String batchContent = messageHandler.encodeRequestBatch(batch);
+        if (pipelined) {
+            submitSequencedRequest(batchContent);
+        } else {
+            handlePrePrepare(batchContent);
+        }
+    }
+
+    /**
+     * Stops background components such as the request batcher, flushing pending requests.
+     */
+    public void shutdown() {
+        RequestBatcher batcher = requestBatcher;
+        if (batcher != null) {
+            requestBatcher = null;
+            batcher.shutdown();
+        }
+        signatureVerifier.shutdown();
+        logger.info("PBFT shutdown completed");
+    }
+
+    /**
+     * Assigns the next sequence number to a request and starts its Pre-Prepare phase.
+     * Requests that do not fit in the current window are queued until the low watermark advances.
+     *
+     * @param clientRequest The client request to order.
+     */
+    private void submitSequencedRequest(String clientRequest) {
+        if (clientRequest == null || clientRequest.isEmpty()) {
+            throw new IllegalArgumentException("Client request cannot be null or empty");
+        }
+
+        int sequenceNumber;
+        while (true) {
+            int current = nextSequence.get();
+            if (current + 1 > getHighWatermark()) {
+                pendingRequests.offer(clientRequest);
+                logger.fine("Watermark window full, queued request. Pending: " + pendingRequests.size());
+                return;
+            }
+            if (nextSequence.compareAndSet(current, current + 1)) {
+                sequenceNumber = current + 1;
+                break;
+            }
+        }
+
+        int view = viewChangeHandler.getCurrentView();
+        String digest = computeDigest(clientRequest);
+        PBFTSlot slot = slots.computeIfAbsent(sequenceNumber, PBFTSlot::new);
+        slot.acceptPrePrepare(view, digest, clientRequest);
+        recordRoundStart(sequenceNumber);
+
+        PBFTMessage prePrepareMessage = new PBFTMessage("PRE-PREPARE", replicaId, digest, null);
+        prePrepareMessage.setContent(clientRequest);
+        prePrepareMessage.setViewNumber(view);
+        prePrepareMessage.setSequenceNumber(sequenceNumber);
+        broadcastMessage(prePrepareMessage);
+        logger.fine("Pre-Prepare initiated for sequence " + sequenceNumber + " with digest: " + digest);
+
+        // The primary's Pre-Prepare counts as its Prepare
+        if (slot.addPrepare(replicaId, digest, quorumSize())) {
+            onPrepared(slot);
+        }
+    }
+
+    /**
+     * Handles a sequence-numbered Pre-Prepare from the primary.
+     *
+     * @param message The Pre-Prepare message.
+     */
+    private void handleSequencedPrePrepare(PBFTMessage message) {
+        int view = viewChangeHandler.getCurrentView();
+        if (message.getViewNumber() != view || message.getSenderId() != view) {
+            logger.warning("Rejecting Pre-Prepare from non-primary or stale view: " + message);
+            return;
+        }
+        if (!isInWindow(message.getSequenceNumber())) {
+            logger.warning("Pre-Prepare outside watermark window: " + message.getSequenceNumber());
+            return;
+        }
+        if (message.getContent() != null && !computeDigest(message.getContent()).equals(message.getDigest())) {
+            logger.warning("Pre-Prepare digest does not match its content: " + message);
+            return;
+        }
+
+        PBFTSlot slot = slots.computeIfAbsent(message.getSequenceNumber(), PBFTSlot::new);
+        if (!slot.acceptPrePrepare(view, message.getDigest(), message.getContent())) {
+            logger.warning("Conflicting Pre-Prepare for sequence " + message.getSequenceNumber());
+            return;
+        }
+        recordRoundStart(message.getSequenceNumber());
+
+        PBFTMessage prepareMessage = new PBFTMessage("PREPARE", replicaId, message.getDigest(), null);
+        prepareMessage.setViewNumber(view);
+        prepareMessage.setSequenceNumber(message.getSequenceNumber());
+        broadcastMessage(prepareMessage);
+
+        int quorum = quorumSize();
+        boolean prepared = slot.addPrepare(message.getSenderId(), message.getDigest(), quorum);
+        prepared |= slot.addPrepare(replicaId, message.getDigest(), quorum);
+        prepared |= slot.checkPrepared(quorum);
+        if (prepared) {
+            onPrepared(slot);
+        }
+    }
+
+    /**
+     * Handles a sequence-numbered Prepare vote.
+     *
+     * @param message The Prepare message.
+     */
+    private void handleSequencedPrepare(PBFTMessage message) {
+        if (message.getViewNumber() != viewChangeHandler.getCurrentView()
+                || !isInWindow(message.getSequenceNumber())) {
+            logger.fine("Ignoring Prepare outside current view or window: " + message);
+            return;
+        }
+
+        PBFTSlot slot = slots.computeIfAbsent(message.getSequenceNumber(), PBFTSlot::new);
+        if (slot.addPrepare(message.getSenderId(), message.getDigest(), quorumSize())) {
+            onPrepared(slot);
+        }
+    }
+
+    /**
+     * Handles a sequence-numbered Commit vote.
+     *
+     * @param message The Commit message.
+     */
+    private void handleSequencedCommit(PBFTMessage message) {
+        if (message.getViewNumber() != viewChangeHandler.getCurrentView()
+                || !isInWindow(message.getSequenceNumber())) {
+            logger.fine("Ignoring Commit outside current view or window: " + message);
+            return;
+        }
+
+        PBFTSlot slot = slots.computeIfAbsent(message.getSequenceNumber(), PBFTSlot::new);
+        if (slot.addCommit(message.getSenderId(), message.getDigest(), quorumSize())) {
+            executeCommittedSlots();
+        }
+    }
+
+    /**
+     * Broadcasts this replica's Commit once a slot is prepared.
+     *
+     * @param slot The slot that has just become prepared.
+     */
+    private void onPrepared(PBFTSlot slot) {
+        PBFTMessage commitMessage = new PBFTMessage("COMMIT", replicaId, slot.getDigest(), null);
+        commitMessage.setViewNumber(slot.getViewNumber());
+        commitMessage.setSequenceNumber(slot.getSequenceNumber());
+        broadcastMessage(commitMessage);
+
+        int quorum = quorumSize();
+        if (slot.addCommit(replicaId, slot.getDigest(), quorum) | slot.checkCommitted(quorum)) {
+            executeCommittedSlots();
+        }
+    }
+
+    /**
+     * Executes committed slots in sequence order. Slots may commit out of order,
+     * but execution only advances over a contiguous prefix of committed sequence numbers.
+     */
+    private void executeCommittedSlots() {
+        boolean advancedWatermark = false;
+
+        synchronized (executionLock) {
+            PBFTSlot next = slots.get(lastExecutedSequence + 1);
+            while (next != null && next.isCommitted()) {
+                String digest = next.getDigest();
+                committedDigests.add(digest);
+                markBatchCommitted(next.getContent());
+                recordRoundEnd(next.getSequenceNumber());
+                stateSynchronization.updateState(digest.hashCode(), "Executed: " + digest);
+                lastExecutedSequence = next.getSequenceNumber();
+                logger.fine("Executed sequence " + lastExecutedSequence + " with digest: " + digest);
+
+                // Take a checkpoint every half window; the window slides once it is stable
+                if (lastExecutedSequence % checkpointInterval() == 0
+                        && stateSynchronization.createStateCheckpoint(lastExecutedSequence)) {
+                    advancedWatermark |= broadcastCheckpoint(lastExecutedSequence);
+                }
+                next = slots.get(lastExecutedSequence + 1);
+            }
+        }
+
+        if (advancedWatermark) {
+            drainPendingRequests();
+        }
+    }
+
+    /**
+     * Announces a local checkpoint to the other replicas and counts this replica's own vote.
+     *
+     * @param sequenceNumber The sequence number of the local checkpoint.
+     * @return True if the checkpoint became stable
+     */
+    private boolean broadcastCheckpoint(int sequenceNumber) {
+        CheckpointManager checkpointManager = stateSynchronization.getCheckpointManager();
+        String digest = checkpointManager.getCheckpointDigest(sequenceNumber);
+        if (digest == null) {
+            return false;
+        }
+        PBFTMessage checkpointMessage = new PBFTMessage("CHECKPOINT", replicaId, digest, null);
+        checkpointMessage.setViewNumber(viewChangeHandler.getCurrentView());
+        checkpointMessage.setSequenceNumber(sequenceNumber);
+        broadcastMessage(checkpointMessage);
+
+        if (checkpointManager.recordCheckpointVote(sequenceNumber, replicaId, digest, quorumSize())) {
+            discardSlotsUpTo(sequenceNumber);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Handles a CHECKPOINT message, advancing the low watermark once 2f + 1 replicas
+     * report the same digest as the local checkpoint.
+     *
+     * @param message The Checkpoint message.
+     */
+    private void handleCheckpoint(PBFTMessage message) {
+        int sequenceNumber = message.getSequenceNumber();
+        if (sequenceNumber <= getLowWatermark() || sequenceNumber > getHighWatermark()
+                || message.getDigest() == null) {
+            logger.fine("Ignoring Checkpoint outside watermark window: " + message);
+            return;
+        }
+
+        boolean stable;
+        synchronized (executionLock) {
+            stable = stateSynchronization.getCheckpointManager()
+                    .recordCheckpointVote(sequenceNumber, message.getSenderId(), message.getDigest(), quorumSize());
+            if (stable) {
+                discardSlotsUpTo(sequenceNumber);
+            }
+        }
+        if (stable) {
+            drainPendingRequests();
+        }
+    }
+
+    /**
+     * Marks every request of an executed batch as committed so duplicates are detected per request.
+     *
+     * @param content The executed slot content.
+     */
+    private void markBatchCommitted(String content) {
+        if (messageHandler.isRequestBatch(content)) {
+            for (String request : messageHandler.decodeRequestBatch(content)) {
+                committedDigests.add(computeDigest(request));
+            }
+        }
+    }
+
+    /**
+     * Records the start of a consensus round when metrics are attached.
+     *
+     * @param sequenceNumber The sequence number identifying the round.
+     */
+    private void recordRoundStart(int sequenceNumber) {
+        PerformanceMetrics metrics = performanceMetrics;
+        if (metrics != null) {
+            metrics.recordConsensusStart(sequenceNumber);
+        }
+    }
+
+    /**
+     * Records the end of a consensus round when metrics are attached, and adapts the
+     * batch size and timeout to the latency observed so far.
+     *
+     * @param sequenceNumber The sequence number identifying the round.
+     */
+    private void recordRoundEnd(int sequenceNumber) {
+        PerformanceMetrics metrics = performanceMetrics;
+        if (metrics != null) {
+            metrics.recordConsensusEnd(sequenceNumber);
+            metrics.adjustParameters();
+        }
+    }
+
+    /**
+     * Garbage-collects slots at or below a stable checkpoint.
+     *
+     * @param stableSequence The sequence number of the stable checkpoint.
+     */
+    private void discardSlotsUpTo(int stableSequence) {
+        slots.keySet().removeIf(sequence -> sequence <= stableSequence);
+        stateSynchronization.getCheckpointManager().discardOldCheckpoints();
+        logger.info("Low watermark advanced to " + stableSequence);
+    }
+
+    /**
+     * Re-submits queued requests after the watermark window has moved.
+     */
+    private void drainPendingRequests() {
+        if (!isPrimary()) {
+            return;
+        }
+        int available = getHighWatermark() - nextSequence.get();
+        for (int i = 0; i < available; i++) {
+            String request = pendingRequests.poll();
+            if (request == null) {
+                break;
+            }
+            submitSequencedRequest(request);
+        }
+    }
+
+    /**
+     * Checks whether a sequence number lies strictly above the low watermark and at or below the high watermark.
+     *
+     * @param sequenceNumber The sequence number to check.
+     * @return true if the sequence number is in the window
+     */
+    private boolean isInWindow(int sequenceNumber) {
+        return sequenceNumber > getLowWatermark() && sequenceNumber <= getHighWatermark();
+    }
+
+    /**
+     * Gets the number of matching votes required to complete a phase (2f + 1).
+     *
+     * @return The quorum size
+     */
+    private int quorumSize() {
+        return 2 * maxFaulty + 1;
+    }
+
+    /**
+     * Gets the checkpoint interval used in pipelined mode.
+     *
+     * @return The number of sequence numbers between checkpoints
+     */
+    private int checkpointInterval() {
+        return Math.max(1, watermarkWindow / 2);
+    }
+
+    /**
+     * Gets the low watermark, i.e. the latest stable checkpoint sequence number.
+     *
+     * @return The low watermark
+     */
+    public int getLowWatermark() {
+        return stateSynchronization.getCheckpointManager().getLatestCheckpointSequence();
+    }
+
+    /**
+     * Gets the high watermark, i.e. the highest sequence number that may be in flight.
+     *
+     * @return The high watermark
+     */
+    public int getHighWatermark() {
+        return getLowWatermark() + watermarkWindow;
+    }
+
+    /**
+     * Checks whether pipelined mode is enabled.
+     *
+     * @return true if pipelined
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Gets the number of consensus instances currently tracked in the window.
+     *
+     * @return The in-flight slot count
+     */
+    public int getInFlightCount() {
+        return slots.size();
+    }
+
+    /**
+     * Gets the highest sequence number executed in order.
+     *
+     * @return The last executed sequence number
+     */
+    public int getLastExecutedSequence() {
+        synchronized (executionLock) {
+            return lastExecutedSequence;
+        }
+    }
+
+    /**
+     * Computes the SHA-256 digest for a given input, reusing cached digests of known requests.
      *
      * @param data The input data.
-     * @return The computed digest.
+     * @return The computed digest as hex.
      */
     private String computeDigest(String data) {
         if (data == null) {
             return "";
         }
-        return Integer.toHexString(data.hashCode());
+        return DigestService.shared().digest(data);
     }
 
     /**
@@ -616,6 +1131,10 @@ public class PBFT {
      */
     private void broadcastMessage(PBFTMessage message) {
         try {
+            MacAuthenticator authenticator = macAuthenticator;
+            if (authenticator != null && MacAuthenticator.usesAuthenticator(message.getType())) {
+                authenticator.authenticate(message);
+            }
             String serializedMessage = messageHandler.encodePBFTMessage(message);
             p2pManager.sendBroadcast(serializedMessage);
             logger.fine("Broadcasted message: " + message);
@@ -777,6 +1296,15 @@ public class PBFT {
         return messageHandler;
     }
 
+    /**
+     * Gets the signature verifier used for inbound messages.
+     *
+     * @return The signature verifier.
+     */
+    public SignatureVerifier getSignatureVerifier() {
+        return signatureVerifier;
+    }
+
     /**
      * Gets the set of digests that have been committed.
      *
@@ -125,6 +125,7 @@ public class PBFTHandler {
     private final PBFT pbft;                 // Main PBFT instance for handling consensus phases
     private final RobustP2PManager p2pManager; // Peer-to-peer network manager
     private final PBFTMessageHandler messageHandler; // Handles message encoding/decoding
+    private final SignatureVerifier signatureVerifier; // Verifies inbound signatures off the receiving thread
 
     /**
      * Constructor to initialize the PBFTHandler.
@@ -148,6 +149,8 @@ public class PBFTHandler {
         this.pbft = pbft;
         this.p2pManager = p2pManager;
         this.messageHandler = messageHandler;
+        this.signatureVerifier = new SignatureVerifier(
+                senderId -> getSenderKeypair(senderId).getPublicKey(), messageHandler);
     }
 
     /**
@@ -171,6 +174,20 @@ public class PBFTHandler {
                 return;
             }
 
+            // Signatures are verified in parallel; messages are dispatched in arrival order
+            signatureVerifier.submit(message, this::dispatchMessage);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error processing PBFT message", e);
+        }
+    }
+
+    /**
+     * Dispatches a verified PBFT message to the appropriate component.
+     *
+     * @param message The verified PBFTMessage.
+     */
+    private void dispatchMessage(PBFTMessage message) {
+        try {
             // Delegate processing based on the message type
             switch (message.getType()) {
                 case "PRE-PREPARE":
@@ -214,31 +231,14 @@ public class PBFTHandler {
     }
 
     /**
-     * Validates an incoming PBFT message for correctness and integrity.
+     * Validates the structure of an incoming PBFT message. Signatures are checked by the SignatureVerifier.
      *
      * @param message The PBFTMessage to validate.
      * @return True if the message is valid, false otherwise.
      */
     private boolean validateMessage(PBFTMessage message) {
         // Perform basic validation: ensure sender ID and message content are not null
-        if (message == null || message.getSenderId() < 0 || message.getType() == null) {
-            return false;
-        }
-
-        // If the message has a signature, verify it
-        if (message.getSignature() != null) {
-            try {
-                Keypair senderKeypair = getSenderKeypair(message.getSenderId());
-                return messageHandler.validateMessage(message, senderKeypair);
-            } catch (Exception e) {
-                logger.log(Level.WARNING, "Error validating message signature", e);
-                return false;
-            }
-        }
-
-        // For messages without signatures, we still accept them in some cases
-        // This is a simplification for certain message types or testing environments
-        return true;
+        return message != null && message.getSenderId() >= 0 && message.getType() != null;
     }
 
     /**
@@ -302,6 +302,13 @@ public class PBFTHandler {
         return pbft;
     }
 
+    /**
+     * Stops the signature verification workers.
+     */
+    public void shutdown() {
+        signatureVerifier.shutdown();
+    }
+
     /**
      * Gets the associated message handler.
      *
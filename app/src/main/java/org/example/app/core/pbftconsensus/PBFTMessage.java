@@ -62,6 +62,7 @@ package org.example.app.core.pbftconsensus;
 
 import org.example.app.core.crypto.Keypair;
 import java.util.Base64;
+import java.util.Map;
 
 /**
  * Represents a message in the PBFT protocol.
@@ -75,6 +76,9 @@ public class PBFTMessage {
     private final String digest;
     private final Keypair.SignatureResult signature;
     private String content; // Message content
+    private int viewNumber; // View in which the message was issued
+    private int sequenceNumber; // Sequence number assigned by the primary (0 if unassigned)
+    private Map<Integer, byte[]> authenticator; // HMAC tags by receiving replica ID (null if signed or unauthenticated)
 
     /**
      * Constructor to initialize a PBFT message.
@@ -145,6 +149,60 @@ public class PBFTMessage {
         this.content = content;
     }
 
+    /**
+     * Gets the view number the message belongs to.
+     *
+     * @return The view number
+     */
+    public int getViewNumber() {
+        return viewNumber;
+    }
+
+    /**
+     * Sets the view number the message belongs to.
+     *
+     * @param viewNumber The view number to set
+     */
+    public void setViewNumber(int viewNumber) {
+        this.viewNumber = viewNumber;
+    }
+
+    /**
+     * Gets the sequence number assigned by the primary.
+     *
+     * @return The sequence number, or 0 if none was assigned
+     */
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Sets the sequence number assigned by the primary.
+     *
+     * @param sequenceNumber The sequence number to set
+     */
+    public void setSequenceNumber(int sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * Gets the MAC authenticator, a vector of HMAC tags keyed by receiving replica ID.
+     *
+     * @return The authenticator, or null if the message carries none
+     */
+    public Map<Integer, byte[]> getAuthenticator() {
+        return authenticator;
+    }
+
+    /**
+     * Sets the MAC authenticator.
+     *
+     * @param authenticator The HMAC tags keyed by receiving replica ID
+     */
+    public void setAuthenticator(Map<Integer, byte[]> authenticator) {
+        this.authenticator = authenticator;
+    }
+
     /**
      * Serializes the message for transmission over the network.
      *
@@ -170,6 +228,24 @@ public class PBFTMessage {
                     .append(Base64.getEncoder().encodeToString(signature.getS().toByteArray()));
         }
 
+        // Add view and sequence numbers used by pipelined consensus
+        serialized.append("|").append(viewNumber)
+                .append("|").append(sequenceNumber);
+
+        // Add MAC authenticator entries as id:tag pairs separated by ';'
+        if (authenticator != null && !authenticator.isEmpty()) {
+            serialized.append("|");
+            boolean first = true;
+            for (Map.Entry<Integer, byte[]> entry : authenticator.entrySet()) {
+                if (!first) {
+                    serialized.append(";");
+                }
+                serialized.append(entry.getKey()).append(":")
+                        .append(Base64.getEncoder().encodeToString(entry.getValue()));
+                first = false;
+            }
+        }
+
         return serialized.toString();
     }
 
@@ -180,6 +256,8 @@ public class PBFTMessage {
                 ", senderId=" + senderId +
                 ", digest='" + digest + '\'' +
                 ", content='" + content + '\'' +
+                ", viewNumber=" + viewNumber +
+                ", sequenceNumber=" + sequenceNumber +
                 ", signature=" + signature +
                 '}';
     }
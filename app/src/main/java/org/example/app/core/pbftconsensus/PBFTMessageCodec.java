@@ -0,0 +1,431 @@
+package org.example.app.core.pbftconsensus;
+
+import org.example.app.core.crypto.Keypair.SignatureResult;
+
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PBFTMessageCodec encodes PBFTMessages in a compact, length-prefixed binary format.
+ *
+ * Layout of a single message:
+ * <pre>
+ *   version   : 1 byte
+ *   type      : 1 byte (index into MESSAGE_TYPES, or TYPE_CUSTOM followed by a length-prefixed name)
+ *   flags     : 1 byte (raw digest, content present, signature present, authenticator present)
+ *   senderId  : varint
+ *   view      : varint
+ *   sequence  : varint
+ *   digest    : 32 raw bytes when FLAG_RAW_DIGEST is set, otherwise length-prefixed UTF-8
+ *   content   : length-prefixed UTF-8 (optional)
+ *   signature : length-prefixed r, length-prefixed s, unsigned big-endian (optional)
+ *   auth      : varint count, then varint replica ID and length-prefixed HMAC tag per entry (optional)
+ * </pre>
+ * A frame is a varint body length followed by the message body, so frames can be
+ * concatenated into batches and split again without scanning for delimiters.
+ */
+public class PBFTMessageCodec {
+    public static final byte VERSION = 1;                 // Current wire format version
+    public static final int DIGEST_LENGTH = 32;           // Length of a raw SHA-256 digest
+
+    private static final String[] MESSAGE_TYPES = {       // Fixed-width type table, index is the wire code
+            "PRE-PREPARE", "PREPARE", "COMMIT", "VIEW-CHANGE", "NEW-VIEW", "CHECKPOINT",
+            "STATE-UPDATE", "STATE-REQUEST", "CLIENT-REQUEST", "CLIENT-RESPONSE"
+    };
+    private static final int TYPE_CUSTOM = 0xFF;          // Type not in the table, name follows
+
+    private static final int FLAG_RAW_DIGEST = 1;         // Digest is a 64-char hex string sent as 32 raw bytes
+    private static final int FLAG_CONTENT = 1 << 1;       // Content is present
+    private static final int FLAG_SIGNATURE = 1 << 2;     // Signature is present
+    private static final int FLAG_AUTHENTICATOR = 1 << 3; // MAC authenticator is present
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Reusable per-thread encode buffer, grown on demand
+    private static final ThreadLocal<ByteBuffer> ENCODE_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    /**
+     * Encodes a message into a new byte array.
+     *
+     * @param message The message to encode.
+     * @return The encoded message body (without frame length).
+     * @throws IllegalArgumentException if message is null
+     */
+    public byte[] encode(PBFTMessage message) {
+        ByteBuffer buffer = encodeToThreadBuffer(message);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Encodes a message into the calling thread's reusable buffer.
+     * The returned buffer is flipped and only valid until the next encode on the same thread.
+     *
+     * @param message The message to encode.
+     * @return A read-ready view of the encoded message body.
+     * @throws IllegalArgumentException if message is null
+     */
+    public ByteBuffer encodeToThreadBuffer(PBFTMessage message) {
+        ByteBuffer buffer = ENCODE_BUFFER.get();
+        while (true) {
+            buffer.clear();
+            try {
+                encode(message, buffer);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                ENCODE_BUFFER.set(buffer);
+            }
+        }
+    }
+
+    /**
+     * Encodes a message body into the given buffer at its current position.
+     *
+     * @param message The message to encode.
+     * @param buffer  The destination buffer.
+     * @throws IllegalArgumentException if message is null
+     * @throws BufferOverflowException  if the buffer is too small
+     */
+    public void encode(PBFTMessage message, ByteBuffer buffer) {
+        if (message == null) {
+            throw new IllegalArgumentException("Cannot encode null message");
+        }
+
+        String digest = message.getDigest() == null ? "" : message.getDigest();
+        String content = message.getContent();
+        SignatureResult signature = message.getSignature();
+        Map<Integer, byte[]> authenticator = message.getAuthenticator();
+        int typeCode = typeCode(message.getType());
+
+        int flags = 0;
+        if (isHexDigest(digest)) {
+            flags |= FLAG_RAW_DIGEST;
+        }
+        if (content != null) {
+            flags |= FLAG_CONTENT;
+        }
+        if (signature != null) {
+            flags |= FLAG_SIGNATURE;
+        }
+        if (authenticator != null && !authenticator.isEmpty()) {
+            flags |= FLAG_AUTHENTICATOR;
+        }
+
+        buffer.put(VERSION);
+        buffer.put((byte) typeCode);
+        buffer.put((byte) flags);
+        writeVarInt(buffer, message.getSenderId());
+        writeVarInt(buffer, message.getViewNumber());
+        writeVarInt(buffer, message.getSequenceNumber());
+
+        if (typeCode == TYPE_CUSTOM) {
+            writeString(buffer, message.getType());
+        }
+        if ((flags & FLAG_RAW_DIGEST) != 0) {
+            writeHexDigest(buffer, digest);
+        } else {
+            writeString(buffer, digest);
+        }
+        if (content != null) {
+            writeString(buffer, content);
+        }
+        if (signature != null) {
+            writeUnsigned(buffer, signature.getR());
+            writeUnsigned(buffer, signature.getS());
+        }
+        if ((flags & FLAG_AUTHENTICATOR) != 0) {
+            writeVarInt(buffer, authenticator.size());
+            for (Map.Entry<Integer, byte[]> entry : authenticator.entrySet()) {
+                writeVarInt(buffer, entry.getKey());
+                writeVarInt(buffer, entry.getValue().length);
+                buffer.put(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Decodes a message body.
+     *
+     * @param bytes The encoded message body.
+     * @return The decoded message.
+     * @throws IllegalArgumentException if the encoding is invalid
+     */
+    public PBFTMessage decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Encoded message cannot be null or empty");
+        }
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes a message body from the buffer's current position, advancing it past the message.
+     *
+     * @param buffer The source buffer.
+     * @return The decoded message.
+     * @throws IllegalArgumentException if the encoding is invalid
+     */
+    public PBFTMessage decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported PBFT wire version: " + version);
+            }
+
+            int typeCode = buffer.get() & 0xFF;
+            int flags = buffer.get() & 0xFF;
+            int senderId = readVarInt(buffer);
+            int viewNumber = readVarInt(buffer);
+            int sequenceNumber = readVarInt(buffer);
+
+            String type;
+            if (typeCode == TYPE_CUSTOM) {
+                type = readString(buffer);
+            } else if (typeCode < MESSAGE_TYPES.length) {
+                type = MESSAGE_TYPES[typeCode];
+            } else {
+                throw new IllegalArgumentException("Unknown PBFT message type code: " + typeCode);
+            }
+
+            String digest = (flags & FLAG_RAW_DIGEST) != 0 ? readHexDigest(buffer) : readString(buffer);
+            String content = (flags & FLAG_CONTENT) != 0 ? readString(buffer) : null;
+            SignatureResult signature = null;
+            if ((flags & FLAG_SIGNATURE) != 0) {
+                BigInteger r = readUnsigned(buffer);
+                BigInteger s = readUnsigned(buffer);
+                signature = new SignatureResult(r, s);
+            }
+            Map<Integer, byte[]> authenticator = null;
+            if ((flags & FLAG_AUTHENTICATOR) != 0) {
+                int count = readVarInt(buffer);
+                authenticator = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    int replicaId = readVarInt(buffer);
+                    int length = readVarInt(buffer);
+                    if (length > buffer.remaining()) {
+                        throw new IllegalArgumentException("Authenticator length exceeds message size: " + length);
+                    }
+                    byte[] tag = new byte[length];
+                    buffer.get(tag);
+                    authenticator.put(replicaId, tag);
+                }
+            }
+
+            PBFTMessage message = new PBFTMessage(type, senderId, digest, signature);
+            message.setContent(content);
+            message.setViewNumber(viewNumber);
+            message.setSequenceNumber(sequenceNumber);
+            message.setAuthenticator(authenticator);
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated PBFT message", e);
+        }
+    }
+
+    /**
+     * Encodes a message as a length-prefixed frame into the given buffer.
+     *
+     * @param message The message to encode.
+     * @param buffer  The destination buffer.
+     * @throws BufferOverflowException if the buffer is too small
+     */
+    public void encodeFrame(PBFTMessage message, ByteBuffer buffer) {
+        ByteBuffer body = encodeToThreadBuffer(message);
+        writeVarInt(buffer, body.remaining());
+        buffer.put(body);
+    }
+
+    /**
+     * Encodes several messages as consecutive length-prefixed frames.
+     *
+     * @param messages The messages to encode.
+     * @return The encoded batch.
+     * @throws IllegalArgumentException if messages is null or empty or contains null
+     */
+    public byte[] encodeBatch(List<PBFTMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+
+        ByteBuffer batch = ByteBuffer.allocate(INITIAL_BUFFER_SIZE * messages.size());
+        for (PBFTMessage message : messages) {
+            ByteBuffer body = encodeToThreadBuffer(message);
+            if (batch.remaining() < body.remaining() + 5) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(batch.capacity() * 2,
+                        batch.position() + body.remaining() + 5));
+                batch.flip();
+                larger.put(batch);
+                batch = larger;
+            }
+            writeVarInt(batch, body.remaining());
+            batch.put(body);
+        }
+
+        byte[] bytes = new byte[batch.position()];
+        batch.flip();
+        batch.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes consecutive length-prefixed frames until the buffer is exhausted.
+     *
+     * @param buffer The buffer holding the batch.
+     * @return The decoded messages in order.
+     * @throws IllegalArgumentException if a frame is invalid
+     */
+    public List<PBFTMessage> decodeBatch(ByteBuffer buffer) {
+        List<PBFTMessage> messages = new ArrayList<>();
+        try {
+            while (buffer.hasRemaining()) {
+                int length = readVarInt(buffer);
+                if (length <= 0 || length > buffer.remaining()) {
+                    throw new IllegalArgumentException("Invalid frame length: " + length);
+                }
+                int frameEnd = buffer.position() + length;
+                ByteBuffer frame = buffer.duplicate();
+                frame.limit(frameEnd);
+                messages.add(decode(frame));
+                buffer.position(frameEnd);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated PBFT batch", e);
+        }
+        return messages;
+    }
+
+    /**
+     * Writes an unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The destination buffer.
+     * @param value  The non-negative value to write.
+     * @throws IllegalArgumentException if value is negative
+     */
+    public static void writeVarInt(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint value cannot be negative: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned LEB128 variable-length integer.
+     *
+     * @param buffer The source buffer.
+     * @return The decoded value.
+     * @throws IllegalArgumentException if the varint is longer than five bytes
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Varint out of range");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int typeCode(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Message type cannot be null");
+        }
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            if (MESSAGE_TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return TYPE_CUSTOM;
+    }
+
+    private static boolean isHexDigest(String digest) {
+        if (digest.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        for (int i = 0; i < digest.length(); i++) {
+            char c = digest.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHexDigest(ByteBuffer buffer, String digest) {
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int hi = Character.digit(digest.charAt(2 * i), 16);
+            int lo = Character.digit(digest.charAt(2 * i + 1), 16);
+            buffer.put((byte) ((hi << 4) | lo));
+        }
+    }
+
+    private static String readHexDigest(ByteBuffer buffer) {
+        char[] hex = new char[DIGEST_LENGTH * 2];
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int b = buffer.get() & 0xFF;
+            hex[2 * i] = HEX[b >>> 4];
+            hex[2 * i + 1] = HEX[b & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String length exceeds message size: " + length);
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void writeUnsigned(ByteBuffer buffer, BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte that BigInteger adds for values with the high bit set
+        int offset = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0;
+        writeVarInt(buffer, bytes.length - offset);
+        buffer.put(bytes, offset, bytes.length - offset);
+    }
+
+    private static BigInteger readUnsigned(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Signature length exceeds message size: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new BigInteger(1, bytes);
+    }
+}
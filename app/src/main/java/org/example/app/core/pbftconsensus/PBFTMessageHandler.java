@@ -132,70 +132,123 @@
 
 package org.example.app.core.pbftconsensus;
 import org.example.app.core.crypto.Keypair;
-import org.example.app.core.crypto.Keypair.SignatureResult;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.math.BigInteger;
+import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * PBFTMessageHandler handles encoding and decoding of PBFT-specific messages for P2P transport,
  * ensuring integrity, format validation, and optional message batching for optimization.
  */
 public class PBFTMessageHandler {
+    private static final Logger logger = Logger.getLogger(PBFTMessageHandler.class.getName());
+
+    public static final String REQUEST_BATCH_PREFIX = "BATCH:"; // Marks content carrying a request batch
+
+    private final PBFTMessageCodec codec = new PBFTMessageCodec(); // Binary wire codec
 
     /**
-     * Encodes a PBFTMessage into a format suitable for P2P transmission.
+     * Encodes a PBFTMessage for P2P transmission. The string transport carries the
+     * compact binary encoding in Base64, which contains no batch or field delimiters.
      *
      * @param pbftMessage The PBFTMessage to encode.
-     * @return A serialized string representation of the PBFTMessage.
+     * @return The Base64 text of the binary encoding.
+     * @throws IllegalArgumentException if the message is null
      */
     public String encodePBFTMessage(PBFTMessage pbftMessage) {
         if (pbftMessage == null) {
             throw new IllegalArgumentException("Cannot encode null message");
         }
 
-        return pbftMessage.serialize();
+        return Base64.getEncoder().encodeToString(codec.encode(pbftMessage));
     }
 
     /**
-     * Decodes a serialized PBFTMessage back into a PBFTMessage object.
+     * Decodes a PBFTMessage received from the P2P network.
      *
-     * @param serializedMessage The serialized string representation of a PBFTMessage.
+     * @param serializedMessage The Base64 text of the binary encoding.
      * @return The decoded PBFTMessage object.
-     * @throws IllegalArgumentException If the message format is invalid
+     * @throws IllegalArgumentException If the message is not valid Base64 or not a valid encoding
      */
     public PBFTMessage decodePBFTMessage(String serializedMessage) {
         if (serializedMessage == null || serializedMessage.isEmpty()) {
             throw new IllegalArgumentException("Serialized message cannot be null or empty");
         }
 
-        String[] parts = serializedMessage.split("\\|");
-        if (parts.length < 4) {
-            throw new IllegalArgumentException("Invalid PBFT message format: insufficient parts");
-        }
-
-        String type = parts[0];
-        int senderId;
+        byte[] encoded;
         try {
-            senderId = Integer.parseInt(parts[1]);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid sender ID format", e);
+            encoded = Base64.getDecoder().decode(serializedMessage);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid PBFT message encoding", e);
         }
-        String digest = parts[2];
-        String content = parts.length > 3 ? parts[3] : null;
-        SignatureResult signature = null;
+        PBFTMessage decodedMessage = codec.decode(encoded);
 
-        // Check for signature part
-        if (parts.length > 4 && !parts[4].isEmpty()) {
-            signature = deserializeSignature(parts[4]);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Decoded PBFT message: " + decodedMessage);
         }
+        return decodedMessage;
+    }
 
-        PBFTMessage decodedMessage = new PBFTMessage(type, senderId, digest, signature);
-        if (content != null && !content.isEmpty()) {
-            decodedMessage.setContent(content);
-        }
+    /**
+     * Encodes a PBFTMessage into the compact binary wire format.
+     *
+     * @param pbftMessage The PBFTMessage to encode.
+     * @return The binary encoding of the message.
+     * @throws IllegalArgumentException if the message is null
+     */
+    public byte[] encodeBinary(PBFTMessage pbftMessage) {
+        return codec.encode(pbftMessage);
+    }
 
-        System.out.println("Decoded PBFT message: " + decodedMessage);
-        return decodedMessage;
+    /**
+     * Encodes a PBFTMessage as a length-prefixed frame directly into a caller-owned buffer.
+     *
+     * @param pbftMessage The PBFTMessage to encode.
+     * @param buffer      The destination buffer, typically reused across messages.
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void encodeBinaryFrame(PBFTMessage pbftMessage, ByteBuffer buffer) {
+        codec.encodeFrame(pbftMessage, buffer);
+    }
+
+    /**
+     * Decodes a PBFTMessage from the compact binary wire format.
+     *
+     * @param encodedMessage The binary encoding of the message.
+     * @return The decoded PBFTMessage.
+     * @throws IllegalArgumentException if the encoding is invalid or of an unsupported version
+     */
+    public PBFTMessage decodeBinary(byte[] encodedMessage) {
+        return codec.decode(encodedMessage);
+    }
+
+    /**
+     * Batches multiple PBFTMessages into consecutive length-prefixed binary frames.
+     *
+     * @param messages The messages to batch.
+     * @return The binary batch.
+     * @throws IllegalArgumentException if the messages list is null or empty
+     */
+    public byte[] batchMessagesBinary(List<PBFTMessage> messages) {
+        return codec.encodeBatch(messages);
+    }
+
+    /**
+     * Splits a binary batch back into individual PBFTMessages.
+     *
+     * @param batchedMessages The binary batch.
+     * @return The decoded messages in order.
+     * @throws IllegalArgumentException if the batch is null, empty or malformed
+     */
+    public List<PBFTMessage> unbatchMessagesBinary(byte[] batchedMessages) {
+        if (batchedMessages == null || batchedMessages.length == 0) {
+            throw new IllegalArgumentException("Batched messages cannot be null or empty");
+        }
+        return codec.decodeBatch(ByteBuffer.wrap(batchedMessages));
     }
 
     /**
@@ -217,43 +270,90 @@ public class PBFTMessageHandler {
             return false;
         }
 
-        // Create the data that was originally signed
+        boolean isValid = keypair.verify(message.getSignature(), getSignedData(message));
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Message validation result for sender " + message.getSenderId() + ": " + isValid);
+        }
+        return isValid;
+    }
+
+    /**
+     * Builds the bytes covered by a PBFTMessage signature.
+     *
+     * @param message The PBFTMessage.
+     * @return The data that was originally signed.
+     */
+    public byte[] getSignedData(PBFTMessage message) {
         String dataString = message.getType() + message.getSenderId() + message.getDigest();
         if (message.getContent() != null) {
             dataString += message.getContent();
         }
+        return dataString.getBytes();
+    }
 
-        byte[] dataToVerify = dataString.getBytes();
-        boolean isValid = keypair.verify(message.getSignature(), dataToVerify);
+    /**
+     * Encodes a batch of client requests as the content of a single Pre-Prepare.
+     * Each request is Base64-encoded so that it cannot clash with message delimiters.
+     *
+     * @param requests The client requests to order together.
+     * @return The batch content.
+     * @throws IllegalArgumentException If the requests list is null or empty
+     */
+    public String encodeRequestBatch(List<String> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Requests list cannot be null or empty");
+        }
 
-        System.out.println("Message validation result for sender " + message.getSenderId() + ": " + isValid);
-        return isValid;
+        Base64.Encoder encoder = Base64.getEncoder();
+        StringBuilder batch = new StringBuilder(REQUEST_BATCH_PREFIX);
+        for (int i = 0; i < requests.size(); i++) {
+            if (i > 0) {
+                batch.append(',');
+            }
+            batch.append(encoder.encodeToString(requests.get(i).getBytes(StandardCharsets.UTF_8)));
+        }
+        return batch.toString();
     }
 
     /**
-     * Deserializes a Base64-encoded string back into a SignatureResult object.
+     * Checks whether message content carries a request batch.
      *
-     * @param serializedSignature The Base64-encoded string representation of a signature.
-     * @return The deserialized SignatureResult object.
-     * @throws IllegalArgumentException If the signature format is invalid
+     * @param content The message content.
+     * @return True if the content was produced by encodeRequestBatch.
      */
-    private SignatureResult deserializeSignature(String serializedSignature) {
-        if (serializedSignature == null || serializedSignature.isEmpty()) {
-            return null;
-        }
+    public boolean isRequestBatch(String content) {
+        return content != null && content.startsWith(REQUEST_BATCH_PREFIX);
+    }
 
-        String[] parts = serializedSignature.split(":");
-        if (parts.length != 2) {
-            throw new IllegalArgumentException("Invalid signature format: expected r:s format");
+    /**
+     * Decodes the client requests carried by a request batch.
+     *
+     * @param content The batch content produced by encodeRequestBatch.
+     * @return The client requests in batch order.
+     * @throws IllegalArgumentException If the content is not a valid request batch
+     */
+    public List<String> decodeRequestBatch(String content) {
+        if (!isRequestBatch(content)) {
+            throw new IllegalArgumentException("Content is not a request batch");
         }
 
-        try {
-            byte[] rBytes = Base64.getDecoder().decode(parts[0]);
-            byte[] sBytes = Base64.getDecoder().decode(parts[1]);
-            return new SignatureResult(new BigInteger(rBytes), new BigInteger(sBytes));
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid signature encoding", e);
+        List<String> requests = new ArrayList<>();
+        Base64.Decoder decoder = Base64.getDecoder();
+        int start = REQUEST_BATCH_PREFIX.length();
+        while (start < content.length()) {
+            int end = content.indexOf(',', start);
+            if (end < 0) {
+                end = content.length();
+            }
+            try {
+                requests.add(new String(decoder.decode(content.substring(start, end)), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid request encoding in batch", e);
+            }
+            start = end + 1;
         }
+        return requests;
     }
 
     /**
@@ -296,12 +396,19 @@ public class PBFTMessageHandler {
             throw new IllegalArgumentException("Batched messages string cannot be null or empty");
         }
 
-        String[] messageLines = batchedMessages.split("\n");
-        PBFTMessage[] messages = new PBFTMessage[messageLines.length];
-
-        for (int i = 0; i < messageLines.length; i++) {
-            messages[i] = decodePBFTMessage(messageLines[i]);
+        List<PBFTMessage> decoded = new ArrayList<>();
+        int start = 0;
+        while (start <= batchedMessages.length()) {
+            int end = batchedMessages.indexOf('\n', start);
+            if (end < 0) {
+                end = batchedMessages.length();
+            }
+            if (end > start) {
+                decoded.add(decodePBFTMessage(batchedMessages.substring(start, end)));
+            }
+            start = end + 1;
         }
+        PBFTMessage[] messages = decoded.toArray(new PBFTMessage[0]);
 
         System.out.println("Unbatched " + messages.length + " messages");
         return messages;
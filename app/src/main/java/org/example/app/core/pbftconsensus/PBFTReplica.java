@@ -65,7 +65,6 @@
 package org.example.app.core.pbftconsensus;
 import org.example.app.core.crypto.Keypair;
 import org.example.app.core.crypto.Keypair.SignatureResult;
-import java.util.Base64;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -199,10 +198,10 @@ public class PBFTReplica {
      * Generates a digest for the given data.
      *
      * @param data The data to hash.
-     * @return A Base64-encoded digest string.
+     * @return The SHA-256 digest as hex.
      */
     private String generateDigest(byte[] data) {
-        return Base64.getEncoder().encodeToString(data);
+        return DigestService.toHex(DigestService.sha256(data));
     }
 
     /**
@@ -0,0 +1,218 @@
+package org.example.app.core.pbftconsensus;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PBFTSlot holds the protocol state of a single sequence-numbered consensus instance.
+ * Each slot is guarded by its own monitor so that many instances can progress
+ * through the Pre-Prepare, Prepare and Commit phases concurrently.
+ *
+ * Votes are kept per digest, since PREPARE and COMMIT messages may arrive before the
+ * Pre-Prepare and a faulty replica may vote for a digest the primary never proposed.
+ * Only the votes for the accepted Pre-Prepare digest count towards a quorum.
+ */
+public class PBFTSlot {
+    private final int sequenceNumber;             // Sequence number assigned by the primary
+    private int viewNumber;                       // View in which the slot was pre-prepared
+    private String digest;                        // Digest accepted in the Pre-Prepare phase
+    private String content;                       // Request payload carried by the Pre-Prepare
+    private final Map<String, Set<Integer>> prepareVotes; // PREPARE senders by voted digest
+    private final Map<String, Set<Integer>> commitVotes;  // COMMIT senders by voted digest
+    private boolean prePrepared;                  // Whether a Pre-Prepare was accepted
+    private boolean prepared;                     // Whether the prepared certificate is complete
+    private boolean committed;                    // Whether the committed certificate is complete
+    private final long createdAt;                 // Creation time, used for latency metrics
+
+    /**
+     * Constructor to initialize an empty slot.
+     *
+     * @param sequenceNumber The sequence number of this consensus instance.
+     * @throws IllegalArgumentException if sequenceNumber is not positive
+     */
+    public PBFTSlot(int sequenceNumber) {
+        if (sequenceNumber <= 0) {
+            throw new IllegalArgumentException("Sequence number must be positive");
+        }
+        this.sequenceNumber = sequenceNumber;
+        this.prepareVotes = new HashMap<>();
+        this.commitVotes = new HashMap<>();
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Accepts a Pre-Prepare for this slot.
+     *
+     * @param viewNumber The view of the Pre-Prepare.
+     * @param digest     The digest being ordered.
+     * @param content    The request payload, may be null.
+     * @return True if accepted, false if a conflicting Pre-Prepare was already accepted.
+     */
+    public synchronized boolean acceptPrePrepare(int viewNumber, String digest, String content) {
+        if (prePrepared) {
+            return this.viewNumber == viewNumber && this.digest.equals(digest);
+        }
+        this.viewNumber = viewNumber;
+        this.digest = digest;
+        this.content = content;
+        this.prePrepared = true;
+        return true;
+    }
+
+    /**
+     * Records a PREPARE vote and reports whether the slot just became prepared.
+     *
+     * @param senderId The voting replica.
+     * @param digest   The digest the vote refers to.
+     * @param quorum   The number of votes required (2f + 1).
+     * @return True only on the transition to the prepared state.
+     */
+    public synchronized boolean addPrepare(int senderId, String digest, int quorum) {
+        if (digest == null) {
+            return false;
+        }
+        // Early votes are kept under their own digest and counted once a matching Pre-Prepare arrives
+        prepareVotes.computeIfAbsent(digest, d -> new HashSet<>()).add(senderId);
+        return checkPrepared(quorum);
+    }
+
+    /**
+     * Records a COMMIT vote and reports whether the slot just became committed.
+     *
+     * @param senderId The voting replica.
+     * @param digest   The digest the vote refers to.
+     * @param quorum   The number of votes required (2f + 1).
+     * @return True only on the transition to the committed state.
+     */
+    public synchronized boolean addCommit(int senderId, String digest, int quorum) {
+        if (digest == null) {
+            return false;
+        }
+        commitVotes.computeIfAbsent(digest, d -> new HashSet<>()).add(senderId);
+        return checkCommitted(quorum);
+    }
+
+    /**
+     * Re-evaluates the prepare quorum, used after a late Pre-Prepare arrives.
+     *
+     * @param quorum The number of votes required (2f + 1).
+     * @return True only on the transition to the prepared state.
+     */
+    public synchronized boolean checkPrepared(int quorum) {
+        if (!prepared && prePrepared && votesFor(prepareVotes) >= quorum) {
+            prepared = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Re-evaluates the commit quorum, used after the slot becomes prepared.
+     *
+     * @param quorum The number of votes required (2f + 1).
+     * @return True only on the transition to the committed state.
+     */
+    public synchronized boolean checkCommitted(int quorum) {
+        if (!committed && prepared && votesFor(commitVotes) >= quorum) {
+            committed = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the sequence number of this slot.
+     *
+     * @return The sequence number
+     */
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Gets the view in which the slot was pre-prepared.
+     *
+     * @return The view number
+     */
+    public synchronized int getViewNumber() {
+        return viewNumber;
+    }
+
+    /**
+     * Gets the digest ordered in this slot.
+     *
+     * @return The digest of the accepted Pre-Prepare, or null before one is accepted
+     */
+    public synchronized String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Gets the request payload ordered in this slot.
+     *
+     * @return The content, or null if none was carried
+     */
+    public synchronized String getContent() {
+        return content;
+    }
+
+    /**
+     * Checks whether the slot has accepted a Pre-Prepare.
+     *
+     * @return true if pre-prepared
+     */
+    public synchronized boolean isPrePrepared() {
+        return prePrepared;
+    }
+
+    /**
+     * Checks whether the slot has a prepared certificate.
+     *
+     * @return true if prepared
+     */
+    public synchronized boolean isPrepared() {
+        return prepared;
+    }
+
+    /**
+     * Checks whether the slot has a committed certificate.
+     *
+     * @return true if committed
+     */
+    public synchronized boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Gets the creation time of this slot.
+     *
+     * @return The creation time in milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    // Counts the votes matching the accepted Pre-Prepare digest; none count before it arrives
+    private int votesFor(Map<String, Set<Integer>> votes) {
+        if (digest == null) {
+            return 0;
+        }
+        Set<Integer> voters = votes.get(digest);
+        return voters == null ? 0 : voters.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PBFTSlot{" +
+                "sequenceNumber=" + sequenceNumber +
+                ", viewNumber=" + viewNumber +
+                ", digest='" + digest + '\'' +
+                ", prepares=" + votesFor(prepareVotes) +
+                ", commits=" + votesFor(commitVotes) +
+                ", prepared=" + prepared +
+                ", committed=" + committed +
+                '}';
+    }
+}
@@ -160,6 +160,7 @@ package org.example.app.core.pbftconsensus;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -171,10 +172,16 @@ import java.util.stream.Collectors;
 public class PerformanceMetrics {
     private static final Logger logger = Logger.getLogger(PerformanceMetrics.class.getName());
 
-    private final Map<Integer, Long> consensusStartTimes; // Tracks start times of consensus rounds
-    private final Map<Integer, Long> consensusEndTimes;   // Tracks end times of consensus rounds
+    public static final long MIN_BATCH_SIZE = 1;    // Lower bound for the adaptive batch size
+    public static final long MAX_BATCH_SIZE = 1000; // Upper bound for the adaptive batch size
+
+    private final Map<Integer, Long> consensusStartTimes; // Start times of consensus rounds still in progress
+    private final AtomicLong firstStartTime;             // Start time of the first round, 0 if none
+    private final AtomicLong lastEndTime;                // End time of the latest completed round, 0 if none
+    private final AtomicInteger completedRounds;         // Number of completed consensus rounds
     private final AtomicLong totalRequests;              // Total number of requests processed
     private final AtomicLong totalLatency;               // Cumulative latency of all consensus rounds
+    private final AtomicLong batchedRequests;            // Client requests ordered through batches
     private final Map<Integer, Long> replicaResponseTimes; // Tracks response times of replicas
     private final Map<String, Long> dynamicParameters;   // Stores dynamic parameters like timeouts, batch sizes
 
@@ -183,9 +190,12 @@ public class PerformanceMetrics {
      */
     public PerformanceMetrics() {
         this.consensusStartTimes = new ConcurrentHashMap<>();
-        this.consensusEndTimes = new ConcurrentHashMap<>();
+        this.firstStartTime = new AtomicLong(0);
+        this.lastEndTime = new AtomicLong(0);
+        this.completedRounds = new AtomicInteger(0);
         this.totalRequests = new AtomicLong(0);
         this.totalLatency = new AtomicLong(0);
+        this.batchedRequests = new AtomicLong(0);
         this.replicaResponseTimes = new ConcurrentHashMap<>();
         this.dynamicParameters = new ConcurrentHashMap<>();
         initializeDefaultParameters();
@@ -211,12 +221,15 @@ public class PerformanceMetrics {
             throw new IllegalArgumentException("Round ID cannot be negative");
         }
 
-        consensusStartTimes.put(roundId, System.currentTimeMillis());
+        long startTime = System.currentTimeMillis();
+        consensusStartTimes.put(roundId, startTime);
+        firstStartTime.compareAndSet(0, startTime);
         logger.info("Consensus round " + roundId + " started.");
     }
 
     /**
-     * Records the end time of a consensus round and calculates metrics.
+     * Records the end time of a consensus round and calculates metrics. The start time of
+     * the round is dropped, so only rounds in progress are kept.
      *
      * @param roundId The unique ID of the consensus round.
      * @throws IllegalArgumentException if roundId is negative
@@ -227,9 +240,10 @@ public class PerformanceMetrics {
         }
 
         long endTime = System.currentTimeMillis();
-        consensusEndTimes.put(roundId, endTime);
+        lastEndTime.accumulateAndGet(endTime, Math::max);
+        completedRounds.incrementAndGet();
 
-        Long startTime = consensusStartTimes.get(roundId);
+        Long startTime = consensusStartTimes.remove(roundId);
         if (startTime != null) {
             long latency = endTime - startTime;
             totalRequests.incrementAndGet();
@@ -259,25 +273,52 @@ public class PerformanceMetrics {
         logger.info("Replica " + replicaId + " responded in: " + responseTime + " ms.");
     }
 
+    /**
+     * Records the number of client requests carried by a dispatched batch.
+     *
+     * @param requestCount The number of requests in the batch.
+     * @throws IllegalArgumentException if requestCount is negative
+     */
+    public void recordBatchedRequests(int requestCount) {
+        if (requestCount < 0) {
+            throw new IllegalArgumentException("Request count cannot be negative");
+        }
+
+        batchedRequests.addAndGet(requestCount);
+    }
+
+    /**
+     * Calculates the client request arrival rate observed through batching (requests per second).
+     *
+     * @return The batched request rate.
+     */
+    public double calculateBatchedRequestRate() {
+        long earliestStart = firstStartTime.get();
+        if (earliestStart == 0) {
+            return 0.0;
+        }
+
+        long elapsedTime = System.currentTimeMillis() - earliestStart;
+
+        if (elapsedTime <= 0) {
+            return 0.0;
+        }
+
+        return (double) batchedRequests.get() / (elapsedTime / 1000.0);
+    }
+
     /**
      * Calculates the average throughput (requests per second).
      *
      * @return The average throughput.
      */
     public double calculateThroughput() {
-        if (consensusStartTimes.isEmpty() || consensusEndTimes.isEmpty()) {
+        long earliestStart = firstStartTime.get();
+        long latestEnd = lastEndTime.get();
+        if (earliestStart == 0 || latestEnd == 0) {
             return 0.0;
         }
 
-        // Find the earliest start time and latest end time
-        long earliestStart = consensusStartTimes.values().stream()
-                .min(Long::compareTo)
-                .orElse(System.currentTimeMillis());
-
-        long latestEnd = consensusEndTimes.values().stream()
-                .max(Long::compareTo)
-                .orElse(System.currentTimeMillis());
-
         long elapsedTime = latestEnd - earliestStart;
 
         if (elapsedTime <= 0) {
@@ -329,8 +370,17 @@ public class PerformanceMetrics {
             dynamicParameters.put("timeout", newTimeout);
 
             // Adjust batch size based on throughput
-            // If throughput is high, increase batch size
-            long newBatchSize = throughput > 100 ? 20L : 10L;
+            long newBatchSize;
+            double requestRate = calculateBatchedRequestRate();
+            if (requestRate > 0 && avgLatency > 0) {
+                // Size batches to the requests that arrive during one consensus round,
+                // so a new batch is ready whenever the previous round completes
+                long arrivalsPerRound = (long) Math.ceil(requestRate * avgLatency / 1000.0);
+                newBatchSize = Math.min(MAX_BATCH_SIZE, Math.max(MIN_BATCH_SIZE, arrivalsPerRound));
+            } else {
+                // If throughput is high, increase batch size
+                newBatchSize = throughput > 100 ? 20L : 10L;
+            }
             dynamicParameters.put("batchSize", newBatchSize);
 
             logger.info("Parameters dynamically adjusted - Timeout: " + newTimeout +
@@ -387,9 +437,12 @@ public class PerformanceMetrics {
      */
     public void resetMetrics() {
         consensusStartTimes.clear();
-        consensusEndTimes.clear();
+        firstStartTime.set(0);
+        lastEndTime.set(0);
+        completedRounds.set(0);
         totalRequests.set(0);
         totalLatency.set(0);
+        batchedRequests.set(0);
         replicaResponseTimes.clear();
         logger.info("Performance metrics reset");
     }
@@ -400,7 +453,7 @@ public class PerformanceMetrics {
      * @return The count of completed rounds
      */
     public int getCompletedRoundCount() {
-        return consensusEndTimes.size();
+        return completedRounds.get();
     }
 }
 
@@ -0,0 +1,190 @@
+package org.example.app.core.pbftconsensus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RequestBatcher accumulates client requests on the primary so that a single
+ * consensus instance orders many requests. A batch is cut when it reaches the
+ * adaptive "batchSize" parameter of PerformanceMetrics, when it would exceed the
+ * byte limit, or when its oldest request has lingered for the maximum linger time.
+ */
+public class RequestBatcher {
+    private static final Logger logger = Logger.getLogger(RequestBatcher.class.getName());
+
+    public static final int DEFAULT_MAX_BATCH_BYTES = 1024 * 1024; // 1 MB per batch
+    public static final long DEFAULT_MAX_LINGER_MS = 10;           // Max wait before a partial batch is cut
+
+    private final Consumer<List<String>> batchConsumer;     // Receives each completed batch
+    private final PerformanceMetrics performanceMetrics;    // Source of the adaptive batch size
+    private final int maxBatchBytes;                        // Upper bound on encoded request bytes per batch
+    private final long maxLingerMillis;                     // Upper bound on time a request waits in a batch
+    private final ScheduledExecutorService scheduler;       // Fires linger timeouts
+    private final Object lock;                              // Guards the current batch
+
+    private List<String> currentBatch;                      // Requests accumulated so far
+    private int currentBytes;                               // Encoded size of the current batch
+    private ScheduledFuture<?> lingerTask;                  // Pending linger timeout for the current batch
+
+    /**
+     * Constructor to initialize the RequestBatcher.
+     *
+     * @param batchConsumer      The consumer that orders each completed batch.
+     * @param performanceMetrics The metrics providing the "batchSize" parameter.
+     * @param maxBatchBytes      The maximum number of request bytes per batch.
+     * @param maxLingerMillis    The maximum time in ms a request may wait before its batch is cut.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public RequestBatcher(Consumer<List<String>> batchConsumer, PerformanceMetrics performanceMetrics,
+                          int maxBatchBytes, long maxLingerMillis) {
+        if (batchConsumer == null) {
+            throw new IllegalArgumentException("Batch consumer cannot be null");
+        }
+        if (performanceMetrics == null) {
+            throw new IllegalArgumentException("Performance metrics cannot be null");
+        }
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Max batch bytes must be positive");
+        }
+        if (maxLingerMillis <= 0) {
+            throw new IllegalArgumentException("Max linger time must be positive");
+        }
+
+        this.batchConsumer = batchConsumer;
+        this.performanceMetrics = performanceMetrics;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxLingerMillis = maxLingerMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.lock = new Object();
+        this.currentBatch = new ArrayList<>();
+        this.currentBytes = 0;
+    }
+
+    /**
+     * Adds a client request to the current batch, cutting the batch if a bound is reached.
+     *
+     * @param request The client request payload.
+     * @throws IllegalArgumentException if request is null or empty
+     */
+    public void submit(String request) {
+        if (request == null || request.isEmpty()) {
+            throw new IllegalArgumentException("Request cannot be null or empty");
+        }
+
+        int requestBytes = request.getBytes(StandardCharsets.UTF_8).length;
+        List<String> overflow = null;
+        List<String> ready = null;
+
+        synchronized (lock) {
+            // Cut the current batch first if this request would push it over the byte limit
+            if (!currentBatch.isEmpty() && currentBytes + requestBytes > maxBatchBytes) {
+                overflow = takeBatch();
+            }
+
+            currentBatch.add(request);
+            currentBytes += requestBytes;
+
+            if (currentBatch.size() == 1) {
+                lingerTask = scheduler.schedule(this::flush, maxLingerMillis, TimeUnit.MILLISECONDS);
+            }
+            if (currentBatch.size() >= getTargetBatchSize() || currentBytes >= maxBatchBytes) {
+                ready = takeBatch();
+            }
+        }
+
+        dispatch(overflow);
+        dispatch(ready);
+    }
+
+    /**
+     * Cuts and dispatches the current batch immediately, if it is not empty.
+     */
+    public void flush() {
+        List<String> batch;
+        synchronized (lock) {
+            batch = currentBatch.isEmpty() ? null : takeBatch();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Gets the batch size currently targeted, as adapted by PerformanceMetrics.
+     *
+     * @return The target number of requests per batch
+     */
+    public int getTargetBatchSize() {
+        Long batchSize = performanceMetrics.getParameter("batchSize");
+        return batchSize == null ? 1 : (int) Math.max(1L, batchSize);
+    }
+
+    /**
+     * Gets the number of requests waiting in the current batch.
+     *
+     * @return The pending request count
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return currentBatch.size();
+        }
+    }
+
+    /**
+     * Flushes pending requests and stops the linger scheduler.
+     */
+    public void shutdown() {
+        flush();
+        try {
+            scheduler.shutdown();
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+            logger.info("Request batcher shutdown completed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
+            logger.warning("Request batcher shutdown interrupted");
+        }
+    }
+
+    /**
+     * Detaches the current batch and cancels its linger timeout. Must be called holding the lock.
+     *
+     * @return The detached batch
+     */
+    private List<String> takeBatch() {
+        List<String> batch = currentBatch;
+        currentBatch = new ArrayList<>(batch.size());
+        currentBytes = 0;
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Hands a completed batch to the consumer outside the batch lock.
+     *
+     * @param batch The batch to dispatch, may be null.
+     */
+    private void dispatch(List<String> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        try {
+            performanceMetrics.recordBatchedRequests(batch.size());
+            batchConsumer.accept(batch);
+            logger.fine("Dispatched batch of " + batch.size() + " requests");
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error dispatching request batch", e);
+        }
+    }
+}
@@ -183,6 +183,7 @@
 
 
 package org.example.app.core.pbftconsensus;
+import org.example.app.core.crypto.DiffieHellmanKeyExchange;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -194,7 +195,9 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -456,6 +459,51 @@ public class SecureChannelManager {
         return localKeyPair.getPublic();
     }
 
+    /**
+     * Establishes a session key with a peer replica through a Diffie-Hellman exchange.
+     *
+     * @param replicaId         The ID of the peer replica.
+     * @param keyExchange       The local Diffie-Hellman exchange whose public key was sent to the peer.
+     * @param peerDhPublicKey   The peer's encoded Diffie-Hellman public key.
+     * @return The derived shared key.
+     * @throws RuntimeException if key agreement fails
+     */
+    public SecretKey establishSessionKey(int replicaId, DiffieHellmanKeyExchange keyExchange, byte[] peerDhPublicKey) {
+        if (replicaId < 0) {
+            throw new IllegalArgumentException("Replica ID cannot be negative");
+        }
+        if (keyExchange == null) {
+            throw new IllegalArgumentException("Key exchange cannot be null");
+        }
+        if (peerDhPublicKey == null || peerDhPublicKey.length == 0) {
+            throw new IllegalArgumentException("Peer public key cannot be null or empty");
+        }
+
+        SecretKey sharedKey = keyExchange.generateSharedKey(peerDhPublicKey);
+        replicaKeys.put(replicaId, sharedKey);
+        logger.info("Session key established with replica " + replicaId);
+        return sharedKey;
+    }
+
+    /**
+     * Gets the shared key for a replica.
+     *
+     * @param replicaId The ID of the replica.
+     * @return The shared key, or null if no secure channel exists.
+     */
+    public SecretKey getSessionKey(int replicaId) {
+        return replicaKeys.get(replicaId);
+    }
+
+    /**
+     * Gets the IDs of all replicas with an established secure channel.
+     *
+     * @return A copy of the replica ID set.
+     */
+    public Set<Integer> getSecureChannelReplicaIds() {
+        return new HashSet<>(replicaKeys.keySet());
+    }
+
     /**
      * Removes a secure channel with a replica.
      *
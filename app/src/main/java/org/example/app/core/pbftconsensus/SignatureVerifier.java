@@ -0,0 +1,303 @@
+package org.example.app.core.pbftconsensus;
+
+import org.example.app.core.crypto.Keypair;
+
+import java.security.PublicKey;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * SignatureVerifier verifies the signatures of inbound PBFT messages on a bounded
+ * worker pool and hands verified messages to the protocol in arrival order.
+ * Decoded public keys are cached per replica, so the key store is consulted once
+ * per replica instead of once per message.
+ */
+public class SignatureVerifier {
+    private static final Logger logger = Logger.getLogger(SignatureVerifier.class.getName());
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000; // Messages waiting for a worker
+
+    private final IntFunction<PublicKey> keyResolver;       // Loads a replica's public key on cache miss
+    private final PBFTMessageHandler messageHandler;        // Builds the signed bytes of a message
+    private final ConcurrentMap<Integer, PublicKey> publicKeys; // Cached public keys by replica ID
+    private final ExecutorService workers;                  // Bounded verification pool
+    private final Deque<PendingMessage> pending;            // Messages in arrival order
+    private final AtomicInteger drainRequests;              // Serializes in-order delivery
+    private final AtomicLong rejectedCount;                 // Messages that failed verification
+    private volatile MacAuthenticator macAuthenticator;     // Verifies PREPARE/COMMIT authenticators, if enabled
+
+    /**
+     * Constructor to initialize a SignatureVerifier with one worker per available core.
+     *
+     * @param keyResolver    Resolves the public key of a replica ID.
+     * @param messageHandler The PBFTMessageHandler used to build signed data.
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public SignatureVerifier(IntFunction<PublicKey> keyResolver, PBFTMessageHandler messageHandler) {
+        this(keyResolver, messageHandler, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize a SignatureVerifier.
+     *
+     * @param keyResolver    Resolves the public key of a replica ID.
+     * @param messageHandler The PBFTMessageHandler used to build signed data.
+     * @param workerCount    The number of verification threads.
+     * @param queueCapacity  The number of messages that may wait for a worker before the caller verifies inline.
+     * @throws IllegalArgumentException if parameters are invalid
+     */
+    public SignatureVerifier(IntFunction<PublicKey> keyResolver, PBFTMessageHandler messageHandler,
+                             int workerCount, int queueCapacity) {
+        if (keyResolver == null) {
+            throw new IllegalArgumentException("Key resolver cannot be null");
+        }
+        if (messageHandler == null) {
+            throw new IllegalArgumentException("Message handler cannot be null");
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+
+        this.keyResolver = keyResolver;
+        this.messageHandler = messageHandler;
+        this.publicKeys = new ConcurrentHashMap<>();
+        this.pending = new ArrayDeque<>();
+        this.drainRequests = new AtomicInteger(0);
+        this.rejectedCount = new AtomicLong(0);
+
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        // When the queue is full the submitting thread verifies inline, which throttles intake
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pbft-verifier-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Submits a message for verification. The consumer receives verified messages
+     * in the order they were submitted; messages with invalid signatures are dropped.
+     *
+     * @param message The inbound message.
+     * @param deliver The protocol handler for verified messages.
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public void submit(PBFTMessage message, Consumer<PBFTMessage> deliver) {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        if (deliver == null) {
+            throw new IllegalArgumentException("Delivery handler cannot be null");
+        }
+
+        PendingMessage entry = new PendingMessage(message, deliver);
+        synchronized (pending) {
+            pending.addLast(entry);
+        }
+
+        MacAuthenticator authenticator = this.macAuthenticator;
+        boolean macType = MacAuthenticator.usesAuthenticator(message.getType());
+        if (authenticator != null && macType && message.getAuthenticator() != null) {
+            // HMAC verification is cheap enough to run on the receiving thread
+            entry.complete(authenticator.verify(message));
+            drain();
+            return;
+        }
+        if (!macType && message.getAuthenticator() != null && message.getSignature() == null) {
+            // View changes and checkpoints must stay signed; a MAC cannot stand in for the signature
+            entry.complete(false);
+            drain();
+            return;
+        }
+
+        if (message.getSignature() == null) {
+            if (authenticator != null && macType) {
+                // With authenticators enabled, normal-case messages must carry a tag or a signature
+                entry.complete(false);
+                drain();
+                return;
+            }
+            // Unsigned messages are accepted as before, but still wait for earlier messages
+            entry.complete(true);
+            drain();
+            return;
+        }
+
+        workers.execute(() -> {
+            entry.complete(verify(message));
+            drain();
+        });
+    }
+
+    /**
+     * Enables MAC-vector authenticators for PREPARE and COMMIT messages.
+     *
+     * @param macAuthenticator The authenticator, or null to accept unauthenticated normal-case messages again.
+     */
+    public void setMacAuthenticator(MacAuthenticator macAuthenticator) {
+        this.macAuthenticator = macAuthenticator;
+    }
+
+    /**
+     * Gets the MAC authenticator, if enabled.
+     *
+     * @return The MacAuthenticator, or null
+     */
+    public MacAuthenticator getMacAuthenticator() {
+        return macAuthenticator;
+    }
+
+    /**
+     * Verifies a message signature synchronously using the cached public key.
+     *
+     * @param message The message to verify.
+     * @return True if the signature is valid, false otherwise.
+     */
+    public boolean verify(PBFTMessage message) {
+        if (message == null || message.getSignature() == null) {
+            return false;
+        }
+        try {
+            PublicKey publicKey = getPublicKey(message.getSenderId());
+            return Keypair.verify(publicKey, message.getSignature(), messageHandler.getSignedData(message));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Signature validation failed for replica " + message.getSenderId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the public key of a replica, loading it on first use.
+     *
+     * @param replicaId The replica ID.
+     * @return The replica's public key.
+     * @throws IllegalStateException if no key can be resolved
+     */
+    public PublicKey getPublicKey(int replicaId) {
+        PublicKey publicKey = publicKeys.computeIfAbsent(replicaId, keyResolver::apply);
+        if (publicKey == null) {
+            throw new IllegalStateException("No public key for replica " + replicaId);
+        }
+        return publicKey;
+    }
+
+    /**
+     * Drops a cached public key, e.g. after a membership change or key rotation.
+     *
+     * @param replicaId The replica ID.
+     */
+    public void invalidateKey(int replicaId) {
+        publicKeys.remove(replicaId);
+    }
+
+    /**
+     * Gets the number of messages dropped because their signature did not verify.
+     *
+     * @return The rejected message count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Stops the verification workers. Messages still queued are discarded.
+     */
+    public void shutdown() {
+        try {
+            workers.shutdown();
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+            logger.info("Signature verifier shutdown completed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+            logger.warning("Signature verifier shutdown interrupted");
+        }
+    }
+
+    /**
+     * Delivers every completed message at the head of the arrival queue. Only one
+     * thread delivers at a time; a drain requested meanwhile makes it loop again.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            while (true) {
+                PendingMessage head;
+                synchronized (pending) {
+                    head = pending.peekFirst();
+                    if (head == null || !head.isDone()) {
+                        break;
+                    }
+                    pending.pollFirst();
+                }
+                deliver(head);
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver(PendingMessage entry) {
+        if (!entry.isValid()) {
+            rejectedCount.incrementAndGet();
+            logger.warning("Invalid PBFT message signature or authenticator: " + entry.message);
+            return;
+        }
+        try {
+            entry.deliver.accept(entry.message);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error delivering verified PBFT message", e);
+        }
+    }
+
+    /**
+     * A message waiting for verification and in-order delivery.
+     */
+    private static final class PendingMessage {
+        private final PBFTMessage message;
+        private final Consumer<PBFTMessage> deliver;
+        private volatile boolean valid;
+        private volatile boolean done;
+
+        private PendingMessage(PBFTMessage message, Consumer<PBFTMessage> deliver) {
+            this.message = message;
+            this.deliver = deliver;
+        }
+
+        private void complete(boolean valid) {
+            this.valid = valid;
+            this.done = true;
+        }
+
+        private boolean isDone() {
+            return done;
+        }
+
+        private boolean isValid() {
+            return valid;
+        }
+    }
+}
@@ -154,15 +154,12 @@
 
 
 package org.example.app.core.pbftconsensus;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * StateSynchronization ensures replicas synchronize their states correctly after faults or view changes.
@@ -297,8 +294,8 @@ public class StateSynchronization {
                 logger.warning("Could not extract sequence number from message, using fallback: " + sequenceNumber);
             }
 
-            // Update the checkpoint manager with the valid state
-            checkpointManager.createCheckpoint(sequenceNumber, String.join(",", receivedState));
+            // Update the checkpoint manager with the valid state; its digest is the verified root
+            checkpointManager.createCheckpoint(sequenceNumber, receivedState, computedMerkleRoot);
             logger.info("State successfully synchronized at sequence: " + sequenceNumber);
             return true;
         } catch (Exception e) {
@@ -308,35 +305,17 @@ public class StateSynchronization {
     }
 
     /**
-     * Generates the Merkle Root for a given list of data items.
+     * Generates the Merkle Root for a given list of data items. Large states are hashed
+     * in parallel; the same root is used as the checkpoint digest of these items.
      *
      * @param dataItems The list of data items to hash.
-     * @return The Merkle Root as a string.
+     * @return The Merkle Root as a hex string, or an empty string if there are no items.
      */
     private String generateMerkleRoot(List<String> dataItems) {
         if (dataItems == null || dataItems.isEmpty()) {
             return "";
         }
-
-        List<String> hashes = dataItems.stream()
-                .map(this::computeHash)
-                .collect(Collectors.toList());
-
-        while (hashes.size() > 1) {
-            List<String> newLevel = new ArrayList<>();
-            for (int i = 0; i < hashes.size(); i += 2) {
-                if (i + 1 < hashes.size()) {
-                    // Concatenate and hash pairs of nodes
-                    newLevel.add(computeHash(hashes.get(i) + hashes.get(i + 1)));
-                } else {
-                    // Handle odd number of nodes by promoting the last one
-                    newLevel.add(hashes.get(i));
-                }
-            }
-            hashes = newLevel;
-        }
-
-        return hashes.get(0);
+        return CheckpointManager.computeStateRoot(dataItems);
     }
 
     /**
@@ -362,29 +341,6 @@ public class StateSynchronization {
         }
     }
 
-    /**
-     * Computes a cryptographic hash for a given input using SHA-256.
-     *
-     * @param input The input string to hash.
-     * @return The hash as a string.
-     */
-    private String computeHash(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(input.getBytes());
-
-            // Convert the byte array to a hex string
-            StringBuilder hashBuilder = new StringBuilder();
-            for (byte b : hashBytes) {
-                hashBuilder.append(String.format("%02x", b));
-            }
-            return hashBuilder.toString();
-        } catch (NoSuchAlgorithmException e) {
-            logger.log(Level.SEVERE, "Error computing hash", e);
-            throw new RuntimeException("Error computing hash", e);
-        }
-    }
-
     /**
      * Retrieves the current local state as a map.
      *
@@ -481,6 +437,15 @@ public class StateSynchronization {
         }
     }
 
+    /**
+     * Gets the checkpoint manager holding the stable checkpoints.
+     *
+     * @return The checkpoint manager
+     */
+    public CheckpointManager getCheckpointManager() {
+        return checkpointManager;
+    }
+
     /**
      * Creates a full state checkpoint at the current sequence.
      *
@@ -499,12 +464,10 @@ public class StateSynchronization {
                 return false;
             }
 
-            // Convert the state to a string representation
-            String stateSnapshot = localState.values().stream()
-                    .collect(Collectors.joining(","));
-
-            // Create a checkpoint with the state snapshot
-            checkpointManager.createCheckpoint(sequenceNumber, stateSnapshot);
+            // Hash the entries before handing them over, so the checkpoint manager
+            // never holds its lock while a large state is digested
+            List<String> stateValues = new ArrayList<>(localState.values());
+            checkpointManager.createCheckpoint(sequenceNumber, stateValues, generateMerkleRoot(stateValues));
             logger.info("State checkpoint created at sequence: " + sequenceNumber);
             return true;
         } catch (Exception e) {
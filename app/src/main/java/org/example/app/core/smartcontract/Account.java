@@ -1,20 +1,31 @@
 package org.example.app.core.smartcontract;
 import java.math.BigInteger;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Account is a contract or externally owned account: balance, nonce, code and storage.
+ *
+ * Storage maps 32-byte keys to 32-byte values; a slot holding zero is absent. Once the account
+ * belongs to an {@link EvmState}, every change is recorded in the state's journal so it can
+ * be reverted.
+ */
 public class Account {
     private BigInteger balance = BigInteger.ZERO;
     private long nonce = 0;
     private byte[] code; // Smart contract bytecode
-    private Map<String, String> storage = new HashMap<>();
+    private final Map<Word, Word> storage = new HashMap<>();
+    private Journal journal; // Journal of the owning state, null while detached
 
     public BigInteger getBalance() {
         return balance;
     }
 
     public void setBalance(BigInteger balance) {
+        BigInteger previous = this.balance;
         this.balance = balance;
+        record(() -> this.balance = previous);
     }
 
     public long getNonce() {
@@ -22,7 +33,9 @@ public class Account {
     }
 
     public void incrementNonce() {
+        long previous = nonce;
         nonce++;
+        record(() -> nonce = previous);
     }
 
     public byte[] getCode() {
@@ -30,10 +43,56 @@ public class Account {
     }
 
     public void setCode(byte[] code) {
+        byte[] previous = this.code;
         this.code = code;
+        record(() -> this.code = previous);
     }
 
-    public Map<String, String> getStorage() {
-        return storage;
+    // Read-only view of the non-zero storage slots
+    public Map<Word, Word> getStorage() {
+        return Collections.unmodifiableMap(storage);
+    }
+
+    public Word getStorageValue(Word key) {
+        return storage.getOrDefault(key, Word.ZERO);
+    }
+
+    /**
+     * Writes a storage slot; writing zero clears it.
+     *
+     * @param key   The slot.
+     * @param value The new value.
+     * @throws IllegalArgumentException if key or value is null
+     */
+    public void setStorageValue(Word key, Word value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Storage key and value cannot be null");
+        }
+        Word previous = value.isZero() ? storage.remove(key) : storage.put(key, value);
+        record(() -> restoreStorage(key, previous));
+    }
+
+    // Sets a slot to a value read from a backing store; this is not a change, so it is not journaled
+    void loadStorageValue(Word key, Word value) {
+        restoreStorage(key, value.isZero() ? null : value);
+    }
+
+    // Joins a state: later changes are recorded in its journal
+    void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    private void restoreStorage(Word key, Word previous) {
+        if (previous == null) {
+            storage.remove(key);
+        } else {
+            storage.put(key, previous);
+        }
+    }
+
+    private void record(Journal.Entry entry) {
+        if (journal != null) {
+            journal.record(entry);
+        }
     }
 }
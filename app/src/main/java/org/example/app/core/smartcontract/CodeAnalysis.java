@@ -0,0 +1,269 @@
+package org.example.app.core.smartcontract;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CodeAnalysis is contract bytecode decoded once, ready for repeated execution.
+ *
+ * The code is split into instructions, each with its opcode and code offset; PUSH immediates
+ * are extracted into 256-bit constants so executing a PUSH copies four limbs. Valid jump
+ * destinations are kept in a bitmap, so a JUMPDEST byte inside PUSH data is never a target.
+ *
+ * Instructions are grouped into basic blocks. A block starts at the first instruction and at
+ * each JUMPDEST, and ends after any instruction that jumps, halts or reads the remaining gas.
+ * Since execution only enters a block at its start and leaves it at its end, the interpreter
+ * charges the block's static gas and checks its stack bounds once on entry; dynamic charges
+ * such as memory expansion are still made by the instructions themselves.
+ *
+ * The analysis also counts calls, and compiles itself to {@link ThreadedCode} once the count
+ * reaches the cache's threshold.
+ */
+final class CodeAnalysis {
+    private final byte[] code;
+    private final Evm.Opcode[] opcodes;  // Opcode of each instruction, null if undefined
+    private final int[] offsets;         // Code offset of each instruction
+    private final int[] arguments;       // PUSH: constant index; DUP/SWAP: depth; otherwise 0
+    private final long[] constants;      // PUSH immediates, four limbs each, least significant first
+    private final long[] jumpDests;      // Bitmap of valid JUMPDEST offsets
+    private final int[] blockEnds;       // At a block start, the index after its last instruction
+    private final long[] blockGas;       // At a block start, the sum of its static gas
+    private final int[] blockRequired;   // At a block start, the stack depth it needs on entry
+    private final int[] blockGrowth;     // At a block start, its largest stack growth
+    private final int count;
+    private final AtomicInteger calls = new AtomicInteger(); // Executions counted towards compilation
+    private volatile ThreadedCode threaded;                  // Compiled form, once hot
+
+    /**
+     * Constructor to initialize a CodeAnalysis by decoding bytecode.
+     *
+     * @param code The contract bytecode.
+     * @throws IllegalArgumentException if code is null
+     */
+    CodeAnalysis(byte[] code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Code cannot be null");
+        }
+        this.code = code.clone();
+
+        int length = code.length;
+        Evm.Opcode[] ops = new Evm.Opcode[length];
+        int[] pcs = new int[length];
+        int[] args = new int[length];
+        long[] pushed = new long[16];
+        long[] dests = new long[(length + 63) >>> 6];
+        int n = 0;
+        int pushes = 0;
+        for (int pc = 0; pc < length; n++) {
+            Evm.Opcode opcode = Evm.Opcode.byValue(code[pc] & 0xFF);
+            ops[n] = opcode;
+            pcs[n] = pc;
+            pc++;
+            if (opcode == null) {
+                continue;
+            }
+            int immediate = opcode.getImmediateSize();
+            int value = opcode.getValue();
+            if (immediate > 0) {
+                if ((pushes + 1) * 4 > pushed.length) {
+                    pushed = Arrays.copyOf(pushed, pushed.length * 2);
+                }
+                decodeImmediate(code, pc, immediate, pushed, pushes * 4);
+                args[n] = pushes++;
+                pc += immediate;
+            } else if (value >= Evm.Opcode.DUP1.getValue() && value <= Evm.Opcode.DUP16.getValue()) {
+                args[n] = value - Evm.Opcode.DUP1.getValue() + 1;
+            } else if (value >= Evm.Opcode.SWAP1.getValue() && value <= Evm.Opcode.SWAP16.getValue()) {
+                args[n] = value - Evm.Opcode.SWAP1.getValue() + 1;
+            } else if (opcode == Evm.Opcode.JUMPDEST) {
+                dests[(pc - 1) >>> 6] |= 1L << (pc - 1);
+            }
+        }
+
+        this.count = n;
+        this.opcodes = Arrays.copyOf(ops, n);
+        this.offsets = Arrays.copyOf(pcs, n);
+        this.arguments = Arrays.copyOf(args, n);
+        this.constants = Arrays.copyOf(pushed, pushes * 4);
+        this.jumpDests = dests;
+        this.blockEnds = new int[n];
+        this.blockGas = new long[n];
+        this.blockRequired = new int[n];
+        this.blockGrowth = new int[n];
+        buildBlocks();
+    }
+
+    /**
+     * Counts a call, compiling the code when the count reaches a threshold.
+     *
+     * @param threshold The number of calls after which the code is compiled.
+     * @return The compiled code, or null while the code is still interpreted
+     */
+    ThreadedCode recordCall(int threshold) {
+        ThreadedCode compiled = threaded;
+        if (compiled != null) {
+            return compiled;
+        }
+        if (calls.incrementAndGet() < threshold) {
+            return null;
+        }
+        synchronized (this) {
+            if (threaded == null) {
+                threaded = new ThreadedCode(this);
+            }
+            return threaded;
+        }
+    }
+
+    boolean isCompiled() {
+        return threaded != null;
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] code() {
+        return code;
+    }
+
+    Evm.Opcode opcode(int index) {
+        return opcodes[index];
+    }
+
+    int offset(int index) {
+        return offsets[index];
+    }
+
+    int argument(int index) {
+        return arguments[index];
+    }
+
+    // PUSH constants, four limbs per push starting at 4 * argument
+    long[] constants() {
+        return constants;
+    }
+
+    int blockEnd(int start) {
+        return blockEnds[start];
+    }
+
+    long blockGas(int start) {
+        return blockGas[start];
+    }
+
+    int blockRequired(int start) {
+        return blockRequired[start];
+    }
+
+    int blockGrowth(int start) {
+        return blockGrowth[start];
+    }
+
+    boolean isJumpDest(long offset) {
+        return offset >= 0 && offset < code.length && (jumpDests[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Finds the instruction at a valid jump destination.
+     *
+     * @param offset The code offset.
+     * @return The instruction index, or -1 if the offset is not a JUMPDEST
+     */
+    int jumpTarget(long offset) {
+        if (!isJumpDest(offset)) {
+            return -1;
+        }
+        return Arrays.binarySearch(offsets, 0, count, (int) offset);
+    }
+
+    /**
+     * Finds the storage keys the code uses as constants, in PUSH x, SLOAD and PUSH x, SSTORE
+     * sequences. These are the slots worth prefetching before the code runs.
+     *
+     * @return The constant keys, in code order
+     */
+    Set<Word> constantStorageKeys() {
+        Set<Word> keys = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < count; i++) {
+            Evm.Opcode next = opcodes[i + 1];
+            if (opcodes[i] != null && opcodes[i].getImmediateSize() > 0
+                    && (next == Evm.Opcode.SLOAD || next == Evm.Opcode.SSTORE)) {
+                keys.add(constantWord(arguments[i]));
+            }
+        }
+        return keys;
+    }
+
+    // The PUSH constant at an index as a word
+    Word constantWord(int constant) {
+        byte[] bytes = new byte[Word.LENGTH];
+        int base = constant << 2;
+        for (int limb = 0; limb < 4; limb++) {
+            long value = constants[base + limb];
+            for (int i = Word.LENGTH - 1 - 8 * limb; i >= Word.LENGTH - 8 - 8 * limb; i--) {
+                bytes[i] = (byte) value;
+                value >>>= 8;
+            }
+        }
+        return Word.wrap(bytes);
+    }
+
+    private void buildBlocks() {
+        int start = 0;
+        while (start < count) {
+            long gas = 0;
+            int depth = 0;    // Stack change since the block start
+            int required = 0;
+            int growth = 0;
+            int end = start;
+            while (end < count) {
+                if (end > start && opcodes[end] == Evm.Opcode.JUMPDEST) {
+                    break;
+                }
+                Evm.Opcode opcode = opcodes[end++];
+                if (opcode == null) {
+                    break; // Undefined instructions fail when reached
+                }
+                gas += opcode.getGasCost();
+                required = Math.max(required, opcode.getStackInputs() - depth);
+                depth += opcode.getStackOutputs() - opcode.getStackInputs();
+                growth = Math.max(growth, depth);
+                if (endsBlock(opcode)) {
+                    break;
+                }
+            }
+            blockEnds[start] = end;
+            blockGas[start] = gas;
+            blockRequired[start] = required;
+            blockGrowth[start] = growth;
+            start = end;
+        }
+    }
+
+    // Jumps and halts leave the block; GAS must see the charges of only the instructions before it
+    private static boolean endsBlock(Evm.Opcode opcode) {
+        switch (opcode) {
+            case STOP:
+            case JUMP:
+            case JUMPI:
+            case GAS:
+            case RETURN:
+            case REVERT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Decodes a big-endian immediate into four limbs; bytes past the end of the code read as zero
+    private static void decodeImmediate(byte[] code, int offset, int length, long[] target, int base) {
+        int available = Math.min(length, Math.max(0, code.length - offset));
+        for (int i = 0; i < available; i++) {
+            int bit = (length - 1 - i) << 3;
+            target[base + (bit >>> 6)] |= (long) (code[offset + i] & 0xFF) << (bit & 63);
+        }
+    }
+}
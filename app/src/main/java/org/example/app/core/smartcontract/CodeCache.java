@@ -0,0 +1,157 @@
+package org.example.app.core.smartcontract;
+
+import org.example.app.core.crypto.Keccak;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CodeCache remembers the analysis of contract bytecode, keyed by the Keccak-256 hash of the
+ * code, so a contract called many times is decoded once. The hash of each code array is
+ * remembered too, weakly and by identity, so calling the same stored code again does not
+ * rehash it; code arrays are treated as immutable once executed.
+ *
+ * The cache holds a bounded number of analyses and evicts the least recently used. It is safe
+ * to share between interpreters on different threads; analyses are not modified once built,
+ * apart from their call counts.
+ * A contract called at least the compile threshold number of times is compiled to threaded
+ * code, which later calls run instead of the interpreter.
+ */
+public class CodeCache {
+    public static final int DEFAULT_CAPACITY = 1024;        // Default number of cached contracts
+    public static final int DEFAULT_COMPILE_THRESHOLD = 64; // Default calls before a contract is compiled
+
+    private final int capacity;                                 // Upper bound on cached analyses
+    private final int compileThreshold;                         // Calls before code is compiled
+    private final LinkedHashMap<ByteBuffer, CodeAnalysis> cache; // LRU of analyses by code hash
+    private final Map<byte[], ByteBuffer> hashes;               // Code hash by code array; arrays compare by identity
+    private final AtomicLong hits;                              // Executions that reused an analysis
+    private final AtomicLong misses;                            // Executions that analyzed code
+
+    public CodeCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_COMPILE_THRESHOLD);
+    }
+
+    public CodeCache(int capacity) {
+        this(capacity, DEFAULT_COMPILE_THRESHOLD);
+    }
+
+    /**
+     * Constructor to initialize a CodeCache.
+     *
+     * @param capacity         The maximum number of analyses to keep.
+     * @param compileThreshold The number of calls after which a contract is compiled;
+     *                         Integer.MAX_VALUE keeps every contract interpreted.
+     * @throws IllegalArgumentException if a parameter is not positive
+     */
+    public CodeCache(int capacity, int compileThreshold) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (compileThreshold <= 0) {
+            throw new IllegalArgumentException("Compile threshold must be positive");
+        }
+        this.capacity = capacity;
+        this.compileThreshold = compileThreshold;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CodeAnalysis> eldest) {
+                return size() > CodeCache.this.capacity;
+            }
+        };
+        this.hashes = new WeakHashMap<>();
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    /**
+     * Returns the analysis of bytecode, analyzing it on first use.
+     *
+     * @param code The contract bytecode.
+     * @return The analysis
+     * @throws IllegalArgumentException if code is null
+     */
+    CodeAnalysis analysis(byte[] code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Code cannot be null");
+        }
+        ByteBuffer key;
+        synchronized (cache) {
+            key = hashes.get(code);
+            CodeAnalysis cached = key != null ? cache.get(key) : null;
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        if (key == null) {
+            // First call with this array: hash it once, then look for equal code
+            key = ByteBuffer.wrap(Keccak.keccak256(code));
+            synchronized (cache) {
+                hashes.put(code, key);
+                CodeAnalysis cached = cache.get(key);
+                if (cached != null) {
+                    hits.incrementAndGet();
+                    return cached;
+                }
+            }
+        }
+        // Analyze outside the lock; a concurrent miss on the same code builds an equal analysis
+        CodeAnalysis analysis = new CodeAnalysis(code);
+        misses.incrementAndGet();
+        synchronized (cache) {
+            cache.put(key, analysis);
+        }
+        return analysis;
+    }
+
+    /**
+     * Predicts the storage slots a call will touch, from the constant keys its code loads and
+     * stores. Used to prefetch a block's slots before executing it.
+     *
+     * @param address The contract address.
+     * @param code    The contract bytecode.
+     * @return The predicted slots
+     * @throws IllegalArgumentException if address or code is null
+     */
+    public Set<StorageSlot> predictStorageSlots(String address, byte[] code) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        Set<StorageSlot> slots = new LinkedHashSet<>();
+        for (Word key : analysis(code).constantStorageKeys()) {
+            slots.add(new StorageSlot(address, key));
+        }
+        return slots;
+    }
+
+    public int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            hashes.clear();
+        }
+    }
+}
@@ -1,64 +1,204 @@
 package org.example.app.core.smartcontract;
 
 import org.example.app.core.block.Transaction;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
+/**
+ * Evm interprets contract bytecode over a stack of 256-bit words.
+ *
+ * Bytecode is first analyzed into instructions and basic blocks by {@link CodeAnalysis}, cached
+ * per code hash in a {@link CodeCache}, so a contract called repeatedly is decoded once. The
+ * interpreter charges each block's static gas and checks its stack bounds on entry, then
+ * dispatches its instructions without further checks. Jumps must land on a JUMPDEST found by
+ * the analysis. Once a contract has been called often enough, its analysis is compiled to
+ * {@link ThreadedCode}, which runs the same blocks through pre-bound handlers and fused
+ * superinstructions; gas is still charged per block, so both tiers consume exactly the same gas.
+ * The stack is a preallocated {@link WordStack} and memory
+ * grows in words, charged at 3 gas per word plus words squared / 512, so executing an instruction
+ * does not allocate. Storage slots are read and written as {@link Word}s. Each execution takes a
+ * snapshot of the {@link EvmState} first, and reverts to it if the code reverts or fails.
+ *
+ * Storage gas follows EIP-2929 and EIP-2200, without refunds. Each execution keeps its own
+ * slot cache: the first access to a slot is cold and costs 2100 more, and later accesses are
+ * warm and read the cached value without going to the state. SSTORE costs 20000 to set a clean
+ * zero slot, 2900 to change any other clean slot, and 100 otherwise.
+ */
 public class Evm {
     private static final Logger LOGGER = Logger.getLogger(Evm.class.getName());
 
-    private final Stack<Integer> stack = new Stack<>();
+    private static final byte[] EMPTY = new byte[0];
+    private static final CodeCache SHARED_CODE_CACHE = new CodeCache(); // Used unless a cache is given
+
+    private static final int WARM_STORAGE_READ_COST = 100; // Static gas of SLOAD and SSTORE
+    private static final int COLD_SLOAD_COST = 2100;       // First access to a slot in a transaction
+    private static final int SSTORE_SET_COST = 20000;      // Clean slot from zero to non-zero
+    private static final int SSTORE_RESET_COST = 2900;     // Clean slot changed otherwise
+
+    private final WordStack stack = new WordStack();
     private final Memory memory = new Memory();
     private final GasManager gasManager = new GasManager();
     private final EvmState state;
-    private int pc = 0; // Program Counter
+    private final CodeCache codeCache;
+    private String address; // Contract being executed
+    private int next; // Instruction to run after the current block, set by jumps
     private boolean running = true;
+    private boolean reverted = false;
+    private byte[] returnData = EMPTY;
+    private final Map<Word, Slot> accessedSlots = new HashMap<>(); // Warm slots of the current execution
+    private final Word scratchKey = Word.wrap(new byte[Word.LENGTH]);   // SLOAD/SSTORE key, copied before it is kept
+    private final Word scratchValue = Word.wrap(new byte[Word.LENGTH]); // SSTORE value, copied before it is kept
 
-    // Enum for Opcodes
+    // Enum for Opcodes: byte value, static gas, words popped and words pushed
     public enum Opcode {
-        STOP(0x00, 0),
-
-        ADD(0x01, 3),
-        MUL(0x02, 5),
-        SUB(0x03, 3),
-        DIV(0x04, 5),
-        PUSH1(0x60, 3),
-        SLOAD(0x54, 2100),
-        SSTORE(0x55, 20000),
-        RETURN(0xF3, 0),
-        JUMP(0x56, 8),
-        JUMPI(0x57, 10);
+        STOP(0x00, 0, 0, 0),
+
+        ADD(0x01, 3, 2, 1),
+        MUL(0x02, 5, 2, 1),
+        SUB(0x03, 3, 2, 1),
+        DIV(0x04, 5, 2, 1),
+        MOD(0x06, 5, 2, 1),
+
+        LT(0x10, 3, 2, 1),
+        GT(0x11, 3, 2, 1),
+        EQ(0x14, 3, 2, 1),
+        ISZERO(0x15, 3, 1, 1),
+        AND(0x16, 3, 2, 1),
+        OR(0x17, 3, 2, 1),
+        XOR(0x18, 3, 2, 1),
+        NOT(0x19, 3, 1, 1),
+        BYTE(0x1A, 3, 2, 1),
+        SHL(0x1B, 3, 2, 1),
+        SHR(0x1C, 3, 2, 1),
+
+        POP(0x50, 2, 1, 0),
+        MLOAD(0x51, 3, 1, 1),
+        MSTORE(0x52, 3, 2, 0),
+        MSTORE8(0x53, 3, 2, 0),
+        // Storage opcodes charge the warm access statically; cold and write surcharges are dynamic
+        SLOAD(0x54, 100, 1, 1),
+        SSTORE(0x55, 100, 2, 0),
+        JUMP(0x56, 8, 1, 0),
+        JUMPI(0x57, 10, 2, 0),
+        PC(0x58, 2, 0, 1),
+        MSIZE(0x59, 2, 0, 1),
+        GAS(0x5A, 2, 0, 1),
+        JUMPDEST(0x5B, 1, 0, 0),
+        PUSH0(0x5F, 2, 0, 1),
+
+        PUSH1(0x60, 3, 0, 1), PUSH2(0x61, 3, 0, 1), PUSH3(0x62, 3, 0, 1), PUSH4(0x63, 3, 0, 1),
+        PUSH5(0x64, 3, 0, 1), PUSH6(0x65, 3, 0, 1), PUSH7(0x66, 3, 0, 1), PUSH8(0x67, 3, 0, 1),
+        PUSH9(0x68, 3, 0, 1), PUSH10(0x69, 3, 0, 1), PUSH11(0x6A, 3, 0, 1), PUSH12(0x6B, 3, 0, 1),
+        PUSH13(0x6C, 3, 0, 1), PUSH14(0x6D, 3, 0, 1), PUSH15(0x6E, 3, 0, 1), PUSH16(0x6F, 3, 0, 1),
+        PUSH17(0x70, 3, 0, 1), PUSH18(0x71, 3, 0, 1), PUSH19(0x72, 3, 0, 1), PUSH20(0x73, 3, 0, 1),
+        PUSH21(0x74, 3, 0, 1), PUSH22(0x75, 3, 0, 1), PUSH23(0x76, 3, 0, 1), PUSH24(0x77, 3, 0, 1),
+        PUSH25(0x78, 3, 0, 1), PUSH26(0x79, 3, 0, 1), PUSH27(0x7A, 3, 0, 1), PUSH28(0x7B, 3, 0, 1),
+        PUSH29(0x7C, 3, 0, 1), PUSH30(0x7D, 3, 0, 1), PUSH31(0x7E, 3, 0, 1), PUSH32(0x7F, 3, 0, 1),
+
+        DUP1(0x80, 3, 1, 2), DUP2(0x81, 3, 2, 3), DUP3(0x82, 3, 3, 4), DUP4(0x83, 3, 4, 5),
+        DUP5(0x84, 3, 5, 6), DUP6(0x85, 3, 6, 7), DUP7(0x86, 3, 7, 8), DUP8(0x87, 3, 8, 9),
+        DUP9(0x88, 3, 9, 10), DUP10(0x89, 3, 10, 11), DUP11(0x8A, 3, 11, 12), DUP12(0x8B, 3, 12, 13),
+        DUP13(0x8C, 3, 13, 14), DUP14(0x8D, 3, 14, 15), DUP15(0x8E, 3, 15, 16), DUP16(0x8F, 3, 16, 17),
+
+        SWAP1(0x90, 3, 2, 2), SWAP2(0x91, 3, 3, 3), SWAP3(0x92, 3, 4, 4), SWAP4(0x93, 3, 5, 5),
+        SWAP5(0x94, 3, 6, 6), SWAP6(0x95, 3, 7, 7), SWAP7(0x96, 3, 8, 8), SWAP8(0x97, 3, 9, 9),
+        SWAP9(0x98, 3, 10, 10), SWAP10(0x99, 3, 11, 11), SWAP11(0x9A, 3, 12, 12), SWAP12(0x9B, 3, 13, 13),
+        SWAP13(0x9C, 3, 14, 14), SWAP14(0x9D, 3, 15, 15), SWAP15(0x9E, 3, 16, 16), SWAP16(0x9F, 3, 17, 17),
+
+        RETURN(0xF3, 0, 2, 0),
+        REVERT(0xFD, 0, 2, 0);
+
+        private static final Opcode[] BY_VALUE = new Opcode[256];
+
+        static {
+            for (Opcode opcode : values()) {
+                BY_VALUE[opcode.value] = opcode;
+            }
+        }
 
         private final int value;
         private final int gasCost;
+        private final int stackInputs;
+        private final int stackOutputs;
 
-        Opcode(int value, int gasCost) {
+        Opcode(int value, int gasCost, int stackInputs, int stackOutputs) {
             this.value = value;
             this.gasCost = gasCost;
+            this.stackInputs = stackInputs;
+            this.stackOutputs = stackOutputs;
         }
 
         public static Opcode fromValue(byte value) {
-            for (Opcode opcode : values()) {
-                if (opcode.value == (value & 0xFF)) {
-                    return opcode;
-                }
+            Opcode opcode = BY_VALUE[value & 0xFF];
+            if (opcode == null) {
+                throw new IllegalArgumentException("Unknown opcode: " + String.format("0x%02X", value));
             }
-            throw new IllegalArgumentException("Unknown opcode: " + String.format("0x%02X", value));
+            return opcode;
+        }
+
+        // The opcode with a byte value, or null if it is undefined
+        static Opcode byValue(int value) {
+            return BY_VALUE[value];
+        }
+
+        public int getValue() {
+            return value;
         }
 
         public int getGasCost() {
             return gasCost;
         }
+
+        public int getStackInputs() {
+            return stackInputs;
+        }
+
+        public int getStackOutputs() {
+            return stackOutputs;
+        }
+
+        // Number of immediate bytes following the opcode
+        public int getImmediateSize() {
+            return value >= PUSH1.value && value <= PUSH32.value ? value - PUSH1.value + 1 : 0;
+        }
     }
 
     public Evm(EvmState state) {
+        this(state, SHARED_CODE_CACHE);
+    }
+
+    /**
+     * Constructor to initialize an Evm with its own code cache.
+     *
+     * @param state     The contract state.
+     * @param codeCache The cache of analyzed bytecode.
+     * @throws IllegalArgumentException if codeCache is null
+     */
+    public Evm(EvmState state, CodeCache codeCache) {
+        if (codeCache == null) {
+            throw new IllegalArgumentException("Code cache cannot be null");
+        }
         this.state = state;
+        this.codeCache = codeCache;
     }
 
     public GasManager getGasManager() {
         return gasManager;
     }
 
+    // Output of the last RETURN or REVERT, empty if execution stopped otherwise
+    public byte[] getReturnData() {
+        return returnData.clone();
+    }
+
+    public boolean isReverted() {
+        return reverted;
+    }
+
     public void execute(byte[] bytecode, Transaction tx) {
         // Validate inputs
         if (bytecode == null || bytecode.length == 0) {
@@ -67,164 +207,348 @@ public class Evm {
 
         // Reset EVM state
         stack.clear();
-        pc = 0;
+        memory.clear();
         running = true;
+        reverted = false;
+        returnData = EMPTY;
+        accessedSlots.clear();
 
         // Set initial gas
         int gasLimit = tx.getGasLimit();
         gasManager.setInitialGas(gasLimit);
 
-        while (running && pc < bytecode.length) {
-            try {
-                // Fetch the next opcode byte
-                Opcode opcode = Opcode.fromValue(bytecode[pc]);
-                pc++;
-
-                // Consume gas for the operation
-                gasManager.consumeGas(opcode.getGasCost());
-
-                // Process opcode
-                processOpcode(opcode, bytecode, tx);
-
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "EVM Execution Error", e);
-                running = false;
-                throw new RuntimeException("EVM Execution Failed: " + e.getMessage(), e);
+        int snapshot = state.snapshot();
+        try {
+            address = tx.getRecipient();
+            CodeAnalysis code = codeCache.analysis(bytecode);
+            ThreadedCode threaded = code.recordCall(codeCache.getCompileThreshold());
+            if (threaded != null) {
+                runThreaded(threaded);
+            } else {
+                run(code);
+            }
+            if (reverted) {
+                state.revertToSnapshot(snapshot);
             }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "EVM Execution Error", e);
+            running = false;
+            state.revertToSnapshot(snapshot);
+            throw new RuntimeException("EVM Execution Failed: " + e.getMessage(), e);
         }
     }
 
-
-    // Add a method to handle SUB operation
-    private void executeSub() {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for SUB operation");
+    private void run(CodeAnalysis code) {
+        int block = 0;
+        int count = code.size();
+        while (running && block < count) {
+            int end = enterBlock(code, block);
+            for (int i = block; i < end; i++) {
+                processOpcode(code, i);
+            }
+            block = next;
         }
-        int b = stack.pop();
-        int a = stack.pop();
-        stack.push(a - b);
     }
 
-    private void executeDiv() {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for DIV operation");
+    // Runs compiled code; each handler returns the index of the instruction after it
+    private void runThreaded(ThreadedCode threaded) {
+        CodeAnalysis code = threaded.analysis();
+        ThreadedCode.Handler[] handlers = threaded.handlers();
+        int block = 0;
+        int count = code.size();
+        while (running && block < count) {
+            int end = enterBlock(code, block);
+            for (int i = block; i < end; ) {
+                i = handlers[i].execute(this, i);
+            }
+            block = next;
         }
-        int b = stack.pop();
-        int a = stack.pop();
-        if (b == 0) {
-            throw new RuntimeException("Division by zero");
+    }
+
+    // Charges the static gas of a whole block and checks its stack bounds once, returning its end
+    private int enterBlock(CodeAnalysis code, int block) {
+        int end = code.blockEnd(block);
+        gasManager.consumeGas(code.blockGas(block));
+        int depth = stack.size();
+        if (depth < code.blockRequired(block) || depth + code.blockGrowth(block) > WordStack.MAX_DEPTH) {
+            throw stackError(code, block, end);
         }
-        stack.push(a / b);
+        next = end;
+        return end;
     }
 
-    private void processOpcode(Opcode opcode, byte[] bytecode, Transaction tx) {
+    void processOpcode(CodeAnalysis code, int index) {
+        Opcode opcode = code.opcode(index);
+        if (opcode == null) {
+            throw new IllegalArgumentException("Unknown opcode: "
+                    + String.format("0x%02X", code.code()[code.offset(index)]));
+        }
         switch (opcode) {
             case STOP:
                 running = false;
                 break;
-            case PUSH1:
-                executePush1(bytecode);
-                break;
             case ADD:
-                executeAdd();
+                stack.add();
                 break;
             case MUL:
-                executeMul();
+                stack.mul();
                 break;
             case SUB:
-                executeSub();
+                stack.sub();
                 break;
             case DIV:
-                executeDiv();
+                stack.div();
                 break;
-            case SSTORE:
-                executeSStore(tx);
+            case MOD:
+                stack.mod();
+                break;
+            case LT:
+                stack.lt();
+                break;
+            case GT:
+                stack.gt();
+                break;
+            case EQ:
+                stack.eq();
+                break;
+            case ISZERO:
+                stack.isZero();
+                break;
+            case AND:
+                stack.and();
+                break;
+            case OR:
+                stack.or();
+                break;
+            case XOR:
+                stack.xor();
+                break;
+            case NOT:
+                stack.not();
+                break;
+            case BYTE:
+                stack.byteAt();
+                break;
+            case SHL:
+                stack.shl();
+                break;
+            case SHR:
+                stack.shr();
+                break;
+            case POP:
+                stack.pop();
+                break;
+            case MLOAD:
+                executeMLoad();
+                break;
+            case MSTORE:
+                executeMStore(WordStack.WORD_BYTES);
+                break;
+            case MSTORE8:
+                executeMStore(1);
                 break;
             case SLOAD:
-                executeSLoad(tx);
+                executeSLoad();
                 break;
-            case RETURN:
-                running = false;
+            case SSTORE:
+                executeSStore();
                 break;
             case JUMP:
-                executeJump();
+                executeJump(code);
                 break;
             case JUMPI:
-                executeConditionalJump();
+                executeConditionalJump(code);
+                break;
+            case PC:
+                stack.push(code.offset(index));
+                break;
+            case MSIZE:
+                stack.push(memory.size());
+                break;
+            case GAS:
+                stack.push(gasManager.getGasRemaining());
+                break;
+            case JUMPDEST:
+                break;
+            case PUSH0:
+                stack.push(0);
+                break;
+            case RETURN:
+                executeReturn(false);
+                break;
+            case REVERT:
+                executeReturn(true);
                 break;
             default:
-                throw new IllegalArgumentException("Unsupported opcode: " + opcode);
+                // The remaining opcodes are PUSH1-32, DUP1-16 and SWAP1-16, in byte order
+                int value = opcode.value;
+                if (value <= Opcode.PUSH32.value) {
+                    stack.push(code.constants(), code.argument(index) << 2);
+                } else if (value <= Opcode.DUP16.value) {
+                    stack.dup(code.argument(index));
+                } else if (value <= Opcode.SWAP16.value) {
+                    stack.swap(code.argument(index));
+                } else {
+                    throw new IllegalArgumentException("Unsupported opcode: " + opcode);
+                }
         }
     }
 
-
-    private void executePush1(byte[] bytecode) {
-        if (pc >= bytecode.length) {
-            throw new RuntimeException("Incomplete PUSH1 instruction");
+    // Replays a block's stack effects to report the instruction that breaks its bounds
+    private RuntimeException stackError(CodeAnalysis code, int block, int end) {
+        int depth = stack.size();
+        for (int i = block; i < end; i++) {
+            Opcode opcode = code.opcode(i);
+            if (opcode == null) {
+                break;
+            }
+            if (depth < opcode.stackInputs) {
+                return new RuntimeException("Insufficient stack elements for " + opcode + " operation");
+            }
+            depth += opcode.stackOutputs - opcode.stackInputs;
+            if (depth > WordStack.MAX_DEPTH) {
+                return new RuntimeException("Stack overflow at " + opcode);
+            }
         }
-        int value = bytecode[pc] & 0xFF;
-        stack.push(value);
-        pc++;
+        return new IllegalStateException("Stack bounds of block at " + code.offset(block) + " are inconsistent");
+    }
+
+    private void executeMLoad() {
+        int offset = expandMemory(stack.toLong(0), WordStack.WORD_BYTES);
+        stack.readWord(memory.buffer(), offset);
     }
 
-    private void executeAdd() {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for ADD operation");
+    // MSTORE writes the whole second word, MSTORE8 its low byte
+    private void executeMStore(int length) {
+        int offset = expandMemory(stack.toLong(0), length);
+        if (length == WordStack.WORD_BYTES) {
+            stack.writeWord(memory.buffer(), offset, 1);
+        } else {
+            memory.buffer()[offset] = (byte) stack.toLowByte(1);
         }
-        int b = stack.pop();
-        int a = stack.pop();
-        stack.push(a + b);
+        stack.pop();
+        stack.pop();
     }
 
-    private void executeMul() {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for MUL operation");
+    private void executeSStore() {
+        // The key is on top, the value below it
+        Word key = scratch(scratchKey, 0);
+        Word value = scratch(scratchValue, 1);
+        Slot slot = accessedSlots.get(key);
+        long cost = 0;
+        if (slot == null) {
+            cost += COLD_SLOAD_COST;
+            slot = warm(key);
         }
-        int b = stack.pop();
-        int a = stack.pop();
-        stack.push(a * b);
+        boolean changed = !value.equals(slot.current);
+        if (changed && slot.original.equals(slot.current)) {
+            cost += (slot.original.isZero() ? SSTORE_SET_COST : SSTORE_RESET_COST) - WARM_STORAGE_READ_COST;
+        }
+        gasManager.consumeGas(cost);
+        if (changed) {
+            Word stored = Word.of(value.bytes());
+            state.storeWord(address, slot.key, stored);
+            slot.current = stored;
+        }
+        stack.pop();
+        stack.pop();
     }
 
-    private void executeSStore(Transaction tx) {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for SSTORE operation");
+    private void executeSLoad() {
+        stack.readWord(loadSlot(scratch(scratchKey, 0)).bytes(), 0);
+    }
+
+    // SLOAD of a key known when the code was compiled
+    void loadStorage(Word key) {
+        stack.push(0);
+        stack.readWord(loadSlot(key).bytes(), 0);
+    }
+
+    // Reads a slot through the execution's cache, charging the cold surcharge on first access
+    private Word loadSlot(Word key) {
+        Slot slot = accessedSlots.get(key);
+        if (slot == null) {
+            gasManager.consumeGas(COLD_SLOAD_COST - WARM_STORAGE_READ_COST);
+            slot = warm(key);
         }
-        int storeValue = stack.pop();
-        int storeKey = stack.pop();
-        state.store(
-                tx.getRecipient(),
-                String.valueOf(storeKey),
-                String.valueOf(storeValue)
-        );
+        return slot.current;
     }
 
-    private void executeSLoad(Transaction tx) {
-        if (stack.isEmpty()) {
-            throw new RuntimeException("Insufficient stack elements for SLOAD operation");
+    // Reads a cold slot from the state and adds it to the execution's cache under a kept key
+    private Slot warm(Word key) {
+        Word kept = key == scratchKey ? Word.of(key.bytes()) : key;
+        Slot slot = new Slot(kept, state.loadWord(address, kept));
+        accessedSlots.put(kept, slot);
+        return slot;
+    }
+
+    // A jump resolved when the code was compiled to a valid destination
+    void jumpTo(int target) {
+        next = target;
+    }
+
+    WordStack stack() {
+        return stack;
+    }
+
+    // Overwrites a scratch word with the word at a depth; it is only valid until the next overwrite
+    private Word scratch(Word target, int depth) {
+        stack.writeWord(target.bytes(), 0, depth);
+        return target;
+    }
+
+    private void executeJump(CodeAnalysis code) {
+        next = jumpTarget(code);
+        stack.pop();
+    }
+
+    private void executeConditionalJump(CodeAnalysis code) {
+        // The destination is on top, the condition below it
+        if (!stack.isZero(1)) {
+            next = jumpTarget(code);
         }
-        int loadKey = stack.pop();
-        String loadedValue = state.load(
-                tx.getRecipient(),
-                String.valueOf(loadKey)
-        );
-        stack.push(Integer.parseInt(loadedValue));
+        stack.pop();
+        stack.pop();
     }
 
-    private void executeJump() {
-        if (stack.isEmpty()) {
-            throw new RuntimeException("Insufficient stack elements for JUMP operation");
+    private int jumpTarget(CodeAnalysis code) {
+        int target = code.jumpTarget(stack.toLong(0));
+        if (target < 0) {
+            throw new RuntimeException("Invalid jump destination: " + stack.toDecimalString(0));
         }
-        pc = stack.pop();
+        return target;
+    }
+
+    private void executeReturn(boolean revert) {
+        long length = stack.toLong(1);
+        int offset = expandMemory(stack.toLong(0), length);
+        returnData = length == 0 ? EMPTY : Arrays.copyOfRange(memory.buffer(), offset, offset + (int) length);
+        stack.pop();
+        stack.pop();
+        reverted = revert;
+        running = false;
     }
 
-    private void executeConditionalJump() {
-        if (stack.size() < 2) {
-            throw new RuntimeException("Insufficient stack elements for JUMPI operation");
+    // Charges for and performs memory growth to cover a range, returning the range offset
+    private int expandMemory(long offset, long length) {
+        if (length == 0) {
+            return 0;
         }
-        int condition = stack.pop();
-        int jumpAddress = stack.pop();
-        if (condition != 0) {
-            pc = jumpAddress;
+        gasManager.consumeGas(memory.expansionCost(offset, length));
+        memory.ensureCapacity((int) offset, (int) length);
+        return (int) offset;
+    }
+
+    // A warm storage slot: its key, its value when the execution started and its current value
+    private static final class Slot {
+        private final Word key;
+        private final Word original;
+        private Word current;
+
+        private Slot(Word key, Word original) {
+            this.key = key;
+            this.original = original;
+            this.current = original;
         }
     }
-}
\ No newline at end of file
+}
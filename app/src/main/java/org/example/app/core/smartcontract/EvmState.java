@@ -1,35 +1,323 @@
 package org.example.app.core.smartcontract;
 
+import org.example.app.core.crypto.Keccak;
+import org.example.app.core.storage.kv.KeyValueStore;
+import org.example.app.core.storage.kv.WriteBatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * EvmState holds the accounts contracts run against, with a journal of every change.
+ *
+ * Balance, nonce, code and storage writes, and account creation, each append an undo entry.
+ * {@link #snapshot()} returns the journal length, and {@link #revertToSnapshot(int)} undoes the
+ * entries after it, so a failed call is rolled back without copying any state. Whoever owns the
+ * state calls {@link #endTransaction()} once a transaction can no longer be reverted, and
+ * {@link #commit()} once changes are final, for example after a block.
+ *
+ * Storage keys and values are {@link Word}s. The string methods {@link #store} and
+ * {@link #load} remain for callers that name slots by string: an unsigned decimal string is
+ * its numeric word, and any other string is stored as its Keccak-256 hash, remembered so that
+ * loading the slot returns the original string.
+ *
+ * Storage may be backed by a {@link KeyValueStore}, for example one on disk. The state then
+ * acts as the block's slot cache: a slot is read from the store once and kept as clean, writes
+ * stay in the accounts and are tracked as dirty, and {@link #commit()} writes every dirty slot
+ * to the store in one batch. {@link #prefetch} reads the slots a block is expected to touch in
+ * parallel before execution, so execution does not wait on the store. {@link #endBlock()}
+ * commits and then drops the block's slot cache, and with a backing store also the string
+ * preimages, which the commit writes to the store, so neither grows across blocks.
+ */
 public class EvmState {
+    private static final int MAX_DECIMAL_DIGITS = 78; // Digits of 2^256 - 1
+    private static final byte[] PREIMAGE_PREFIX = {0x00, 'p'}; // Prefix of preimage keys in the store; addresses do not start with NUL
+
     private final Map<String, Account> accounts = new HashMap<>();
+    private final Journal journal = new Journal();
+    private final Map<Word, String> preimages = new HashMap<>(); // Non-numeric strings by hash, since the last block with a store
+    private final KeyValueStore backing;                        // Committed storage, or null
+    private final Map<StorageSlot, Word> clean = new ConcurrentHashMap<>(); // Committed values read so far
+    private final Set<StorageSlot> dirty = new HashSet<>();     // Slots written since the last commit
+    private final AtomicLong backingReads = new AtomicLong(0);   // Reads that reached the store
+
+    public EvmState() {
+        this(null);
+    }
+
+    /**
+     * Constructor to initialize an EvmState over a backing store.
+     *
+     * @param backing The store holding committed storage slots, or null to keep all storage in memory.
+     */
+    public EvmState(KeyValueStore backing) {
+        this.backing = backing;
+    }
 
     // Retrieve or create an account for the given address
     public Account getAccount(String address) {
-        return accounts.computeIfAbsent(address, k -> new Account());
+        Account account = accounts.get(address);
+        if (account == null) {
+            account = new Account();
+            account.attach(journal);
+            accounts.put(address, account);
+            journal.record(() -> accounts.remove(address));
+        }
+        return account;
     }
 
     // Store a key-value pair in the account's storage
     public void store(String address, String key, String value) {
-        Account account = getAccount(address);
-        account.getStorage().put(key, value);
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Storage key and value cannot be null");
+        }
+        storeWord(address, encode(key), encode(value));
     }
 
-    // Load a value from the account's storage by key
+    // Load a value from the account's storage by key, "0" if unset
     public String load(String address, String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Storage key cannot be null");
+        }
+        return decode(loadWord(address, encode(key)));
+    }
+
+    public void storeWord(String address, Word key, Word value) {
         Account account = getAccount(address);
-        return account.getStorage().getOrDefault(key, "0");
+        if (backing != null) {
+            StorageSlot slot = new StorageSlot(address, key);
+            if (!dirty.contains(slot)) {
+                // The account holds only written slots, so it starts from the committed value
+                account.loadStorageValue(key, readClean(slot));
+                dirty.add(slot);
+                journal.record(() -> dirty.remove(slot));
+            }
+        }
+        account.setStorageValue(key, value);
+    }
+
+    // Reads a slot without creating the account
+    public Word loadWord(String address, Word key) {
+        if (backing != null) {
+            StorageSlot slot = new StorageSlot(address, key);
+            if (!dirty.contains(slot)) {
+                return readClean(slot);
+            }
+        }
+        Account account = accounts.get(address);
+        return account == null ? Word.ZERO : account.getStorageValue(key);
+    }
+
+    /**
+     * Reads slots from the backing store in parallel, so later loads find them cached. Slots
+     * already cached or written are skipped. Without a backing store this does nothing.
+     *
+     * @param slots The slots to read.
+     * @param pool  The pool that performs the reads.
+     * @throws IllegalArgumentException if slots or pool is null
+     */
+    public void prefetch(Collection<StorageSlot> slots, ExecutorService pool) {
+        if (slots == null || pool == null) {
+            throw new IllegalArgumentException("Slots and pool cannot be null");
+        }
+        if (backing == null) {
+            return;
+        }
+        List<CompletableFuture<Void>> reads = new ArrayList<>();
+        for (StorageSlot slot : slots) {
+            if (!clean.containsKey(slot) && !dirty.contains(slot)) {
+                reads.add(CompletableFuture.runAsync(() -> readClean(slot), pool));
+            }
+        }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).join();
     }
 
     // Create a new account in the state
     public void createAccount(String address, Account account) {
-        accounts.put(address, account);
+        account.attach(journal);
+        Account previous = accounts.put(address, account);
+        journal.record(() -> {
+            if (previous == null) {
+                accounts.remove(address);
+            } else {
+                accounts.put(address, previous);
+            }
+        });
     }
 
     // Check if an account exists
     public boolean hasAccount(String address) {
         return accounts.containsKey(address);
     }
+
+    /**
+     * Marks the current state so it can be restored.
+     *
+     * @return The snapshot, valid until it is reverted past, the state is committed or the
+     *         transaction ends
+     */
+    public int snapshot() {
+        return journal.size();
+    }
+
+    /**
+     * Undoes every change made since a snapshot.
+     *
+     * @param snapshot A value returned by {@link #snapshot()}.
+     * @throws IllegalArgumentException if the snapshot is no longer valid
+     */
+    public void revertToSnapshot(int snapshot) {
+        journal.revert(snapshot);
+    }
+
+    /**
+     * Ends a transaction: its changes can no longer be reverted, so the journal is discarded and
+     * stays bounded across the transactions of a block. Dirty slots are kept for {@link #commit()}.
+     */
+    public void endTransaction() {
+        journal.clear();
+    }
+
+    /**
+     * Makes all changes final and discards the journal. With a backing store, the dirty slots
+     * are written to it in one batch first.
+     *
+     * @throws UncheckedIOException if the backing store cannot write the batch
+     */
+    public void commit() {
+        if (backing != null && (!dirty.isEmpty() || !preimages.isEmpty())) {
+            WriteBatch batch = new WriteBatch();
+            for (Map.Entry<Word, String> preimage : preimages.entrySet()) {
+                batch.put(preimageKey(preimage.getKey()), preimage.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            Map<StorageSlot, Word> written = new HashMap<>();
+            for (StorageSlot slot : dirty) {
+                Account account = accounts.get(slot.getAddress());
+                Word value = account == null ? Word.ZERO : account.getStorageValue(slot.getKey());
+                if (!value.equals(clean.get(slot))) {
+                    if (value.isZero()) {
+                        batch.delete(slot.toStoreKey());
+                    } else {
+                        batch.put(slot.toStoreKey(), value.toBytes());
+                    }
+                }
+                written.put(slot, value);
+            }
+            try {
+                backing.write(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write storage slots", e);
+            }
+            // Committed values move to the clean cache; the accounts no longer need them
+            for (Map.Entry<StorageSlot, Word> entry : written.entrySet()) {
+                clean.put(entry.getKey(), entry.getValue());
+                Account account = accounts.get(entry.getKey().getAddress());
+                if (account != null) {
+                    account.loadStorageValue(entry.getKey().getKey(), Word.ZERO);
+                }
+            }
+            dirty.clear();
+        }
+        journal.clear();
+    }
+
+    /**
+     * Ends a block: commits, then drops the slots cached from the backing store during the block.
+     * With a backing store the preimages, now in the store, are dropped too.
+     *
+     * @throws UncheckedIOException if the backing store cannot write the batch
+     */
+    public void endBlock() {
+        commit();
+        clean.clear();
+        if (backing != null) {
+            preimages.clear();
+        }
+    }
+
+    public int getJournalSize() {
+        return journal.size();
+    }
+
+    public int getDirtySlotCount() {
+        return dirty.size();
+    }
+
+    public long getBackingReadCount() {
+        return backingReads.get();
+    }
+
+    public int getCachedSlotCount() {
+        return clean.size();
+    }
+
+    // The committed value of a slot, read from the backing store on first use
+    private Word readClean(StorageSlot slot) {
+        Word value = clean.get(slot);
+        if (value == null) {
+            byte[] stored = backing.get(slot.toStoreKey());
+            backingReads.incrementAndGet();
+            value = stored == null ? Word.ZERO : Word.of(stored);
+            Word raced = clean.putIfAbsent(slot, value);
+            if (raced != null) {
+                value = raced;
+            }
+        }
+        return value;
+    }
+
+    private Word encode(String text) {
+        if (isDecimal(text)) {
+            return text.length() < 19 ? Word.of(Long.parseLong(text)) : Word.of(new BigInteger(text));
+        }
+        Word hash = Word.wrap(Keccak.keccak256(text.getBytes(StandardCharsets.UTF_8)));
+        preimages.putIfAbsent(hash, text);
+        return hash;
+    }
+
+    private String decode(Word word) {
+        String preimage = preimages.get(word);
+        if (preimage == null && backing != null && !word.isZero()) {
+            byte[] stored = backing.get(preimageKey(word));
+            if (stored != null) {
+                preimage = new String(stored, StandardCharsets.UTF_8);
+            }
+        }
+        return preimage != null ? preimage : word.toBigInteger().toString();
+    }
+
+    private static byte[] preimageKey(Word hash) {
+        byte[] key = new byte[PREIMAGE_PREFIX.length + Word.LENGTH];
+        System.arraycopy(PREIMAGE_PREFIX, 0, key, 0, PREIMAGE_PREFIX.length);
+        System.arraycopy(hash.bytes(), 0, key, PREIMAGE_PREFIX.length, Word.LENGTH);
+        return key;
+    }
+
+    // True for canonical unsigned decimals below 2^256, which round-trip through a word
+    private static boolean isDecimal(String text) {
+        int length = text.length();
+        if (length == 0 || length > MAX_DECIMAL_DIGITS || (length > 1 && text.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return length < MAX_DECIMAL_DIGITS || new BigInteger(text).bitLength() <= 256;
+    }
 }
@@ -15,6 +15,14 @@ public class GasManager {
         gasRemaining -= amount;
     }
 
+    // For charges computed in long arithmetic, such as memory expansion
+    public void consumeGas(long amount) {
+        if (gasRemaining < amount) {
+            throw new RuntimeException("Out of gas");
+        }
+        gasRemaining -= (int) amount;
+    }
+
     public int getGasRemaining() {
         return gasRemaining;
     }
@@ -0,0 +1,46 @@
+package org.example.app.core.smartcontract;
+
+import java.util.ArrayList;
+
+/**
+ * Journal is the undo log of an {@link EvmState}. Every change to an account appends an entry
+ * that restores the previous value, so a snapshot is just the journal length and reverting
+ * undoes the entries after it, newest first. Nothing is copied when a snapshot is taken.
+ */
+final class Journal {
+
+    // Restores one value overwritten by a change
+    interface Entry {
+        void undo();
+    }
+
+    private final ArrayList<Entry> entries = new ArrayList<>();
+
+    void record(Entry entry) {
+        entries.add(entry);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Undoes every change made after a snapshot.
+     *
+     * @param snapshot The journal length when the snapshot was taken.
+     * @throws IllegalArgumentException if the snapshot is not within the journal
+     */
+    void revert(int snapshot) {
+        if (snapshot < 0 || snapshot > entries.size()) {
+            throw new IllegalArgumentException("Invalid snapshot: " + snapshot);
+        }
+        for (int i = entries.size() - 1; i >= snapshot; i--) {
+            entries.remove(i).undo();
+        }
+    }
+
+    // Forgets all entries, making the current state final
+    void clear() {
+        entries.clear();
+    }
+}
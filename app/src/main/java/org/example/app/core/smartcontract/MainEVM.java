@@ -24,8 +24,8 @@ public class MainEVM {
 
             // Deploy a sample contract using a transaction
             byte[] contractBytecode = new byte[]{
-                    (byte) Evm.Opcode.ADD.ordinal(),
-                    (byte) Evm.Opcode.RETURN.ordinal()
+                    (byte) Evm.Opcode.ADD.getValue(),
+                    (byte) Evm.Opcode.RETURN.getValue()
             };
             Transaction contractTx = createTransaction(contractBytecode);
 
@@ -1,14 +1,85 @@
 package org.example.app.core.smartcontract;
 import java.util.Arrays;
 
+/**
+ * Memory is the byte-addressed EVM memory. It grows on demand in 32-byte words; the interpreter
+ * charges for growth with {@link #expansionCost(long, long)} before touching new bytes.
+ */
 public class Memory {
+    private static final int WORD_SIZE = 32;
+    private static final long MAX_SIZE = 1L << 32; // Beyond this, expansion costs more than any gas limit
+
     private byte[] memory = new byte[1024];
+    private int size; // Bytes in use, a multiple of WORD_SIZE
 
     public void store(int offset, byte[] data) {
+        ensureCapacity(offset, data.length);
         System.arraycopy(data, 0, memory, offset, data.length);
     }
 
     public byte[] load(int offset, int length) {
+        ensureCapacity(offset, length);
         return Arrays.copyOfRange(memory, offset, offset + length);
     }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(memory, 0, size, (byte) 0);
+        size = 0;
+    }
+
+    /**
+     * Computes the gas to grow memory to cover a range: 3 gas per word plus words squared / 512,
+     * less what the current size already paid.
+     *
+     * @param offset The offset of the range.
+     * @param length The length of the range; an empty range never grows memory.
+     * @return The gas, or Long.MAX_VALUE if the range is out of reach
+     */
+    public long expansionCost(long offset, long length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (offset >= MAX_SIZE || length >= MAX_SIZE) {
+            return Long.MAX_VALUE;
+        }
+        long end = offset + length;
+        if (end <= size) {
+            return 0;
+        }
+        return cost((end + WORD_SIZE - 1) / WORD_SIZE) - cost(size / WORD_SIZE);
+    }
+
+    /**
+     * Grows memory, in whole words, to cover a range.
+     *
+     * @param offset The offset of the range.
+     * @param length The length of the range.
+     */
+    public void ensureCapacity(int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        long end = (long) offset + length;
+        if (end <= size) {
+            return;
+        }
+        int newSize = (int) Math.min(Integer.MAX_VALUE - WORD_SIZE + 1, (end + WORD_SIZE - 1) / WORD_SIZE * WORD_SIZE);
+        if (newSize > memory.length) {
+            memory = Arrays.copyOf(memory, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(newSize, 2L * memory.length)));
+        }
+        size = newSize;
+    }
+
+    // The backing array; valid up to size(), and replaced when memory grows
+    byte[] buffer() {
+        return memory;
+    }
+
+    private static long cost(long words) {
+        return 3 * words + words * words / 512;
+    }
 }
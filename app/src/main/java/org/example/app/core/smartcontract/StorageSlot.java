@@ -0,0 +1,65 @@
+package org.example.app.core.smartcontract;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * StorageSlot names one storage slot: a contract address and a 32-byte key.
+ */
+public final class StorageSlot {
+    private final String address;
+    private final Word key;
+
+    /**
+     * Constructor to initialize a StorageSlot.
+     *
+     * @param address The contract address.
+     * @param key     The slot key.
+     * @throws IllegalArgumentException if address or key is null
+     */
+    public StorageSlot(String address, Word key) {
+        if (address == null || key == null) {
+            throw new IllegalArgumentException("Address and key cannot be null");
+        }
+        this.address = address;
+        this.key = key;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Word getKey() {
+        return key;
+    }
+
+    // Key in a backing store: the address bytes followed by the 32-byte slot key
+    byte[] toStoreKey() {
+        byte[] addressBytes = address.getBytes(StandardCharsets.UTF_8);
+        byte[] storeKey = new byte[addressBytes.length + Word.LENGTH];
+        System.arraycopy(addressBytes, 0, storeKey, 0, addressBytes.length);
+        System.arraycopy(key.bytes(), 0, storeKey, addressBytes.length, Word.LENGTH);
+        return storeKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StorageSlot)) {
+            return false;
+        }
+        StorageSlot other = (StorageSlot) o;
+        return address.equals(other.address) && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * address.hashCode() + key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return address + ":" + key;
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.app.core.smartcontract;
+
+/**
+ * ThreadedCode is the compiled form of a hot contract: one pre-bound handler per instruction,
+ * which the interpreter calls in turn instead of switching on each opcode.
+ *
+ * Handlers carry their operands, such as a PUSH constant or a DUP depth, so executing them does
+ * no decoding. Common sequences within a basic block are fused into superinstructions:
+ * <ul>
+ *     <li>PUSH x, ADD adds the constant to the top in place;</li>
+ *     <li>PUSH x, SLOAD loads a key built once at compile time;</li>
+ *     <li>PUSH x, JUMP and PUSH x, JUMPI jump to a destination resolved at compile time;</li>
+ *     <li>runs of DUP and SWAP execute in one handler.</li>
+ * </ul>
+ * A fused handler sits at the index of its first instruction and returns the index after its
+ * last. Fusion never crosses a block boundary, and blocks keep their static gas and stack
+ * checks, so compiled code charges exactly the gas the interpreter does.
+ */
+final class ThreadedCode {
+
+    // A compiled instruction; returns the index of the next instruction in the block
+    interface Handler {
+        int execute(Evm evm, int index);
+    }
+
+    private static final Handler[] SIMPLE = new Handler[256]; // Stack-only opcodes that need no operand
+
+    static {
+        bind(Evm.Opcode.ADD, (evm, i) -> { evm.stack().add(); return i + 1; });
+        bind(Evm.Opcode.MUL, (evm, i) -> { evm.stack().mul(); return i + 1; });
+        bind(Evm.Opcode.SUB, (evm, i) -> { evm.stack().sub(); return i + 1; });
+        bind(Evm.Opcode.DIV, (evm, i) -> { evm.stack().div(); return i + 1; });
+        bind(Evm.Opcode.MOD, (evm, i) -> { evm.stack().mod(); return i + 1; });
+        bind(Evm.Opcode.LT, (evm, i) -> { evm.stack().lt(); return i + 1; });
+        bind(Evm.Opcode.GT, (evm, i) -> { evm.stack().gt(); return i + 1; });
+        bind(Evm.Opcode.EQ, (evm, i) -> { evm.stack().eq(); return i + 1; });
+        bind(Evm.Opcode.ISZERO, (evm, i) -> { evm.stack().isZero(); return i + 1; });
+        bind(Evm.Opcode.AND, (evm, i) -> { evm.stack().and(); return i + 1; });
+        bind(Evm.Opcode.OR, (evm, i) -> { evm.stack().or(); return i + 1; });
+        bind(Evm.Opcode.XOR, (evm, i) -> { evm.stack().xor(); return i + 1; });
+        bind(Evm.Opcode.NOT, (evm, i) -> { evm.stack().not(); return i + 1; });
+        bind(Evm.Opcode.BYTE, (evm, i) -> { evm.stack().byteAt(); return i + 1; });
+        bind(Evm.Opcode.SHL, (evm, i) -> { evm.stack().shl(); return i + 1; });
+        bind(Evm.Opcode.SHR, (evm, i) -> { evm.stack().shr(); return i + 1; });
+        bind(Evm.Opcode.POP, (evm, i) -> { evm.stack().pop(); return i + 1; });
+        bind(Evm.Opcode.PUSH0, (evm, i) -> { evm.stack().push(0); return i + 1; });
+        bind(Evm.Opcode.JUMPDEST, (evm, i) -> i + 1);
+    }
+
+    private final CodeAnalysis analysis;
+    private final Handler[] handlers; // Indexed by instruction; null inside a fused sequence
+    private final int fused;          // Number of superinstructions
+
+    /**
+     * Constructor to initialize a ThreadedCode by compiling an analysis.
+     *
+     * @param analysis The analyzed bytecode.
+     * @throws IllegalArgumentException if analysis is null
+     */
+    ThreadedCode(CodeAnalysis analysis) {
+        if (analysis == null) {
+            throw new IllegalArgumentException("Analysis cannot be null");
+        }
+        this.analysis = analysis;
+        this.handlers = new Handler[analysis.size()];
+
+        int superinstructions = 0;
+        int block = 0;
+        while (block < analysis.size()) {
+            int end = analysis.blockEnd(block);
+            int i = block;
+            while (i < end) {
+                int length = fuse(i, end);
+                if (length > 1) {
+                    superinstructions++;
+                } else {
+                    handlers[i] = single(i);
+                    length = 1;
+                }
+                i += length;
+            }
+            block = end;
+        }
+        this.fused = superinstructions;
+    }
+
+    CodeAnalysis analysis() {
+        return analysis;
+    }
+
+    Handler[] handlers() {
+        return handlers;
+    }
+
+    int getFusedCount() {
+        return fused;
+    }
+
+    // Installs a superinstruction starting at an index if one applies, returning its length
+    private int fuse(int index, int end) {
+        Evm.Opcode opcode = analysis.opcode(index);
+        if (opcode == null || index + 1 >= end) {
+            return 0;
+        }
+        Evm.Opcode following = analysis.opcode(index + 1);
+        if (following == null) {
+            return 0;
+        }
+        if (opcode.getImmediateSize() > 0) {
+            long[] constants = analysis.constants();
+            int offset = analysis.argument(index) << 2;
+            switch (following) {
+                case ADD:
+                    handlers[index] = (evm, i) -> { evm.stack().addConstant(constants, offset); return i + 2; };
+                    return 2;
+                case SLOAD: {
+                    Word key = analysis.constantWord(analysis.argument(index));
+                    handlers[index] = (evm, i) -> { evm.loadStorage(key); return i + 2; };
+                    return 2;
+                }
+                case JUMP: {
+                    int target = jumpTarget(constants, offset);
+                    if (target < 0) {
+                        return 0; // Left to the interpreter's handlers, which report the bad destination
+                    }
+                    handlers[index] = (evm, i) -> { evm.jumpTo(target); return i + 2; };
+                    return 2;
+                }
+                case JUMPI: {
+                    int target = jumpTarget(constants, offset);
+                    if (target < 0) {
+                        return 0;
+                    }
+                    handlers[index] = (evm, i) -> {
+                        WordStack stack = evm.stack();
+                        if (!stack.isZero(0)) {
+                            evm.jumpTo(target);
+                        }
+                        stack.pop();
+                        return i + 2;
+                    };
+                    return 2;
+                }
+                default:
+                    return 0;
+            }
+        }
+        if (isDupOrSwap(opcode) && isDupOrSwap(following)) {
+            int length = 2;
+            while (index + length < end && isDupOrSwap(analysis.opcode(index + length))) {
+                length++;
+            }
+            // Positive entries are DUP depths, negative entries SWAP depths
+            int[] program = new int[length];
+            for (int k = 0; k < length; k++) {
+                int depth = analysis.argument(index + k);
+                program[k] = analysis.opcode(index + k).getValue() <= Evm.Opcode.DUP16.getValue() ? depth : -depth;
+            }
+            int next = index + length;
+            handlers[index] = (evm, i) -> {
+                WordStack stack = evm.stack();
+                for (int step : program) {
+                    if (step > 0) {
+                        stack.dup(step);
+                    } else {
+                        stack.swap(-step);
+                    }
+                }
+                return next;
+            };
+            return length;
+        }
+        return 0;
+    }
+
+    // The handler for one instruction, bound to its operand where it has one
+    private Handler single(int index) {
+        Evm.Opcode opcode = analysis.opcode(index);
+        if (opcode != null) {
+            Handler simple = SIMPLE[opcode.getValue()];
+            if (simple != null) {
+                return simple;
+            }
+            int value = opcode.getValue();
+            int argument = analysis.argument(index);
+            if (opcode.getImmediateSize() > 0) {
+                long[] constants = analysis.constants();
+                int offset = argument << 2;
+                return (evm, i) -> { evm.stack().push(constants, offset); return i + 1; };
+            }
+            if (value >= Evm.Opcode.DUP1.getValue() && value <= Evm.Opcode.DUP16.getValue()) {
+                return (evm, i) -> { evm.stack().dup(argument); return i + 1; };
+            }
+            if (value >= Evm.Opcode.SWAP1.getValue() && value <= Evm.Opcode.SWAP16.getValue()) {
+                return (evm, i) -> { evm.stack().swap(argument); return i + 1; };
+            }
+            if (opcode == Evm.Opcode.PC) {
+                long pc = analysis.offset(index);
+                return (evm, i) -> { evm.stack().push(pc); return i + 1; };
+            }
+        }
+        // Memory, storage, jumps, halts and undefined opcodes share the interpreter's code
+        CodeAnalysis code = analysis;
+        return (evm, i) -> { evm.processOpcode(code, i); return i + 1; };
+    }
+
+    private int jumpTarget(long[] constants, int offset) {
+        if ((constants[offset + 1] | constants[offset + 2] | constants[offset + 3]) != 0) {
+            return -1;
+        }
+        return analysis.jumpTarget(constants[offset]);
+    }
+
+    private static boolean isDupOrSwap(Evm.Opcode opcode) {
+        return opcode != null && opcode.getValue() >= Evm.Opcode.DUP1.getValue()
+                && opcode.getValue() <= Evm.Opcode.SWAP16.getValue();
+    }
+
+    private static void bind(Evm.Opcode opcode, Handler handler) {
+        SIMPLE[opcode.getValue()] = handler;
+    }
+}
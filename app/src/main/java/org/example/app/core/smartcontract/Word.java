@@ -0,0 +1,114 @@
+package org.example.app.core.smartcontract;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Word is an immutable 256-bit value, held as 32 big-endian bytes. Contract storage keys and
+ * values are words.
+ */
+public final class Word {
+    public static final int LENGTH = 32;
+    public static final Word ZERO = new Word(new byte[LENGTH]);
+
+    private static final BigInteger LIMIT = BigInteger.ONE.shiftLeft(256);
+
+    private final byte[] bytes;
+
+    private Word(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates a word from 32 bytes, copying them.
+     *
+     * @param bytes The big-endian bytes.
+     * @return The word
+     * @throws IllegalArgumentException if bytes is null or not 32 bytes long
+     */
+    public static Word of(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("A word must be " + LENGTH + " bytes");
+        }
+        return new Word(bytes.clone());
+    }
+
+    public static Word of(long value) {
+        if (value == 0) {
+            return ZERO;
+        }
+        byte[] bytes = new byte[LENGTH];
+        for (int i = LENGTH - 1; i >= LENGTH - 8; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return new Word(bytes);
+    }
+
+    /**
+     * Creates a word from an unsigned value.
+     *
+     * @param value The value.
+     * @return The word
+     * @throws IllegalArgumentException if value is null, negative or at least 2^256
+     */
+    public static Word of(BigInteger value) {
+        if (value == null || value.signum() < 0 || value.compareTo(LIMIT) >= 0) {
+            throw new IllegalArgumentException("Value must be between 0 and 2^256 - 1");
+        }
+        byte[] raw = value.toByteArray();
+        byte[] bytes = new byte[LENGTH];
+        int length = Math.min(raw.length, LENGTH);
+        System.arraycopy(raw, raw.length - length, bytes, LENGTH - length, length);
+        return new Word(bytes);
+    }
+
+    // Wraps an array the caller gives up, without copying
+    static Word wrap(byte[] bytes) {
+        return new Word(bytes);
+    }
+
+    public boolean isZero() {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    public BigInteger toBigInteger() {
+        return new BigInteger(1, bytes);
+    }
+
+    // The backing array; callers must not modify it
+    byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Word && Arrays.equals(bytes, ((Word) o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder hex = new StringBuilder("0x");
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
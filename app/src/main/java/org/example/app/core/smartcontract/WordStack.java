@@ -0,0 +1,516 @@
+package org.example.app.core.smartcontract;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * WordStack is the EVM operand stack of 256-bit words, held in one preallocated long array.
+ *
+ * Each slot is four 64-bit limbs, least significant first. Operations work on the slots in
+ * place, so pushing, popping and arithmetic never allocate. Division of operands wider than
+ * 64 bits is schoolbook long division on 32-bit digits (Knuth's algorithm D) in scratch arrays.
+ * Depth 0 is the top of the stack.
+ * Callers check depth and capacity before each operation, as the interpreter does once per
+ * instruction.
+ */
+final class WordStack {
+    static final int MAX_DEPTH = 1024; // EVM stack limit
+    static final int WORD_BYTES = 32;
+    private static final long DIGIT_MASK = 0xFFFFFFFFL; // Low 32 bits, one division digit
+
+    private final long[] limbs = new long[MAX_DEPTH * 4]; // Slot i at limbs[4 * i .. 4 * i + 3]
+    private final long[] product = new long[4];           // Scratch for multiplication
+    private final int[] dividend = new int[9];            // Scratch for division: normalized dividend digits
+    private final int[] divisor = new int[8];             // Scratch for division: normalized divisor digits
+    private final int[] quotient = new int[8];            // Scratch for division: quotient digits
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void push(long value) {
+        int b = size++ << 2;
+        limbs[b] = value;
+        limbs[b + 1] = 0;
+        limbs[b + 2] = 0;
+        limbs[b + 3] = 0;
+    }
+
+    /**
+     * Pushes a big-endian immediate read from code. Bytes past the end of the code read as zero.
+     *
+     * @param code   The bytecode.
+     * @param offset The offset of the first immediate byte.
+     * @param length The number of immediate bytes, 1 to 32.
+     */
+    void pushBytes(byte[] code, int offset, int length) {
+        int b = size++ << 2;
+        limbs[b] = 0;
+        limbs[b + 1] = 0;
+        limbs[b + 2] = 0;
+        limbs[b + 3] = 0;
+        int available = Math.min(length, Math.max(0, code.length - offset));
+        for (int i = 0; i < available; i++) {
+            int bit = (length - 1 - i) << 3;
+            limbs[b + (bit >>> 6)] |= (long) (code[offset + i] & 0xFF) << (bit & 63);
+        }
+    }
+
+    // Pushes a word of four limbs, least significant first, as decoded by CodeAnalysis
+    void push(long[] source, int offset) {
+        System.arraycopy(source, offset, limbs, size++ << 2, 4);
+    }
+
+    void pop() {
+        size--;
+    }
+
+    // DUPn: copies the word at depth n - 1 to the top
+    void dup(int n) {
+        System.arraycopy(limbs, base(n - 1), limbs, size++ << 2, 4);
+    }
+
+    // SWAPn: exchanges the top with the word at depth n
+    void swap(int n) {
+        int a = base(0);
+        int b = base(n);
+        for (int i = 0; i < 4; i++) {
+            long t = limbs[a + i];
+            limbs[a + i] = limbs[b + i];
+            limbs[b + i] = t;
+        }
+    }
+
+    boolean isZero(int depth) {
+        int b = base(depth);
+        return (limbs[b] | limbs[b + 1] | limbs[b + 2] | limbs[b + 3]) == 0;
+    }
+
+    /**
+     * Reads a word as a non-negative long, saturating to Long.MAX_VALUE when it does not fit.
+     * Memory offsets and lengths that saturate cost more gas than any transaction carries.
+     *
+     * @param depth The depth of the word.
+     * @return The value, or Long.MAX_VALUE
+     */
+    long toLong(int depth) {
+        int b = base(depth);
+        if ((limbs[b + 1] | limbs[b + 2] | limbs[b + 3]) != 0 || limbs[b] < 0) {
+            return Long.MAX_VALUE;
+        }
+        return limbs[b];
+    }
+
+    int toLowByte(int depth) {
+        return (int) limbs[base(depth)] & 0xFF;
+    }
+
+    // Binary operations take the top as the first operand and replace the second word with the result
+
+    void add() {
+        int a = base(0);
+        int b = base(1);
+        long carry = 0;
+        for (int i = 0; i < 4; i++) {
+            long x = limbs[a + i];
+            long sum = x + limbs[b + i];
+            long carryOut = Long.compareUnsigned(sum, x) < 0 ? 1 : 0;
+            long total = sum + carry;
+            carryOut |= Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+            limbs[b + i] = total;
+            carry = carryOut;
+        }
+        size--;
+    }
+
+    // Adds a word of four limbs, as decoded by CodeAnalysis, to the top in place
+    void addConstant(long[] source, int offset) {
+        int b = base(0);
+        long carry = 0;
+        for (int i = 0; i < 4; i++) {
+            long x = source[offset + i];
+            long sum = x + limbs[b + i];
+            long carryOut = Long.compareUnsigned(sum, x) < 0 ? 1 : 0;
+            long total = sum + carry;
+            carryOut |= Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+            limbs[b + i] = total;
+            carry = carryOut;
+        }
+    }
+
+    void sub() {
+        int a = base(0);
+        int b = base(1);
+        long borrow = 0;
+        for (int i = 0; i < 4; i++) {
+            long x = limbs[a + i];
+            long y = limbs[b + i];
+            long difference = x - y - borrow;
+            borrow = (Long.compareUnsigned(x, y) < 0 || (borrow == 1 && x == y)) ? 1 : 0;
+            limbs[b + i] = difference;
+        }
+        size--;
+    }
+
+    void mul() {
+        int a = base(0);
+        int b = base(1);
+        long[] r = product;
+        r[0] = 0;
+        r[1] = 0;
+        r[2] = 0;
+        r[3] = 0;
+        for (int i = 0; i < 4; i++) {
+            long x = limbs[a + i];
+            if (x == 0) {
+                continue;
+            }
+            long carry = 0;
+            for (int j = 0; i + j < 4; j++) {
+                long y = limbs[b + j];
+                long low = x * y;
+                long high = Math.unsignedMultiplyHigh(x, y);
+                long sum = low + r[i + j];
+                if (Long.compareUnsigned(sum, low) < 0) {
+                    high++;
+                }
+                long total = sum + carry;
+                if (Long.compareUnsigned(total, sum) < 0) {
+                    high++;
+                }
+                r[i + j] = total;
+                carry = high;
+            }
+        }
+        System.arraycopy(r, 0, limbs, b, 4);
+        size--;
+    }
+
+    void div() {
+        divide(false);
+    }
+
+    void mod() {
+        divide(true);
+    }
+
+    void lt() {
+        setFlag(compare(base(0), base(1)) < 0);
+    }
+
+    void gt() {
+        setFlag(compare(base(0), base(1)) > 0);
+    }
+
+    void eq() {
+        setFlag(compare(base(0), base(1)) == 0);
+    }
+
+    void and() {
+        int a = base(0);
+        int b = base(1);
+        for (int i = 0; i < 4; i++) {
+            limbs[b + i] &= limbs[a + i];
+        }
+        size--;
+    }
+
+    void or() {
+        int a = base(0);
+        int b = base(1);
+        for (int i = 0; i < 4; i++) {
+            limbs[b + i] |= limbs[a + i];
+        }
+        size--;
+    }
+
+    void xor() {
+        int a = base(0);
+        int b = base(1);
+        for (int i = 0; i < 4; i++) {
+            limbs[b + i] ^= limbs[a + i];
+        }
+        size--;
+    }
+
+    // BYTE: byte i of the second word, counting from the most significant, or 0 if i >= 32
+    void byteAt() {
+        long index = toLong(0);
+        int b = base(1);
+        long result = 0;
+        if (index < WORD_BYTES) {
+            int bit = (31 - (int) index) << 3;
+            result = (limbs[b + (bit >>> 6)] >>> (bit & 63)) & 0xFF;
+        }
+        limbs[b] = result;
+        limbs[b + 1] = 0;
+        limbs[b + 2] = 0;
+        limbs[b + 3] = 0;
+        size--;
+    }
+
+    // SHL: the second word shifted left by the top
+    void shl() {
+        long shift = toLong(0);
+        int b = base(1);
+        size--;
+        if (shift >= 256) {
+            setTop(0);
+            return;
+        }
+        int limbShift = (int) shift >>> 6;
+        int bitShift = (int) shift & 63;
+        for (int i = 3; i >= 0; i--) {
+            int from = i - limbShift;
+            long value = from >= 0 ? limbs[b + from] << bitShift : 0;
+            if (bitShift != 0 && from - 1 >= 0) {
+                value |= limbs[b + from - 1] >>> (64 - bitShift);
+            }
+            limbs[b + i] = value;
+        }
+    }
+
+    // SHR: the second word shifted right, logically, by the top
+    void shr() {
+        long shift = toLong(0);
+        int b = base(1);
+        size--;
+        if (shift >= 256) {
+            setTop(0);
+            return;
+        }
+        int limbShift = (int) shift >>> 6;
+        int bitShift = (int) shift & 63;
+        for (int i = 0; i < 4; i++) {
+            int from = i + limbShift;
+            long value = from < 4 ? limbs[b + from] >>> bitShift : 0;
+            if (bitShift != 0 && from + 1 < 4) {
+                value |= limbs[b + from + 1] << (64 - bitShift);
+            }
+            limbs[b + i] = value;
+        }
+    }
+
+    void isZero() {
+        setTop(isZero(0) ? 1 : 0);
+    }
+
+    void not() {
+        int b = base(0);
+        for (int i = 0; i < 4; i++) {
+            limbs[b + i] = ~limbs[b + i];
+        }
+    }
+
+    // Replaces the top with a value
+    void setTop(long value) {
+        int b = base(0);
+        limbs[b] = value;
+        limbs[b + 1] = 0;
+        limbs[b + 2] = 0;
+        limbs[b + 3] = 0;
+    }
+
+    // Replaces the top with the 32 big-endian bytes at an offset
+    void readWord(byte[] source, int offset) {
+        int b = base(0);
+        for (int limb = 0; limb < 4; limb++) {
+            int start = offset + ((3 - limb) << 3);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (source[start + i] & 0xFF);
+            }
+            limbs[b + limb] = value;
+        }
+    }
+
+    // Writes the word at a depth as 32 big-endian bytes
+    void writeWord(byte[] target, int offset, int depth) {
+        int b = base(depth);
+        for (int limb = 0; limb < 4; limb++) {
+            int start = offset + ((3 - limb) << 3);
+            long value = limbs[b + limb];
+            for (int i = 7; i >= 0; i--) {
+                target[start + i] = (byte) value;
+                value >>>= 8;
+            }
+        }
+    }
+
+    BigInteger toBigInteger(int depth) {
+        byte[] bytes = new byte[WORD_BYTES + 1]; // Leading zero keeps the value unsigned
+        writeWord(bytes, 1, depth);
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Formats a word as an unsigned decimal string.
+     *
+     * @param depth The depth of the word.
+     * @return The decimal string
+     */
+    String toDecimalString(int depth) {
+        long value = toLong(depth);
+        return value != Long.MAX_VALUE ? Long.toString(value) : toBigInteger(depth).toString();
+    }
+
+    private void divide(boolean remainder) {
+        int a = base(0);
+        int b = base(1);
+        if (isZero(1)) {
+            size--;
+            return; // Division by zero yields zero, which the second slot already holds
+        }
+        if ((limbs[a + 1] | limbs[a + 2] | limbs[a + 3] | limbs[b + 1] | limbs[b + 2] | limbs[b + 3]) == 0) {
+            long x = limbs[a];
+            long y = limbs[b];
+            limbs[b] = remainder ? Long.remainderUnsigned(x, y) : Long.divideUnsigned(x, y);
+            size--;
+            return;
+        }
+        if (compare(a, b) < 0) {
+            // The quotient is zero and the remainder is the dividend
+            for (int i = 0; i < 4; i++) {
+                limbs[b + i] = remainder ? limbs[a + i] : 0;
+            }
+            size--;
+            return;
+        }
+        int m = digitCount(a);
+        int n = digitCount(b);
+        Arrays.fill(quotient, 0);
+        if (n == 1) {
+            long d = digit(b, 0) & DIGIT_MASK;
+            long rest = 0;
+            for (int i = m - 1; i >= 0; i--) {
+                long current = (rest << 32) | (digit(a, i) & DIGIT_MASK);
+                quotient[i] = (int) Long.divideUnsigned(current, d);
+                rest = Long.remainderUnsigned(current, d);
+            }
+            size--;
+            if (remainder) {
+                setTop(rest);
+            } else {
+                storeDigits(b, quotient);
+            }
+            return;
+        }
+
+        // Normalize so the divisor's top digit has its high bit set, which keeps each quotient
+        // digit estimate at most two too large
+        int shift = Integer.numberOfLeadingZeros(digit(b, n - 1));
+        for (int i = n - 1; i > 0; i--) {
+            divisor[i] = shiftLeft(digit(b, i), digit(b, i - 1), shift);
+        }
+        divisor[0] = digit(b, 0) << shift;
+        dividend[m] = shift == 0 ? 0 : digit(a, m - 1) >>> (32 - shift);
+        for (int i = m - 1; i > 0; i--) {
+            dividend[i] = shiftLeft(digit(a, i), digit(a, i - 1), shift);
+        }
+        dividend[0] = digit(a, 0) << shift;
+
+        long top = divisor[n - 1] & DIGIT_MASK;
+        long next = divisor[n - 2] & DIGIT_MASK;
+        for (int j = m - n; j >= 0; j--) {
+            // Estimate the quotient digit from the top two dividend digits, then correct it
+            long numerator = ((dividend[j + n] & DIGIT_MASK) << 32) | (dividend[j + n - 1] & DIGIT_MASK);
+            long estimate = Long.divideUnsigned(numerator, top);
+            long rest = numerator - estimate * top;
+            while (estimate > DIGIT_MASK || Long.compareUnsigned(estimate * next,
+                    (rest << 32) | (dividend[j + n - 2] & DIGIT_MASK)) > 0) {
+                estimate--;
+                rest += top;
+                if (rest > DIGIT_MASK) {
+                    break;
+                }
+            }
+
+            // Multiply and subtract
+            long borrow = 0;
+            long t;
+            for (int i = 0; i < n; i++) {
+                long p = estimate * (divisor[i] & DIGIT_MASK);
+                t = (dividend[i + j] & DIGIT_MASK) - borrow - (p & DIGIT_MASK);
+                dividend[i + j] = (int) t;
+                borrow = (p >>> 32) - (t >> 32);
+            }
+            t = (dividend[j + n] & DIGIT_MASK) - borrow;
+            dividend[j + n] = (int) t;
+
+            if (t < 0) {
+                // The estimate was one too large: add the divisor back
+                estimate--;
+                long carry = 0;
+                for (int i = 0; i < n; i++) {
+                    t = (dividend[i + j] & DIGIT_MASK) + (divisor[i] & DIGIT_MASK) + carry;
+                    dividend[i + j] = (int) t;
+                    carry = t >>> 32;
+                }
+                dividend[j + n] += (int) carry;
+            }
+            quotient[j] = (int) estimate;
+        }
+
+        size--;
+        if (remainder) {
+            // Unnormalize the remainder, which is the low n digits of the dividend
+            Arrays.fill(quotient, 0);
+            for (int i = 0; i < n - 1; i++) {
+                quotient[i] = shift == 0 ? dividend[i] : (dividend[i] >>> shift) | (dividend[i + 1] << (32 - shift));
+            }
+            quotient[n - 1] = dividend[n - 1] >>> shift;
+        }
+        storeDigits(b, quotient);
+    }
+
+    // Digit i, 32 bits, of the word starting at a limb index
+    private int digit(int base, int i) {
+        return (int) (limbs[base + (i >>> 1)] >>> ((i & 1) << 5));
+    }
+
+    // Number of significant 32-bit digits of a non-zero word
+    private int digitCount(int base) {
+        int i = 7;
+        while (digit(base, i) == 0) {
+            i--;
+        }
+        return i + 1;
+    }
+
+    // Writes eight 32-bit digits, least significant first, to the word starting at a limb index
+    private void storeDigits(int base, int[] digits) {
+        for (int i = 0; i < 4; i++) {
+            limbs[base + i] = (digits[2 * i] & DIGIT_MASK) | ((long) digits[2 * i + 1] << 32);
+        }
+    }
+
+    // A digit shifted left by a normalization shift, taking bits from the digit below it
+    private static int shiftLeft(int high, int low, int shift) {
+        return shift == 0 ? high : (high << shift) | (low >>> (32 - shift));
+    }
+
+    private void setFlag(boolean flag) {
+        size--;
+        setTop(flag ? 1 : 0);
+    }
+
+    private int compare(int a, int b) {
+        for (int i = 3; i >= 0; i--) {
+            int c = Long.compareUnsigned(limbs[a + i], limbs[b + i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    // Index of the least significant limb of the word at a depth
+    private int base(int depth) {
+        return (size - 1 - depth) << 2;
+    }
+}
@@ -1,30 +1,38 @@
 package org.example.app.core.state;
 
-import java.util.LinkedList;
 import java.util.List;
 import org.example.app.core.block.Block; // Add import for Block
+import org.example.app.core.block.ChainIndex;
 
 public class BlockManager {
 
-    private List<Block> blocks;
+    private final ChainIndex blocks;     // Blocks by height and hash, with recent blocks kept decoded
 
     public BlockManager() {
-        this.blocks = new LinkedList<>();
+        this.blocks = new ChainIndex();
     }
 
     // Add a new block to the blockchain
     public void addBlock(Block block) {
-        blocks.add(block);
+        blocks.append(block);
     }
 
     // Get the latest block
     public Block getLatestBlock() {
-        return blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        return blocks.getLatest();
     }
 
     // Get the block at a specific index
     public Block getBlock(int index) {
-        return blocks.get(index);
+        if (!hasBlock(index)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + blocks.size());
+        }
+        return blocks.getByHeight(index);
+    }
+
+    // Get a block by its hash
+    public Block getBlockByHash(String blockHash) {
+        return blocks.getByHash(blockHash);
     }
 
     // Get the total number of blocks
@@ -34,7 +42,7 @@ public class BlockManager {
 
     // Remove the last block
     public Block removeLastBlock() {
-        return blocks.isEmpty() ? null : blocks.remove(blocks.size() - 1);
+        return blocks.removeLast();
     }
 
     // Check if a block exists at a specific index
@@ -47,8 +55,8 @@ public class BlockManager {
         blocks.clear();
     }
 
-    // Get a copy of all blocks
+    // Get all blocks as a read-only list; each block is decoded from the store as it is read
     public List<Block> getAllBlocks() {
-        return new LinkedList<>(blocks);
+        return blocks.blocks();
     }
 }
\ No newline at end of file
@@ -1,33 +1,703 @@
 package org.example.app.core.state;
 
-import java.util.HashMap;
+import org.example.app.core.crypto.Keccak;
+import org.example.app.core.encoder.Rlp;
+import org.example.app.core.storage.kv.KeyValueStore;
+import org.example.app.core.storage.kv.MemoryKeyValueStore;
+import org.example.app.core.storage.kv.WriteBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * MerkleTrie is a hexary Merkle Patricia Trie with Keccak-256 node hashing and RLP node
+ * encoding, so roots match the Ethereum state trie for the same keys and values.
+ *
+ * Updates are copy-on-write along the path from the root to the key, and only the new
+ * nodes on that path are dirty; every untouched subtree keeps its cached reference. So
+ * {@link #getRootHash()} and {@link #commit()} rehash only the paths changed since the
+ * last commit, not the whole trie.
+ *
+ * At commit, the hashed nodes reachable from the new root are written to a {@link KeyValueStore}
+ * under their hash, then detached from the in-memory tree and kept in an LRU node cache keyed
+ * by hash. Nodes hashed by an earlier {@link #getRootHash()} and replaced before the commit
+ * are dropped, not stored. Nodes not in the cache are loaded from the store when a lookup or
+ * update reaches them.
+ *
+ * Values are byte strings and an empty value is absent, as in the Ethereum trie, so putting
+ * an empty value deletes the key.
+ *
+ * Not thread-safe; callers serialize access.
+ */
 public class MerkleTrie {
+    public static final int DEFAULT_NODE_CACHE_SIZE = 100_000; // Default number of cached nodes
+
+    /** Root hash of the empty trie, Keccak-256 of the RLP empty string. */
+    public static final byte[] EMPTY_ROOT = Keccak.keccak256(Rlp.EMPTY_STRING);
 
-    private Map<String, String> trieData;
+    private final KeyValueStore nodeStore;                   // Node hash -> RLP encoding
+    private final NodeCache nodeCache;
+    private final Map<ByteBuffer, byte[]> pendingNodes = new LinkedHashMap<>(); // Hashed but not yet stored
+    private Node root;
+    private long hashedNodeCount;                           // Nodes hashed so far, for monitoring
 
     public MerkleTrie() {
-        this.trieData = new HashMap<>();
+        this(new MemoryKeyValueStore());
+    }
+
+    /**
+     * Creates an empty trie that stores its nodes in a key-value store.
+     *
+     * @param nodeStore The node store.
+     */
+    public MerkleTrie(KeyValueStore nodeStore) {
+        this(nodeStore, null, DEFAULT_NODE_CACHE_SIZE);
+    }
+
+    /**
+     * Opens a trie at a committed root.
+     *
+     * @param nodeStore     The node store holding the trie's nodes.
+     * @param rootHash      The root hash, or null for an empty trie.
+     * @param nodeCacheSize The maximum number of decoded nodes to cache.
+     */
+    public MerkleTrie(KeyValueStore nodeStore, byte[] rootHash, int nodeCacheSize) {
+        if (nodeStore == null) {
+            throw new IllegalArgumentException("Node store cannot be null");
+        }
+        if (nodeCacheSize < 0) {
+            throw new IllegalArgumentException("Node cache size cannot be negative");
+        }
+        this.nodeStore = nodeStore;
+        this.nodeCache = new NodeCache(nodeCacheSize);
+        if (rootHash != null && !Arrays.equals(rootHash, EMPTY_ROOT)) {
+            if (rootHash.length != Keccak.HASH_LENGTH) {
+                throw new IllegalArgumentException("Root hash must be 32 bytes");
+            }
+            this.root = new HashNode(rootHash);
+        }
     }
 
-    // Insert or update a key-value pair in the Merkle Trie
+    // Insert or update a key-value pair in the Merkle Trie; a null or empty value removes the key
     public void put(String key, String value) {
-        trieData.put(key, value);
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        put(utf8(key), utf8(value));
     }
 
     // Retrieve a value by key from the Merkle Trie
     public String get(String key) {
-        return trieData.get(key);
+        byte[] value = get(utf8(key));
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
     }
 
     // Remove a key-value pair from the Merkle Trie
     public void remove(String key) {
-        trieData.remove(key);
+        delete(utf8(key));
     }
 
-    // Get all the data in the trie
+    // Get all the data in the trie, in key order
     public Map<String, String> getAll() {
-        return trieData;
+        Map<String, String> all = new LinkedHashMap<>();
+        collect(root, new byte[0], all);
+        return all;
+    }
+
+    /**
+     * Inserts or replaces a value. An empty value deletes the key.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @throws IllegalArgumentException if key or value is null
+     */
+    public void put(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        if (value.length == 0) {
+            delete(key);
+            return;
+        }
+        root = insert(root, toNibbles(key), 0, value.clone());
+    }
+
+    /**
+     * Retrieves the value for a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not in the trie.
+     */
+    public byte[] get(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        byte[] path = toNibbles(key);
+        Node node = root;
+        int position = 0;
+        while (node != null) {
+            node = resolve(node);
+            if (node instanceof LeafNode leaf) {
+                return matchesAt(leaf.path, path, position) && position + leaf.path.length == path.length
+                        ? leaf.value.clone() : null;
+            } else if (node instanceof ExtensionNode extension) {
+                if (!matchesAt(extension.path, path, position)) {
+                    return null;
+                }
+                position += extension.path.length;
+                node = extension.child;
+            } else {
+                BranchNode branch = (BranchNode) node;
+                if (position == path.length) {
+                    return branch.value != null ? branch.value.clone() : null;
+                }
+                node = branch.children[path[position++]];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deletes a key. Deleting a missing key leaves the trie unchanged.
+     *
+     * @param key The key.
+     */
+    public void delete(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        root = remove(root, toNibbles(key), 0);
+    }
+
+    /**
+     * Computes the root hash, hashing only nodes changed since they were last hashed.
+     *
+     * @return The 32-byte root hash.
+     */
+    public byte[] getRootHash() {
+        if (root == null) {
+            return EMPTY_ROOT.clone();
+        }
+        byte[] reference = reference(root);
+        if (isHashReference(reference)) {
+            return Arrays.copyOfRange(reference, 1, reference.length);
+        }
+        // A root shorter than a hash is still referenced by its hash
+        byte[] hash = Keccak.keccak256(reference);
+        pendingNodes.put(ByteBuffer.wrap(hash), reference);
+        return hash;
+    }
+
+    /**
+     * Hashes the changed nodes, writes those reachable from the root to the node store in
+     * one batch, and moves them from the in-memory tree into the node cache.
+     *
+     * @return The 32-byte root hash.
+     * @throws IOException if the nodes cannot be written.
+     */
+    public byte[] commit() throws IOException {
+        byte[] rootHash = getRootHash();
+        List<Node> reachable = new ArrayList<>();
+        collectInMemory(root, reachable);
+
+        WriteBatch batch = new WriteBatch();
+        for (Node node : reachable) {
+            byte[] encoded = node.hash != null ? pendingNodes.get(ByteBuffer.wrap(node.hash)) : null;
+            if (encoded != null) {
+                batch.put(node.hash, encoded);
+            }
+        }
+        if (root != null && root.hash == null) {
+            // A root shorter than a hash is still stored under its hash
+            batch.put(rootHash, pendingNodes.get(ByteBuffer.wrap(rootHash)));
+        }
+        if (!batch.isEmpty()) {
+            nodeStore.write(batch);
+        }
+        pendingNodes.clear();
+
+        // Replace hashed children with references so each cached node holds only its own data
+        for (Node node : reachable) {
+            node.detachChildren();
+            if (node.hash != null) {
+                nodeCache.put(ByteBuffer.wrap(node.hash), node);
+            }
+        }
+        root = root == null ? null : new HashNode(rootHash);
+        return rootHash;
+    }
+
+    /**
+     * Gets the number of node hashes computed since the trie was created.
+     *
+     * @return The hashed node count
+     */
+    public long getHashedNodeCount() {
+        return hashedNodeCount;
+    }
+
+    // Insertion returns the new node for this position; untouched nodes are shared
+    private Node insert(Node node, byte[] path, int position, byte[] value) {
+        if (node == null) {
+            return new LeafNode(Arrays.copyOfRange(path, position, path.length), value);
+        }
+        Node original = node;
+        node = resolve(node);
+
+        if (node instanceof LeafNode leaf) {
+            int common = commonPrefix(leaf.path, path, position);
+            int remaining = path.length - position;
+            if (common == leaf.path.length && common == remaining) {
+                return Arrays.equals(leaf.value, value) ? original : new LeafNode(leaf.path, value);
+            }
+            BranchNode branch = new BranchNode();
+            if (common == leaf.path.length) {
+                branch.value = leaf.value;
+            } else {
+                branch.children[leaf.path[common]] = new LeafNode(Arrays.copyOfRange(leaf.path, common + 1, leaf.path.length), leaf.value);
+            }
+            if (common == remaining) {
+                branch.value = value;
+            } else {
+                branch.children[path[position + common]] = new LeafNode(Arrays.copyOfRange(path, position + common + 1, path.length), value);
+            }
+            return common > 0 ? new ExtensionNode(Arrays.copyOf(leaf.path, common), branch) : branch;
+        }
+
+        if (node instanceof ExtensionNode extension) {
+            int common = commonPrefix(extension.path, path, position);
+            if (common == extension.path.length) {
+                Node child = insert(extension.child, path, position + common, value);
+                return child == extension.child ? original : new ExtensionNode(extension.path, child);
+            }
+            BranchNode branch = new BranchNode();
+            if (extension.path.length - common == 1) {
+                branch.children[extension.path[common]] = extension.child;
+            } else {
+                branch.children[extension.path[common]] = new ExtensionNode(
+                        Arrays.copyOfRange(extension.path, common + 1, extension.path.length), extension.child);
+            }
+            if (position + common == path.length) {
+                branch.value = value;
+            } else {
+                branch.children[path[position + common]] = new LeafNode(Arrays.copyOfRange(path, position + common + 1, path.length), value);
+            }
+            return common > 0 ? new ExtensionNode(Arrays.copyOf(extension.path, common), branch) : branch;
+        }
+
+        BranchNode branch = (BranchNode) node;
+        if (position == path.length) {
+            return Arrays.equals(branch.value, value) ? original : branch.withValue(value);
+        }
+        Node child = insert(branch.children[path[position]], path, position + 1, value);
+        return child == branch.children[path[position]] ? original : branch.withChild(path[position], child);
+    }
+
+    // Removal returns the node unchanged (same instance) when the key is absent
+    private Node remove(Node node, byte[] path, int position) {
+        if (node == null) {
+            return null;
+        }
+        Node resolved = resolve(node);
+
+        if (resolved instanceof LeafNode leaf) {
+            boolean match = matchesAt(leaf.path, path, position) && position + leaf.path.length == path.length;
+            return match ? null : node;
+        }
+
+        if (resolved instanceof ExtensionNode extension) {
+            if (!matchesAt(extension.path, path, position)) {
+                return node;
+            }
+            Node child = remove(extension.child, path, position + extension.path.length);
+            if (child == extension.child) {
+                return node;
+            }
+            return child == null ? null : prefixNode(extension.path, child);
+        }
+
+        BranchNode branch = (BranchNode) resolved;
+        BranchNode updated;
+        if (position == path.length) {
+            if (branch.value == null) {
+                return node;
+            }
+            updated = branch.withValue(null);
+        } else {
+            int index = path[position];
+            Node child = remove(branch.children[index], path, position + 1);
+            if (child == branch.children[index]) {
+                return node;
+            }
+            updated = branch.withChild(index, child);
+        }
+        return collapse(updated);
+    }
+
+    // A branch left with a single entry is replaced by a leaf or extension
+    private Node collapse(BranchNode branch) {
+        int onlyChild = -1;
+        int entries = branch.value != null ? 1 : 0;
+        for (int i = 0; i < 16; i++) {
+            if (branch.children[i] != null) {
+                onlyChild = i;
+                entries++;
+            }
+        }
+        if (entries > 1) {
+            return branch;
+        }
+        if (entries == 0) {
+            return null;
+        }
+        if (onlyChild < 0) {
+            return new LeafNode(new byte[0], branch.value);
+        }
+        return prefixNode(new byte[]{(byte) onlyChild}, branch.children[onlyChild]);
+    }
+
+    // Joins a path prefix onto a node, merging it into leaves and extensions
+    private Node prefixNode(byte[] prefix, Node child) {
+        Node resolved = resolve(child);
+        if (resolved instanceof LeafNode leaf) {
+            return new LeafNode(concat(prefix, leaf.path), leaf.value);
+        }
+        if (resolved instanceof ExtensionNode extension) {
+            return new ExtensionNode(concat(prefix, extension.path), extension.child);
+        }
+        return new ExtensionNode(prefix, child);
+    }
+
+    private Node resolve(Node node) {
+        if (!(node instanceof HashNode hashNode)) {
+            return node;
+        }
+        ByteBuffer key = ByteBuffer.wrap(hashNode.hash);
+        Node cached = nodeCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] encoded = nodeStore.get(hashNode.hash);
+        if (encoded == null) {
+            byte[] pending = pendingNodes.get(key);
+            if (pending == null) {
+                throw new IllegalStateException("Missing trie node " + toHex(hashNode.hash));
+            }
+            encoded = pending;
+        }
+        Node decoded = decode(Rlp.decode(encoded));
+        if (encoded.length >= Keccak.HASH_LENGTH) {
+            decoded.reference = hashReference(hashNode.hash);
+            decoded.hash = hashNode.hash;
+        }
+        // A root shorter than a hash keeps its inline reference in case it becomes a child
+        nodeCache.put(key, decoded);
+        return decoded;
+    }
+
+    // Returns the RLP reference to a node: its encoding if shorter than 32 bytes, else its hash
+    private byte[] reference(Node node) {
+        if (node.reference != null) {
+            return node.reference;
+        }
+
+        byte[] encoded;
+        if (node instanceof LeafNode leaf) {
+            encoded = Rlp.encodeList(Rlp.encodeString(compactPath(leaf.path, true)), Rlp.encodeString(leaf.value));
+        } else if (node instanceof ExtensionNode extension) {
+            encoded = Rlp.encodeList(Rlp.encodeString(compactPath(extension.path, false)), reference(extension.child));
+        } else {
+            BranchNode branch = (BranchNode) node;
+            byte[][] items = new byte[17][];
+            for (int i = 0; i < 16; i++) {
+                items[i] = branch.children[i] != null ? reference(branch.children[i]) : Rlp.EMPTY_STRING;
+            }
+            items[16] = Rlp.encodeString(branch.value);
+            encoded = Rlp.encodeList(items);
+        }
+
+        hashedNodeCount++;
+        if (encoded.length < Keccak.HASH_LENGTH) {
+            node.reference = encoded;
+        } else {
+            byte[] hash = Keccak.keccak256(encoded);
+            pendingNodes.put(ByteBuffer.wrap(hash), encoded);
+            node.hash = hash;
+            node.reference = hashReference(hash);
+        }
+        return node.reference;
+    }
+
+    private Node decode(Rlp.Item item) {
+        List<Rlp.Item> items = item.getItems();
+        if (items.size() == 17) {
+            BranchNode branch = new BranchNode();
+            for (int i = 0; i < 16; i++) {
+                branch.children[i] = decodeChild(items.get(i));
+            }
+            byte[] value = items.get(16).getBytes();
+            branch.value = value.length > 0 ? value : null;
+            branch.reference = item.getEncoded();
+            return branch;
+        }
+        if (items.size() != 2) {
+            throw new IllegalStateException("Invalid trie node with " + items.size() + " items");
+        }
+
+        byte[] compact = items.get(0).getBytes();
+        boolean leaf = compact.length > 0 && (compact[0] & 0x20) != 0;
+        byte[] path = fromCompactPath(compact);
+        Node node = leaf ? new LeafNode(path, items.get(1).getBytes()) : new ExtensionNode(path, decodeChild(items.get(1)));
+        node.reference = item.getEncoded();
+        return node;
+    }
+
+    private Node decodeChild(Rlp.Item item) {
+        if (item.isList()) {
+            return decode(item); // Inline node shorter than a hash
+        }
+        if (item.getPayloadLength() == 0) {
+            return null;
+        }
+        return new HashNode(item.getBytes());
+    }
+
+    // Collects the loaded nodes under a node, parents before children; stored subtrees are not entered
+    private static void collectInMemory(Node node, List<Node> out) {
+        if (node == null || node instanceof HashNode) {
+            return;
+        }
+        out.add(node);
+        if (node instanceof ExtensionNode extension) {
+            collectInMemory(extension.child, out);
+        } else if (node instanceof BranchNode branch) {
+            for (Node child : branch.children) {
+                collectInMemory(child, out);
+            }
+        }
+    }
+
+    private void collect(Node node, byte[] path, Map<String, String> out) {
+        if (node == null) {
+            return;
+        }
+        node = resolve(node);
+        if (node instanceof LeafNode leaf) {
+            out.put(fromNibbles(concat(path, leaf.path)), new String(leaf.value, StandardCharsets.UTF_8));
+        } else if (node instanceof ExtensionNode extension) {
+            collect(extension.child, concat(path, extension.path), out);
+        } else {
+            BranchNode branch = (BranchNode) node;
+            if (branch.value != null) {
+                out.put(fromNibbles(path), new String(branch.value, StandardCharsets.UTF_8));
+            }
+            for (int i = 0; i < 16; i++) {
+                collect(branch.children[i], concat(path, new byte[]{(byte) i}), out);
+            }
+        }
+    }
+
+    private static byte[] toNibbles(byte[] key) {
+        byte[] nibbles = new byte[key.length * 2];
+        for (int i = 0; i < key.length; i++) {
+            nibbles[2 * i] = (byte) ((key[i] >> 4) & 0x0F);
+            nibbles[2 * i + 1] = (byte) (key[i] & 0x0F);
+        }
+        return nibbles;
+    }
+
+    private static String fromNibbles(byte[] nibbles) {
+        byte[] bytes = new byte[nibbles.length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((nibbles[2 * i] << 4) | nibbles[2 * i + 1]);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Hex-prefix encoding: a flag nibble (2 for leaves, +1 for odd length) packs the path into bytes
+    private static byte[] compactPath(byte[] nibbles, boolean leaf) {
+        boolean odd = (nibbles.length & 1) == 1;
+        int flag = (leaf ? 2 : 0) + (odd ? 1 : 0);
+        byte[] compact = new byte[nibbles.length / 2 + 1];
+        int nibble = 0;
+        if (odd) {
+            compact[0] = (byte) ((flag << 4) | nibbles[0]);
+            nibble = 1;
+        } else {
+            compact[0] = (byte) (flag << 4);
+        }
+        for (int i = 1; i < compact.length; i++, nibble += 2) {
+            compact[i] = (byte) ((nibbles[nibble] << 4) | nibbles[nibble + 1]);
+        }
+        return compact;
+    }
+
+    private static byte[] fromCompactPath(byte[] compact) {
+        if (compact.length == 0) {
+            throw new IllegalStateException("Empty compact path");
+        }
+        boolean odd = (compact[0] & 0x10) != 0;
+        byte[] nibbles = new byte[(compact.length - 1) * 2 + (odd ? 1 : 0)];
+        int nibble = 0;
+        if (odd) {
+            nibbles[nibble++] = (byte) (compact[0] & 0x0F);
+        }
+        for (int i = 1; i < compact.length; i++) {
+            nibbles[nibble++] = (byte) ((compact[i] >> 4) & 0x0F);
+            nibbles[nibble++] = (byte) (compact[i] & 0x0F);
+        }
+        return nibbles;
+    }
+
+    private static int commonPrefix(byte[] nodePath, byte[] path, int position) {
+        int max = Math.min(nodePath.length, path.length - position);
+        int i = 0;
+        while (i < max && nodePath[i] == path[position + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean matchesAt(byte[] nodePath, byte[] path, int position) {
+        return path.length - position >= nodePath.length
+                && Arrays.equals(nodePath, 0, nodePath.length, path, position, position + nodePath.length);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    private static boolean isHashReference(byte[] reference) {
+        return reference.length == Keccak.HASH_LENGTH + 1 && (reference[0] & 0xFF) == 0x80 + Keccak.HASH_LENGTH;
+    }
+
+    private static byte[] hashReference(byte[] hash) {
+        return Rlp.encodeString(hash);
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Trie node. A null reference marks a node as dirty: created since the last hash.
+     */
+    private abstract static class Node {
+        byte[] reference;                       // RLP reference once hashed: inline encoding or hash string
+        byte[] hash;                            // Keccak-256 of the encoding, for nodes stored by hash
+
+        // Replaces in-memory children that are stored by hash with hash references
+        void detachChildren() {
+        }
+
+        static Node detach(Node child) {
+            return child != null && child.hash != null && !(child instanceof HashNode) ? new HashNode(child.hash) : child;
+        }
+    }
+
+    private static final class LeafNode extends Node {
+        final byte[] path;                      // Remaining key nibbles
+        final byte[] value;
+
+        LeafNode(byte[] path, byte[] value) {
+            this.path = path;
+            this.value = value;
+        }
+    }
+
+    private static final class ExtensionNode extends Node {
+        final byte[] path;                      // Shared key nibbles, never empty
+        Node child;
+
+        ExtensionNode(byte[] path, Node child) {
+            this.path = path;
+            this.child = child;
+        }
+
+        @Override
+        void detachChildren() {
+            child = detach(child);
+        }
+    }
+
+    private static final class BranchNode extends Node {
+        final Node[] children = new Node[16];
+        byte[] value;
+
+        BranchNode withChild(int index, Node child) {
+            BranchNode copy = copy();
+            copy.children[index] = child;
+            return copy;
+        }
+
+        BranchNode withValue(byte[] value) {
+            BranchNode copy = copy();
+            copy.value = value;
+            return copy;
+        }
+
+        private BranchNode copy() {
+            BranchNode copy = new BranchNode();
+            System.arraycopy(children, 0, copy.children, 0, 16);
+            copy.value = value;
+            return copy;
+        }
+
+        @Override
+        void detachChildren() {
+            for (int i = 0; i < 16; i++) {
+                children[i] = detach(children[i]);
+            }
+        }
+    }
+
+    /**
+     * Reference to a stored node that has not been loaded.
+     */
+    private static final class HashNode extends Node {
+        HashNode(byte[] hash) {
+            this.hash = hash;
+            this.reference = hashReference(hash);
+        }
+    }
+
+    /**
+     * LRU cache of decoded nodes keyed by hash.
+     */
+    private static final class NodeCache extends LinkedHashMap<ByteBuffer, Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        NodeCache(int maxEntries) {
+            super(Math.min(maxEntries, 1024), 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Node> eldest) {
+            return size() > maxEntries;
+        }
     }
 }
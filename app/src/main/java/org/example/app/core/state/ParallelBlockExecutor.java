@@ -0,0 +1,292 @@
+package org.example.app.core.state;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Executes a block's transactions optimistically on several threads, in the style of Block-STM,
+ * with a result identical to executing them one after another in block order.
+ *
+ * Each transaction runs against a multi-version view of the state: a read of a key sees the
+ * latest value written by a lower-indexed transaction that has finished, or the base state if
+ * there is none. Every execution records the version of each key it read and publishes its
+ * writes under its own index. A commit pass then walks the block in order and re-validates
+ * each read set; a transaction whose reads are stale is re-executed in place, where all lower
+ * transactions are already final. Transactions that touch disjoint keys are therefore executed
+ * once, in parallel, and only conflicting ones are executed again.
+ *
+ * Values handed to a transaction by {@link Context#read} are shared and must not be modified;
+ * a transaction changes a key by writing a new value.
+ *
+ * @param <K> The key type, such as an account address.
+ * @param <V> The value type; values are never null.
+ */
+final class ParallelBlockExecutor<K, V> {
+    private static final Logger logger = Logger.getLogger(ParallelBlockExecutor.class.getName());
+
+    private static final long BASE_VERSION = -1L; // Version of a value read from the base state
+
+    private final ExecutorService pool;          // Runs speculative workers besides the caller
+    private final int parallelism;               // Threads executing transactions, including the caller
+    private final AtomicLong executionCount;     // Transaction executions, including re-executions
+    private final AtomicLong reexecutionCount;   // Executions repeated because of a conflict
+
+    /**
+     * A transaction body, run once per incarnation.
+     */
+    @FunctionalInterface
+    interface Task<K, V> {
+        void execute(int index, Context<K, V> context);
+    }
+
+    /**
+     * Constructor to initialize a ParallelBlockExecutor.
+     *
+     * @param pool        The pool used for speculative workers.
+     * @param parallelism The number of threads, including the caller, that execute transactions.
+     * @throws IllegalArgumentException if pool is null or parallelism is not positive
+     */
+    ParallelBlockExecutor(ExecutorService pool, int parallelism) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.executionCount = new AtomicLong();
+        this.reexecutionCount = new AtomicLong();
+    }
+
+    /**
+     * Executes count transactions and returns their final write sets in block order.
+     * The base state is only read, so applying the write sets in order is left to the caller.
+     * An exception thrown by a transaction that still fails once all lower transactions are
+     * final is rethrown, as it would be by sequential execution.
+     *
+     * @param count The number of transactions.
+     * @param base  Reads a key from the state before the block; returns null for absent keys.
+     * @param task  Executes the transaction at an index.
+     * @return The write set of each transaction, in block order and key write order
+     */
+    List<Map<K, V>> execute(int count, Function<K, V> base, Task<K, V> task) {
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        Run run = new Run(count, base, task);
+
+        // Speculative phase: workers claim transactions in block order, so most reads
+        // of earlier transactions' writes already see their final values
+        int workers = Math.min(parallelism, count) - 1;
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(pool.submit(run::speculate));
+        }
+        run.speculate();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing transactions", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Speculative worker failed", e.getCause());
+            }
+        }
+
+        // Commit phase: validate in block order, re-executing transactions with stale reads
+        List<Map<K, V>> writeSets = new ArrayList<>(count);
+        int reexecuted = 0;
+        for (int index = 0; index < count; index++) {
+            Context<K, V> context = run.contexts.get(index);
+            if (context == null || context.failure != null || !run.validate(context)) {
+                int incarnation = context == null ? 0 : context.incarnation + 1;
+                context = run.executeIncarnation(index, incarnation);
+                if (context.failure != null) {
+                    throw context.failure;
+                }
+                reexecuted++;
+            }
+            writeSets.add(Collections.unmodifiableMap(context.writes));
+        }
+        reexecutionCount.addAndGet(reexecuted);
+        if (reexecuted > 0) {
+            logger.fine("Re-executed " + reexecuted + " of " + count + " transactions after conflicts");
+        }
+        return writeSets;
+    }
+
+    long getExecutionCount() {
+        return executionCount.get();
+    }
+
+    long getReexecutionCount() {
+        return reexecutionCount.get();
+    }
+
+    /**
+     * The multi-version state and per-transaction results of one block.
+     */
+    private final class Run {
+        private final int count;
+        private final Function<K, V> base;
+        private final Task<K, V> task;
+        private final ConcurrentMap<K, ConcurrentSkipListMap<Integer, Versioned<V>>> versions;
+        private final AtomicReferenceArray<Context<K, V>> contexts; // Latest finished incarnation per transaction
+        private final AtomicInteger nextIndex;      // Next transaction to speculate
+
+        Run(int count, Function<K, V> base, Task<K, V> task) {
+            this.count = count;
+            this.base = base;
+            this.task = task;
+            this.versions = new ConcurrentHashMap<>();
+            this.contexts = new AtomicReferenceArray<>(count);
+            this.nextIndex = new AtomicInteger();
+        }
+
+        void speculate() {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < count) {
+                executeIncarnation(index, 0);
+            }
+        }
+
+        // Runs one incarnation and publishes its writes, replacing those of the previous one
+        Context<K, V> executeIncarnation(int index, int incarnation) {
+            Context<K, V> context = new Context<>(this::readVersioned, index, incarnation);
+            executionCount.incrementAndGet();
+            try {
+                task.execute(index, context);
+            } catch (RuntimeException e) {
+                // Speculative state may be inconsistent; the commit pass decides whether this is real
+                context.failure = e;
+                context.writes.clear();
+            }
+
+            Context<K, V> previous = contexts.get(index);
+            if (previous != null) {
+                for (K key : previous.writes.keySet()) {
+                    if (!context.writes.containsKey(key)) {
+                        versions.get(key).remove(index);
+                    }
+                }
+            }
+            for (Map.Entry<K, V> write : context.writes.entrySet()) {
+                versions.computeIfAbsent(write.getKey(), k -> new ConcurrentSkipListMap<>())
+                        .put(index, new Versioned<>(version(index, incarnation), write.getValue()));
+            }
+            contexts.set(index, context);
+            return context;
+        }
+
+        // Latest value written below index, or the base value
+        Versioned<V> readVersioned(K key, int index) {
+            ConcurrentSkipListMap<Integer, Versioned<V>> chain = versions.get(key);
+            if (chain != null) {
+                Map.Entry<Integer, Versioned<V>> entry = chain.lowerEntry(index);
+                if (entry != null) {
+                    return entry.getValue();
+                }
+            }
+            return new Versioned<>(BASE_VERSION, base.apply(key));
+        }
+
+        boolean validate(Context<K, V> context) {
+            for (Map.Entry<K, Versioned<V>> read : context.reads.entrySet()) {
+                ConcurrentSkipListMap<Integer, Versioned<V>> chain = versions.get(read.getKey());
+                Map.Entry<Integer, Versioned<V>> entry = chain == null ? null : chain.lowerEntry(context.index);
+                long current = entry == null ? BASE_VERSION : entry.getValue().version;
+                if (current != read.getValue().version) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static long version(int index, int incarnation) {
+        return ((long) index << 32) | incarnation;
+    }
+
+    @FunctionalInterface
+    private interface VersionedReader<K, V> {
+        Versioned<V> read(K key, int index);
+    }
+
+    private record Versioned<V>(long version, V value) {
+    }
+
+    /**
+     * The view of the state seen by one execution of one transaction.
+     */
+    static final class Context<K, V> {
+        private final VersionedReader<K, V> reader;
+        private final int index;
+        private final int incarnation;
+        private final Map<K, Versioned<V>> reads;   // First value seen per key, with its version
+        private final Map<K, V> writes;             // Values written, in write order
+        private RuntimeException failure;           // Set if the execution threw
+
+        private Context(VersionedReader<K, V> reader, int index, int incarnation) {
+            this.reader = reader;
+            this.index = index;
+            this.incarnation = incarnation;
+            this.reads = new HashMap<>();
+            this.writes = new LinkedHashMap<>();
+        }
+
+        /**
+         * Reads a key: this transaction's own write if there is one, otherwise the value
+         * before this transaction. Repeated reads of a key return the same value.
+         *
+         * @param key The key.
+         * @return The value, or null if absent
+         */
+        V read(K key) {
+            if (writes.containsKey(key)) {
+                return writes.get(key);
+            }
+            return reads.computeIfAbsent(key, k -> reader.read(k, index)).value;
+        }
+
+        /**
+         * Checks whether this transaction has written a key.
+         *
+         * @param key The key.
+         * @return True if the key was written
+         */
+        boolean hasWritten(K key) {
+            return writes.containsKey(key);
+        }
+
+        /**
+         * Writes a key. The value must not be changed once the transaction finishes.
+         *
+         * @param key   The key.
+         * @param value The new value.
+         * @throws IllegalArgumentException if value is null
+         */
+        void write(K key, V value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value cannot be null");
+            }
+            writes.put(key, value);
+        }
+    }
+}
@@ -1,33 +1,89 @@
 package org.example.app.core.state;
 
-import java.util.HashMap;
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+import org.example.app.core.storage.kv.KeyValueStore;
+import org.example.app.core.storage.kv.MemoryKeyValueStore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class StateDB {
 
-    private Map<String, StateObject> stateDatabase;
+    // State objects are stored under their UTF-8 address, encoded with StateObject.writeTo
+    private final KeyValueStore store;
+    private final BinaryWriter writer = new BinaryWriter();   // Guarded by this
 
     public StateDB() {
-        this.stateDatabase = new HashMap<>();
+        this(new MemoryKeyValueStore());
+    }
+
+    /**
+     * Creates a state database on top of a key-value store, such as an
+     * {@link org.example.app.core.storage.kv.LsmKeyValueStore} for state that does not fit on-heap.
+     *
+     * @param store The backing store.
+     */
+    public StateDB(KeyValueStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Key-value store cannot be null");
+        }
+        this.store = store;
     }
 
     // Add or update a state object in the database
     public void put(String address, StateObject stateObject) {
-        stateDatabase.put(address, stateObject);
+        byte[] value;
+        synchronized (this) {
+            stateObject.writeTo(writer.reset());
+            value = writer.toByteArray();
+        }
+        try {
+            store.put(key(address), value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write state for " + address, e);
+        }
     }
 
     // Retrieve a state object by its address
     public StateObject get(String address) {
-        return stateDatabase.get(address);
+        byte[] value = store.get(key(address));
+        return value != null ? StateObject.readFrom(new BinaryReader(value)) : null;
     }
 
     // Remove a state object from the database
     public void remove(String address) {
-        stateDatabase.remove(address);
+        try {
+            store.delete(key(address));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to remove state for " + address, e);
+        }
     }
 
-    // Get all state objects in the database
+    // Get a snapshot of all state objects in the database, in address order
     public Map<String, StateObject> getAll() {
-        return stateDatabase;
+        Map<String, StateObject> all = new LinkedHashMap<>();
+        Iterator<Map.Entry<byte[], byte[]>> entries = store.scan(null, null);
+        while (entries.hasNext()) {
+            Map.Entry<byte[], byte[]> entry = entries.next();
+            all.put(new String(entry.getKey(), StandardCharsets.UTF_8),
+                    StateObject.readFrom(new BinaryReader(entry.getValue())));
+        }
+        return all;
+    }
+
+    // Get the backing key-value store
+    public KeyValueStore getStore() {
+        return store;
+    }
+
+    private static byte[] key(String address) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        return address.getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -3,6 +3,7 @@ package org.example.app.core.state;
 import java.util.HashMap;
 import java.util.Map;
 import java.math.BigInteger; // Add import for BigInteger
+import org.example.app.core.storage.kv.KeyValueStore;
 
 public class StateManager {
     private StateDB stateDB;
@@ -11,6 +12,11 @@ public class StateManager {
         this.stateDB = stateDB;
     }
 
+    // Create a state manager whose state lives in a key-value store
+    public StateManager(KeyValueStore store) {
+        this(new StateDB(store));
+    }
+
     // Update a state object in the database
     public void updateState(String address, BigInteger newBalance, byte[] newCode) {
         StateObject currentState = stateDB.get(address);
@@ -1,5 +1,8 @@
 package org.example.app.core.state;
 
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
 import java.math.BigInteger;
 
 public class StateObject {
@@ -14,6 +17,28 @@ public class StateObject {
         this.code = code;
     }
 
+    /**
+     * Writes this state object in the compact binary encoding.
+     *
+     * @param writer The writer to append to.
+     */
+    public void writeTo(BinaryWriter writer) {
+        writer.writeString(address);
+        writer.writeBigInteger(balance);
+        writer.writeNullableBytes(code);
+    }
+
+    /**
+     * Reads a state object written by {@link #writeTo(BinaryWriter)}.
+     *
+     * @param reader The reader positioned at the state object.
+     * @return The decoded state object.
+     * @throws IllegalArgumentException if the input is malformed
+     */
+    public static StateObject readFrom(BinaryReader reader) {
+        return new StateObject(reader.readString(), reader.readBigInteger(), reader.readNullableBytes());
+    }
+
     // Getters and Setters
     public String getAddress() {
         return address;
@@ -2,15 +2,68 @@ package org.example.app.core.state;
 
 import org.example.app.core.block.Block;
 import org.example.app.core.block.Transaction;
+import org.example.app.core.crypto.Keccak;
+import org.example.app.core.encoder.Rlp;
+import org.example.app.core.smartcontract.CodeCache;
+import org.example.app.core.smartcontract.Evm;
+import org.example.app.core.smartcontract.EvmState;
+import org.example.app.core.smartcontract.StorageSlot;
+import org.example.app.core.types.Address;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.io.IOException;
 import java.math.BigInteger;
 
 public class StateTransition {
     private Map<String, AccountState> worldState;
+    private final MerkleTrie stateTrie;          // keccak(address) -> RLP account, committed per block
+    private final Set<String> dirtyAccounts;     // Accounts changed since the last state root
+    private final ParallelBlockExecutor<String, AccountState> executor; // Optimistic parallel transaction execution
+    private final ExecutorService pool;          // Runs transactions and storage prefetches
+    private final EvmState evmState;             // Contract code and storage, committed per block
+    private final CodeCache codeCache;           // Contract analyses, shared across blocks
 
     public StateTransition() {
+        this(new MerkleTrie());
+    }
+
+    public StateTransition(MerkleTrie stateTrie) {
+        this(stateTrie, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    // Executes transactions on up to parallelism threads, including the caller, using the given pool
+    public StateTransition(MerkleTrie stateTrie, ExecutorService pool, int parallelism) {
+        this(stateTrie, pool, parallelism, new EvmState());
+    }
+
+    /**
+     * Constructor to initialize a StateTransition whose contracts run against a given state.
+     *
+     * @param stateTrie   The trie of account states.
+     * @param pool        The pool that executes transactions and prefetches storage slots.
+     * @param parallelism The number of threads, including the caller, that execute transactions.
+     * @param evmState    The contract state, for example one over a store on disk.
+     * @throws IllegalArgumentException if evmState is null
+     */
+    public StateTransition(MerkleTrie stateTrie, ExecutorService pool, int parallelism, EvmState evmState) {
+        if (evmState == null) {
+            throw new IllegalArgumentException("EVM state cannot be null");
+        }
         this.worldState = new ConcurrentHashMap<>();
+        this.stateTrie = stateTrie;
+        this.dirtyAccounts = new LinkedHashSet<>();
+        this.executor = new ParallelBlockExecutor<>(pool, parallelism);
+        this.pool = pool;
+        this.evmState = evmState;
+        this.codeCache = new CodeCache();
     }
 
     public void applyStateTransition(Block block) {
@@ -19,15 +72,25 @@ public class StateTransition {
             throw new IllegalStateException("Invalid state transition");
         }
 
-        // 2. Process each transaction in the block
-        for (Transaction tx : block.getTransactions()) {
-            processTransaction(tx);
+        // 2. Process the transactions in parallel; conflicting ones are re-executed
+        // in block order, so the result equals processing them one after another
+        List<Transaction> transactions = block.getTransactions();
+        List<Map<String, AccountState>> writeSets = executor.execute(transactions.size(), worldState::get,
+                (index, context) -> processTransaction(transactions.get(index), context));
+        for (Map<String, AccountState> writes : writeSets) {
+            writes.forEach((address, state) -> {
+                dirtyAccounts.add(address);
+                worldState.put(address, state);
+            });
         }
 
-        // 3. Apply block rewards
+        // 3. Run contract code in block order, with the storage it is expected to touch prefetched
+        executeContracts(transactions);
+
+        // 4. Apply block rewards
         applyBlockReward(block.getMiner());
 
-        // 4. Update state root
+        // 5. Update state root
         updateStateRoot(block);
     }
 
@@ -68,25 +131,25 @@ public class StateTransition {
         return true;
     }
 
-    private void processTransaction(Transaction tx) {
+    private void processTransaction(Transaction tx, ParallelBlockExecutor.Context<String, AccountState> context) {
         // Convert transaction values to BigInteger
         BigInteger txValue = convertToBigInteger(tx.getValue());
         BigInteger txFee = convertToBigInteger(tx.getFee());
 
         // Update sender's account
-        AccountState senderState = worldState.computeIfAbsent(tx.getSender(), k -> new AccountState());
+        AccountState senderState = touchAccount(context, tx.getSender());
         senderState.decreaseBalance(txValue.add(txFee));
         senderState.incrementNonce();
 
-        // Update recipient's account
-        AccountState recipientState = worldState.computeIfAbsent(tx.getRecipient(), k -> new AccountState());
-        recipientState.increaseBalance(txValue);
+        // Update recipient's account; a contract creation has none
+        if (tx.getRecipient() != null) {
+            AccountState recipientState = touchAccount(context, tx.getRecipient());
+            recipientState.increaseBalance(txValue);
+        }
 
         // Handle contract creation or execution if necessary
         if (tx.isContractCreation()) {
-            createContract(tx);
-        } else if (tx.isContractCall()) {
-            executeContract(tx);
+            createContract(tx, context);
         }
     }
 
@@ -113,7 +176,7 @@ public class StateTransition {
 
     private void applyBlockReward(String minerAddress) {
         BigInteger blockReward = BigInteger.valueOf(2000000000000000000L); // 2 ETH reward
-        AccountState minerState = worldState.computeIfAbsent(minerAddress, k -> new AccountState());
+        AccountState minerState = touchAccount(minerAddress);
         minerState.increaseBalance(blockReward);
     }
 
@@ -124,9 +187,44 @@ public class StateTransition {
     }
 
     private byte[] calculateStateRoot() {
-        // Implementation of Merkle Patricia Trie root calculation
-        // This is a simplified version - in practice, you'd use a proper MPT implementation
-        return new byte[32]; // Placeholder
+        // Only accounts touched by this block are rewritten, so only their trie paths are rehashed
+        for (String address : dirtyAccounts) {
+            AccountState state = worldState.get(address);
+            byte[] key = Keccak.keccak256(address.getBytes(StandardCharsets.UTF_8));
+            if (state == null) {
+                stateTrie.delete(key);
+            } else {
+                stateTrie.put(key, state.encode());
+            }
+        }
+        dirtyAccounts.clear();
+        try {
+            return stateTrie.commit();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to commit state trie", e);
+        }
+    }
+
+    // Get an account for modification, creating it if needed, and mark it for the next state root
+    private AccountState touchAccount(String address) {
+        dirtyAccounts.add(address);
+        return worldState.computeIfAbsent(address, k -> new AccountState());
+    }
+
+    // Get a transaction-private copy of an account for modification, creating it if needed
+    private static AccountState touchAccount(ParallelBlockExecutor.Context<String, AccountState> context,
+                                             String address) {
+        AccountState state = context.read(address);
+        if (!context.hasWritten(address)) {
+            state = state == null ? new AccountState() : state.copy();
+            context.write(address, state);
+        }
+        return state;
+    }
+
+    // Get the current state root without committing
+    public byte[] getStateRoot() {
+        return stateTrie.getRootHash();
     }
 
     // Helper class for account state
@@ -143,6 +241,15 @@ public class StateTransition {
             this.codeHash = new byte[32];
         }
 
+        public AccountState copy() {
+            AccountState copy = new AccountState();
+            copy.balance = balance;
+            copy.nonce = nonce;
+            copy.storageRoot = storageRoot;
+            copy.codeHash = codeHash;
+            return copy;
+        }
+
         public void increaseBalance(BigInteger amount) {
             this.balance = this.balance.add(amount);
         }
@@ -162,26 +269,59 @@ public class StateTransition {
         public long getNonce() {
             return nonce;
         }
+
+        // RLP [nonce, balance, storageRoot, codeHash], the account value stored in the state trie
+        public byte[] encode() {
+            return Rlp.encodeList(Rlp.encodeLong(nonce), Rlp.encodeBigInteger(balance),
+                    Rlp.encodeString(storageRoot), Rlp.encodeString(codeHash));
+        }
     }
 
-    private void createContract(Transaction tx) {
+    private void createContract(Transaction tx, ParallelBlockExecutor.Context<String, AccountState> context) {
         // Contract creation logic
-        byte[] contractAddress = generateContractAddress(tx.getSender(), tx.getNonce());
+        String contractAddress = generateContractAddress(tx.getSender(), tx.getNonce());
         AccountState contractState = new AccountState();
         contractState.codeHash = generateCodeHash(tx.getData());
-        worldState.put(new String(contractAddress), contractState);
+        context.write(contractAddress, contractState);
     }
 
-    private void executeContract(Transaction tx) {
-        // Contract execution logic
-        // This would involve running the EVM
-        // Simplified implementation
+    // Installs created code and runs contract calls; the EVM state is not thread-safe, so this is sequential
+    private void executeContracts(List<Transaction> transactions) {
+        List<Transaction> calls = new ArrayList<>();
+        List<byte[]> codes = new ArrayList<>();
+        Set<StorageSlot> slots = new LinkedHashSet<>();
+        for (Transaction tx : transactions) {
+            if (tx.isContractCreation()) {
+                evmState.getAccount(generateContractAddress(tx.getSender(), tx.getNonce())).setCode(tx.getData());
+            } else if (tx.isContractCall() && evmState.hasAccount(tx.getRecipient())) {
+                byte[] code = evmState.getAccount(tx.getRecipient()).getCode();
+                if (code != null && code.length > 0) {
+                    calls.add(tx);
+                    codes.add(code);
+                    slots.addAll(codeCache.predictStorageSlots(tx.getRecipient(), code));
+                }
+            }
+        }
+        evmState.prefetch(slots, pool);
+
+        Evm evm = new Evm(evmState, codeCache);
+        for (int i = 0; i < calls.size(); i++) {
+            try {
+                evm.execute(codes.get(i), calls.get(i));
+            } catch (RuntimeException e) {
+                // The EVM has logged the failure and reverted the call; the block keeps its transfers
+            }
+            evmState.endTransaction();
+        }
+        evmState.endBlock();
     }
 
-    private byte[] generateContractAddress(String sender, long nonce) {
-        // Simple contract address generation
-        // In practice, this would use RLP encoding and Keccak-256
-        return new byte[20];
+    // The last 20 bytes of keccak(RLP [sender, nonce]), as hex, so each creation gets its own address
+    static String generateContractAddress(String sender, long nonce) {
+        byte[] hash = Keccak.keccak256(Rlp.encodeList(
+                Rlp.encodeString(sender.getBytes(StandardCharsets.UTF_8)), Rlp.encodeLong(nonce)));
+        return Address.fromBytes(Arrays.copyOfRange(hash, hash.length - Address.ADDRESS_LENGTH, hash.length))
+                .toString();
     }
 
     private byte[] generateCodeHash(byte[] code) {
@@ -0,0 +1,598 @@
+package org.example.app.core.storage;
+
+import org.example.app.core.block.Block;
+import org.example.app.core.block.BlockView;
+import org.example.app.core.config.StorageConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * MappedBlockStore is a file-backed {@link Storage} that appends encoded blocks to
+ * memory-mapped segment files under {@code <dataDir>/blocks}.
+ *
+ * Each record is a 9-byte header (payload length, CRC32C of flags and payload, flags)
+ * followed by the canonical block encoding, optionally deflated. Removals append a
+ * tombstone record, so segments are never rewritten. Only the hash and height indexes
+ * are kept on-heap; block reads wrap the mapped bytes in a {@link BlockView}, and a
+ * bounded LRU of decoded blocks sits in front of them.
+ *
+ * On open every segment is scanned to rebuild the indexes. Scanning stops at the first
+ * empty or invalid record, so a record torn by a crash is discarded and overwritten
+ * by the next append. Appends reach the page cache immediately and survive a process
+ * crash; call {@link #sync()} to force them to disk.
+ *
+ * StorageConfig is honoured as follows: dataDir is the root directory, writeBuffer (MB)
+ * is the size of each mapped segment, cacheSize (MB) bounds the decoded-block cache by
+ * encoded size, and compression deflates records when that makes them smaller.
+ */
+public class MappedBlockStore implements Storage, Closeable {
+    private static final Logger logger = Logger.getLogger(MappedBlockStore.class.getName());
+
+    static final String SEGMENT_DIRECTORY = "blocks";
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".dat";
+    static final int RECORD_HEADER_SIZE = 9;    // int length, int CRC32C, byte flags
+
+    private static final byte FLAG_COMPRESSED = 0x01;
+    private static final byte FLAG_TOMBSTONE = 0x02;
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final Path directory;
+    private final int segmentSize;              // Capacity of each new segment in bytes
+    private final boolean compression;
+    private final BlockCache cache;
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>(); // id -> segment
+    private final Map<String, Long> hashIndex = new ConcurrentHashMap<>();          // hash -> record position
+    private final ConcurrentSkipListMap<Long, Long> heightIndex = new ConcurrentSkipListMap<>(); // number -> record position
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32C writeChecksum = new CRC32C();
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private Segment active;                     // Segment receiving appends, guarded by this
+    private volatile boolean closed;
+
+    /**
+     * Opens the store described by a storage configuration, recovering any existing segments.
+     *
+     * @param config The storage configuration.
+     * @throws IOException if the data directory or a segment cannot be opened
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    public MappedBlockStore(StorageConfig config) throws IOException {
+        if (config == null) {
+            throw new IllegalArgumentException("Storage config cannot be null");
+        }
+        if (config.getDataDir() == null || config.getDataDir().isEmpty()) {
+            throw new IllegalArgumentException("Data directory cannot be empty");
+        }
+        if (config.getWriteBuffer() <= 0 || config.getWriteBuffer() * MEGABYTE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Write buffer must be between 1 and 2047 MB");
+        }
+        if (config.getCacheSize() < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+
+        this.directory = Paths.get(config.getDataDir(), SEGMENT_DIRECTORY);
+        this.segmentSize = (int) (config.getWriteBuffer() * MEGABYTE);
+        this.compression = config.isCompression();
+        this.cache = new BlockCache(config.getCacheSize() * MEGABYTE);
+        recover();
+    }
+
+    /**
+     * Appends a block to the active segment and indexes it by hash and height.
+     *
+     * @param block The block to store.
+     * @throws IOException if a new segment cannot be created
+     */
+    @Override
+    public synchronized void put(Block block) throws IOException {
+        if (block == null) {
+            throw new IllegalArgumentException("Block cannot be null");
+        }
+        if (block.getHash() == null) {
+            throw new IllegalArgumentException("Block hash cannot be null");
+        }
+        ensureOpen();
+
+        long position = appendBlock(block.serialize());
+        cache.remove(block.getHash());
+        index(block.getHash(), block.getNumber(), position);
+    }
+
+    /**
+     * Appends an encoded block without indexing it, for callers that keep their own index
+     * of record positions. The record is compressed like any other.
+     *
+     * @param encoded The canonical block encoding.
+     * @return The record position, to pass to {@link #getViewAt(long)}
+     * @throws IOException if a new segment cannot be created
+     * @throws IllegalArgumentException if encoded is null or empty
+     */
+    public synchronized long appendEncoded(byte[] encoded) throws IOException {
+        if (encoded == null || encoded.length == 0) {
+            throw new IllegalArgumentException("Encoded block cannot be null or empty");
+        }
+        ensureOpen();
+        return appendBlock(encoded);
+    }
+
+    /**
+     * Retrieves a block by its hash. The block's transactions are decoded on first access.
+     *
+     * @param hash The hash of the block to retrieve.
+     * @return The block with the given hash, or null if not found.
+     */
+    @Override
+    public Block get(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Block block = cache.get(hash);
+        if (block != null) {
+            return block;
+        }
+
+        Long position = hashIndex.get(hash);
+        if (position == null) {
+            return null;
+        }
+        BlockView view = readView(position);
+        if (view == null) {
+            return null;
+        }
+        block = view.toBlock();
+        cache.put(hash, block, view.getEncodedSize());
+        return block;
+    }
+
+    /**
+     * Retrieves a read-only view of a stored block without decoding it. For uncompressed
+     * records the view shares the mapped segment bytes.
+     *
+     * @param hash The hash of the block.
+     * @return The block view, or null if not found.
+     */
+    public BlockView getView(String hash) {
+        Long position = hash != null ? hashIndex.get(hash) : null;
+        return position != null ? readView(position) : null;
+    }
+
+    /**
+     * Retrieves a read-only view of the block record at a position returned by
+     * {@link #appendEncoded(byte[])}, without decoding it.
+     *
+     * @param position The record position.
+     * @return The block view, or null if the record's segment no longer exists.
+     */
+    public BlockView getViewAt(long position) {
+        return readView(position);
+    }
+
+    /**
+     * Retrieves the most recently stored block at a height.
+     *
+     * @param number The block number.
+     * @return The block, or null if no block is stored at that height.
+     */
+    public Block getByNumber(long number) {
+        Long position = heightIndex.get(number);
+        BlockView view = position != null ? readView(position) : null;
+        return view != null ? get(view.getHash()) : null;
+    }
+
+    /**
+     * Gets the highest stored block number.
+     *
+     * @return The highest block number, or -1 if the store is empty.
+     */
+    public long getLatestNumber() {
+        Map.Entry<Long, Long> last = heightIndex.lastEntry();
+        return last != null ? last.getKey() : -1;
+    }
+
+    /**
+     * Removes a block by appending a tombstone record. The block's bytes stay in its
+     * segment until the segment is deleted.
+     *
+     * @param hash The hash of the block to remove.
+     * @throws IOException if a new segment cannot be created
+     */
+    @Override
+    public synchronized void remove(String hash) throws IOException {
+        ensureOpen();
+        if (hash == null || !hashIndex.containsKey(hash)) {
+            return;
+        }
+        append(hash.getBytes(StandardCharsets.UTF_8), FLAG_TOMBSTONE);
+        unindex(hash);
+    }
+
+    @Override
+    public boolean contains(String hash) {
+        return hash != null && hashIndex.containsKey(hash);
+    }
+
+    /**
+     * Deletes every segment and clears the indexes and cache.
+     *
+     * @throws IOException if a segment file cannot be deleted
+     */
+    @Override
+    public synchronized void clear() throws IOException {
+        ensureOpen();
+        hashIndex.clear();
+        heightIndex.clear();
+        cache.clear();
+        active = null;
+        List<Segment> removed = new ArrayList<>(segments.values());
+        segments.clear();
+        for (Segment segment : removed) {
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    @Override
+    public int size() {
+        return hashIndex.size();
+    }
+
+    /**
+     * Forces appended records in the active segment to disk.
+     */
+    public synchronized void sync() {
+        if (active != null) {
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * Syncs the active segment and rejects further writes. Views already handed out
+     * stay readable.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        deflater.end();
+    }
+
+    /**
+     * Gets the number of segment files.
+     *
+     * @return The segment count
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Block store is closed");
+        }
+    }
+
+    private long appendBlock(byte[] encoded) throws IOException {
+        byte flags = 0;
+        byte[] payload = encoded;
+        if (compression) {
+            byte[] compressed = deflate(encoded);
+            if (compressed.length < encoded.length) {
+                payload = compressed;
+                flags = FLAG_COMPRESSED;
+            }
+        }
+        return append(payload, flags);
+    }
+
+    private long append(byte[] payload, byte flags) throws IOException {
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (active == null || active.capacity() - active.writePosition < recordSize) {
+            rollSegment(recordSize);
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int offset = active.writePosition;
+        writeChecksum.reset();
+        writeChecksum.update(flags);
+        writeChecksum.update(payload);
+
+        buffer.putInt(offset + 4, (int) writeChecksum.getValue());
+        buffer.put(offset + 8, flags);
+        buffer.put(offset + RECORD_HEADER_SIZE, payload);
+        // The length goes in last, so a reader never sees a length without its payload
+        buffer.putInt(offset, payload.length);
+
+        active.writePosition += recordSize;
+        return position(active.id, offset);
+    }
+
+    private void rollSegment(int minimumCapacity) throws IOException {
+        if (active != null) {
+            active.buffer.force();
+        }
+        int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Path path = directory.resolve(segmentFileName(id));
+        Segment segment = new Segment(id, path, map(path, Math.max(segmentSize, minimumCapacity), true));
+        segments.put(id, segment);
+        active = segment;
+        logger.fine("Opened block segment " + path);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("Ignoring unexpected file in block directory: " + name);
+                }
+            }
+        }
+        ids.sort(null);
+
+        for (int i = 0; i < ids.size(); i++) {
+            boolean tail = i == ids.size() - 1;
+            Path path = directory.resolve(segmentFileName(ids.get(i)));
+            Segment segment = new Segment(ids.get(i), path, map(path, (int) Files.size(path), tail));
+            segments.put(segment.id, segment);
+            scan(segment, tail);
+            if (tail) {
+                active = segment;
+            }
+        }
+
+        if (!segments.isEmpty()) {
+            logger.info("Recovered " + hashIndex.size() + " blocks from " + segments.size() + " segments in " + directory);
+        }
+    }
+
+    private void scan(Segment segment, boolean tail) {
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32C checksum = new CRC32C();
+        int offset = 0;
+        boolean clean = true;
+
+        while (segment.capacity() - offset >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > segment.capacity() - offset - RECORD_HEADER_SIZE) {
+                clean = false;
+                break;
+            }
+
+            byte flags = buffer.get(offset + 8);
+            checksum.reset();
+            checksum.update(flags);
+            checksum.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+            if ((int) checksum.getValue() != buffer.getInt(offset + 4)) {
+                clean = false;
+                break;
+            }
+
+            long position = position(segment.id, offset);
+            try {
+                if ((flags & FLAG_TOMBSTONE) != 0) {
+                    byte[] hash = new byte[length];
+                    buffer.get(offset + RECORD_HEADER_SIZE, hash);
+                    unindex(new String(hash, StandardCharsets.UTF_8));
+                } else {
+                    BlockView view = readView(position);
+                    index(view.getHash(), view.getNumber(), position);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Skipping malformed block record at " + segment.path + ":" + offset, e);
+            }
+            offset += RECORD_HEADER_SIZE + length;
+        }
+
+        segment.writePosition = offset;
+        if (!clean) {
+            logger.warning("Discarding torn or corrupt data in " + segment.path + " after offset " + offset);
+            if (tail) {
+                // Zero the rest of the tail so stale bytes cannot follow the next append
+                for (int i = offset; i < segment.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+            }
+        }
+    }
+
+    private void index(String hash, long number, long position) {
+        if (hash == null) {
+            return;
+        }
+        hashIndex.put(hash, position);
+        heightIndex.put(number, position);
+    }
+
+    private void unindex(String hash) {
+        Long position = hashIndex.remove(hash);
+        cache.remove(hash);
+        BlockView view = position != null ? readView(position) : null;
+        if (view != null) {
+            heightIndex.remove(view.getNumber(), position);
+        }
+    }
+
+    private BlockView readView(long position) {
+        Segment segment = segments.get((int) (position >>> 32));
+        if (segment == null) {
+            return null; // Deleted by a concurrent clear()
+        }
+        int offset = (int) position;
+        ByteBuffer buffer = segment.buffer;
+        int length = buffer.getInt(offset);
+        ByteBuffer payload = buffer.slice(offset + RECORD_HEADER_SIZE, length);
+
+        if ((buffer.get(offset + 8) & FLAG_COMPRESSED) != 0) {
+            return BlockView.wrap(inflate(payload));
+        }
+        return BlockView.wrap(payload);
+    }
+
+    private byte[] deflate(byte[] data) {
+        // Compressed payload: 4-byte uncompressed length, then the deflate stream
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteBuffer out = ByteBuffer.allocate(4 + data.length);
+        out.putInt(data.length);
+        while (!deflater.finished() && out.hasRemaining()) {
+            deflater.deflate(out);
+        }
+        if (!deflater.finished()) {
+            return data; // Incompressible; the caller keeps the raw encoding
+        }
+        byte[] compressed = new byte[out.position()];
+        out.flip().get(compressed);
+        return compressed;
+    }
+
+    private static byte[] inflate(ByteBuffer payload) {
+        int length = payload.getInt(0);
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(payload.slice(4, payload.limit() - 4));
+        byte[] data = new byte[length];
+        try {
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(data, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalArgumentException("Compressed block record is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Malformed compressed block record", e);
+        }
+        return data;
+    }
+
+    private static MappedByteBuffer map(Path path, int capacity, boolean writable) throws IOException {
+        if (writable) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+        }
+    }
+
+    private static long position(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static String segmentFileName(int id) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * A mapped segment file. The mapping stays valid after its channel is closed.
+     */
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;              // End of the last valid record
+
+        private Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+    }
+
+    /**
+     * LRU cache of decoded blocks, bounded by the total encoded size of its entries.
+     */
+    private static final class BlockCache {
+        private final long capacityBytes;
+        private final LinkedHashMap<String, CachedBlock> blocks = new LinkedHashMap<>(64, 0.75f, true);
+        private long usedBytes;
+
+        private BlockCache(long capacityBytes) {
+            this.capacityBytes = capacityBytes;
+        }
+
+        private synchronized Block get(String hash) {
+            CachedBlock cached = blocks.get(hash);
+            return cached != null ? cached.block : null;
+        }
+
+        private synchronized void put(String hash, Block block, int encodedSize) {
+            if (encodedSize > capacityBytes) {
+                return;
+            }
+            remove(hash);
+            blocks.put(hash, new CachedBlock(block, encodedSize));
+            usedBytes += encodedSize;
+
+            Iterator<CachedBlock> eldest = blocks.values().iterator();
+            while (usedBytes > capacityBytes && eldest.hasNext()) {
+                usedBytes -= eldest.next().encodedSize;
+                eldest.remove();
+            }
+        }
+
+        private synchronized void remove(String hash) {
+            CachedBlock removed = blocks.remove(hash);
+            if (removed != null) {
+                usedBytes -= removed.encodedSize;
+            }
+        }
+
+        private synchronized void clear() {
+            blocks.clear();
+            usedBytes = 0;
+        }
+    }
+
+    private record CachedBlock(Block block, int encodedSize) {
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.app.core.storage.kv;
+
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+/**
+ * Bloom filter over byte keys, using double hashing of a 64-bit hash.
+ */
+final class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long[] bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates an empty filter sized for a number of keys.
+     *
+     * @param expectedKeys The expected number of keys.
+     * @param bitsPerKey   Bits to allocate per key; 10 gives about a 1% false positive rate.
+     */
+    static BloomFilter create(long expectedKeys, int bitsPerKey) {
+        long bitsNeeded = Math.max(64, Math.max(1, expectedKeys) * bitsPerKey);
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bitsNeeded + 63) / 64);
+        // ln(2) * bits per key minimises the false positive rate
+        int hashCount = Math.max(1, Math.min(30, (int) Math.round(bitsPerKey * 0.69)));
+        return new BloomFilter(new long[words], hashCount);
+    }
+
+    void add(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(byte[] key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(BinaryWriter writer) {
+        writer.writeByte(hashCount);
+        writer.writeVarInt(bits.length);
+        for (long word : bits) {
+            writer.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(BinaryReader reader) {
+        int hashCount = reader.readByte();
+        int words = reader.readVarInt();
+        if (words == 0 || words > reader.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("Invalid bloom filter size: " + words);
+        }
+        long[] bits = new long[words];
+        for (int i = 0; i < words; i++) {
+            bits[i] = reader.readLong();
+        }
+        return new BloomFilter(bits, Math.max(1, hashCount));
+    }
+
+    // FNV-1a over the key, finished with the MurmurHash3 64-bit mixer
+    private static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.app.core.storage.kv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Byte-oriented key-value store. Keys are ordered by unsigned lexicographic comparison.
+ * Arrays passed to or returned from a store must not be modified afterwards.
+ */
+public interface KeyValueStore extends Closeable {
+    /**
+     * Retrieves the value for a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key does not exist.
+     */
+    byte[] get(byte[] key);
+
+    /**
+     * Inserts or replaces a value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @throws IOException if the write cannot be logged.
+     */
+    void put(byte[] key, byte[] value) throws IOException;
+
+    /**
+     * Deletes a key. Deleting a missing key has no effect.
+     *
+     * @param key The key.
+     * @throws IOException if the write cannot be logged.
+     */
+    void delete(byte[] key) throws IOException;
+
+    /**
+     * Applies every operation in a batch atomically.
+     *
+     * @param batch The batch to apply.
+     * @throws IOException if the batch cannot be logged.
+     */
+    void write(WriteBatch batch) throws IOException;
+
+    /**
+     * Iterates over live entries in key order.
+     *
+     * @param startKey The first key to include, or null to start at the smallest key.
+     * @param endKey   The first key to exclude, or null to run to the end.
+     * @return An iterator over the entries in the range.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> scan(byte[] startKey, byte[] endKey);
+
+    /**
+     * Makes every write accepted so far durable in the store's long-term format.
+     *
+     * @throws IOException if the data cannot be written.
+     */
+    void flush() throws IOException;
+}
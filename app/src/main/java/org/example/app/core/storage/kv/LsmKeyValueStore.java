@@ -0,0 +1,654 @@
+package org.example.app.core.storage.kv;
+
+import org.example.app.core.config.StorageConfig;
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LsmKeyValueStore is an embedded log-structured merge store.
+ *
+ * Writes go to a write-ahead log and a sorted in-memory memtable. When the memtable
+ * reaches its size limit it becomes immutable, a new memtable and log take over, and a
+ * background thread writes it out as an {@link SSTable}. Reads check the memtable, the
+ * immutable memtable, then tables from newest to oldest, skipping tables whose bloom
+ * filter rules the key out.
+ *
+ * Compaction is size-tiered: once there are enough tables, the newest tables are merged
+ * with older neighbours of similar total size, so table sizes grow geometrically and the
+ * table count stays logarithmic in the data size. Deletes are dropped when a merge
+ * reaches the oldest table. The live table list is kept in a MANIFEST file replaced
+ * atomically, and files not listed there are deleted on open.
+ *
+ * Heap use is bounded by two memtables plus each table's sparse index and bloom filter.
+ */
+public class LsmKeyValueStore implements KeyValueStore {
+    private static final Logger logger = Logger.getLogger(LsmKeyValueStore.class.getName());
+
+    static final String MANIFEST_FILE = "MANIFEST";
+    private static final String TABLE_PREFIX = "table-";
+    private static final String TABLE_SUFFIX = ".sst";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final int MANIFEST_VERSION = 1;
+    private static final long ENTRY_OVERHEAD = 48;  // Approximate skip list node cost per entry
+
+    private final Path directory;
+    private final Options options;
+    private final AtomicLong nextFileId = new AtomicLong();
+    private final ExecutorService background;
+
+    private volatile Memtable memtable;
+    private volatile Memtable immutable;        // Being flushed, or null
+    private volatile List<SSTable> tables = Collections.emptyList(); // Oldest first
+    private WriteAheadLog log;                  // Guarded by this
+    private volatile IOException backgroundError;
+    private volatile boolean closed;
+
+    /**
+     * Opens the store under {@code <dataDir>/state}, using the configured write buffer as
+     * the memtable size.
+     *
+     * @param config The storage configuration.
+     * @throws IOException if the store cannot be opened
+     */
+    public LsmKeyValueStore(StorageConfig config) throws IOException {
+        this(Paths.get(config.getDataDir(), "state"), new Options.Builder()
+                .memtableSize(config.getWriteBuffer() * 1024L * 1024L)
+                .build());
+    }
+
+    /**
+     * Opens or creates a store in a directory, replaying any write-ahead logs left by an
+     * unclean shutdown.
+     *
+     * @param directory The store directory.
+     * @param options   The store options.
+     * @throws IOException if the store cannot be opened
+     */
+    public LsmKeyValueStore(Path directory, Options options) throws IOException {
+        if (directory == null || options == null) {
+            throw new IllegalArgumentException("Directory and options cannot be null");
+        }
+        this.directory = directory;
+        this.options = options;
+        this.background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-compaction-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            background.shutdownNow();
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] value = memtable.entries.get(key);
+        if (value == null) {
+            Memtable flushing = immutable;
+            value = flushing != null ? flushing.entries.get(key) : null;
+        }
+        if (value == null) {
+            List<SSTable> snapshot = tables;
+            for (int i = snapshot.size() - 1; i >= 0 && value == null; i--) {
+                value = snapshot.get(i).get(key);
+            }
+        }
+        return value == SSTable.TOMBSTONE ? null : value;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) throws IOException {
+        write(new WriteBatch().put(key, value));
+    }
+
+    @Override
+    public void delete(byte[] key) throws IOException {
+        write(new WriteBatch().delete(key));
+    }
+
+    @Override
+    public synchronized void write(WriteBatch batch) throws IOException {
+        if (batch == null) {
+            throw new IllegalArgumentException("Batch cannot be null");
+        }
+        ensureOpen();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        log.append(batch);
+        memtable.apply(batch);
+        if (memtable.size.get() >= options.memtableSize) {
+            rotateMemtable();
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<byte[], byte[]>> scan(byte[] startKey, byte[] endKey) {
+        List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+        sources.add(memtable.iterator(startKey, endKey));
+        Memtable flushing = immutable;
+        if (flushing != null) {
+            sources.add(flushing.iterator(startKey, endKey));
+        }
+        List<SSTable> snapshot = tables;
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            sources.add(snapshot.get(i).iterator(startKey));
+        }
+        return new MergingIterator(sources, endKey, true);
+    }
+
+    /**
+     * Writes the current memtable to a table and waits for it, so every accepted write is
+     * in a table file rather than only in the write-ahead log.
+     *
+     * @throws IOException if the flush fails
+     */
+    @Override
+    public void flush() throws IOException {
+        Future<?> pending;
+        synchronized (this) {
+            ensureOpen();
+            if (memtable.entries.isEmpty()) {
+                pending = background.submit(() -> { });
+            } else {
+                pending = rotateMemtable();
+            }
+        }
+        await(pending);
+    }
+
+    /**
+     * Forces the write-ahead log to disk. Not needed when syncWrites is enabled.
+     *
+     * @throws IOException if the log cannot be synced
+     */
+    public synchronized void sync() throws IOException {
+        ensureOpen();
+        log.sync();
+    }
+
+    /**
+     * Runs a compaction pass and waits for it to finish.
+     *
+     * @throws IOException if compaction fails
+     */
+    public void compact() throws IOException {
+        ensureOpen();
+        await(background.submit(this::compactAll));
+    }
+
+    /**
+     * Gets the number of live table files.
+     *
+     * @return The table count
+     */
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    /**
+     * Waits for background work and closes the write-ahead log. Unflushed writes remain in
+     * the log and are replayed on the next open.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        background.shutdown();
+        try {
+            if (!background.awaitTermination(60, TimeUnit.SECONDS)) {
+                logger.warning("Background work did not finish before close: " + directory);
+                background.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            log.sync();
+            log.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        IOException error = backgroundError;
+        if (error != null) {
+            throw new IOException("Background flush or compaction failed", error);
+        }
+    }
+
+    // Called with the lock held
+    private Future<?> rotateMemtable() throws IOException {
+        // Only one memtable may wait for a flush, which bounds memory and slows writers to disk speed
+        while (immutable != null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a memtable flush", e);
+            }
+            ensureOpen();
+        }
+
+        WriteAheadLog oldLog = log;
+        long logId = nextFileId.getAndIncrement();
+        log = new WriteAheadLog(directory.resolve(fileName(LOG_PREFIX, logId, LOG_SUFFIX)), options.syncWrites);
+        immutable = memtable;
+        memtable = new Memtable();
+        oldLog.close();
+
+        Memtable flushing = immutable;
+        return background.submit(() -> flushMemtable(flushing, oldLog.getPath()));
+    }
+
+    private void flushMemtable(Memtable flushing, Path logPath) {
+        try {
+            SSTable table = writeTable(flushing.iterator(null, null), flushing.entries.size());
+            synchronized (this) {
+                List<SSTable> updated = new ArrayList<>(tables);
+                updated.add(table);
+                writeManifest(updated);
+                // Publish the table before dropping the memtable so readers never miss its keys
+                tables = Collections.unmodifiableList(updated);
+                immutable = null;
+                notifyAll();
+            }
+            Files.deleteIfExists(logPath);
+            compactAll();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to flush memtable in " + directory, e);
+            synchronized (this) {
+                backgroundError = e;
+                notifyAll();
+            }
+        }
+    }
+
+    private void compactAll() {
+        try {
+            while (tables.size() >= options.compactionTrigger) {
+                compactOnce();
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Compaction failed in " + directory, e);
+            backgroundError = e;
+        }
+    }
+
+    // Runs on the background thread, the only thread that changes the table list
+    private void compactOnce() throws IOException {
+        List<SSTable> snapshot = tables;
+        int end = snapshot.size();
+        int start = end - 2;
+        long windowSize = snapshot.get(start).getFileSize() + snapshot.get(end - 1).getFileSize();
+        while (start > 0 && snapshot.get(start - 1).getFileSize() <= 2 * windowSize) {
+            start--;
+            windowSize += snapshot.get(start).getFileSize();
+        }
+
+        List<SSTable> inputs = snapshot.subList(start, end);
+        List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+        long expectedKeys = 0;
+        for (int i = inputs.size() - 1; i >= 0; i--) {
+            sources.add(inputs.get(i).iterator(null));
+            expectedKeys += inputs.get(i).getEntryCount();
+        }
+        boolean dropDeletes = start == 0;
+        SSTable merged = writeTable(new MergingIterator(sources, null, dropDeletes), expectedKeys);
+
+        synchronized (this) {
+            List<SSTable> updated = new ArrayList<>(tables.subList(0, start));
+            updated.add(merged);
+            updated.addAll(tables.subList(end, tables.size()));
+            writeManifest(updated);
+            tables = Collections.unmodifiableList(updated);
+        }
+        for (SSTable input : inputs) {
+            // Readers holding the old list keep their mappings after the file is removed
+            Files.deleteIfExists(input.getPath());
+        }
+        logger.fine("Compacted " + inputs.size() + " tables into " + merged.getPath().getFileName());
+    }
+
+    private SSTable writeTable(Iterator<Map.Entry<byte[], byte[]>> entries, long expectedKeys) throws IOException {
+        long id = nextFileId.getAndIncrement();
+        return SSTable.write(id, directory.resolve(fileName(TABLE_PREFIX, id, TABLE_SUFFIX)), entries,
+                expectedKeys, options.blockSize, options.bloomBitsPerKey);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        // Live tables come from the manifest; anything else is left over from an interrupted flush or compaction
+        List<SSTable> live = new ArrayList<>();
+        Set<Path> livePaths = new HashSet<>();
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (Files.exists(manifest)) {
+            BinaryReader reader = new BinaryReader(Files.readAllBytes(manifest));
+            try {
+                int version = reader.readByte();
+                if (version != MANIFEST_VERSION) {
+                    throw new IOException("Unsupported manifest version: " + version);
+                }
+                nextFileId.set(reader.readVarLong());
+                int count = reader.readVarInt();
+                for (int i = 0; i < count; i++) {
+                    long id = reader.readVarLong();
+                    Path path = directory.resolve(fileName(TABLE_PREFIX, id, TABLE_SUFFIX));
+                    live.add(SSTable.open(id, path));
+                    livePaths.add(path);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt manifest in " + directory + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<Long> logIds = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    logIds.add(parseId(name, LOG_PREFIX, LOG_SUFFIX));
+                } else if ((name.startsWith(TABLE_PREFIX) && !livePaths.contains(path)) || name.endsWith(".tmp")) {
+                    Files.delete(path);
+                }
+            }
+        }
+        logIds.sort(null);
+        tables = Collections.unmodifiableList(live);
+        memtable = new Memtable();
+
+        if (!logIds.isEmpty()) {
+            nextFileId.set(Math.max(nextFileId.get(), logIds.get(logIds.size() - 1) + 1));
+            int batches = 0;
+            for (long id : logIds) {
+                batches += WriteAheadLog.replay(directory.resolve(fileName(LOG_PREFIX, id, LOG_SUFFIX)), memtable::apply);
+            }
+            if (!memtable.entries.isEmpty()) {
+                SSTable table = writeTable(memtable.iterator(null, null), memtable.entries.size());
+                live.add(table);
+                writeManifest(live);
+                tables = Collections.unmodifiableList(live);
+                memtable = new Memtable();
+            }
+            for (long id : logIds) {
+                Files.deleteIfExists(directory.resolve(fileName(LOG_PREFIX, id, LOG_SUFFIX)));
+            }
+            logger.info("Recovered " + batches + " logged batches in " + directory);
+        }
+
+        long logId = nextFileId.getAndIncrement();
+        log = new WriteAheadLog(directory.resolve(fileName(LOG_PREFIX, logId, LOG_SUFFIX)), options.syncWrites);
+        if (tables.size() >= options.compactionTrigger) {
+            background.submit(this::compactAll);
+        }
+    }
+
+    private void writeManifest(List<SSTable> live) throws IOException {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeByte(MANIFEST_VERSION);
+        writer.writeVarLong(nextFileId.get());
+        writer.writeVarInt(live.size());
+        for (SSTable table : live) {
+            writer.writeVarLong(table.getId());
+        }
+
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        Files.write(temp, writer.toByteArray());
+        Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for background work", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new IOException("Background work failed", e.getCause());
+        }
+    }
+
+    private static String fileName(String prefix, long id, String suffix) {
+        return String.format("%s%012d%s", prefix, id, suffix);
+    }
+
+    private static long parseId(String name, String prefix, String suffix) throws IOException {
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected file name: " + name, e);
+        }
+    }
+
+    /**
+     * Sorted in-memory write buffer. Deletes are stored as {@link SSTable#TOMBSTONE}.
+     */
+    private static final class Memtable {
+        private final ConcurrentSkipListMap<byte[], byte[]> entries =
+                new ConcurrentSkipListMap<>(Arrays::compareUnsigned);
+        private final AtomicLong size = new AtomicLong();
+
+        private void apply(WriteBatch batch) {
+            for (int i = 0; i < batch.size(); i++) {
+                byte[] key = batch.getKey(i);
+                byte[] value = batch.getValue(i);
+                byte[] previous = entries.put(key, value != null ? value : SSTable.TOMBSTONE);
+                size.addAndGet((value != null ? value.length : 0) - (previous != null ? previous.length : -key.length - ENTRY_OVERHEAD));
+            }
+        }
+
+        private Iterator<Map.Entry<byte[], byte[]>> iterator(byte[] startKey, byte[] endKey) {
+            NavigableMap<byte[], byte[]> range = entries;
+            if (startKey != null) {
+                range = range.tailMap(startKey, true);
+            }
+            if (endKey != null) {
+                range = range.headMap(endKey, false);
+            }
+            return range.entrySet().iterator();
+        }
+    }
+
+    /**
+     * Merges sorted sources, where a lower source index is newer. For each key only the
+     * newest entry is returned; deleted keys are skipped when dropDeletes is set.
+     */
+    private static final class MergingIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+        private final PriorityQueue<Source> queue;
+        private final byte[] endKey;
+        private final boolean dropDeletes;
+        private Map.Entry<byte[], byte[]> nextEntry;
+
+        private MergingIterator(List<Iterator<Map.Entry<byte[], byte[]>>> sources, byte[] endKey, boolean dropDeletes) {
+            this.queue = new PriorityQueue<>(Math.max(1, sources.size()), Comparator
+                    .comparing((Source source) -> source.current.getKey(), Arrays::compareUnsigned)
+                    .thenComparingInt(source -> source.rank));
+            this.endKey = endKey;
+            this.dropDeletes = dropDeletes;
+            for (int i = 0; i < sources.size(); i++) {
+                Source source = new Source(sources.get(i), i);
+                if (source.advance()) {
+                    queue.add(source);
+                }
+            }
+            nextEntry = advance();
+        }
+
+        private Map.Entry<byte[], byte[]> advance() {
+            while (!queue.isEmpty()) {
+                Source newest = queue.poll();
+                Map.Entry<byte[], byte[]> entry = newest.current;
+                if (endKey != null && Arrays.compareUnsigned(entry.getKey(), endKey) >= 0) {
+                    queue.clear();
+                    return null;
+                }
+
+                // Older versions of the same key are shadowed
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().current.getKey(), entry.getKey())) {
+                    Source older = queue.poll();
+                    if (older.advance()) {
+                        queue.add(older);
+                    }
+                }
+                if (newest.advance()) {
+                    queue.add(newest);
+                }
+
+                if (entry.getValue() != SSTable.TOMBSTONE || !dropDeletes) {
+                    return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (nextEntry == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = nextEntry;
+            nextEntry = advance();
+            return entry;
+        }
+
+        private static final class Source {
+            private final Iterator<Map.Entry<byte[], byte[]>> iterator;
+            private final int rank;
+            private Map.Entry<byte[], byte[]> current;
+
+            private Source(Iterator<Map.Entry<byte[], byte[]>> iterator, int rank) {
+                this.iterator = iterator;
+                this.rank = rank;
+            }
+
+            private boolean advance() {
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                // Copy the entry; skip list entries may change underneath a live iterator
+                Map.Entry<byte[], byte[]> entry = iterator.next();
+                current = new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Tuning options for an {@link LsmKeyValueStore}.
+     */
+    public static class Options {
+        private final long memtableSize;
+        private final int blockSize;
+        private final int bloomBitsPerKey;
+        private final int compactionTrigger;
+        private final boolean syncWrites;
+
+        public static class Builder {
+            private long memtableSize = 4 * 1024 * 1024; // 4 MB
+            private int blockSize = 4096;
+            private int bloomBitsPerKey = 10;           // About 1% false positives
+            private int compactionTrigger = 4;          // Tables before a merge runs
+            private boolean syncWrites = false;         // fsync the log on every write
+
+            public Builder memtableSize(long memtableSize) {
+                this.memtableSize = memtableSize;
+                return this;
+            }
+
+            public Builder blockSize(int blockSize) {
+                this.blockSize = blockSize;
+                return this;
+            }
+
+            public Builder bloomBitsPerKey(int bloomBitsPerKey) {
+                this.bloomBitsPerKey = bloomBitsPerKey;
+                return this;
+            }
+
+            public Builder compactionTrigger(int compactionTrigger) {
+                this.compactionTrigger = compactionTrigger;
+                return this;
+            }
+
+            public Builder syncWrites(boolean syncWrites) {
+                this.syncWrites = syncWrites;
+                return this;
+            }
+
+            public Options build() {
+                if (memtableSize <= 0 || blockSize <= 0 || bloomBitsPerKey <= 0) {
+                    throw new IllegalArgumentException("Memtable size, block size and bloom bits must be positive");
+                }
+                if (compactionTrigger < 2) {
+                    throw new IllegalArgumentException("Compaction trigger must be at least 2");
+                }
+                return new Options(this);
+            }
+        }
+
+        private Options(Builder builder) {
+            this.memtableSize = builder.memtableSize;
+            this.blockSize = builder.blockSize;
+            this.bloomBitsPerKey = builder.bloomBitsPerKey;
+            this.compactionTrigger = builder.compactionTrigger;
+            this.syncWrites = builder.syncWrites;
+        }
+
+        // Getters
+        public long getMemtableSize() { return memtableSize; }
+        public int getBlockSize() { return blockSize; }
+        public int getBloomBitsPerKey() { return bloomBitsPerKey; }
+        public int getCompactionTrigger() { return compactionTrigger; }
+        public boolean isSyncWrites() { return syncWrites; }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.app.core.storage.kv;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory {@link KeyValueStore} backed by a sorted map. Nothing is persisted.
+ */
+public class MemoryKeyValueStore implements KeyValueStore {
+    private final ConcurrentSkipListMap<byte[], byte[]> data = new ConcurrentSkipListMap<>(Arrays::compareUnsigned);
+
+    @Override
+    public byte[] get(byte[] key) {
+        return key != null ? data.get(key) : null;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        data.put(key, value);
+    }
+
+    @Override
+    public void delete(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        data.remove(key);
+    }
+
+    @Override
+    public synchronized void write(WriteBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] value = batch.getValue(i);
+            if (value == null) {
+                data.remove(batch.getKey(i));
+            } else {
+                data.put(batch.getKey(i), value);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<byte[], byte[]>> scan(byte[] startKey, byte[] endKey) {
+        NavigableMap<byte[], byte[]> range = data;
+        if (startKey != null) {
+            range = range.tailMap(startKey, true);
+        }
+        if (endKey != null) {
+            range = range.headMap(endKey, false);
+        }
+        Iterator<Map.Entry<byte[], byte[]>> entries = range.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Map.Entry<byte[], byte[]> next() {
+                Map.Entry<byte[], byte[]> entry = entries.next();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+            }
+        };
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to persist
+    }
+
+    @Override
+    public void close() {
+        data.clear();
+    }
+}
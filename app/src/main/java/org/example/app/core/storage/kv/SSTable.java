@@ -0,0 +1,372 @@
+package org.example.app.core.storage.kv;
+
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sorted table file.
+ *
+ * Layout:
+ * <pre>
+ *   data blocks : entries (varint keyLength, key, type byte, varint valueLength, value)
+ *   index       : varint blockCount, then (bytes firstKey, varint offset, varint length) per block
+ *   bloom       : bloom filter over every key in the table
+ *   footer      : long indexOffset, int indexLength, long bloomOffset, int bloomLength,
+ *                 long entryCount, int magic
+ * </pre>
+ * The index holds one key per block, so it and the bloom filter are the only parts kept
+ * on-heap; data blocks are read from a read-only mapping of the file.
+ */
+final class SSTable {
+    // Marks a deleted key in memtables, table entries and merge output. Compared by identity.
+    static final byte[] TOMBSTONE = new byte[0];
+
+    private static final int MAGIC = 0x54494E43;    // "TINC"
+    private static final int FOOTER_SIZE = 36;
+    private static final int TYPE_PUT = 0;
+    private static final int TYPE_DELETE = 1;
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final byte[][] blockKeys;           // First key of each data block
+    private final int[] blockOffsets;
+    private final int[] blockLengths;
+    private final BloomFilter bloom;
+    private final long entryCount;
+
+    private SSTable(long id, Path path, MappedByteBuffer data, byte[][] blockKeys, int[] blockOffsets,
+                    int[] blockLengths, BloomFilter bloom, long entryCount) {
+        this.id = id;
+        this.path = path;
+        this.data = data;
+        this.blockKeys = blockKeys;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.bloom = bloom;
+        this.entryCount = entryCount;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    long getFileSize() {
+        return data.capacity();
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @return The value, {@link #TOMBSTONE} if the key was deleted, or null if the table
+     * has no entry for it
+     */
+    byte[] get(byte[] key) {
+        if (blockKeys.length == 0 || !bloom.mightContain(key)) {
+            return null;
+        }
+        int block = findBlock(key);
+        if (block < 0) {
+            return null;
+        }
+
+        BlockCursor cursor = new BlockCursor(readBlock(block));
+        while (cursor.next()) {
+            int cmp = cursor.compareKey(key);
+            if (cmp == 0) {
+                return cursor.value();
+            }
+            if (cmp > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Iterates over entries with keys at or after startKey, including tombstones.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator(byte[] startKey) {
+        int firstBlock = startKey == null ? 0 : Math.max(0, findBlock(startKey));
+        return new Iterator<>() {
+            private int block = firstBlock;
+            private BlockCursor cursor;
+            private Map.Entry<byte[], byte[]> nextEntry = advance();
+
+            private Map.Entry<byte[], byte[]> advance() {
+                while (true) {
+                    if (cursor == null) {
+                        if (block >= blockKeys.length) {
+                            return null;
+                        }
+                        cursor = new BlockCursor(readBlock(block++));
+                    }
+                    if (!cursor.next()) {
+                        cursor = null;
+                        continue;
+                    }
+                    if (startKey == null || cursor.compareKey(startKey) >= 0) {
+                        return new AbstractMap.SimpleImmutableEntry<>(cursor.key(), cursor.value());
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextEntry != null;
+            }
+
+            @Override
+            public Map.Entry<byte[], byte[]> next() {
+                if (nextEntry == null) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<byte[], byte[]> entry = nextEntry;
+                nextEntry = advance();
+                return entry;
+            }
+        };
+    }
+
+    // Index of the last block whose first key is <= key, or -1 if key precedes every block
+    private int findBlock(byte[] key) {
+        int low = 0;
+        int high = blockKeys.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(blockKeys[mid], key) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private byte[] readBlock(int block) {
+        byte[] bytes = new byte[blockLengths[block]];
+        data.get(blockOffsets[block], bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes a table from entries in ascending key order and opens it. The file is written
+     * under a temporary name and renamed once complete, so a crash never leaves a partial table.
+     *
+     * @param entries      The entries; a {@link #TOMBSTONE} value records a delete.
+     * @param expectedKeys Upper bound on the entry count, used to size the bloom filter.
+     */
+    static SSTable write(long id, Path path, Iterator<Map.Entry<byte[], byte[]>> entries, long expectedKeys,
+                         int blockSize, int bloomBitsPerKey) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        BloomFilter bloom = BloomFilter.create(expectedKeys, bloomBitsPerKey);
+        BinaryWriter block = new BinaryWriter(blockSize + 256);
+        BinaryWriter index = new BinaryWriter();
+        int blockCount = 0;
+        long offset = 0;
+        long entryCount = 0;
+        byte[] blockFirstKey = null;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16)) {
+            while (entries.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = entries.next();
+                byte[] key = entry.getKey();
+                byte[] value = entry.getValue();
+                if (blockFirstKey == null) {
+                    blockFirstKey = key;
+                }
+
+                block.writeBytes(key);
+                if (value == TOMBSTONE) {
+                    block.writeByte(TYPE_DELETE);
+                } else {
+                    block.writeByte(TYPE_PUT);
+                    block.writeBytes(value);
+                }
+                bloom.add(key);
+                entryCount++;
+
+                if (block.size() >= blockSize) {
+                    offset = writeBlock(out, block, index, blockFirstKey, offset);
+                    blockCount++;
+                    blockFirstKey = null;
+                }
+            }
+            if (block.size() > 0) {
+                offset = writeBlock(out, block, index, blockFirstKey, offset);
+                blockCount++;
+            }
+
+            BinaryWriter indexSection = new BinaryWriter(index.size() + 8);
+            indexSection.writeVarInt(blockCount);
+            indexSection.writeRaw(index.toByteArray());
+            BinaryWriter bloomSection = new BinaryWriter();
+            bloom.writeTo(bloomSection);
+
+            long indexOffset = offset;
+            long bloomOffset = indexOffset + indexSection.size();
+            indexSection.writeTo(out);
+            bloomSection.writeTo(out);
+
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+            footer.putLong(indexOffset).putInt(indexSection.size())
+                    .putLong(bloomOffset).putInt(bloomSection.size())
+                    .putLong(entryCount).putInt(MAGIC);
+            out.write(footer.array());
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(id, path);
+    }
+
+    private static long writeBlock(OutputStream out, BinaryWriter block, BinaryWriter index,
+                                   byte[] firstKey, long offset) throws IOException {
+        block.writeTo(out);
+        index.writeBytes(firstKey);
+        index.writeVarLong(offset);
+        index.writeVarInt(block.size());
+        long next = offset + block.size();
+        block.reset();
+        return next;
+    }
+
+    /**
+     * Opens an existing table, loading its index and bloom filter.
+     *
+     * @throws IOException if the file is not a valid table
+     */
+    static SSTable open(long id, Path path) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid table size " + size + ": " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int footerOffset = data.capacity() - FOOTER_SIZE;
+        long indexOffset = data.getLong(footerOffset);
+        int indexLength = data.getInt(footerOffset + 8);
+        long bloomOffset = data.getLong(footerOffset + 12);
+        int bloomLength = data.getInt(footerOffset + 20);
+        long entryCount = data.getLong(footerOffset + 24);
+        if (data.getInt(footerOffset + 32) != MAGIC
+                || indexOffset < 0 || indexLength < 0 || indexOffset + indexLength > footerOffset
+                || bloomOffset < 0 || bloomLength < 0 || bloomOffset + bloomLength > footerOffset) {
+            throw new IOException("Corrupt table footer: " + path);
+        }
+
+        try {
+            BinaryReader index = new BinaryReader(data.slice((int) indexOffset, indexLength));
+            int blockCount = index.readVarInt();
+            if (blockCount > indexLength) {
+                throw new IllegalArgumentException("Block count out of range: " + blockCount);
+            }
+            byte[][] blockKeys = new byte[blockCount][];
+            int[] blockOffsets = new int[blockCount];
+            int[] blockLengths = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blockKeys[i] = index.readBytes();
+                blockOffsets[i] = (int) index.readVarLong();
+                blockLengths[i] = index.readVarInt();
+                if (blockOffsets[i] < 0 || (long) blockOffsets[i] + blockLengths[i] > indexOffset) {
+                    throw new IllegalArgumentException("Block " + i + " out of range");
+                }
+            }
+            BloomFilter bloom = BloomFilter.readFrom(new BinaryReader(data.slice((int) bloomOffset, bloomLength)));
+            return new SSTable(id, path, data, blockKeys, blockOffsets, blockLengths, bloom, entryCount);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt table index in " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Walks the entries of one decoded block without allocating per entry until a key or
+     * value is requested.
+     */
+    private static final class BlockCursor {
+        private final byte[] block;
+        private int position;
+        private int keyOffset;
+        private int keyLength;
+        private int valueOffset;
+        private int valueLength;                // -1 for a delete
+
+        private BlockCursor(byte[] block) {
+            this.block = block;
+        }
+
+        private boolean next() {
+            if (position >= block.length) {
+                return false;
+            }
+            keyLength = readVarInt();
+            keyOffset = position;
+            position += keyLength;
+            int type = block[position++];
+            if (type == TYPE_DELETE) {
+                valueLength = -1;
+            } else {
+                valueLength = readVarInt();
+                valueOffset = position;
+                position += valueLength;
+            }
+            return true;
+        }
+
+        private int compareKey(byte[] key) {
+            return Arrays.compareUnsigned(block, keyOffset, keyOffset + keyLength, key, 0, key.length);
+        }
+
+        private byte[] key() {
+            return Arrays.copyOfRange(block, keyOffset, keyOffset + keyLength);
+        }
+
+        private byte[] value() {
+            return valueLength < 0 ? TOMBSTONE : Arrays.copyOfRange(block, valueOffset, valueOffset + valueLength);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = block[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Corrupt varint in table block");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.app.core.storage.kv;
+
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of write batches backing one memtable. Each record is a 4-byte length,
+ * a 4-byte CRC32C and the encoded batch, so a torn final record is detected on replay.
+ */
+final class WriteAheadLog implements Closeable {
+    private static final Logger logger = Logger.getLogger(WriteAheadLog.class.getName());
+    private static final int HEADER_SIZE = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean syncWrites;
+    private final BinaryWriter body = new BinaryWriter(4096);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final CRC32C checksum = new CRC32C();
+
+    WriteAheadLog(Path path, boolean syncWrites) throws IOException {
+        this.path = path;
+        this.syncWrites = syncWrites;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void append(WriteBatch batch) throws IOException {
+        batch.writeTo(body.reset());
+        ByteBuffer payload = body.asReadOnlyBuffer();
+        checksum.reset();
+        checksum.update(payload.duplicate());
+
+        header.clear();
+        header.putInt(body.size()).putInt((int) checksum.getValue()).flip();
+        ByteBuffer[] record = {header, payload};
+        while (payload.hasRemaining()) {
+            channel.write(record);
+        }
+        if (syncWrites) {
+            channel.force(false);
+        }
+    }
+
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Replays every intact batch in a log file. Replay stops at the first truncated or
+     * corrupt record, which can only be the result of a crash during the final append.
+     *
+     * @return The number of batches replayed
+     */
+    static int replay(Path path, Consumer<WriteBatch> consumer) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32C checksum = new CRC32C();
+        int batches = 0;
+
+        while (data.remaining() >= HEADER_SIZE) {
+            int start = data.position();
+            int length = data.getInt();
+            int expected = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                logger.warning("Ignoring truncated record at " + path + ":" + start);
+                break;
+            }
+
+            ByteBuffer payload = data.slice(data.position(), length);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expected) {
+                logger.warning("Ignoring corrupt record at " + path + ":" + start);
+                break;
+            }
+
+            consumer.accept(WriteBatch.readFrom(new BinaryReader(payload)));
+            data.position(data.position() + length);
+            batches++;
+        }
+        return batches;
+    }
+}
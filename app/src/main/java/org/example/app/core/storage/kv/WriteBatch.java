@@ -0,0 +1,119 @@
+package org.example.app.core.storage.kv;
+
+import org.example.app.core.encoder.BinaryReader;
+import org.example.app.core.encoder.BinaryWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WriteBatch collects puts and deletes that a {@link KeyValueStore} applies atomically.
+ * Operations are applied in the order they were added.
+ */
+public class WriteBatch {
+    private static final int OP_PUT = 0;
+    private static final int OP_DELETE = 1;
+
+    private final List<byte[]> keys = new ArrayList<>();
+    private final List<byte[]> values = new ArrayList<>();    // null marks a delete
+    private long approximateSize;
+
+    /**
+     * Adds a put to the batch.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return This batch.
+     * @throws IllegalArgumentException if key or value is null
+     */
+    public WriteBatch put(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        keys.add(key);
+        values.add(value);
+        approximateSize += key.length + value.length;
+        return this;
+    }
+
+    /**
+     * Adds a delete to the batch.
+     *
+     * @param key The key.
+     * @return This batch.
+     * @throws IllegalArgumentException if key is null
+     */
+    public WriteBatch delete(byte[] key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        keys.add(key);
+        values.add(null);
+        approximateSize += key.length;
+        return this;
+    }
+
+    /**
+     * Gets the number of operations in the batch.
+     *
+     * @return The operation count
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Removes every operation so the batch can be reused.
+     */
+    public void clear() {
+        keys.clear();
+        values.clear();
+        approximateSize = 0;
+    }
+
+    long getApproximateSize() {
+        return approximateSize;
+    }
+
+    byte[] getKey(int index) {
+        return keys.get(index);
+    }
+
+    // Returns null for a delete
+    byte[] getValue(int index) {
+        return values.get(index);
+    }
+
+    void writeTo(BinaryWriter writer) {
+        writer.writeVarInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = values.get(i);
+            writer.writeByte(value == null ? OP_DELETE : OP_PUT);
+            writer.writeBytes(keys.get(i));
+            if (value != null) {
+                writer.writeBytes(value);
+            }
+        }
+    }
+
+    static WriteBatch readFrom(BinaryReader reader) {
+        WriteBatch batch = new WriteBatch();
+        int count = reader.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int op = reader.readByte();
+            byte[] key = reader.readBytes();
+            if (op == OP_PUT) {
+                batch.put(key, reader.readBytes());
+            } else if (op == OP_DELETE) {
+                batch.delete(key);
+            } else {
+                throw new IllegalArgumentException("Unknown batch operation: " + op);
+            }
+        }
+        return batch;
+    }
+}
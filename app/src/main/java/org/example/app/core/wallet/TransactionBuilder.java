@@ -128,7 +128,7 @@ public class TransactionBuilder {
 
     private SignatureResult createSignature(Transaction tx) {
         try {
-            byte[] messageToSign = tx.toBytes();
+            byte[] messageToSign = tx.getSigningData();
             // Placeholder for signature creation
             // If SignatureResult requires two BigInteger parameters
             return new SignatureResult(
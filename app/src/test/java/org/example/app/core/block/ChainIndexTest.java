@@ -0,0 +1,137 @@
+package org.example.app.core.block;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.config.StorageConfig;
+import org.example.app.core.storage.MappedBlockStore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tests the height, block hash and transaction hash indexes of a chain
+ */
+public class ChainIndexTest {
+    private static final Logger LOGGER = Logger.getLogger(ChainIndexTest.class.getName());
+
+    /**
+     * Test lookups by height, block hash and transaction hash with a small decoded-block cache
+     */
+    @Test
+    public void testLookups() {
+        LOGGER.info("Starting testLookups");
+
+        ChainIndex index = new ChainIndex(16);
+        List<String> transactionHashes = new ArrayList<>();
+        for (int height = 0; height < 2000; height++) {
+            Block block = block(height, 5);
+            for (Transaction tx : block.getTransactions()) {
+                transactionHashes.add(ChainIndex.transactionHash(tx));
+            }
+            assertEquals(height, index.append(block), "Append should return the next height");
+        }
+
+        assertEquals(2000, index.size());
+        assertTrue(index.getCachedBlockCount() <= 16, "Decoded cache should stay bounded");
+        assertEquals("hash-1234", index.getByHeight(1234).getHash());
+        assertEquals(777L, index.getByHash("hash-777").getNumber());
+        assertEquals(1999L, index.getLatest().getNumber());
+        assertNull(index.getByHash("hash-missing"), "Unknown hash should not be found");
+        assertNull(index.getByHeight(2000), "Out of range height should not be found");
+
+        ChainIndex.TransactionLocation location = index.findTransaction(transactionHashes.get(4321));
+        assertNotNull(location, "Transaction should be found");
+        assertEquals(864, location.getHeight());
+        assertEquals(1, location.getIndex());
+        assertEquals("tx-864-1", new String(location.getTransaction().getData(), StandardCharsets.UTF_8));
+        assertNull(index.findTransaction("00".repeat(32)), "Unknown transaction should not be found");
+        index.close();
+    }
+
+    /**
+     * Test that removing the last block also removes its index entries
+     */
+    @Test
+    public void testRemoveLast() {
+        LOGGER.info("Starting testRemoveLast");
+
+        ChainIndex index = new ChainIndex(4);
+        Block first = block(0, 2);
+        Block second = block(1, 2);
+        index.append(first);
+        index.append(second);
+        String removedTx = ChainIndex.transactionHash(second.getTransactions().get(0));
+
+        assertEquals("hash-1", index.removeLast().getHash());
+        assertEquals(1, index.size());
+        assertNull(index.getByHash("hash-1"), "Removed block hash should not be found");
+        assertNull(index.findTransaction(removedTx), "Removed transaction should not be found");
+        assertNotNull(index.findTransaction(ChainIndex.transactionHash(first.getTransactions().get(1))),
+                "Remaining transaction should be found");
+        index.close();
+    }
+
+    /**
+     * Test that a transaction included twice resolves to its first inclusion
+     */
+    @Test
+    public void testRepeatedTransaction() {
+        LOGGER.info("Starting testRepeatedTransaction");
+
+        ChainIndex index = new ChainIndex(4);
+        Transaction tx = new Transaction("repeated".getBytes(StandardCharsets.UTF_8));
+        index.append(new Block("hash-0", null, "miner", 0L, 1L, 0L, new ArrayList<>(List.of(tx))));
+        index.append(new Block("hash-1", "hash-0", "miner", 1L, 1L, 1L, new ArrayList<>(List.of(tx))));
+
+        assertEquals(0, index.findTransaction(ChainIndex.transactionHash(tx)).getHeight());
+        index.close();
+    }
+
+    /**
+     * Test that blocks live in a shared store and a full walk leaves the decoded-block cache alone
+     */
+    @Test
+    public void testStoreBackedWalk(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testStoreBackedWalk");
+
+        StorageConfig config = new StorageConfig.Builder()
+                .dataDir(dir.toString()).cacheSize(0).compression(true).writeBuffer(1).build();
+        try (MappedBlockStore store = new MappedBlockStore(config)) {
+            ChainIndex index = new ChainIndex(store, 4);
+            for (int height = 0; height < 300; height++) {
+                index.append(block(height, 3));
+            }
+            index.getByHeight(7);
+            int cached = index.getCachedBlockCount();
+
+            long numbers = 0;
+            for (Block block : index.blocks()) {
+                numbers += block.getNumber();
+            }
+            assertEquals(299L * 300 / 2, numbers);
+            assertEquals(cached, index.getCachedBlockCount());
+            assertEquals("tx-123-2", new String(index.blocks().get(123).getTransactions().get(2).getData(),
+                    StandardCharsets.UTF_8));
+            assertTrue(store.getSegmentCount() > 0, "Blocks should be written to the store");
+            assertEquals(0, store.size());
+
+            index.removeLast();
+            assertEquals(299, index.blocks().size());
+            index.close();
+        }
+    }
+
+    private static Block block(int height, int transactionCount) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(new Transaction(("tx-" + height + "-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        return new Block("hash-" + height, "hash-" + (height - 1), "miner", height, 1L, height, transactions);
+    }
+}
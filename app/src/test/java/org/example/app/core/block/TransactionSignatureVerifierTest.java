@@ -0,0 +1,160 @@
+package org.example.app.core.block;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.crypto.Keypair;
+import org.example.app.core.mempool.MempoolConfig;
+import org.example.app.core.mempool.TransactionValidator;
+import org.example.app.core.types.Address;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Tests parallel transaction signature verification and its shared cache
+ */
+public class TransactionSignatureVerifierTest {
+    private static final Logger LOGGER = Logger.getLogger(TransactionSignatureVerifierTest.class.getName());
+
+    private final Map<Address, PublicKey> keys = new HashMap<>();
+    private final List<Keypair> senders = new ArrayList<>();
+    private ExecutorService pool; // Workers shared by the verifiers of one test
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 10; i++) {
+            Keypair keypair = Keypair.generate();
+            senders.add(keypair);
+            keys.put(keypair.getAddress(), keypair.getPublicKey());
+        }
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Test that a block is verified once and then answered from the cache
+     */
+    @Test
+    public void testBlockVerification() {
+        LOGGER.info("Starting testBlockVerification");
+
+        TransactionSignatureVerifier verifier = new TransactionSignatureVerifier(keys::get, 1000, pool, 4);
+        List<Transaction> transactions = signedTransactions(200);
+
+        assertEquals(-1, verifier.verifyAll(transactions));
+        assertEquals(200L, verifier.getMissCount());
+        assertEquals(-1, verifier.verifyAll(transactions));
+        assertEquals(200L, verifier.getHitCount());
+        assertEquals(200L, verifier.getMissCount());
+    }
+
+    /**
+     * Test that a tampered or unknown-sender transaction fails the block
+     */
+    @Test
+    public void testInvalidSignatures() {
+        LOGGER.info("Starting testInvalidSignatures");
+
+        TransactionSignatureVerifier verifier = new TransactionSignatureVerifier(keys::get, 1000, pool, 4);
+        List<Transaction> transactions = signedTransactions(100);
+        assertEquals(-1, verifier.verifyAll(transactions));
+
+        // Changing a signed field invalidates the cached result as well as the signature
+        transactions.get(57).setValue(999L);
+        assertEquals(57, verifier.verifyAll(transactions));
+        assertFalse(verifier.isVerified(transactions.get(57)), "Tampered transaction should not be cached");
+
+        Transaction unknown = signedTransaction(Keypair.generate(), 1);
+        assertFalse(verifier.verify(unknown), "Unknown sender should fail");
+    }
+
+    /**
+     * Test that changing any signed field after signing fails verification and misses the cache
+     */
+    @Test
+    public void testTamperedFieldsAreRejected() {
+        LOGGER.info("Starting testTamperedFieldsAreRejected");
+
+        TransactionSignatureVerifier verifier = new TransactionSignatureVerifier(keys::get, 1000, pool, 4);
+        List<Consumer<Transaction>> tamperings = List.of(
+                tx -> tx.setValue(tx.getValue() + 1),
+                tx -> tx.setNonce(tx.getNonce() + 1),
+                tx -> tx.setGasLimit(tx.getGasLimit() + 1),
+                tx -> tx.setGasPrice(tx.getGasPrice().add(BigInteger.ONE)),
+                tx -> tx.setTo(senders.get(1).getAddress()),
+                tx -> tx.setFrom(senders.get(1).getAddress()),
+                tx -> tx.setSender("attacker"),
+                tx -> tx.setRecipient("attacker"),
+                tx -> tx.setFee(BigInteger.valueOf(1_000_000)));
+
+        for (int i = 0; i < tamperings.size(); i++) {
+            Transaction tx = signedTransaction(senders.get(0), i);
+            assertTrue(verifier.verify(tx), "Untouched transaction " + i + " should verify");
+
+            long missesBefore = verifier.getMissCount();
+            tamperings.get(i).accept(tx);
+            assertFalse(verifier.verify(tx), "Tampered transaction " + i + " should fail");
+            assertEquals(missesBefore + 1, verifier.getMissCount(),
+                    "Tampered transaction " + i + " should miss the cache");
+        }
+    }
+
+    /**
+     * Test that transactions admitted to the mempool are not verified again at block import
+     */
+    @Test
+    public void testMempoolSharesCache() {
+        LOGGER.info("Starting testMempoolSharesCache");
+
+        TransactionSignatureVerifier verifier = new TransactionSignatureVerifier(keys::get, 1000, pool, 4);
+        TransactionValidator mempoolValidator = new TransactionValidator(
+                new MempoolConfig.Builder().minGasPrice(BigInteger.ONE).build(), verifier);
+        List<Transaction> transactions = signedTransactions(50);
+
+        for (Transaction tx : transactions) {
+            assertTrue(mempoolValidator.validateTransaction(tx), "Signed transaction should be admitted");
+        }
+
+        long missesBefore = verifier.getMissCount();
+        assertEquals(-1, verifier.verifyAll(transactions));
+        assertEquals(missesBefore, verifier.getMissCount());
+    }
+
+    private List<Transaction> signedTransactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(signedTransaction(senders.get(i % senders.size()), i));
+        }
+        return transactions;
+    }
+
+    private static Transaction signedTransaction(Keypair sender, int index) {
+        Transaction tx;
+        do {
+            // The constructor picks a random nonce; the mempool rejects negative ones
+            tx = new Transaction(("payload-" + index).getBytes(StandardCharsets.UTF_8));
+        } while (tx.getNonce() < 0);
+        tx.setFrom(sender.getAddress());
+        tx.setTo(Address.fromBytes(new byte[Address.ADDRESS_LENGTH]));
+        tx.setValue((long) index);
+        tx.setGasPrice(BigInteger.TEN);
+        tx.setSignature(sender.sign(tx.getSigningData()));
+        return tx;
+    }
+}
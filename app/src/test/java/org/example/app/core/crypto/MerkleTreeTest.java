@@ -0,0 +1,126 @@
+package org.example.app.core.crypto;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.block.Block;
+import org.example.app.core.block.BlockView;
+import org.example.app.core.block.Transaction;
+import org.example.app.core.pbftconsensus.CheckpointManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tests the fork/join Merkle root, checked against a plain level-by-level fold
+ */
+public class MerkleTreeTest {
+    private static final Logger LOGGER = Logger.getLogger(MerkleTreeTest.class.getName());
+
+    /**
+     * Test that roots split across fork/join tasks equal a sequential fold for awkward sizes
+     */
+    @Test
+    public void testParallelMatchesSequential() {
+        LOGGER.info("Starting testParallelMatchesSequential");
+
+        assertArrayEquals(MerkleTree.EMPTY_ROOT, MerkleTree.computeRoot(new ArrayList<byte[]>()),
+                "Empty tree should have the empty root");
+
+        for (int size : new int[]{1, 2, 3, 5, 1023, 1024, 1025, 3000, 70001}) {
+            List<byte[]> items = items(size);
+            assertArrayEquals(referenceRoot(items), MerkleTree.computeRoot(items),
+                    "Parallel root of " + size + " leaves should match the sequential fold");
+        }
+
+        List<byte[]> items = items(2);
+        byte[] expected = MerkleTree.nodeHash(MerkleTree.leafHash(items.get(0)), MerkleTree.leafHash(items.get(1)));
+        assertArrayEquals(expected, MerkleTree.computeRoot(items), "Two leaves should hash to their parent");
+    }
+
+    /**
+     * Test that digest roots reject leaves that are not 32 bytes
+     */
+    @Test
+    public void testInvalidDigests() {
+        LOGGER.info("Starting testInvalidDigests");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MerkleTree.computeRootOfDigests(List.of(new byte[32], new byte[31])),
+                "Short digest should be rejected");
+    }
+
+    /**
+     * Test that a block and its encoded view agree on the transactions root
+     */
+    @Test
+    public void testTransactionsRoot() {
+        LOGGER.info("Starting testTransactionsRoot");
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            transactions.add(new Transaction(("payload-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        Block block = new Block("hash", "parent", "miner", 1L, 1L, 7L, transactions);
+
+        byte[] root = block.computeTransactionsRoot();
+        assertArrayEquals(root, BlockView.wrap(block.serialize()).computeTransactionsRoot(),
+                "View root should match block root");
+
+        transactions.set(1200, new Transaction("changed".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(Arrays.equals(root, block.computeTransactionsRoot()),
+                "Changing a transaction should change the root");
+    }
+
+    /**
+     * Test that a checkpoint digest is the Merkle root of its entries
+     */
+    @Test
+    public void testCheckpointDigest() {
+        LOGGER.info("Starting testCheckpointDigest");
+
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            entries.add("account-" + i + "=" + (i * 31));
+        }
+        CheckpointManager manager = new CheckpointManager();
+        manager.createCheckpoint(1, String.join(",", entries));
+
+        String digest = manager.getCheckpointDigest(1);
+        assertEquals(CheckpointManager.computeStateRoot(entries), digest);
+        assertTrue(manager.verifyCheckpoint(1, digest), "Matching digest should verify");
+        assertFalse(manager.verifyCheckpoint(1, "00"), "Other digest should not verify");
+
+        // Entries containing commas keep their digest when it is computed on demand
+        List<String> commaEntries = List.of("a=1,2", "b=3");
+        manager.createCheckpoint(2, commaEntries, null);
+        assertEquals(CheckpointManager.computeStateRoot(commaEntries), manager.getCheckpointDigest(2));
+    }
+
+    private static List<byte[]> items(int size) {
+        List<byte[]> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(("leaf-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return items;
+    }
+
+    // Pairs nodes left to right, promoting an unpaired node
+    private static byte[] referenceRoot(List<byte[]> items) {
+        List<byte[]> level = new ArrayList<>();
+        for (byte[] item : items) {
+            level.add(MerkleTree.leafHash(item));
+        }
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += 2) {
+                next.add(i + 1 < level.size() ? MerkleTree.nodeHash(level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+}
@@ -0,0 +1,289 @@
+package org.example.app.core.encoder;
+
+import org.example.app.core.block.Block;
+import org.example.app.core.block.BlockView;
+import org.example.app.core.block.Transaction;
+import org.example.app.core.crypto.Keypair;
+import org.example.app.core.p2p.Message;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simple test for the schema-based binary encoding, with a timing comparison
+ * against Java object serialization
+ */
+public class BinaryCodecTest {
+
+    // Simple test framework variables
+    private int totalTests = 0;
+    private int passedTests = 0;
+
+    public static void main(String[] args) {
+        BinaryCodecTest test = new BinaryCodecTest();
+        test.runAllTests();
+    }
+
+    public void runAllTests() {
+        System.out.println("=== Starting Binary Codec Tests ===");
+
+        // Run all test methods
+        testVarints();
+        testMessageRoundTrip();
+        testTransactionRoundTrip();
+        testBlockStreamRoundTrip();
+        testRejectsTruncatedInput();
+        compareWithJavaSerialization();
+
+        // Print test results
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total tests: " + totalTests);
+        System.out.println("Passed tests: " + passedTests);
+        System.out.println("Failed tests: " + (totalTests - passedTests));
+        if (totalTests > 0) {
+            System.out.println("Success rate: " + (passedTests * 100 / totalTests) + "%");
+        }
+    }
+
+    // Simple assertion methods
+    private void assertTrue(String message, boolean condition) {
+        totalTests++;
+        if (condition) {
+            passedTests++;
+            System.out.println("[PASS] " + message);
+        } else {
+            System.out.println("[FAIL] " + message);
+        }
+    }
+
+    private void assertEquals(Object expected, Object actual) {
+        boolean isEqual = expected == null ? actual == null : expected.equals(actual);
+        assertTrue("Expected: " + expected + ", Actual: " + actual, isEqual);
+    }
+
+    /**
+     * Test varint and zigzag boundaries
+     */
+    public void testVarints() {
+        System.out.println("\n=== Testing Varints ===");
+
+        long[] values = {0, 1, -1, 127, 128, Long.MAX_VALUE, Long.MIN_VALUE};
+        BinaryWriter writer = new BinaryWriter(4);
+        for (long value : values) {
+            writer.writeSignedVarLong(value);
+        }
+        writer.writeVarLong(-1L);
+
+        BinaryReader reader = new BinaryReader(writer.toByteArray());
+        for (long value : values) {
+            assertEquals(value, reader.readSignedVarLong());
+        }
+        assertEquals(-1L, reader.readVarLong());
+        assertEquals(0, reader.remaining());
+    }
+
+    /**
+     * Test that a p2p message survives encoding and decoding
+     */
+    public void testMessageRoundTrip() {
+        System.out.println("\n=== Testing Message Round Trip ===");
+
+        try {
+            Message original = new Message("peer-1", "hello é世 world");
+            byte[] encoded = original.serialize();
+            Message decoded = Message.deserialize(encoded);
+
+            assertEquals(original, decoded);
+            assertTrue("Binary message should not start with the Java stream magic",
+                    encoded[0] != (byte) 0xAC);
+        } catch (Exception e) {
+            assertTrue("No exception expected: " + e, false);
+        }
+
+        try {
+            Message.deserialize(javaSerialize(new Message("peer-1", "legacy")));
+            assertTrue("Java serialization stream should be rejected", false);
+        } catch (IOException e) {
+            assertTrue("Java serialization stream rejected", true);
+        }
+    }
+
+    /**
+     * Test that transaction fields survive encoding and decoding
+     */
+    public void testTransactionRoundTrip() {
+        System.out.println("\n=== Testing Transaction Round Trip ===");
+
+        Transaction original = newTransaction(7);
+        BinaryWriter writer = new BinaryWriter();
+        original.writeTo(writer);
+        Transaction decoded = Transaction.readFrom(new BinaryReader(writer.toByteArray()));
+
+        assertEquals(original, decoded);
+        assertEquals(original.getNonce(), decoded.getNonce());
+        assertEquals(original.getGasPrice(), decoded.getGasPrice());
+        assertEquals(original.getGasLimit(), decoded.getGasLimit());
+        assertEquals(original.getSender(), decoded.getSender());
+        assertEquals(original.getValue(), decoded.getValue());
+        assertEquals(original.getSignature().getS(), decoded.getSignature().getS());
+        assertEquals(original.getStatus(), decoded.getStatus());
+    }
+
+    /**
+     * Test writing several blocks to one stream and reading them back
+     */
+    public void testBlockStreamRoundTrip() {
+        System.out.println("\n=== Testing Block Stream Round Trip ===");
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            GobBlockEncoder encoder = new GobBlockEncoder(out);
+            Block first = newBlock(1, 3);
+            Block second = newBlock(2, 0);
+            second.setStateRoot(new byte[]{1, 2, 3});
+            encoder.encode(first);
+            encoder.encode(second);
+
+            GobBlockDecoder decoder = new GobBlockDecoder(new ByteArrayInputStream(out.toByteArray()));
+            Block decodedFirst = decoder.decode();
+            Block decodedSecond = decoder.decode();
+
+            assertEquals(first.getHash(), decodedFirst.getHash());
+            assertEquals(first.getTransactions(), decodedFirst.getTransactions());
+            assertEquals(second.getNumber(), decodedSecond.getNumber());
+            assertTrue("State root should round trip",
+                    Arrays.equals(second.getStateRoot(), decodedSecond.getStateRoot()));
+
+            boolean endOfStream = false;
+            try {
+                decoder.decode();
+            } catch (EOFException e) {
+                endOfStream = true;
+            }
+            assertTrue("Reading past the last record should raise EOFException", endOfStream);
+        } catch (Exception e) {
+            assertTrue("No exception expected: " + e, false);
+        }
+    }
+
+    /**
+     * Test that truncated input is rejected
+     */
+    public void testRejectsTruncatedInput() {
+        System.out.println("\n=== Testing Truncated Input ===");
+
+        BinaryWriter writer = new BinaryWriter();
+        newTransaction(1).writeTo(writer);
+        byte[] truncated = Arrays.copyOf(writer.toByteArray(), writer.size() - 3);
+
+        boolean rejected = false;
+        try {
+            Transaction.readFrom(new BinaryReader(truncated));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertTrue("Truncated transaction should be rejected", rejected);
+
+        // An empty block whose transaction count varint is rewritten to 0xFFFFFFFF07
+        byte[] header = newBlock(1, 0).serialize();
+        byte[] hugeCount = Arrays.copyOf(header, header.length + 4);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0,
+                hugeCount, header.length - 1, 5);
+        rejected = false;
+        try {
+            BlockView.wrap(hugeCount);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertTrue("Transaction count beyond the input should be rejected", rejected);
+
+        byte[] encoded = newBlock(2, 3).serialize();
+        rejected = false;
+        try {
+            BlockView.wrap(Arrays.copyOf(encoded, encoded.length - 3));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assertTrue("Truncated block should be rejected when the view is created", rejected);
+    }
+
+    /**
+     * Compare size and speed of the binary encoding and Java serialization for messages
+     */
+    public void compareWithJavaSerialization() {
+        System.out.println("\n=== Comparing With Java Serialization ===");
+
+        try {
+            Message message = new Message("replica-3", "PREPARE|3|" + "ab".repeat(32) + "|request-payload");
+            int iterations = 20000;
+
+            byte[] javaBytes = javaSerialize(message);
+            byte[] binaryBytes = message.serialize();
+
+            // Warm up both paths before timing
+            for (int i = 0; i < iterations; i++) {
+                javaDeserialize(javaSerialize(message));
+                Message.deserialize(message.serialize());
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                javaDeserialize(javaSerialize(message));
+            }
+            long javaNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Message.deserialize(message.serialize());
+            }
+            long binaryNanos = System.nanoTime() - start;
+
+            System.out.println("Java serialization:  " + javaBytes.length + " bytes, " +
+                    (javaNanos / iterations) + " ns per round trip");
+            System.out.println("Binary encoding:     " + binaryBytes.length + " bytes, " +
+                    (binaryNanos / iterations) + " ns per round trip");
+            assertTrue("Binary encoding should be smaller", binaryBytes.length < javaBytes.length);
+            assertEquals(message, javaDeserialize(javaBytes));
+        } catch (Exception e) {
+            assertTrue("No exception expected: " + e, false);
+        }
+    }
+
+    private static Transaction newTransaction(int seed) {
+        Transaction tx = new Transaction(("payload-" + seed).getBytes());
+        tx.setGasPrice(BigInteger.valueOf(1_000_000_000L + seed));
+        tx.setGasLimit(21000 + seed);
+        tx.setValue(100L * seed);
+        tx.setSender("sender-" + seed);
+        tx.setRecipient("recipient-" + seed);
+        tx.setSignature(new Keypair.SignatureResult(BigInteger.valueOf(seed), BigInteger.TEN.pow(70)));
+        tx.setStatus(Transaction.TransactionStatus.CONFIRMED);
+        return tx;
+    }
+
+    private static Block newBlock(long number, int txCount) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < txCount; i++) {
+            transactions.add(newTransaction(i));
+        }
+        return new Block("hash-" + number, "parent-" + number, "miner", 1700000000000L + number,
+                1000, number, transactions);
+    }
+
+    private static byte[] javaSerialize(Message message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(out)) {
+            objectStream.writeObject(message);
+        }
+        return out.toByteArray();
+    }
+
+    private static Message javaDeserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Message) objectStream.readObject();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package org.example.app.core.mempool;
+
+import org.example.app.core.block.Transaction;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple test for the per-sender nonce queues and price ordering of the transaction pool
+ */
+public class TransactionPoolTest {
+
+    // Simple test framework variables
+    private int totalTests = 0;
+    private int passedTests = 0;
+
+    public static void main(String[] args) {
+        TransactionPoolTest test = new TransactionPoolTest();
+        test.runAllTests();
+    }
+
+    public void runAllTests() {
+        System.out.println("=== Starting Transaction Pool Tests ===");
+
+        // Run all test methods
+        testNonceOrdering();
+        testFutureTransactions();
+        testReplacementByFee();
+        testLimitsAndExpiry();
+        testBlockSelection();
+        testConcurrentAdmission();
+        testEvictionWhenFull();
+        testIncludedNonceReplay();
+        testArrivalsDropRemovedEntries();
+
+        // Print test results
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total tests: " + totalTests);
+        System.out.println("Passed tests: " + passedTests);
+        System.out.println("Failed tests: " + (totalTests - passedTests));
+        if (totalTests > 0) {
+            System.out.println("Success rate: " + (passedTests * 100 / totalTests) + "%");
+        }
+    }
+
+    // Simple assertion methods
+    private void assertTrue(String message, boolean condition) {
+        totalTests++;
+        if (condition) {
+            passedTests++;
+            System.out.println("[PASS] " + message);
+        } else {
+            System.out.println("[FAIL] " + message);
+        }
+    }
+
+    private void assertEquals(Object expected, Object actual) {
+        boolean isEqual = expected == null ? actual == null : expected.equals(actual);
+        assertTrue("Expected: " + expected + ", Actual: " + actual, isEqual);
+    }
+
+    /**
+     * Test that a sender's cheap transaction still comes before its expensive later nonce
+     */
+    public void testNonceOrdering() {
+        System.out.println("\n=== Testing Nonce Ordering ===");
+
+        TransactionPool pool = new TransactionPool(100);
+        pool.addTransaction(tx("alice", 1, 50));
+        pool.addTransaction(tx("alice", 0, 1));
+        pool.addTransaction(tx("bob", 0, 20));
+
+        assertEquals("bob:0", describe(pool.getPendingTransaction()));
+        assertEquals("alice:0", describe(pool.getPendingTransaction()));
+        assertEquals("alice:1", describe(pool.getPendingTransaction()));
+        assertTrue("Pool should be empty", pool.getPendingTransaction() == null);
+    }
+
+    /**
+     * Test that a nonce gap holds later transactions back until it is filled
+     */
+    public void testFutureTransactions() {
+        System.out.println("\n=== Testing Future Transactions ===");
+
+        Map<String, Long> accountNonces = new HashMap<>();
+        accountNonces.put("carol", 5L);
+        TransactionPool pool = new TransactionPool(config(100, 3600000), accountNonces::get);
+
+        assertTrue("Stale nonce should be rejected", !pool.addTransaction(tx("carol", 4, 10)));
+        pool.addTransaction(tx("carol", 7, 10));
+        pool.addTransaction(tx("carol", 6, 10));
+        assertEquals(0, pool.getPendingCount());
+        assertEquals(2, pool.getQueuedCount());
+        assertTrue("Gapped transactions should not be selected", pool.selectTransactions(10).isEmpty());
+
+        pool.addTransaction(tx("carol", 5, 10));
+        assertEquals(3, pool.getPendingCount());
+        assertEquals("carol:5", describe(pool.getPendingTransaction()));
+
+        pool.setAccountNonce("carol", 7);
+        assertEquals(1, pool.size());
+        assertEquals("carol:7", describe(pool.getPendingTransaction()));
+    }
+
+    /**
+     * Test that a replacement needs the configured gas price bump
+     */
+    public void testReplacementByFee() {
+        System.out.println("\n=== Testing Replacement By Fee ===");
+
+        TransactionPool pool = new TransactionPool(100);
+        pool.addTransaction(tx("dave", 0, 100));
+        assertTrue("Same price should not replace", !pool.addTransaction(tx("dave", 0, 100)));
+        assertTrue("Small bump should not replace", !pool.addTransaction(tx("dave", 0, 109)));
+        assertTrue("10% bump should replace", pool.addTransaction(tx("dave", 0, 110)));
+        assertEquals(1, pool.size());
+        assertEquals(BigInteger.valueOf(110), pool.getPendingTransaction().getGasPrice());
+    }
+
+    /**
+     * Test the per-account limit and time-based eviction
+     */
+    public void testLimitsAndExpiry() {
+        System.out.println("\n=== Testing Limits And Expiry ===");
+
+        TransactionPool pool = new TransactionPool(config(3, 1000));
+        for (int nonce = 0; nonce < 3; nonce++) {
+            pool.addTransaction(tx("erin", nonce, 10));
+        }
+        assertTrue("Fourth transaction should exceed the account limit", !pool.addTransaction(tx("erin", 3, 10)));
+        assertTrue("Other senders are not limited", pool.addTransaction(tx("frank", 0, 10)));
+
+        assertEquals(0, pool.evictExpired(System.currentTimeMillis()));
+        assertEquals(4, pool.evictExpired(System.currentTimeMillis() + 1000));
+        assertEquals(0, pool.size());
+    }
+
+    /**
+     * Test that block selection is price-ordered, nonce-valid and leaves the pool unchanged
+     */
+    public void testBlockSelection() {
+        System.out.println("\n=== Testing Block Selection ===");
+
+        Random random = new Random(3);
+        TransactionPool pool = new TransactionPool(config(100, 3600000));
+        for (int sender = 0; sender < 200; sender++) {
+            int count = 1 + random.nextInt(8);
+            for (int nonce = 0; nonce < count; nonce++) {
+                pool.addTransaction(tx("sender-" + sender, nonce, 1 + random.nextInt(1000)));
+            }
+        }
+        int total = pool.size();
+
+        List<Transaction> selected = pool.selectTransactions(300);
+        assertEquals(300, selected.size());
+        assertEquals(total, pool.size());
+
+        Map<String, Long> expectedNonce = new HashMap<>();
+        boolean nonceValid = true;
+        for (Transaction tx : selected) {
+            long expected = expectedNonce.getOrDefault(tx.getSender(), 0L);
+            nonceValid &= tx.getNonce() == expected;
+            expectedNonce.put(tx.getSender(), expected + 1);
+        }
+        assertTrue("Selection should be nonce-valid", nonceValid);
+
+        List<Transaction> drained = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            drained.add(pool.getPendingTransaction());
+        }
+        assertTrue("Selection should match taking the best transaction repeatedly", selected.equals(drained));
+        assertEquals(total - 300, pool.size());
+    }
+
+    /**
+     * Test admission from several threads across the shards, including the pool size bound
+     */
+    public void testConcurrentAdmission() {
+        System.out.println("\n=== Testing Concurrent Admission ===");
+
+        TransactionPool pool = new TransactionPool(new MempoolConfig.Builder()
+                .minGasPrice(BigInteger.ONE)
+                .maxSize(3000)
+                .shardCount(8)
+                .build());
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int sender = 0; sender < 100; sender++) {
+                    for (int nonce = 0; nonce < 10; nonce++) {
+                        // Equal prices, so a full pool rejects rather than evicts
+                        if (pool.addTransaction(tx("thread-" + thread + "-" + sender, nonce, 10))) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        assertEquals(3000, accepted.get());
+        assertEquals(3000, pool.size());
+        assertEquals(3000, pool.getPendingCount() + pool.getQueuedCount());
+        int drained = 0;
+        while (pool.getPendingTransaction() != null) {
+            drained++;
+        }
+        assertTrue("Every transaction should be taken", drained + pool.size() == 3000);
+    }
+
+    /**
+     * Test that a full pool evicts its cheapest transaction and that transaction's later nonces
+     */
+    public void testEvictionWhenFull() {
+        System.out.println("\n=== Testing Eviction When Full ===");
+
+        TransactionPool pool = new TransactionPool(new MempoolConfig.Builder()
+                .minGasPrice(BigInteger.ONE)
+                .maxSize(5)
+                .shardCount(4)
+                .build());
+        pool.addTransaction(tx("spammer", 0, 1));
+        pool.addTransaction(tx("spammer", 1, 90));
+        pool.addTransaction(tx("grace", 0, 50));
+        pool.addTransaction(tx("heidi", 0, 60));
+        pool.addTransaction(tx("ivan", 0, 70));
+
+        assertTrue("Cheaper transaction should be rejected when full", !pool.addTransaction(tx("judy", 0, 1)));
+        assertTrue("Dependent of the cheapest should not displace it", !pool.addTransaction(tx("spammer", 2, 100)));
+        assertTrue("Better transaction should be admitted when full", pool.addTransaction(tx("judy", 0, 80)));
+        assertEquals(4, pool.size());
+        assertTrue("Cheapest sender's later nonce should be evicted too", pool.getTransactions("spammer").isEmpty());
+
+        TransactionPriorityQueue queue = new TransactionPriorityQueue(2);
+        queue.add(tx("a", 0, 10));
+        queue.add(tx("b", 0, 30));
+        assertTrue("Queue should evict its cheapest for a better transaction", queue.add(tx("c", 0, 20)));
+        assertTrue("Queue should reject a transaction cheaper than all", !queue.add(tx("d", 0, 5)));
+        assertEquals("b:0", describe(queue.poll()));
+        assertEquals("c:0", describe(queue.poll()));
+        assertTrue("Queue should be empty", queue.isEmpty());
+    }
+
+    /**
+     * Test that a nonce polled or included after its sender's queue emptied cannot be added again
+     */
+    public void testIncludedNonceReplay() {
+        System.out.println("\n=== Testing Included Nonce Replay ===");
+
+        TransactionPool pool = new TransactionPool(100);
+        pool.addTransaction(tx("alice", 0, 10));
+        assertEquals("alice:0", describe(pool.getPendingTransaction()));
+        assertTrue("Polled nonce should be rejected", !pool.addTransaction(tx("alice", 0, 10)));
+        assertTrue("Next nonce should be accepted", pool.addTransaction(tx("alice", 1, 10)));
+        assertEquals("alice:1", describe(pool.getPendingTransaction()));
+
+        pool.addTransaction(tx("bob", 0, 10));
+        pool.addTransaction(tx("bob", 1, 10));
+        pool.removeIncluded(List.of(tx("bob", 0, 10), tx("bob", 1, 10)));
+        assertEquals(0, pool.size());
+        assertTrue("Included nonce should be rejected", !pool.addTransaction(tx("bob", 1, 20)));
+
+        pool.removeIncluded(List.of(tx("carol", 0, 10)));
+        assertTrue("Nonce included before the sender was seen should be rejected",
+                !pool.addTransaction(tx("carol", 0, 10)));
+        assertTrue("Next nonce should be executable", pool.addTransaction(tx("carol", 1, 10)));
+        assertEquals("carol:1", describe(pool.getPendingTransaction()));
+    }
+
+    /**
+     * Test that polled transactions stop being tracked for expiry when the pool never fills up
+     */
+    public void testArrivalsDropRemovedEntries() {
+        System.out.println("\n=== Testing Arrivals Drop Removed Entries ===");
+
+        MempoolShard shard = new MempoolShard(config(16, 60_000), 1000, sender -> 0L,
+                new AtomicInteger(), new AtomicLong());
+        int polled = 0;
+        for (int i = 0; i < 200_000; i++) {
+            shard.add(tx("alice", i, 10), "alice", BigInteger.TEN);
+            if (shard.pollBest(shard.peekBest())) {
+                polled++;
+            }
+        }
+        assertEquals(200_000, polled);
+        assertEquals(0, shard.size());
+        assertEquals(0, shard.arrivalCount());
+
+        shard.add(tx("alice", 200_000, 10), "alice", BigInteger.TEN);
+        assertEquals(1, shard.evictExpired(System.currentTimeMillis() + 60_000));
+        assertEquals(0, shard.arrivalCount());
+    }
+
+    private static MempoolConfig config(int maxTransactionsPerAccount, long txTimeout) {
+        return new MempoolConfig.Builder()
+                .minGasPrice(BigInteger.ONE)
+                .maxTransactionsPerAccount(maxTransactionsPerAccount)
+                .txTimeout(txTimeout)
+                .build();
+    }
+
+    private static Transaction tx(String sender, long nonce, long gasPrice) {
+        Transaction tx = new Transaction(new byte[0]);
+        tx.setSender(sender);
+        tx.setNonce(nonce);
+        tx.setGasPrice(BigInteger.valueOf(gasPrice));
+        return tx;
+    }
+
+    private static String describe(Transaction tx) {
+        return tx == null ? null : tx.getSender() + ":" + tx.getNonce();
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.app.core.pbftconsensus;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.crypto.Keypair;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tests the binary PBFT wire codec
+ */
+public class PBFTMessageCodecTest {
+    private static final Logger LOGGER = Logger.getLogger(PBFTMessageCodecTest.class.getName());
+
+    /**
+     * Test that every field survives encoding and decoding
+     */
+    @Test
+    public void testRoundTrip() {
+        LOGGER.info("Starting testRoundTrip");
+
+        PBFTMessageCodec codec = new PBFTMessageCodec();
+        Keypair keypair = Keypair.generate();
+        byte[] signedData = "payload".getBytes();
+
+        PBFTMessage original = new PBFTMessage("COMMIT", 3, "0f".repeat(32), keypair.sign(signedData));
+        original.setContent("request|with|delimiters\nand newlines");
+        original.setViewNumber(7);
+        original.setSequenceNumber(123456);
+
+        byte[] encoded = codec.encode(original);
+        PBFTMessage decoded = codec.decode(encoded);
+
+        assertEquals(original.getType(), decoded.getType());
+        assertEquals(original.getSenderId(), decoded.getSenderId());
+        assertEquals(original.getDigest(), decoded.getDigest());
+        assertEquals(original.getContent(), decoded.getContent());
+        assertEquals(original.getViewNumber(), decoded.getViewNumber());
+        assertEquals(original.getSequenceNumber(), decoded.getSequenceNumber());
+        assertTrue(keypair.verify(decoded.getSignature(), signedData), "Decoded signature should verify");
+        assertTrue(encoded.length < original.serialize().length(),
+                "Binary encoding should be smaller than text encoding");
+    }
+
+    /**
+     * Test types outside the type table and digests that are not SHA-256 hex
+     */
+    @Test
+    public void testCustomTypeAndShortDigest() {
+        LOGGER.info("Starting testCustomTypeAndShortDigest");
+
+        PBFTMessageCodec codec = new PBFTMessageCodec();
+        PBFTMessage original = new PBFTMessage("HEARTBEAT", 1, "1a2b", null);
+
+        PBFTMessage decoded = codec.decode(codec.encode(original));
+
+        assertEquals("HEARTBEAT", decoded.getType());
+        assertEquals("1a2b", decoded.getDigest());
+        assertNull(decoded.getContent());
+        assertNull(decoded.getSignature());
+    }
+
+    /**
+     * Test length-prefixed batches through the message handler
+     */
+    @Test
+    public void testBatchRoundTrip() {
+        LOGGER.info("Starting testBatchRoundTrip");
+
+        PBFTMessageHandler handler = new PBFTMessageHandler();
+        PBFTMessage first = new PBFTMessage("PREPARE", 0, "aa".repeat(32), null);
+        first.setSequenceNumber(1);
+        PBFTMessage second = new PBFTMessage("PREPARE", 1, "bb".repeat(32), null);
+        second.setSequenceNumber(2);
+
+        List<PBFTMessage> decoded = handler.unbatchMessagesBinary(
+                handler.batchMessagesBinary(Arrays.asList(first, second)));
+
+        assertEquals(2, decoded.size());
+        assertEquals(first.getDigest(), decoded.get(0).getDigest());
+        assertEquals(2, decoded.get(1).getSequenceNumber());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        handler.encodeBinaryFrame(first, buffer);
+        buffer.flip();
+        assertEquals(first.getDigest(), new PBFTMessageCodec().decodeBatch(buffer).get(0).getDigest());
+    }
+
+    /**
+     * Test that an unknown version byte is rejected
+     */
+    @Test
+    public void testRejectsUnknownVersion() {
+        LOGGER.info("Starting testRejectsUnknownVersion");
+
+        PBFTMessageCodec codec = new PBFTMessageCodec();
+        byte[] encoded = codec.encode(new PBFTMessage("PREPARE", 0, "d", null));
+        encoded[0] = (byte) (PBFTMessageCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded),
+                "Unknown version should be rejected");
+    }
+}
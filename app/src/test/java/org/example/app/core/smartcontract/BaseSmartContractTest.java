@@ -41,6 +41,8 @@ public class BaseSmartContractTest {
                 (byte) 0x01,          // ADD opcode (0x01)
                 (byte) 0x60, 0x01,    // PUSH1 opcode (0x60) and storage key
                 (byte) 0x55,          // SSTORE opcode (0x55)
+                (byte) 0x60, 0x00,    // PUSH1 opcode (0x60) and return length 0
+                (byte) 0x60, 0x00,    // PUSH1 opcode (0x60) and return offset 0
                 (byte) 0xF3           // RETURN opcode (0xF3)
         };
     }
@@ -0,0 +1,380 @@
+package org.example.app.core.smartcontract;
+
+import org.example.app.core.block.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Tests the EVM interpreter's 256-bit word arithmetic, stack operations, memory gas and control flow
+ */
+public class EvmInterpreterTest {
+    private static final Logger LOGGER = Logger.getLogger(EvmInterpreterTest.class.getName());
+
+    private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(256);
+
+    private EvmState evmState;
+    private Evm evm;
+
+    @BeforeEach
+    public void setUp() {
+        evmState = new EvmState();
+        evm = new Evm(evmState);
+    }
+
+    /**
+     * Test that binary operations on random 256-bit words match BigInteger arithmetic
+     */
+    @Test
+    public void testWordArithmeticMatchesBigInteger() {
+        LOGGER.info("Starting testWordArithmeticMatchesBigInteger");
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            BigInteger a = randomWord(random);
+            BigInteger b = randomWord(random);
+            BigInteger shift = BigInteger.valueOf(random.nextInt(300));
+
+            checkBinary(Evm.Opcode.ADD, a, b, (x, y) -> x.add(y).mod(MODULUS));
+            checkBinary(Evm.Opcode.SUB, a, b, (x, y) -> x.subtract(y).mod(MODULUS));
+            checkBinary(Evm.Opcode.MUL, a, b, (x, y) -> x.multiply(y).mod(MODULUS));
+            checkBinary(Evm.Opcode.DIV, a, b, (x, y) -> y.signum() == 0 ? BigInteger.ZERO : x.divide(y));
+            checkBinary(Evm.Opcode.MOD, a, b, (x, y) -> y.signum() == 0 ? BigInteger.ZERO : x.mod(y));
+            checkBinary(Evm.Opcode.LT, a, b, (x, y) -> x.compareTo(y) < 0 ? BigInteger.ONE : BigInteger.ZERO);
+            checkBinary(Evm.Opcode.GT, a, b, (x, y) -> x.compareTo(y) > 0 ? BigInteger.ONE : BigInteger.ZERO);
+            checkBinary(Evm.Opcode.AND, a, b, BigInteger::and);
+            checkBinary(Evm.Opcode.XOR, a, b, BigInteger::xor);
+            checkBinary(Evm.Opcode.SHL, shift, b, (s, x) -> x.shiftLeft(s.intValue()).mod(MODULUS));
+            checkBinary(Evm.Opcode.SHR, shift, b, (s, x) -> x.shiftRight(s.intValue()));
+        }
+    }
+
+    /**
+     * Test that division and modulo of operands of every width match BigInteger, including
+     * divisors whose quotient digit estimates need correcting
+     */
+    @Test
+    public void testWideDivisionMatchesBigInteger() {
+        LOGGER.info("Starting testWideDivisionMatchesBigInteger");
+
+        Random random = new Random(11);
+        BigInteger max = MODULUS.subtract(BigInteger.ONE);
+        BigInteger[][] cases = {
+                {max, BigInteger.ONE.shiftLeft(128).add(BigInteger.ONE)},
+                {max, BigInteger.ONE.shiftLeft(32).add(BigInteger.ONE)},
+                {max, BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)},
+                {new BigInteger("7fff800000000000000000000000", 16), new BigInteger("800000000001", 16)},
+                {BigInteger.ONE.shiftLeft(255), BigInteger.ONE.shiftLeft(96).subtract(BigInteger.ONE)},
+                {BigInteger.ONE.shiftLeft(200).add(BigInteger.TEN), BigInteger.ONE.shiftLeft(200)}
+        };
+        for (BigInteger[] pair : cases) {
+            checkDivision(pair[0], pair[1]);
+        }
+        for (int i = 0; i < 500; i++) {
+            BigInteger a = new BigInteger(1 + random.nextInt(256), random);
+            BigInteger b = new BigInteger(1 + random.nextInt(256), random);
+            checkDivision(a, b);
+            checkDivision(a.max(b), a.min(b));
+        }
+    }
+
+    /**
+     * Test DUP and SWAP on a deep stack
+     */
+    @Test
+    public void testDupAndSwap() {
+        LOGGER.info("Starting testDupAndSwap");
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        for (int i = 1; i <= 16; i++) {
+            code.write(0x60);
+            code.write(i);
+        }
+        code.write(0x8F); // DUP16 copies the 1 pushed first
+        code.write(0x91); // SWAP2 exchanges it with 15
+        assertEquals(BigInteger.valueOf(15), returnTop(code));
+    }
+
+    /**
+     * Test that memory expansion is charged per word plus the quadratic term
+     */
+    @Test
+    public void testMemoryExpansionGas() {
+        LOGGER.info("Starting testMemoryExpansionGas");
+
+        // PUSH1 1, PUSH2 0x0400, MSTORE: 1024 + 32 bytes is 33 words
+        byte[] code = {0x60, 0x01, 0x61, 0x04, 0x00, 0x52, 0x00};
+        Transaction tx = transaction(100000);
+        evm.execute(code, tx);
+
+        long memoryGas = 3 * 33 + 33 * 33 / 512;
+        assertEquals(100000 - (3 + 3 + 3 + memoryGas), (long) evm.getGasManager().getGasRemaining());
+
+        Transaction poor = transaction(1000);
+        byte[] farCode = {0x60, 0x01, 0x62, 0x10, 0x00, 0x00, 0x52, 0x00}; // MSTORE at 1 MiB
+        RuntimeException e = assertThrows(RuntimeException.class, () -> evm.execute(farCode, poor));
+        assertTrue(e.getMessage().contains("Out of gas"), "Large expansion should run out of gas");
+    }
+
+    /**
+     * Test a JUMPI loop that sums 1 to 10 into storage
+     */
+    @Test
+    public void testLoop() {
+        LOGGER.info("Starting testLoop");
+
+        byte[] code = {
+                0x60, 0x00,       // 0: PUSH1 0       [sum]
+                0x60, 0x0A,       // 2: PUSH1 10      [sum, counter]
+                0x5B,             // 4: JUMPDEST
+                (byte) 0x80,      // 5: DUP1          [sum, counter, counter]
+                (byte) 0x91,      // 6: SWAP2         [counter, counter, sum]
+                0x01,             // 7: ADD           [counter, sum + counter]
+                (byte) 0x90,      // 8: SWAP1         [sum, counter]
+                0x60, 0x01,       // 9: PUSH1 1
+                (byte) 0x90,      // 11: SWAP1        [sum, 1, counter]
+                0x03,             // 12: SUB          [sum, counter - 1]
+                (byte) 0x80,      // 13: DUP1
+                0x60, 0x04,       // 14: PUSH1 4
+                0x57,             // 16: JUMPI        loop while the counter is not zero
+                0x50,             // 17: POP          [sum]
+                0x60, 0x01,       // 18: PUSH1 1      key
+                0x55,             // 20: SSTORE
+                0x00              // 21: STOP
+        };
+        evm.execute(code, transaction(1_000_000));
+        assertEquals("55", evmState.load("contract", "1"));
+    }
+
+    /**
+     * Test stack limits and invalid jumps
+     */
+    @Test
+    public void testStackAndJumpErrors() {
+        LOGGER.info("Starting testStackAndJumpErrors");
+
+        RuntimeException underflow = assertThrows(RuntimeException.class,
+                () -> evm.execute(new byte[]{0x01}, transaction(100)));
+        assertTrue(underflow.getMessage().contains("Insufficient stack"), "ADD on an empty stack should fail");
+
+        byte[] overflow = new byte[2 * 1025];
+        for (int i = 0; i < overflow.length; i += 2) {
+            overflow[i] = 0x60;
+        }
+        RuntimeException tooDeep = assertThrows(RuntimeException.class,
+                () -> evm.execute(overflow, transaction(1_000_000)));
+        assertTrue(tooDeep.getMessage().contains("Stack overflow"), "1025 pushes should overflow");
+
+        assertThrows(RuntimeException.class, () -> evm.execute(new byte[]{0x60, 0x64, 0x56}, transaction(100)));
+
+        RuntimeException missingRange = assertThrows(RuntimeException.class,
+                () -> evm.execute(new byte[]{0x60, 0x00, (byte) 0xF3}, transaction(100)));
+        assertTrue(missingRange.getMessage().contains("Insufficient stack"), "RETURN needs an offset and a length");
+        assertThrows(RuntimeException.class, () -> evm.execute(new byte[]{(byte) 0xFD}, transaction(100)));
+    }
+
+    /**
+     * Test that jumps land only on JUMPDEST instructions, not on JUMPDEST bytes inside PUSH data
+     */
+    @Test
+    public void testJumpDestAnalysis() {
+        LOGGER.info("Starting testJumpDestAnalysis");
+
+        // PUSH1 5, JUMP, PUSH1 0x5B, JUMPDEST at 5, PUSH1 7, PUSH1 1, SSTORE
+        byte[] valid = {0x60, 0x05, 0x56, 0x60, 0x5B, 0x5B, 0x60, 0x07, 0x60, 0x01, 0x55};
+        evm.execute(valid, transaction(100000));
+        assertEquals("7", evmState.load("contract", "1"));
+
+        byte[] intoPushData = {0x60, 0x04, 0x56, 0x60, 0x5B, 0x00};
+        RuntimeException e = assertThrows(RuntimeException.class, () -> evm.execute(intoPushData, transaction(100000)));
+        assertTrue(e.getMessage().contains("Invalid jump destination"), "A 0x5B inside PUSH data is not a JUMPDEST");
+    }
+
+    /**
+     * Test that gas is exact when charged per block, including what GAS and PC observe
+     */
+    @Test
+    public void testBlockGasAndCodeCache() {
+        LOGGER.info("Starting testBlockGasAndCodeCache");
+
+        CodeCache cache = new CodeCache(2);
+        Evm cached = new Evm(evmState, cache);
+
+        // PUSH1 1, POP, GAS, PUSH1 0, SSTORE, PC, PUSH1 1, SSTORE, STOP
+        byte[] code = {0x60, 0x01, 0x50, 0x5A, 0x60, 0x00, 0x55, 0x58, 0x60, 0x01, 0x55, 0x00};
+        for (int i = 0; i < 3; i++) {
+            cached.execute(code, transaction(100000));
+        }
+        assertEquals(String.valueOf(100000 - 3 - 2 - 2), evmState.load("contract", "0"), "GAS sees only earlier charges");
+        assertEquals("7", evmState.load("contract", "1"), "PC is the code offset");
+        // The last run stores values the slots already hold: cold access plus a no-op write
+        assertEquals(100000 - (3 + 2 + 2 + 3 + 2100 + 100 + 2 + 3 + 2100 + 100), (long) cached.getGasManager().getGasRemaining());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        cached.execute(code.clone(), transaction(100000));
+        assertEquals(3, cache.getHitCount(), "A copy of cached code is found by its hash");
+
+        cached.execute(new byte[]{0x00}, transaction(100));
+        cached.execute(new byte[]{0x5B, 0x00}, transaction(100));
+        assertEquals(2, cache.size(), "The least recently used analysis is evicted");
+    }
+
+    /**
+     * Test that compiled code with superinstructions produces the same state, output and gas as the interpreter
+     */
+    @Test
+    public void testThreadedCodeMatchesInterpreter() {
+        LOGGER.info("Starting testThreadedCodeMatchesInterpreter");
+
+        byte[] program = {
+                0x60, 0x2A,       // 0: PUSH1 42
+                0x60, 0x00,       // 2: PUSH1 0
+                0x55,             // 4: SSTORE        storage[0] = 42
+                0x60, 0x03,       // 5: PUSH1 3
+                0x54,             // 7: SLOAD         fused constant-key load, [x]
+                0x60, 0x08,       // 8: PUSH1 8
+                0x01,             // 10: ADD          fused add, [x + 8]
+                0x60, 0x03,       // 11: PUSH1 3
+                (byte) 0x80,      // 13: DUP1
+                (byte) 0x91,      // 14: SWAP2
+                (byte) 0x90,      // 15: SWAP1        DUP/SWAP chain, [3, x + 8, 3]
+                0x02,             // 16: MUL          [3, 3(x + 8)]
+                0x60, 0x17,       // 17: PUSH1 23
+                0x56,             // 19: JUMP         fused static jump
+                0x60, 0x00,       // 20: PUSH1 0      skipped
+                0x00,             // 22: STOP
+                0x5B,             // 23: JUMPDEST
+                (byte) 0x80,      // 24: DUP1
+                0x60, 0x01,       // 25: PUSH1 1
+                0x55,             // 27: SSTORE       storage[1] = 3(x + 8)
+                0x5A,             // 28: GAS
+                0x60, 0x02,       // 29: PUSH1 2
+                0x55,             // 31: SSTORE       storage[2] = gas left
+                (byte) 0x90,      // 32: SWAP1        [3(x + 8), 3]
+                0x60, 0x25,       // 33: PUSH1 37
+                0x57,             // 35: JUMPI        fused conditional jump, taken
+                0x00,             // 36: STOP
+                0x5B,             // 37: JUMPDEST
+                0x60, 0x00,       // 38: PUSH1 0
+                0x52,             // 40: MSTORE
+                0x60, 0x20,       // 41: PUSH1 32
+                0x60, 0x00,       // 43: PUSH1 0
+                (byte) 0xF3       // 45: RETURN
+        };
+
+        EvmState interpretedState = new EvmState();
+        Evm interpreted = new Evm(interpretedState, new CodeCache(16, Integer.MAX_VALUE));
+        CodeCache hot = new CodeCache(16, 1);
+        EvmState compiledState = new EvmState();
+        Evm compiled = new Evm(compiledState, hot);
+
+        for (int run = 0; run < 3; run++) {
+            // Seed storage[3] so the result depends on the run
+            interpretedState.store("contract", "3", String.valueOf(run));
+            compiledState.store("contract", "3", String.valueOf(run));
+            interpreted.execute(program, transaction(200000));
+            compiled.execute(program, transaction(200000));
+
+            for (int key = 0; key < 4; key++) {
+                assertEquals(interpretedState.load("contract", String.valueOf(key)),
+                        compiledState.load("contract", String.valueOf(key)), "storage[" + key + "]");
+            }
+            assertArrayEquals(interpreted.getReturnData(), compiled.getReturnData());
+            assertEquals(interpreted.getGasManager().getGasRemaining(), compiled.getGasManager().getGasRemaining());
+        }
+        assertEquals("30", compiledState.load("contract", "1"));
+        assertEquals(BigInteger.valueOf(30), new BigInteger(1, compiled.getReturnData()));
+        assertTrue(hot.analysis(program).isCompiled(), "The program should be compiled after its first call");
+        assertTrue(new ThreadedCode(hot.analysis(program)).getFusedCount() >= 5, "Sequences should be fused");
+
+        byte[] badJump = {0x60, 0x04, 0x56, 0x60, 0x5B, 0x00};
+        RuntimeException e = assertThrows(RuntimeException.class, () -> compiled.execute(badJump, transaction(1000)));
+        assertTrue(e.getMessage().contains("Invalid jump destination"), "Compiled code reports bad jumps");
+    }
+
+    /**
+     * Test EIP-2929 warm and cold storage costs and EIP-2200 write costs
+     */
+    @Test
+    public void testWarmAndColdStorageGas() {
+        LOGGER.info("Starting testWarmAndColdStorageGas");
+
+        byte[] code = {
+                0x60, 0x05, 0x60, 0x01, 0x55,   // SSTORE 5 at 1: cold, zero to non-zero
+                0x60, 0x06, 0x60, 0x01, 0x55,   // SSTORE 6 at 1: warm, already dirty
+                0x60, 0x01, 0x54, 0x50,         // SLOAD 1: warm
+                0x60, 0x02, 0x54, 0x50,         // SLOAD 2: cold
+                0x00
+        };
+        evm.execute(code, transaction(100000));
+        long expected = (3 + 3 + 2100 + 20000) + (3 + 3 + 100) + (3 + 100 + 2) + (3 + 2100 + 2);
+        assertEquals(100000 - expected, (long) evm.getGasManager().getGasRemaining());
+
+        // In a new transaction the slot is cold again and clean, so changing it is a reset
+        byte[] reset = {0x60, 0x07, 0x60, 0x01, 0x55, 0x00};
+        evm.execute(reset, transaction(100000));
+        assertEquals(100000 - (3 + 3 + 2100 + 2900), (long) evm.getGasManager().getGasRemaining());
+        assertEquals("7", evmState.load("contract", "1"));
+    }
+
+    private void checkBinary(Evm.Opcode opcode, BigInteger a, BigInteger b, BinaryOperator<BigInteger> expected) {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        push32(code, b);
+        push32(code, a);
+        code.write(opcode.getValue());
+        BigInteger actual = returnTop(code);
+        assertEquals(expected.apply(a, b), actual, opcode + " of " + a + " and " + b);
+    }
+
+    private void checkDivision(BigInteger a, BigInteger b) {
+        checkBinary(Evm.Opcode.DIV, a, b, (x, y) -> y.signum() == 0 ? BigInteger.ZERO : x.divide(y));
+        checkBinary(Evm.Opcode.MOD, a, b, (x, y) -> y.signum() == 0 ? BigInteger.ZERO : x.mod(y));
+    }
+
+    // Appends MSTORE of the top at 0 and RETURN of that word, runs the code and decodes the output
+    private BigInteger returnTop(ByteArrayOutputStream code) {
+        code.write(0x60);
+        code.write(0x00);
+        code.write(0x52);
+        code.write(0x60);
+        code.write(0x20);
+        code.write(0x60);
+        code.write(0x00);
+        code.write(0xF3);
+        evm.execute(code.toByteArray(), transaction(1_000_000));
+        return new BigInteger(1, evm.getReturnData());
+    }
+
+    private static void push32(ByteArrayOutputStream code, BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] word = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, word, 32 - length, length);
+        code.write(0x7F);
+        code.write(word, 0, 32);
+    }
+
+    private static BigInteger randomWord(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return BigInteger.valueOf(random.nextInt(1000));
+            case 1:
+                return new BigInteger(64, random);
+            default:
+                return new BigInteger(256, random);
+        }
+    }
+
+    private static Transaction transaction(int gasLimit) {
+        Transaction tx = new Transaction(new byte[0]);
+        tx.setRecipient("contract");
+        tx.setGasLimit(gasLimit);
+        return tx;
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.app.core.smartcontract;
+
+import org.example.app.core.block.Transaction;
+import org.example.app.core.storage.kv.MemoryKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Tests the journaled EVM state: word storage, snapshots, nested reverts, rollback of failed executions
+ * and the store-backed slot cache
+ */
+public class EvmStateTest {
+    private static final Logger LOGGER = Logger.getLogger(EvmStateTest.class.getName());
+
+    private static final String CONTRACT = "contract";
+
+    private EvmState evmState;
+
+    @BeforeEach
+    public void setUp() {
+        evmState = new EvmState();
+    }
+
+    /**
+     * Test that string keys and values round-trip through 32-byte words
+     */
+    @Test
+    public void testStringStorageRoundTrip() {
+        LOGGER.info("Starting testStringStorageRoundTrip");
+
+        String large = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE).toString();
+        evmState.store(CONTRACT, "1", "42");
+        evmState.store(CONTRACT, "owner", "0x1234567890");
+        evmState.store(CONTRACT, "2", large);
+        evmState.store(CONTRACT, "3", "007");
+
+        assertEquals("42", evmState.load(CONTRACT, "1"));
+        assertEquals("0x1234567890", evmState.load(CONTRACT, "owner"));
+        assertEquals(large, evmState.load(CONTRACT, "2"));
+        assertEquals("007", evmState.load(CONTRACT, "3"), "Non-canonical decimals are kept as strings");
+        assertEquals("0", evmState.load(CONTRACT, "unset"));
+        assertEquals(Word.of(42), evmState.loadWord(CONTRACT, Word.of(1)), "Decimal strings are numeric words");
+
+        evmState.store(CONTRACT, "1", "0");
+        assertFalse(evmState.getAccount(CONTRACT).getStorage().containsKey(Word.of(1)), "Zero clears the slot");
+    }
+
+    /**
+     * Test that reverting to nested snapshots restores storage, balance, nonce and accounts
+     */
+    @Test
+    public void testNestedSnapshots() {
+        LOGGER.info("Starting testNestedSnapshots");
+
+        evmState.storeWord(CONTRACT, Word.of(1), Word.of(10));
+        evmState.getAccount(CONTRACT).setBalance(BigInteger.valueOf(100));
+        evmState.commit();
+        assertEquals(0, evmState.getJournalSize());
+
+        int outer = evmState.snapshot();
+        evmState.storeWord(CONTRACT, Word.of(1), Word.of(11));
+        evmState.getAccount(CONTRACT).incrementNonce();
+
+        int inner = evmState.snapshot();
+        evmState.storeWord(CONTRACT, Word.of(1), Word.of(12));
+        evmState.storeWord(CONTRACT, Word.of(2), Word.of(20));
+        evmState.getAccount(CONTRACT).setBalance(BigInteger.valueOf(50));
+        evmState.getAccount("other").setCode(new byte[]{0x00});
+
+        evmState.revertToSnapshot(inner);
+        assertEquals(Word.of(11), evmState.loadWord(CONTRACT, Word.of(1)));
+        assertEquals(Word.ZERO, evmState.loadWord(CONTRACT, Word.of(2)));
+        assertEquals(BigInteger.valueOf(100), evmState.getAccount(CONTRACT).getBalance());
+        assertFalse(evmState.hasAccount("other"), "Accounts created after the snapshot are removed");
+
+        evmState.revertToSnapshot(outer);
+        assertEquals(Word.of(10), evmState.loadWord(CONTRACT, Word.of(1)));
+        assertEquals(0, evmState.getAccount(CONTRACT).getNonce());
+        assertEquals(outer, evmState.getJournalSize());
+
+        assertThrows(IllegalArgumentException.class, () -> evmState.revertToSnapshot(outer + 1));
+    }
+
+    /**
+     * Test that REVERT and failed executions roll back their storage writes
+     */
+    @Test
+    public void testExecutionRollback() {
+        LOGGER.info("Starting testExecutionRollback");
+
+        Evm evm = new Evm(evmState);
+        evmState.store(CONTRACT, "1", "5");
+
+        // PUSH1 9, PUSH1 1, SSTORE, PUSH1 0, PUSH1 0, REVERT
+        evm.execute(new byte[]{0x60, 0x09, 0x60, 0x01, 0x55, 0x60, 0x00, 0x60, 0x00, (byte) 0xFD}, transaction(100000));
+        assertTrue(evm.isReverted());
+        assertEquals("5", evmState.load(CONTRACT, "1"), "REVERT undoes the store");
+
+        // PUSH1 9, PUSH1 1, SSTORE, then ADD on an empty stack
+        assertThrows(RuntimeException.class,
+                () -> evm.execute(new byte[]{0x60, 0x09, 0x60, 0x01, 0x55, 0x01}, transaction(100000)));
+        assertEquals("5", evmState.load(CONTRACT, "1"), "A failed execution undoes the store");
+
+        evm.execute(new byte[]{0x60, 0x09, 0x60, 0x01, 0x55, 0x00}, transaction(100000));
+        assertEquals("9", evmState.load(CONTRACT, "1"));
+    }
+
+    /**
+     * Test that ending each transaction keeps the journal bounded, while executions stay
+     * revertible until their transaction ends
+     */
+    @Test
+    public void testJournalBoundedAcrossExecutions() {
+        LOGGER.info("Starting testJournalBoundedAcrossExecutions");
+
+        Evm evm = new Evm(evmState);
+        // PUSH1 1, SLOAD, PUSH1 1, ADD, PUSH1 1, SSTORE, STOP: storage[1] += 1
+        byte[] increment = {0x60, 0x01, 0x54, 0x60, 0x01, 0x01, 0x60, 0x01, 0x55, 0x00};
+        for (int i = 0; i < 1000; i++) {
+            evm.execute(increment, transaction(100000));
+            evmState.endTransaction();
+            assertEquals(0, evmState.getJournalSize(), "Transaction " + i + " leaves no journal entries");
+        }
+        assertEquals("1000", evmState.load(CONTRACT, "1"));
+
+        // A successful execution on an empty journal can still be reverted by its owner
+        int snapshot = evmState.snapshot();
+        evm.execute(increment, transaction(100000));
+        assertEquals("1001", evmState.load(CONTRACT, "1"));
+        evmState.revertToSnapshot(snapshot);
+        assertEquals("1000", evmState.load(CONTRACT, "1"));
+
+        evmState.store(CONTRACT, "2", "7");
+        evm.execute(increment, transaction(100000));
+        evmState.revertToSnapshot(snapshot);
+        assertEquals("1000", evmState.load(CONTRACT, "1"));
+        assertEquals("0", evmState.load(CONTRACT, "2"));
+    }
+
+    /**
+     * Test that a store-backed state prefetches slots in parallel and writes dirty slots at commit
+     */
+    @Test
+    public void testBackingStorePrefetchAndCommit() throws Exception {
+        LOGGER.info("Starting testBackingStorePrefetchAndCommit");
+
+        MemoryKeyValueStore store = new MemoryKeyValueStore();
+        store.put(new StorageSlot(CONTRACT, Word.of(1)).toStoreKey(), Word.of(5).toBytes());
+        EvmState backed = new EvmState(store);
+
+        // PUSH1 1, SLOAD, PUSH1 1, ADD, PUSH1 2, SSTORE: storage[2] = storage[1] + 1
+        byte[] code = {0x60, 0x01, 0x54, 0x60, 0x01, 0x01, 0x60, 0x02, 0x55, 0x00};
+        CodeCache cache = new CodeCache();
+        Set<StorageSlot> slots = cache.predictStorageSlots(CONTRACT, code);
+        assertEquals(Set.of(new StorageSlot(CONTRACT, Word.of(1)), new StorageSlot(CONTRACT, Word.of(2))), slots);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            backed.prefetch(slots, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(2, backed.getBackingReadCount());
+
+        new Evm(backed, cache).execute(code, transaction(100000));
+        assertEquals(2, backed.getBackingReadCount(), "Execution finds every slot prefetched");
+        assertEquals("6", backed.load(CONTRACT, "2"));
+        assertNull(store.get(new StorageSlot(CONTRACT, Word.of(2)).toStoreKey()), "Writes wait for the commit");
+        assertEquals(1, backed.getDirtySlotCount());
+
+        // A reverted write leaves nothing to commit for its slot
+        int snapshot = backed.snapshot();
+        backed.storeWord(CONTRACT, Word.of(1), Word.ZERO);
+        backed.revertToSnapshot(snapshot);
+        assertEquals(1, backed.getDirtySlotCount());
+
+        backed.commit();
+        assertEquals(0, backed.getDirtySlotCount());
+        assertArrayEquals(Word.of(6).toBytes(), store.get(new StorageSlot(CONTRACT, Word.of(2)).toStoreKey()));
+        assertEquals("5", backed.load(CONTRACT, "1"));
+
+        backed.storeWord(CONTRACT, Word.of(2), Word.ZERO);
+        backed.commit();
+        assertNull(store.get(new StorageSlot(CONTRACT, Word.of(2)).toStoreKey()), "Zero deletes the slot");
+        assertEquals("0", new EvmState(store).load(CONTRACT, "2"));
+    }
+
+    /**
+     * Test that ending a block drops the slot cache and preimages, which stay readable from the store
+     */
+    @Test
+    public void testEndBlockDropsCaches() {
+        LOGGER.info("Starting testEndBlockDropsCaches");
+
+        MemoryKeyValueStore store = new MemoryKeyValueStore();
+        EvmState backed = new EvmState(store);
+        backed.store(CONTRACT, "owner", "alice");
+        backed.store(CONTRACT, "1", "5");
+        assertEquals(2, backed.getCachedSlotCount());
+
+        backed.endBlock();
+        assertEquals(0, backed.getCachedSlotCount(), "The block's slot cache is dropped");
+        assertEquals(0, backed.getJournalSize());
+        assertEquals("alice", backed.load(CONTRACT, "owner"), "Preimages are read back from the store");
+        assertEquals("5", backed.load(CONTRACT, "1"));
+        assertEquals("alice", new EvmState(store).load(CONTRACT, "owner"));
+    }
+
+    private static Transaction transaction(int gasLimit) {
+        Transaction tx = new Transaction(new byte[0]);
+        tx.setRecipient(CONTRACT);
+        tx.setGasLimit(gasLimit);
+        return tx;
+    }
+}
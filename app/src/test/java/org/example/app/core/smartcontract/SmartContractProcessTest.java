@@ -219,6 +219,10 @@ public class SmartContractProcessTest {
         return new byte[] {
                 (byte) 0x60, 0x01,  // PUSH1 opcode (0x60) and key 1
                 (byte) 0x54,        // SLOAD opcode (0x54)
+                (byte) 0x60, 0x00,  // PUSH1 opcode (0x60) and memory offset 0
+                (byte) 0x52,        // MSTORE opcode (0x52)
+                (byte) 0x60, 0x20,  // PUSH1 opcode (0x60) and return length 32
+                (byte) 0x60, 0x00,  // PUSH1 opcode (0x60) and return offset 0
                 (byte) 0xF3         // RETURN opcode (0xF3)
         };
     }
@@ -0,0 +1,170 @@
+package org.example.app.core.state;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.storage.kv.MemoryKeyValueStore;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Tests the Merkle Patricia Trie, using known Ethereum trie roots
+ */
+public class MerkleTrieTest {
+    private static final Logger LOGGER = Logger.getLogger(MerkleTrieTest.class.getName());
+
+    /**
+     * Test roots against values from the Ethereum trie test suite
+     */
+    @Test
+    public void testKnownRoots() {
+        LOGGER.info("Starting testKnownRoots");
+
+        assertEquals("56e81f171bcc55a6ff8345e692c0f86e5b48e01b996cadc001622fb5e363b421",
+                hex(new MerkleTrie().getRootHash()));
+
+        MerkleTrie trie = new MerkleTrie();
+        trie.put("doe", "reindeer");
+        trie.put("dog", "puppy");
+        trie.put("dogglesworth", "cat");
+        assertEquals("8aad789dff2f538bca5d8ea56e8abe10f4c7ba3a5dea95fea4cd6e7c3a1168d3", hex(trie.getRootHash()));
+
+        trie = new MerkleTrie();
+        trie.put("do", "verb");
+        trie.put("horse", "stallion");
+        trie.put("doge", "coin");
+        trie.put("dog", "puppy");
+        assertEquals("5991bb8c6514148a29db676a14ac506cd2cd5775ace63c30a4fe457715e9ac84", hex(trie.getRootHash()));
+        assertEquals("coin", trie.get("doge"));
+    }
+
+    /**
+     * Test that deleting an added key restores the previous root
+     */
+    @Test
+    public void testDeleteRestoresRoot() {
+        LOGGER.info("Starting testDeleteRestoresRoot");
+
+        MerkleTrie trie = new MerkleTrie();
+        trie.put("do", "verb");
+        trie.put("dog", "puppy");
+        byte[] before = trie.getRootHash();
+        trie.put("doge", "coin");
+        trie.remove("doge");
+        assertArrayEquals(before, trie.getRootHash(), "Root should be restored after delete");
+        trie.remove("do");
+        trie.remove("dog");
+        assertArrayEquals(MerkleTrie.EMPTY_ROOT, trie.getRootHash(), "Empty trie should have the empty root");
+    }
+
+    /**
+     * Test random updates over several commits and reopens against a map and a fresh trie
+     */
+    @Test
+    public void testRandomUpdatesAcrossCommits() throws Exception {
+        LOGGER.info("Starting testRandomUpdatesAcrossCommits");
+
+        MemoryKeyValueStore store = new MemoryKeyValueStore();
+        MerkleTrie trie = new MerkleTrie(store, null, 64);
+        TreeMap<String, String> reference = new TreeMap<>();
+        Random random = new Random(7);
+        byte[] root = null;
+
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 200; i++) {
+                String key = "account-" + random.nextInt(1500);
+                if (random.nextInt(3) == 0) {
+                    trie.remove(key);
+                    reference.remove(key);
+                } else {
+                    String value = "balance-" + random.nextInt();
+                    trie.put(key, value);
+                    reference.put(key, value);
+                }
+            }
+            root = trie.commit();
+            if (round % 10 == 9) {
+                trie = new MerkleTrie(store, root, 64);
+            }
+        }
+
+        MerkleTrie rebuilt = new MerkleTrie();
+        reference.forEach(rebuilt::put);
+        assertArrayEquals(root, rebuilt.getRootHash(), "Incremental root should equal a rebuilt root");
+        assertEquals(reference, trie.getAll());
+
+        for (int i = 0; i < 1500; i++) {
+            assertEquals(reference.get("account-" + i), trie.get("account-" + i), "Lookup of account-" + i);
+        }
+    }
+
+    /**
+     * Test that a commit after a few updates rehashes only the touched paths
+     */
+    @Test
+    public void testIncrementalCommit() throws Exception {
+        LOGGER.info("Starting testIncrementalCommit");
+
+        MerkleTrie trie = new MerkleTrie();
+        for (int i = 0; i < 20000; i++) {
+            trie.put(("account-" + i).getBytes(), ("balance-" + i).getBytes());
+        }
+        trie.commit();
+        long fullHashes = trie.getHashedNodeCount();
+
+        for (int i = 0; i < 10; i++) {
+            trie.put(("account-" + (i * 1999)).getBytes(), "updated".getBytes());
+        }
+        trie.commit();
+        long incrementalHashes = trie.getHashedNodeCount() - fullHashes;
+
+        LOGGER.info("Full commit hashed " + fullHashes + " nodes, 10 updates hashed " + incrementalHashes);
+        assertTrue(incrementalHashes < 100, "Ten updates should rehash only a few paths");
+        assertEquals("updated", trie.get("account-1999"));
+    }
+
+    /**
+     * Test that nodes hashed by getRootHash and then replaced are not written at commit
+     */
+    @Test
+    public void testCommitStoresOnlyReachableNodes() throws Exception {
+        LOGGER.info("Starting testCommitStoresOnlyReachableNodes");
+
+        MemoryKeyValueStore store = new MemoryKeyValueStore();
+        MerkleTrie trie = new MerkleTrie(store, null, 64);
+        MemoryKeyValueStore directStore = new MemoryKeyValueStore();
+        MerkleTrie direct = new MerkleTrie(directStore, null, 64);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 200; i++) {
+                trie.put("account-" + i, "balance-" + round + "-" + i);
+            }
+            trie.getRootHash();
+        }
+        for (int i = 0; i < 200; i++) {
+            direct.put("account-" + i, "balance-4-" + i);
+        }
+
+        byte[] root = trie.commit();
+        assertArrayEquals(root, direct.commit(), "Roots should match");
+        assertEquals(count(directStore), count(store));
+        assertEquals("balance-4-7", new MerkleTrie(store, root, 64).get("account-7"));
+    }
+
+    private static int count(MemoryKeyValueStore store) {
+        int entries = 0;
+        for (var it = store.scan(null, null); it.hasNext(); it.next()) {
+            entries++;
+        }
+        return entries;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
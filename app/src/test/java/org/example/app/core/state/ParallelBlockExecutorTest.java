@@ -0,0 +1,119 @@
+package org.example.app.core.state;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Tests optimistic parallel execution, checked against sequential execution
+ */
+public class ParallelBlockExecutorTest {
+    private static final Logger LOGGER = Logger.getLogger(ParallelBlockExecutorTest.class.getName());
+
+    private ExecutorService pool; // Workers shared by the executors of one test
+
+    @BeforeEach
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Test random transfers, mostly between disjoint accounts with a few hot ones
+     */
+    @Test
+    public void testTransfersMatchSequential() {
+        LOGGER.info("Starting testTransfersMatchSequential");
+
+        Random random = new Random(11);
+        int count = 5000;
+        int[][] transfers = new int[count][];
+        for (int i = 0; i < count; i++) {
+            boolean hot = random.nextInt(10) == 0;
+            int from = hot ? random.nextInt(5) : 5 + random.nextInt(20000);
+            int to = hot ? random.nextInt(5) : 5 + random.nextInt(20000);
+            transfers[i] = new int[]{from, to, 1 + random.nextInt(100)};
+        }
+        Map<Integer, Long> base = new HashMap<>();
+        for (int i = 0; i < 20005; i++) {
+            base.put(i, 1000L);
+        }
+
+        Map<Integer, Long> expected = new HashMap<>(base);
+        for (int[] transfer : transfers) {
+            long amount = Math.min(transfer[2], expected.get(transfer[0]));
+            expected.put(transfer[0], expected.get(transfer[0]) - amount);
+            expected.put(transfer[1], expected.get(transfer[1]) + amount);
+        }
+
+        ParallelBlockExecutor<Integer, Long> executor = new ParallelBlockExecutor<>(pool, 4);
+        List<Map<Integer, Long>> writeSets = executor.execute(count, base::get, (index, context) -> {
+            int[] transfer = transfers[index];
+            long amount = Math.min(transfer[2], context.read(transfer[0]));
+            context.write(transfer[0], context.read(transfer[0]) - amount);
+            context.write(transfer[1], context.read(transfer[1]) + amount);
+        });
+
+        Map<Integer, Long> actual = new HashMap<>(base);
+        writeSets.forEach(actual::putAll);
+        assertEquals(expected, actual, "Parallel balances should match sequential execution");
+        LOGGER.info("Executions: " + executor.getExecutionCount() + ", re-executions: "
+                + executor.getReexecutionCount());
+        assertTrue(executor.getReexecutionCount() < count / 5,
+                "Mostly disjoint transfers should rarely re-execute");
+    }
+
+    /**
+     * Test a block where every transaction depends on the previous one
+     */
+    @Test
+    public void testDependentChain() {
+        LOGGER.info("Starting testDependentChain");
+
+        ParallelBlockExecutor<String, Long> executor = new ParallelBlockExecutor<>(pool, 4);
+        List<Map<String, Long>> writeSets = executor.execute(1000, key -> 0L,
+                (index, context) -> context.write("counter", context.read("counter") + 1));
+        assertEquals(1000L, (long) writeSets.get(999).get("counter"));
+        assertEquals(500L, (long) writeSets.get(499).get("counter"));
+    }
+
+    /**
+     * Test that a transaction failing only on speculative state is re-executed, and a real failure is thrown
+     */
+    @Test
+    public void testSpeculativeFailureIsRetried() {
+        LOGGER.info("Starting testSpeculativeFailureIsRetried");
+
+        ParallelBlockExecutor<String, Long> executor = new ParallelBlockExecutor<>(pool, 4);
+        List<Map<String, Long>> writeSets = executor.execute(200, key -> null, (index, context) -> {
+            if (index == 0) {
+                context.write("created", 1L);
+            } else {
+                // Throws if the write of transaction 0 has not been seen yet
+                context.write("reader-" + index, context.read("created") + index);
+            }
+        });
+        assertEquals(200L, (long) writeSets.get(199).get("reader-199"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> executor.execute(10, key -> 0L, (index, context) -> {
+                    if (index == 7) {
+                        throw new IllegalStateException("invalid transaction");
+                    }
+                }), "Real failure should be thrown");
+        assertEquals("invalid transaction", e.getMessage());
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.app.core.state;
+
+import org.example.app.core.block.Block;
+import org.example.app.core.block.Transaction;
+import org.example.app.core.smartcontract.EvmState;
+import org.example.app.core.smartcontract.Word;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Tests block execution: transfers, contract creation and contract calls
+ */
+public class StateTransitionTest {
+    private static final Logger LOGGER = Logger.getLogger(StateTransitionTest.class.getName());
+
+    private ExecutorService pool;       // Workers of the parallel block executor
+    private EvmState evmState;          // Contract state the blocks run against
+    private StateTransition transition; // Block executor under test
+    private long blockNumber;           // Number of the last block applied
+
+    @BeforeEach
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        evmState = new EvmState();
+        transition = new StateTransition(new MerkleTrie(), pool, 4, evmState);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Test that contract addresses depend on the sender and its nonce
+     */
+    @Test
+    public void testContractAddresses() {
+        LOGGER.info("Starting testContractAddresses");
+
+        String address = StateTransition.generateContractAddress("alice", 1);
+        assertEquals(40, address.length(), "Address should be 20 bytes of hex");
+        assertEquals(address, StateTransition.generateContractAddress("alice", 1));
+        assertNotEquals(address, StateTransition.generateContractAddress("alice", 2));
+        assertNotEquals(address, StateTransition.generateContractAddress("bob", 1));
+    }
+
+    /**
+     * Test that two contracts deployed in one block get their own code and are both callable
+     */
+    @Test
+    public void testDeployAndCallTwoContractsInOneBlock() {
+        LOGGER.info("Starting testDeployAndCallTwoContractsInOneBlock");
+
+        for (String miner : List.of("alice", "bob", "carol", "dave")) {
+            applyBlock(miner, new ArrayList<>()); // Funds each sender with a block reward
+        }
+
+        // Each contract stores its own constant in slot 0
+        String first = StateTransition.generateContractAddress("alice", 1);
+        String second = StateTransition.generateContractAddress("bob", 1);
+        assertNotEquals(first, second, "Contracts should be deployed at different addresses");
+
+        List<Transaction> transactions = new ArrayList<>();
+        transactions.add(creation("alice", new byte[]{0x60, 0x2a, 0x60, 0x00, 0x55, 0x00}));
+        transactions.add(creation("bob", new byte[]{0x60, 0x07, 0x60, 0x00, 0x55, 0x00}));
+        transactions.add(call("carol", first));
+        transactions.add(call("dave", second));
+        applyBlock("miner", transactions);
+
+        assertEquals(Word.of(42), evmState.loadWord(first, Word.ZERO), "First contract should have run");
+        assertEquals(Word.of(7), evmState.loadWord(second, Word.ZERO), "Second contract should have run");
+    }
+
+    private void applyBlock(String miner, List<Transaction> transactions) {
+        blockNumber++;
+        transition.applyStateTransition(new Block("block-" + blockNumber, "block-" + (blockNumber - 1), miner,
+                blockNumber, 1, blockNumber, transactions));
+    }
+
+    private static Transaction creation(String sender, byte[] code) {
+        Transaction tx = transaction(sender, code);
+        tx.setContractCreation(true);
+        return tx;
+    }
+
+    private static Transaction call(String sender, String contract) {
+        Transaction tx = transaction(sender, new byte[0]);
+        tx.setRecipient(contract);
+        tx.setContractCall(true);
+        return tx;
+    }
+
+    private static Transaction transaction(String sender, byte[] data) {
+        Transaction tx = new Transaction(data);
+        tx.setSender(sender);
+        tx.setNonce(1);
+        tx.setGasLimit(100_000);
+        return tx;
+    }
+}
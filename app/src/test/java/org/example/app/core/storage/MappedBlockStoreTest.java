@@ -0,0 +1,145 @@
+package org.example.app.core.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.block.Block;
+import org.example.app.core.block.Transaction;
+import org.example.app.core.config.StorageConfig;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tests the memory-mapped block store, including recovery after a torn write
+ */
+public class MappedBlockStoreTest {
+    private static final Logger LOGGER = Logger.getLogger(MappedBlockStoreTest.class.getName());
+
+    /**
+     * Test storing and reading blocks by hash and height, with and without compression
+     */
+    @Test
+    public void testPutAndGet(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testPutAndGet");
+
+        for (boolean compression : new boolean[]{false, true}) {
+            Path storeDir = dir.resolve(compression ? "compressed" : "plain");
+            try (MappedBlockStore store = new MappedBlockStore(config(storeDir, compression))) {
+                Block block = newBlock(1, 4);
+                store.put(block);
+
+                Block loaded = store.get("hash-1");
+                assertEquals(block.getParentHash(), loaded.getParentHash());
+                assertEquals(block.getTransactions(), loaded.getTransactions());
+                assertEquals("hash-1", store.getByNumber(1).getHash());
+                assertEquals(4, store.getView("hash-1").getTransactionCount());
+                assertNull(store.get("missing"), "Missing block should be null");
+            }
+        }
+    }
+
+    /**
+     * Test that blocks and removals survive closing and reopening the store
+     */
+    @Test
+    public void testReopenAndRemove(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testReopenAndRemove");
+
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, true))) {
+            for (int i = 0; i < 10; i++) {
+                store.put(newBlock(i, 2));
+            }
+            store.remove("hash-9");
+            store.remove("hash-3");
+        }
+
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, true))) {
+            assertEquals(8, store.size());
+            assertFalse(store.contains("hash-3"), "Removed block should stay removed");
+            assertEquals(8L, store.getLatestNumber());
+            assertEquals("hash-5", store.get("hash-5").getHash());
+        }
+    }
+
+    /**
+     * Test that a partially written record at the tail is discarded on reopen
+     */
+    @Test
+    public void testRecoveryFromTornRecord(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testRecoveryFromTornRecord");
+
+        int tail;
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, false))) {
+            store.put(newBlock(1, 1));
+            store.put(newBlock(2, 1));
+            tail = MappedBlockStore.RECORD_HEADER_SIZE * 2 + store.getView("hash-1").getEncodedSize()
+                    + store.getView("hash-2").getEncodedSize();
+        }
+
+        // Simulate a crash midway through a record: a length and garbage, but no valid checksum
+        Path segment = dir.resolve(MappedBlockStore.SEGMENT_DIRECTORY).resolve("segment-00000000.dat");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(tail);
+            file.writeInt(500);
+            file.writeInt(12345);
+            file.write(new byte[]{0, 7, 7, 7});
+        }
+
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, false))) {
+            assertEquals(2, store.size());
+            store.put(newBlock(3, 1));
+        }
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, false))) {
+            assertEquals(3, store.size());
+            assertEquals("hash-3", store.getByNumber(3).getHash());
+        }
+    }
+
+    /**
+     * Test that appends roll over into new segments once one is full
+     */
+    @Test
+    public void testSegmentRollover(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testSegmentRollover");
+
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, false))) {
+            // About 200KB per block with 1MB segments
+            for (int i = 0; i < 12; i++) {
+                store.put(newBlock(i, 800));
+            }
+            assertTrue(store.getSegmentCount() > 1, "Blocks should span several segments");
+        }
+        try (MappedBlockStore store = new MappedBlockStore(config(dir, false))) {
+            assertEquals(12, store.size());
+            assertEquals(800, store.get("hash-0").getTransactions().size());
+            assertEquals(800, store.get("hash-11").getTransactions().size());
+        }
+    }
+
+    private static StorageConfig config(Path dir, boolean compression) {
+        return new StorageConfig.Builder()
+                .dataDir(dir.toString())
+                .writeBuffer(1)
+                .cacheSize(1)
+                .compression(compression)
+                .build();
+    }
+
+    private static Block newBlock(long number, int txCount) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < txCount; i++) {
+            Transaction tx = new Transaction(("payload-" + number + "-" + i + "-" + "x".repeat(200)).getBytes());
+            tx.setSender("sender-" + i);
+            tx.setValue(100L * i);
+            transactions.add(tx);
+        }
+        return new Block("hash-" + number, "parent-" + number, "miner", 1700000000000L + number,
+                1000, number, transactions);
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.app.core.storage.kv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.example.app.core.state.StateDB;
+import org.example.app.core.state.StateManager;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Tests the log-structured key-value store, checked against a TreeMap
+ */
+public class LsmKeyValueStoreTest {
+    private static final Logger LOGGER = Logger.getLogger(LsmKeyValueStoreTest.class.getName());
+
+    /**
+     * Test random puts and deletes across many flushes and compactions, then reopen
+     */
+    @Test
+    public void testRandomOperationsMatchReference(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testRandomOperationsMatchReference");
+
+        TreeMap<String, String> reference = new TreeMap<>();
+        Random random = new Random(42);
+
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, smallOptions())) {
+            for (int i = 0; i < 20000; i++) {
+                String key = "account-" + random.nextInt(3000);
+                if (random.nextInt(4) == 0) {
+                    store.delete(bytes(key));
+                    reference.remove(key);
+                } else {
+                    String value = "balance-" + i;
+                    store.put(bytes(key), bytes(value));
+                    reference.put(key, value);
+                }
+            }
+            store.flush();
+            assertTrue(store.getTableCount() < 12, "Compaction should keep the table count low");
+            assertMatches(store, reference);
+        }
+
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, smallOptions())) {
+            store.compact();
+            assertMatches(store, reference);
+            assertEquals(reference.size(), count(store.scan(null, null)));
+        }
+    }
+
+    /**
+     * Test that unflushed writes are replayed from the write-ahead log, ignoring a torn record
+     */
+    @Test
+    public void testRecoveryFromWriteAheadLog(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testRecoveryFromWriteAheadLog");
+
+        LsmKeyValueStore.Options options = new LsmKeyValueStore.Options.Builder().build();
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, options)) {
+            store.put(bytes("a"), bytes("1"));
+            store.put(bytes("b"), bytes("2"));
+            store.delete(bytes("a"));
+            assertEquals(0, store.getTableCount());
+        }
+
+        // Simulate a crash during an append: a record header with no payload
+        try (Stream<Path> files = Files.list(dir)) {
+            Path log = files.filter(p -> p.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+            Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3, 4}, java.nio.file.StandardOpenOption.APPEND);
+        }
+
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, options)) {
+            assertNull(store.get(bytes("a")), "Deleted key should stay deleted");
+            assertEquals("2", string(store.get(bytes("b"))));
+            assertEquals(1, store.getTableCount());
+        }
+    }
+
+    /**
+     * Test atomic batches and bounded range scans
+     */
+    @Test
+    public void testBatchAndScan(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testBatchAndScan");
+
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, smallOptions())) {
+            WriteBatch batch = new WriteBatch();
+            for (int i = 0; i < 100; i++) {
+                batch.put(bytes(String.format("k%03d", i)), bytes("v" + i));
+            }
+            store.write(batch);
+            store.flush();
+            store.write(new WriteBatch().delete(bytes("k011")).put(bytes("k012"), bytes("new")));
+
+            Iterator<Map.Entry<byte[], byte[]>> range = store.scan(bytes("k010"), bytes("k015"));
+            StringBuilder keys = new StringBuilder();
+            while (range.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = range.next();
+                keys.append(string(entry.getKey())).append('=').append(string(entry.getValue())).append(' ');
+            }
+            assertEquals("k010=v10 k012=new k013=v13 k014=v14 ", keys.toString());
+        }
+    }
+
+    /**
+     * Test StateDB and StateManager on top of the store
+     */
+    @Test
+    public void testStateDBOnStore(@TempDir Path dir) throws IOException {
+        LOGGER.info("Starting testStateDBOnStore");
+
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, smallOptions())) {
+            StateManager manager = new StateManager(store);
+            manager.updateState("0xabc", BigInteger.valueOf(100), new byte[]{1, 2});
+            manager.updateBalance("0xabc", BigInteger.valueOf(-30));
+            manager.updateState("0xdef", BigInteger.ONE, null);
+            manager.removeState("0xdef");
+        }
+        try (LsmKeyValueStore store = new LsmKeyValueStore(dir, smallOptions())) {
+            StateDB stateDB = new StateDB(store);
+            assertEquals(BigInteger.valueOf(70), stateDB.get("0xabc").getBalance());
+            assertArrayEquals(new byte[]{1, 2}, stateDB.get("0xabc").getCode(), "Code should round trip");
+            assertEquals(1, stateDB.getAll().size());
+        }
+    }
+
+    private static LsmKeyValueStore.Options smallOptions() {
+        return new LsmKeyValueStore.Options.Builder()
+                .memtableSize(32 * 1024)
+                .blockSize(512)
+                .build();
+    }
+
+    private static void assertMatches(KeyValueStore store, TreeMap<String, String> reference) {
+        for (int i = 0; i < 3000; i++) {
+            String key = "account-" + i;
+            byte[] value = store.get(bytes(key));
+            assertEquals(reference.get(key), value == null ? null : string(value), "Value of " + key);
+        }
+    }
+
+    private static int count(Iterator<?> iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}